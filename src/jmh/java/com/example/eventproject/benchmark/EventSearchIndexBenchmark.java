@@ -0,0 +1,99 @@
+package com.example.eventproject.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.example.eventproject.dto.EventSearchHit;
+import com.example.eventproject.dto.EventSearchSource;
+import com.example.eventproject.service.EventSearchIndex;
+
+/**
+ * เวลาค้นต่อคำค้นบน catalog สังเคราะห์ (ค่าเริ่มต้น 100k event ไทย + อังกฤษปนกัน)
+ * รัน: ./gradlew jmh -PjmhInclude=EventSearchIndexBenchmark
+ * เทียบ: LIKE '%…%' บน MySQL ต้อง scan ทุกแถวรวม description ทุกครั้ง
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventSearchIndexBenchmark {
+
+    private static final String[] EN = {
+            "jazz", "rock", "festival", "night", "concert", "live", "tour", "summer", "arena", "music",
+            "orchestra", "comedy", "theatre", "symphony", "acoustic", "dance", "indie", "pop", "world", "tribute"
+    };
+    private static final String[] TH = {
+            "คอนเสิร์ต", "เทศกาล", "ดนตรี", "ริมทะเล", "กรุงเทพ", "เชียงใหม่", "ภูเก็ต", "ละครเวที",
+            "แฟนมีตติ้ง", "ออร์เคสตรา", "ตลกเดี่ยว", "งานวัด", "ถ่ายภาพ", "ลูกทุ่ง", "หมอลำ", "ฤดูร้อน"
+    };
+    private static final String[] CATEGORIES = {"concert", "festival", "theatre", "workshop", "sport"};
+    private static final String[] LOCATIONS = {"Impact Arena", "ธันเดอร์โดม", "Bangkok", "พัทยา", "Khon Kaen"};
+
+    @Param("100000")
+    public int events;
+
+    private EventSearchIndex index;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new Random(42);
+        index = new EventSearchIndex();
+        for (int id = 1; id <= events; id++) index.put(randomEvent(id));
+    }
+
+    @Benchmark
+    public List<EventSearchHit> englishTwoWords() {
+        return index.search("jazz festival", 20);
+    }
+
+    @Benchmark
+    public List<EventSearchHit> thaiWord() {
+        return index.search("คอนเสิร์ต", 20);
+    }
+
+    /** พิมพ์ไปค้นไป: คำสุดท้ายยังไม่ครบ */
+    @Benchmark
+    public List<EventSearchHit> prefixAutocomplete() {
+        return index.search("summer or", 8);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<EventSearchHit> thaiWordFourThreads() {
+        return index.search("เทศกาลดนตรี", 20);
+    }
+
+    /** แก้ event หนึ่งตัว (ถอด term เดิม + ใส่ใหม่) */
+    @Benchmark
+    public void incrementalUpdate() {
+        int id = 1 + random.nextInt(events);
+        index.put(randomEvent(id));
+    }
+
+    private EventSearchSource randomEvent(int id) {
+        String title = pick(EN) + " " + pick(TH) + " " + pick(EN) + " " + (2020 + random.nextInt(8));
+        StringBuilder description = new StringBuilder();
+        for (int w = 0; w < 30; w++) {
+            description.append(random.nextBoolean() ? pick(EN) : pick(TH)).append(random.nextInt(4) == 0 ? " " : "");
+        }
+        return new EventSearchSource(id, title, pick(CATEGORIES), pick(LOCATIONS), description.toString(),
+                LocalDate.of(2026, 1, 1).plusDays(random.nextInt(365)));
+    }
+
+    private String pick(String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.eventproject.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.eventproject.config.JwtAuthFilter;
+import com.example.eventproject.config.JwtUtil;
+import com.example.eventproject.config.TokenVersionCache;
+import com.example.eventproject.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+/**
+ * จำนวน request ที่ผ่าน JwtAuthFilter ได้ต่อวินาที (ops/s = requests/s)
+ * รัน: ./gradlew jmh -PjmhInclude=JwtAuthFilterBenchmark
+ * - cold: ปิด cache token ที่ตรวจแล้ว → ตรวจ HMAC + parse JSON ทุก request
+ * - warm: token เดิมซ้ำ → claims จาก cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtAuthFilterBenchmark {
+
+    private static final String EMAIL = "bench@example.com";
+
+    private JwtAuthFilter coldFilter;
+    private JwtAuthFilter warmFilter;
+    private String token;
+
+    private final FilterChain controller = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        // token version ของผู้ใช้อยู่ใน cache ตั้งแต่ request แรก → วัดเฉพาะงานของ JWT
+        UserRepository users = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> "findTokenVersion".equals(method.getName()) ? Optional.of(0) : null);
+        TokenVersionCache versions = new TokenVersionCache(users, new SimpleMeterRegistry(), 10_000, 60_000);
+
+        JwtUtil uncached = new JwtUtil(0);
+        JwtUtil cached = new JwtUtil(10_000);
+        coldFilter = new JwtAuthFilter(uncached, versions);
+        warmFilter = new JwtAuthFilter(cached, versions);
+        token = cached.generateToken(EMAIL, "USER", "Bench", 0);
+    }
+
+    @Benchmark
+    public Authentication cold() throws Exception {
+        return filter(coldFilter);
+    }
+
+    @Benchmark
+    public Authentication warm() throws Exception {
+        return filter(warmFilter);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Authentication warmFourThreads() throws Exception {
+        return filter(warmFilter);
+    }
+
+    private Authentication filter(JwtAuthFilter filter) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/registrations/me");
+        req.setServletPath("/api/registrations/me");
+        req.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(req, new MockHttpServletResponse(), controller);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
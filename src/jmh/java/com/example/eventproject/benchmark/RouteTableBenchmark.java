@@ -0,0 +1,104 @@
+package com.example.eventproject.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import com.example.eventproject.config.RouteTable;
+import com.example.eventproject.config.SecurityConfig;
+
+/**
+ * จำนวน request ที่จับคู่กับกฎสิทธิ์ได้ต่อวินาที (ops/s = requests/s, วน path ตัวอย่างทีละตัว)
+ * รัน: ./gradlew jmh -PjmhInclude=RouteTableBenchmark
+ * - bypassChain / bypassTrie: เช็คว่า JwtAuthFilter ข้ามได้ไหม (equals / startsWith เดิม เทียบกับ trie)
+ * - authorizeMatcherList / authorizeTrie: หา rule แรกที่ตรง (requestMatchers ไล่ทีละตัว เทียบกับ trie)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RouteTableBenchmark {
+
+    private static final String[][] SAMPLES = {
+            {"GET", "/api/registrations/me"},
+            {"GET", "/api/events/42"},
+            {"POST", "/api/registrations/batch"},
+            {"GET", "/api/queue/status"},
+            {"PUT", "/api/users/a@b.com/role"},
+            {"GET", "/api/registrations/by-ref/ABC123"},
+            {"POST", "/api/auth/login"},
+            {"GET", "/api/users/me"},
+    };
+
+    private RouteTable routes;
+    private List<RequestMatcher> matchers;
+    private MockHttpServletRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        routes = SecurityConfig.ROUTES;
+        matchers = new ArrayList<>();
+        for (RouteTable.Rule rule : routes.rules()) {
+            matchers.add(new AntPathRequestMatcher(rule.pattern(), rule.method()));
+        }
+        requests = new MockHttpServletRequest[SAMPLES.length];
+        for (int i = 0; i < SAMPLES.length; i++) {
+            requests[i] = new MockHttpServletRequest(SAMPLES[i][0], SAMPLES[i][1]);
+            requests[i].setServletPath(SAMPLES[i][1]);
+        }
+    }
+
+    @Benchmark
+    public boolean bypassChain() {
+        MockHttpServletRequest req = nextRequest();
+        String path = req.getServletPath();
+        String method = req.getMethod();
+        // เงื่อนไขเดิมของ JwtAuthFilter
+        return "OPTIONS".equalsIgnoreCase(method)
+                || path.equals("/api/auth/register")
+                || path.equals("/api/auth/login")
+                || path.startsWith("/v3/api-docs")
+                || path.startsWith("/swagger-ui")
+                || path.startsWith("/swagger-resources")
+                || path.startsWith("/webjars")
+                || path.startsWith("/images/")
+                || "/error".equals(path);
+    }
+
+    @Benchmark
+    public boolean bypassTrie() {
+        return routes.skipsJwt(nextRequest());
+    }
+
+    @Benchmark
+    public int authorizeMatcherList() {
+        MockHttpServletRequest req = nextRequest();
+        for (int i = 0; i < matchers.size(); i++) {
+            if (matchers.get(i).matches(req)) return i;
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public int authorizeTrie() {
+        RouteTable.Rule rule = routes.match(nextRequest());
+        return rule == null ? -1 : rule.order();
+    }
+
+    private MockHttpServletRequest nextRequest() {
+        MockHttpServletRequest req = requests[next];
+        next = (next + 1) % requests.length;
+        return req;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.eventproject.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.example.eventproject.service.TicketCodeGenerator;
+
+/**
+ * จำนวนรหัสตั๋วที่ออกได้ต่อวินาที (ops/s = codes/s)
+ * รัน: ./gradlew jmh -PjmhInclude=TicketCodeGeneratorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TicketCodeGeneratorBenchmark {
+
+    private TicketCodeGenerator generator;
+    private String prefix;
+
+    @Setup
+    public void setUp() {
+        generator = new TicketCodeGenerator(1);
+        prefix = TicketCodeGenerator.prefixOf("Rock & Roll Festival 2025");
+    }
+
+    @Benchmark
+    public String singleThread() {
+        return generator.next(prefix);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String fourThreads() {
+        return generator.next(prefix);
+    }
+
+    /** รวม prefixOf ด้วย (เทียบกับโค้ดเดิมที่ทำ regex ทุกใบ) */
+    @Benchmark
+    public String prefixPerTicket() {
+        return generator.next(TicketCodeGenerator.prefixOf("Rock & Roll Festival 2025"));
+    }
+}
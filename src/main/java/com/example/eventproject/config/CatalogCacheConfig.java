@@ -0,0 +1,34 @@
+package com.example.eventproject.config;
+
+import java.time.Clock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * ลงทะเบียน cache ผลลัพธ์ JSON ของหน้า catalog
+ * (ลำดับท้ายสุด → ทำงานหลัง Spring Security เสมอ)
+ */
+@Configuration
+public class CatalogCacheConfig {
+
+    @Bean
+    public CatalogResponseCacheFilter catalogResponseCacheFilter(
+            Clock clock,
+            @Value("${app.catalog.response-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${app.catalog.response-cache.ttl-ms:300000}") long ttlMs,
+            @Value("${app.catalog.response-cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+        return new CatalogResponseCacheFilter(() -> clock.millis() * 1_000_000L, maxBytes, ttlMs, gzipMinBytes);
+    }
+
+    @Bean
+    public FilterRegistrationBean<CatalogResponseCacheFilter> catalogResponseCacheRegistration(
+            CatalogResponseCacheFilter filter) {
+        FilterRegistrationBean<CatalogResponseCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+}
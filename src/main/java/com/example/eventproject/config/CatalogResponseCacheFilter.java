@@ -0,0 +1,213 @@
+package com.example.eventproject.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.example.eventproject.service.EventCatalogChangedEvent;
+import com.example.eventproject.service.ZoneTemplatesChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * cache ผลลัพธ์ JSON ของหน้า catalog เป็น byte[] ที่ encode เสร็จแล้ว
+ * --------------------------------------------------------------
+ * - GET /api/events, /api/events/{id}, /api/events/{id}/sessions, /api/zone-templates
+ * - hit → เขียน byte[] ออกไปตรง ๆ (ไม่ผ่าน controller / service / Jackson / DB)
+ * - If-None-Match ตรงกับ ETag → 304 ทันที / client รับ gzip ได้ → ส่งฉบับบีบอัดที่เตรียมไว้
+ * - ETag = hash ของเนื้อหา → ข้อมูลเท่ากันได้ ETag เดียวกันแม้โหลดใหม่หรืออยู่คนละ node
+ * - ล้างหลัง commit เมื่อแก้ event (EventCatalogChangedEvent) / template (ZoneTemplatesChangedEvent)
+ *   version นับทุกการล้าง → ผลที่โหลดคร่อมการแก้จะไม่ถูกเก็บ / node อื่นแก้ → เห็นภายใน ttl-ms
+ * - วางหลัง security filter → /api/zone-templates ยังต้อง login เหมือนเดิม
+ */
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String EVENTS = "/api/events";
+    private static final String TEMPLATES = "/api/zone-templates";
+    private static final String SESSIONS_SUFFIX = "/sessions";
+
+    private final Cache<String, Entry> entries;
+    private final int gzipMinBytes;
+    private final AtomicLong version = new AtomicLong();
+
+    public CatalogResponseCacheFilter(Ticker ticker, long maxBytes, long ttlMs, int gzipMinBytes) {
+        this.gzipMinBytes = gzipMinBytes;
+        this.entries = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry e) -> e.json().length + (e.gzip() == null ? 0 : e.gzip().length))
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        return !"GET".equalsIgnoreCase(req.getMethod())
+                || req.getQueryString() != null
+                || keyOf(req.getServletPath()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req,
+                                    HttpServletResponse res,
+                                    FilterChain chain)
+            throws ServletException, IOException {
+
+        String key = keyOf(req.getServletPath());
+        Entry cached = entries.getIfPresent(key);
+        if (cached != null) {
+            write(req, res, cached);
+            return;
+        }
+
+        // ===== MISS: ให้ controller ทำงานตามปกติ แล้วเก็บ byte[] ที่ได้ =====
+        long versionBefore = version.get();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(res);
+        chain.doFilter(req, wrapper);
+
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || !isJson(wrapper.getContentType())) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        Entry entry = Entry.of(wrapper.getContentAsByteArray(), gzipMinBytes);
+        // มีการแก้ catalog ระหว่างโหลด → ส่งผลนี้ไปได้ แต่ไม่เก็บ (อาจเป็นข้อมูลก่อนแก้)
+        if (version.get() == versionBefore) {
+            entries.put(key, entry);
+        }
+        wrapper.resetBuffer();
+        write(req, res, entry);
+    }
+
+    /* ==========================================================
+       INVALIDATION — หลัง commit เท่านั้น
+       ========================================================== */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(EventCatalogChangedEvent event) {
+        version.incrementAndGet();
+        entries.invalidate(EVENTS);
+        entries.invalidate(EVENTS + "/" + event.eventId());
+        entries.invalidate(EVENTS + "/" + event.eventId() + SESSIONS_SUFFIX);
+    }
+
+    /** templateIds อยู่ในเอกสาร event / session ด้วย → ล้างทั้งหมด */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplatesChanged(ZoneTemplatesChangedEvent event) {
+        version.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    /* ==========================================================
+       UTILITIES
+       ========================================================== */
+
+    /** path ที่ cache ได้ → key (ใช้ path ที่ normalize แล้ว) / อื่น ๆ → null */
+    static String keyOf(String path) {
+        if (path == null) return null;
+        if (path.equals(EVENTS) || path.equals(TEMPLATES)) return path;
+        if (!path.startsWith(EVENTS + "/")) return null;
+
+        String rest = path.substring(EVENTS.length() + 1);
+        String id = rest.endsWith(SESSIONS_SUFFIX)
+                ? rest.substring(0, rest.length() - SESSIONS_SUFFIX.length())
+                : rest;
+        if (id.isEmpty() || id.length() > 9) return null;
+        for (int i = 0; i < id.length(); i++) {
+            if (!Character.isDigit(id.charAt(i))) return null;
+        }
+        return EVENTS + "/" + Integer.parseInt(id) + rest.substring(id.length());
+    }
+
+    private static void write(HttpServletRequest req, HttpServletResponse res, Entry entry) throws IOException {
+        res.setHeader(HttpHeaders.ETAG, entry.etag());
+        res.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        res.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (matches(req.getHeader(HttpHeaders.IF_NONE_MATCH), entry.etag())) {
+            res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = entry.json();
+        if (entry.gzip() != null && acceptsGzip(req.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            body = entry.gzip();
+            res.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        res.setStatus(HttpServletResponse.SC_OK);
+        res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        res.setContentLength(body.length);
+        res.getOutputStream().write(body);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.equals(etag) || c.equals("W/" + etag)) return true;
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] token = part.trim().split(";");
+            if (!token[0].trim().equalsIgnoreCase("gzip")) continue;
+            // gzip;q=0 = ห้ามส่ง gzip
+            return token.length < 2 || !token[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) return false;
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** เนื้อหา JSON (UTF-8) + ฉบับ gzip (null ถ้าเล็กกว่า gzip-min-bytes) + ETag จาก SHA-256 */
+    record Entry(byte[] json, byte[] gzip, String etag) {
+
+        static Entry of(byte[] json, int gzipMinBytes) {
+            return new Entry(json, json.length >= gzipMinBytes ? gzip(json) : null, etagOf(json));
+        }
+
+        private static byte[] gzip(byte[] json) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                gz.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+
+        private static String etagOf(byte[] json) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+                return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.eventproject.config;
+
+import java.time.Clock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * นาฬิกากลางของระบบ — test แทนด้วย Clock ที่เลื่อนเวลาเองได้
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+}
@@ -2,16 +2,13 @@ package com.example.eventproject.config;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.example.eventproject.model.User;
-import com.example.eventproject.repository.UserRepository;
-
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,11 +17,17 @@ import jakarta.servlet.http.HttpServletResponse;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepo;
+    private final TokenVersionCache tokenVersions;
+    private final RouteTable routes;
+
+    public JwtAuthFilter(JwtUtil jwtUtil, TokenVersionCache tokenVersions) {
+        this(jwtUtil, tokenVersions, SecurityConfig.ROUTES);
+    }
 
-    public JwtAuthFilter(JwtUtil jwtUtil, UserRepository userRepo) {
+    public JwtAuthFilter(JwtUtil jwtUtil, TokenVersionCache tokenVersions, RouteTable routes) {
         this.jwtUtil = jwtUtil;
-        this.userRepo = userRepo;
+        this.tokenVersions = tokenVersions;
+        this.routes = routes;
     }
 
     @Override
@@ -33,20 +36,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     FilterChain chain)
             throws ServletException, IOException {
 
-        final String path = req.getServletPath();
-        final String method = req.getMethod();
-
-        // ===== BYPASS เส้นทางที่ไม่ต้องตรวจ JWT =====
-        if ("OPTIONS".equalsIgnoreCase(method)
-                // อนุญาต register / login ไม่ต้องมี token
-                || path.equals("/api/auth/register")
-                || path.equals("/api/auth/login")
-                || path.startsWith("/v3/api-docs")
-                || path.startsWith("/swagger-ui")
-                || path.startsWith("/swagger-resources")
-                || path.startsWith("/webjars")
-                || path.startsWith("/images/")
-                || "/error".equals(path)) {
+        // ===== BYPASS เส้นทางที่ไม่ต้องตรวจ JWT (rule PUBLIC ใน SecurityConfig.ROUTES) =====
+        if (routes.skipsJwt(req)) {
             chain.doFilter(req, res);
             return;
         }
@@ -65,45 +56,47 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        String email;
-
-        try {
-            email = jwtUtil.validateAndGetSubject(token);
-        } catch (Exception ex) {
+        Claims claims = jwtUtil.parseClaims(token);
+        if (claims == null || claims.getSubject() == null) {
             chain.doFilter(req, res);
             return;
         }
 
-        if (email != null) {
-            Optional<User> userOpt = userRepo.findByEmail(email);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
+        // token ที่ไม่ใช่ token login (queue / pass) เซ็นด้วย key เดียวกัน → ไม่นับเป็นการยืนยันตัวตน
+        if (!JwtUtil.TYPE_ACCESS.equals(claims.get(JwtUtil.CLAIM_TYPE, String.class))) {
+            chain.doFilter(req, res);
+            return;
+        }
 
-                // normalize role เป็น ROLE_XXX
-                String roleCode = (user.getRole() != null)
-                        ? user.getRole().getCode()
-                        : "USER";
+        // ===== สร้าง principal จาก claim ที่เซ็นแล้วเท่านั้น (ไม่อ่าน users ทุก request) =====
+        String email = claims.getSubject();
+        Integer version = claims.get(JwtUtil.CLAIM_VERSION, Integer.class);
+        if (tokenVersions.isCurrent(email, version == null ? 0 : version)) {
+            // normalize role เป็น ROLE_XXX
+            String roleCode = claims.get(JwtUtil.CLAIM_ROLE, String.class);
+            if (roleCode == null || roleCode.isBlank()) {
+                roleCode = "USER";
+            }
 
-                String normalizedRole = roleCode.startsWith("ROLE_")
-                        ? roleCode
-                        : "ROLE_" + roleCode;
+            String normalizedRole = roleCode.startsWith("ROLE_")
+                    ? roleCode
+                    : "ROLE_" + roleCode;
 
-                var authorities = List.of(new SimpleGrantedAuthority(normalizedRole));
-                String primaryRole = normalizedRole.replaceFirst("^ROLE_", "");
+            var authorities = List.of(new SimpleGrantedAuthority(normalizedRole));
+            String primaryRole = normalizedRole.replaceFirst("^ROLE_", "");
 
-                // ใช้ email แทน id
-                CurrentUser principal = new CurrentUser(
-                        user.getEmail(),
-                        user.getName(),
-                        primaryRole,
-                        authorities
-                );
+            // ใช้ email แทน id
+            CurrentUser principal = new CurrentUser(
+                    email,
+                    claims.get(JwtUtil.CLAIM_NAME, String.class),
+                    primaryRole,
+                    authorities
+            );
 
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(principal, null, authorities);
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(principal, null, authorities);
 
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         chain.doFilter(req, res);
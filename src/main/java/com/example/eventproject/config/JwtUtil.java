@@ -1,12 +1,24 @@
 package com.example.eventproject.config;
 
+import com.example.eventproject.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
+import java.util.Map;
+import java.util.function.LongSupplier;
 
 @Component
 public class JwtUtil {
@@ -15,35 +27,147 @@ public class JwtUtil {
     private static final long EXP_MS = 1000L * 60 * 60 * 24;
 
     private final SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    // สร้างครั้งเดียว — ถ้าไม่ระบุ jjwt จะค้น serializer ผ่าน ServiceLoader ทุกครั้งที่ออก token
+    private final Serializer<Map<String, ?>> serializer = new JacksonSerializer<>();
+    private final LongSupplier currentMillis;
+    // parser ของ key นี้ (thread-safe) — สร้างครั้งเดียวแทนการ build ใหม่ทุก request
+    private final JwtParser parser;
+    // token ที่ตรวจผ่านแล้วล่าสุด (signature → claims) / null = ปิด cache
+    private final Cache<String, VerifiedToken> verified;
 
-    public String generateToken(String subjectEmail, String role) {
+    @Autowired
+    public JwtUtil(MeterRegistry meterRegistry,
+                   @Value("${app.auth.verified-token-cache.max-size:10000}") long maxSize) {
+        this(maxSize);
+        if (verified != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwtVerified");
+        }
+    }
+
+    public JwtUtil(long verifiedCacheSize) {
+        this(verifiedCacheSize, System::currentTimeMillis);
+    }
+
+    JwtUtil(long verifiedCacheSize, LongSupplier currentMillis) {
+        this.currentMillis = currentMillis;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setClock(() -> new Date(currentMillis.getAsLong()))
+                .build();
+        this.verified = verifiedCacheSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfterWrite(Duration.ofMillis(EXP_MS))
+                .recordStats()
+                .build();
+    }
+
+    public JwtUtil() {
+        this(10_000);
+    }
+
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_NAME = "name";
+    public static final String CLAIM_VERSION = "ver";
+    public static final String CLAIM_TYPE = "typ";
+    /** typ ของ token login — token ชนิดอื่น (queue / pass) ใช้ยืนยันตัวตนกับ API ไม่ได้ */
+    public static final String TYPE_ACCESS = "access";
+
+    /**
+     * token login — role / name / token version อยู่ใน claim ที่เซ็นแล้ว
+     * → JwtAuthFilter สร้าง CurrentUser จาก token ได้เลยโดยไม่อ่าน users
+     */
+    public String generateToken(String subjectEmail, String role, String name, int tokenVersion) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + EXP_MS);
         return Jwts.builder()
                 .setSubject(subjectEmail)
                 .claim("email", subjectEmail)
-                .claim("role", role)
+                .claim(CLAIM_ROLE, role)
+                .claim(CLAIM_NAME, name)
+                .claim(CLAIM_VERSION, tokenVersion)
+                .claim(CLAIM_TYPE, TYPE_ACCESS)
                 .setIssuedAt(now)
                 .setExpiration(exp)
                 .signWith(key, SignatureAlgorithm.HS256)
+                .serializeToJsonWith(serializer)
+                .compact();
+    }
+
+    // ใช้ใน AuthService ตอน register / login
+    public String create(User user, String role) {
+        int version = user.getTokenVersion() == null ? 0 : user.getTokenVersion();
+        return generateToken(user.getEmail(), role, user.getName(), version);
+    }
+
+    /**
+     * token อายุสั้นสำหรับงานภายในระบบ (เช่น queue token) — เซ็นด้วย key เดียวกับ token login
+     * จึงต้องมี typ ของตัวเองเสมอ ห้ามใช้ typ ของ token login
+     */
+    public String signClaims(String subject, Map<String, Object> claims, Date expiresAt) {
+        Object type = claims.get(CLAIM_TYPE);
+        if (type == null || TYPE_ACCESS.equals(type)) {
+            throw new IllegalArgumentException("Internal token needs its own typ claim");
+        }
+        return Jwts.builder()
+                .setSubject(subject)
+                .addClaims(claims)
+                .setIssuedAt(new Date())
+                .setExpiration(expiresAt)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .serializeToJsonWith(serializer)
                 .compact();
     }
 
-    // alias ให้เข้ากับโค้ดเดิมใน AuthService
-    public String create(String subjectEmail, String role) {
-        return generateToken(subjectEmail, role);
+    /**
+     * parser ของ key นี้ที่เช็ควันหมดอายุตาม clock ที่ส่งมา
+     * (สร้างครั้งเดียวแล้วเก็บไว้ใช้ซ้ำ — thread-safe)
+     */
+    public JwtParser newParser(java.time.Clock clock) {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setClock(() -> Date.from(clock.instant()))
+                .build();
     }
 
     public String validateAndGetSubject(String token) {
+        Claims claims = parseClaims(token);
+        return claims == null ? null : claims.getSubject();
+    }
+
+    /**
+     * claims ของ token ที่ลายเซ็นถูกและยังไม่หมดอายุ / ไม่ผ่าน → null
+     * token ที่เพิ่งตรวจผ่าน → คืน claims จาก cache (ไม่ตรวจ HMAC / parse JSON ซ้ำ) จนกว่าจะหมดอายุ
+     * claims ที่คืนถูกแชร์ระหว่าง request → อ่านอย่างเดียว
+     */
+    public Claims parseClaims(String token) {
+        if (token == null) return null;
+        if (verified == null) return verify(token);
+
+        // ส่วนท้ายของ JWS = HMAC ของ header + payload → ใช้เป็น key ได้เลยไม่ต้อง hash ซ้ำ
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        VerifiedToken hit = verified.getIfPresent(signature);
+        if (hit != null && hit.token().equals(token)) {
+            if (hit.expiresAtMillis() > currentMillis.getAsLong()) {
+                return hit.claims();
+            }
+            verified.invalidate(signature);
+            return null;
+        }
+
+        Claims claims = verify(token);
+        if (claims != null && claims.getExpiration() != null) {
+            verified.put(signature, new VerifiedToken(token, claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    private Claims verify(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getSubject();
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
             return null;
         }
     }
+
+    private record VerifiedToken(String token, Claims claims, long expiresAtMillis) {}
 }
@@ -0,0 +1,249 @@
+package com.example.eventproject.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * ตารางสิทธิ์ของทุก path (ใช้ทั้ง SecurityConfig และ JwtAuthFilter)
+ * --------------------------------------------------------------
+ * - ประกาศตามลำดับเหมือน requestMatchers: rule แรกที่ตรง (method + path) ชนะ / ไม่ตรงเลย = ต้อง login
+ * - pattern: ส่วนตรงตัว, "*" = 1 ส่วน, "/**" ท้าย pattern = ที่เหลือทั้งหมด (รวมไม่มีเลย)
+ * - build() คอมไพล์เป็น trie ต่อส่วนของ path ครั้งเดียว → ค้นทีละส่วนตามความยาว path ไม่ไล่ทุก rule
+ */
+public final class RouteTable {
+
+    /** สิทธิ์ของ rule */
+    public enum Access {
+        /** ไม่ต้อง login และไม่อ่าน JWT เลย (JwtAuthFilter ข้าม) */
+        PUBLIC,
+        /** ไม่ต้อง login / ถ้าแนบ token มาก็ยังสร้าง CurrentUser ให้ */
+        PERMIT_ALL,
+        AUTHENTICATED,
+        /** ต้องมี role ใด role หนึ่งใน rule */
+        ROLE
+    }
+
+    public record Rule(int order, String method, String pattern, Access access, Set<String> roles) {}
+
+    private static final int[] NONE = new int[0];
+    private static final AuthenticationTrustResolver TRUST = new AuthenticationTrustResolverImpl();
+
+    private final Rule[] rules;
+    private final Node root;
+
+    private RouteTable(List<Rule> rules) {
+        this.rules = rules.toArray(new Rule[0]);
+        this.root = new Node();
+        for (Rule rule : this.rules) {
+            insert(rule);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /* ==========================================================
+       LOOKUP
+       ========================================================== */
+
+    /** rule ทั้งหมดตามลำดับที่ประกาศ */
+    public List<Rule> rules() {
+        return List.of(rules);
+    }
+
+    /** rule แรกที่ตรงกับ method + path / ไม่มี → null */
+    public Rule match(String method, String path) {
+        if (path == null || path.isEmpty()) path = "/";
+        int best = match(root, method, path, 0, Integer.MAX_VALUE);
+        return best == Integer.MAX_VALUE ? null : rules[best];
+    }
+
+    public Rule match(HttpServletRequest req) {
+        return match(req.getMethod(), pathOf(req));
+    }
+
+    /** JwtAuthFilter ไม่ต้องอ่าน token ของ request นี้ */
+    public boolean skipsJwt(HttpServletRequest req) {
+        Rule rule = match(req);
+        return rule != null && rule.access() == Access.PUBLIC;
+    }
+
+    /** ผู้ใช้นี้เข้า request นี้ได้ไหม (ใช้ใน authorizeHttpRequests) */
+    public boolean isAllowed(Authentication auth, HttpServletRequest req) {
+        Rule rule = match(req);
+        Access access = rule == null ? Access.AUTHENTICATED : rule.access();
+        if (access == Access.PUBLIC || access == Access.PERMIT_ALL) {
+            return true;
+        }
+        if (auth == null || !auth.isAuthenticated() || TRUST.isAnonymous(auth)) {
+            return false;
+        }
+        if (access == Access.AUTHENTICATED) {
+            return true;
+        }
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            if (rule.roles().contains(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** path ภายในแอป (decode + normalize โดย container แล้ว เหมือนที่ controller เห็น) */
+    static String pathOf(HttpServletRequest req) {
+        String servletPath = req.getServletPath();
+        String pathInfo = req.getPathInfo();
+        return pathInfo == null ? servletPath : servletPath + pathInfo;
+    }
+
+    /**
+     * pos = ตำแหน่ง '/' ก่อนส่วนถัดไป (หรือท้าย path)
+     * best = ลำดับ rule ที่ดีที่สุดที่เจอแล้ว — rule ในแต่ละ node เรียงตามลำดับ → ตัวแรกที่ method ตรงพอ
+     */
+    private int match(Node node, String method, String path, int pos, int best) {
+        best = first(node.rest, method, best);
+        if (pos >= path.length()) {
+            return first(node.exact, method, best);
+        }
+
+        int end = path.indexOf('/', pos + 1);
+        if (end < 0) end = path.length();
+        String segment = path.substring(pos + 1, end);
+
+        Node child = node.children.get(segment);
+        if (child != null && child.minOrder < best) {
+            best = match(child, method, path, end, best);
+        }
+        if (node.wildcard != null && !segment.isEmpty() && node.wildcard.minOrder < best) {
+            best = match(node.wildcard, method, path, end, best);
+        }
+        return best;
+    }
+
+    private int first(int[] candidates, String method, int best) {
+        for (int order : candidates) {
+            if (order >= best) break;
+            String m = rules[order].method();
+            if (m == null || m.equals(method)) return order;
+        }
+        return best;
+    }
+
+    /* ==========================================================
+       COMPILE
+       ========================================================== */
+
+    private void insert(Rule rule) {
+        String pattern = rule.pattern();
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Route pattern must start with '/': " + pattern);
+        }
+        boolean rest = pattern.endsWith("/**");
+        String body = rest ? pattern.substring(0, pattern.length() - 3) : pattern;
+
+        Node node = root;
+        node.minOrder = Math.min(node.minOrder, rule.order());
+        if (!body.isEmpty()) {
+            for (String segment : body.substring(1).split("/", -1)) {
+                if (segment.equals("*")) {
+                    if (node.wildcard == null) node.wildcard = new Node();
+                    node = node.wildcard;
+                } else if (segment.contains("*")) {
+                    throw new IllegalArgumentException("Unsupported route pattern: " + pattern);
+                } else {
+                    node = node.children.computeIfAbsent(segment, s -> new Node());
+                }
+                node.minOrder = Math.min(node.minOrder, rule.order());
+            }
+        }
+
+        if (rest) {
+            node.rest = append(node.rest, rule.order());
+        } else {
+            node.exact = append(node.exact, rule.order());
+        }
+    }
+
+    private static int[] append(int[] orders, int order) {
+        int[] copy = Arrays.copyOf(orders, orders.length + 1);
+        copy[orders.length] = order;
+        return copy;
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        Node wildcard;
+        int[] exact = NONE;   // rule ที่จบพอดีที่ node นี้
+        int[] rest = NONE;    // rule "/**" ต่อจาก node นี้
+        int minOrder = Integer.MAX_VALUE; // rule ลำดับแรกสุดใน subtree → ตัดกิ่งที่แพ้ rule ที่เจอแล้ว
+    }
+
+    /* ==========================================================
+       BUILDER — ลำดับการเรียก = ลำดับความสำคัญ
+       ========================================================== */
+    public static final class Builder {
+
+        private final List<Rule> rules = new ArrayList<>();
+
+        public Builder publicRoute(HttpMethod method, String... patterns) {
+            return add(method, Access.PUBLIC, Set.of(), patterns);
+        }
+
+        public Builder publicRoute(String... patterns) {
+            return publicRoute(null, patterns);
+        }
+
+        public Builder permitAll(HttpMethod method, String... patterns) {
+            return add(method, Access.PERMIT_ALL, Set.of(), patterns);
+        }
+
+        public Builder permitAll(String... patterns) {
+            return permitAll(null, patterns);
+        }
+
+        public Builder authenticated(HttpMethod method, String... patterns) {
+            return add(method, Access.AUTHENTICATED, Set.of(), patterns);
+        }
+
+        public Builder hasRole(String role, HttpMethod method, String... patterns) {
+            return hasAnyRole(new String[]{role}, method, patterns);
+        }
+
+        public Builder hasRole(String role, String... patterns) {
+            return hasRole(role, null, patterns);
+        }
+
+        public Builder hasAnyRole(String[] roles, HttpMethod method, String... patterns) {
+            Set<String> authorities = new HashSet<>();
+            for (String role : roles) {
+                authorities.add(role.startsWith("ROLE_") ? role : "ROLE_" + role);
+            }
+            return add(method, Access.ROLE, Set.copyOf(authorities), patterns);
+        }
+
+        private Builder add(HttpMethod method, Access access, Set<String> roles, String... patterns) {
+            for (String pattern : patterns) {
+                rules.add(new Rule(rules.size(), method == null ? null : method.name(), pattern, access, roles));
+            }
+            return this;
+        }
+
+        public RouteTable build() {
+            return new RouteTable(rules);
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package com.example.eventproject.config;
 
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
-import com.example.eventproject.repository.UserRepository;
-
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -19,8 +23,55 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    /**
+     * ตารางสิทธิ์ของทุก path — rule แรกที่ตรงชนะ / ไม่ตรงเลย = ต้อง login
+     * PUBLIC = permitAll + JwtAuthFilter ไม่อ่าน token
+     */
+    public static final RouteTable ROUTES = RouteTable.builder()
+            .publicRoute(HttpMethod.OPTIONS, "/**")
+            .publicRoute(
+                    "/v3/api-docs/**",
+                    "/swagger-ui/**",
+                    "/swagger-ui.html",
+                    "/swagger-resources/**",
+                    "/webjars/**"
+            )
+            .permitAll("/v2/api-docs")
+            .publicRoute("/images/**")
+            .permitAll(HttpMethod.GET, "/actuator/health")
+            .hasRole("ADMIN", "/actuator/**")
+            .publicRoute("/api/auth/register", "/api/auth/login")
+            .permitAll("/api/auth/**")
+            .permitAll(HttpMethod.GET, "/api/events/**")
+            .permitAll(HttpMethod.GET, "/api/zones/session/**")
+            .hasRole("ADMIN", HttpMethod.GET, "/api/dashboard/summary")
+            .hasRole("ADMIN", HttpMethod.GET, "/api/dashboard/events/*/timeseries")
+            .hasRole("ADMIN", HttpMethod.GET, "/api/registrations/event/**")
+            .hasRole("ADMIN", HttpMethod.POST, "/api/events/**")
+            .hasRole("ADMIN", HttpMethod.PUT, "/api/events/**")
+            .hasRole("ADMIN", HttpMethod.PATCH, "/api/events/**")
+            .hasRole("ADMIN", HttpMethod.DELETE, "/api/events/**")
+            .hasRole("ADMIN", "/api/zones/**")
+            .hasRole("ADMIN", "/api/templates/**")
+            .permitAll(HttpMethod.POST, "/api/registrations/**")
+            .hasRole("ADMIN", HttpMethod.PUT, "/api/queue/events/*/rate")
+            .permitAll(HttpMethod.POST, "/api/queue/events/*/join")
+            .permitAll(HttpMethod.GET, "/api/queue/status")
+            .permitAll(HttpMethod.GET, "/api/registrations/orders/*")
+            .hasRole("ADMIN", HttpMethod.GET, "/api/registrations/user/**")
+            .hasAnyRole(new String[]{"USER", "ADMIN"}, HttpMethod.GET, "/api/registrations/**")
+            .publicRoute("/error")
+            .permitAll(HttpMethod.PATCH, "/api/registrations/confirm")
+            .hasRole("ADMIN", HttpMethod.PATCH, "/api/registrations/checkin/**")
+
+            .hasRole("ADMIN", HttpMethod.PUT, "/api/users/*/role")
+
+            .permitAll(HttpMethod.GET, "/api/payments/qr")
+            .permitAll(HttpMethod.GET, "/api/registrations/by-ref/**")
+            .build();
+
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final TokenVersionCache tokenVersionCache;
 
     @Bean
     public SecurityFilterChain securityFilterChain(
@@ -30,39 +81,10 @@ public class SecurityConfig {
                 .cors(cors -> cors.disable())
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // สิทธิ์ทั้งหมดอยู่ใน ROUTES (ตารางเดียวกับที่ JwtAuthFilter ใช้ข้ามการอ่าน token)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
-                        .requestMatchers(
-                                "/v3/api-docs/**",
-                                "/swagger-ui/**",
-                                "/swagger-ui.html",
-                                "/v2/api-docs",
-                                "/swagger-resources/**",
-                                "/webjars/**"
-                        ).permitAll()
-                        .requestMatchers("/images/**").permitAll()
-                        .requestMatchers("/api/auth/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/events/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/zones/session/**").permitAll()
-                        .requestMatchers(HttpMethod.GET,"/api/dashboard/summary").hasRole("ADMIN")
-                        .requestMatchers(HttpMethod.GET,"/api/registrations/event/**").hasRole("ADMIN")
-                        .requestMatchers(HttpMethod.POST, "/api/events/**").hasRole("ADMIN")
-                        .requestMatchers(HttpMethod.PUT, "/api/events/**").hasRole("ADMIN")
-                        .requestMatchers(HttpMethod.PATCH, "/api/events/**").hasRole("ADMIN")
-                        .requestMatchers(HttpMethod.DELETE, "/api/events/**").hasRole("ADMIN")
-                        .requestMatchers("/api/zones/**").hasRole("ADMIN")
-                        .requestMatchers("/api/templates/**").hasRole("ADMIN")
-                        .requestMatchers(HttpMethod.POST, "/api/registrations/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/registrations/user/**").hasRole("ADMIN")
-                        .requestMatchers(HttpMethod.GET, "/api/registrations/**").hasAnyRole("USER","ADMIN")
-                        .requestMatchers("/error").permitAll()
-                        .requestMatchers(HttpMethod.PATCH, "/api/registrations/confirm").permitAll()
-                        .requestMatchers(HttpMethod.PATCH, "/api/registrations/checkin/**").hasRole("ADMIN")
-
-                        .requestMatchers(HttpMethod.GET, "/api/payments/qr").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/registrations/by-ref/**").permitAll()
-
-                        .anyRequest().authenticated()
+                        .anyRequest().access((authentication, ctx) ->
+                                new AuthorizationDecision(ROUTES.isAllowed(authentication.get(), ctx.getRequest())))
                 );
 
         http.addFilterBefore(jwtAuthFilter(), UsernamePasswordAuthenticationFilter.class);
@@ -71,11 +93,26 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthFilter jwtAuthFilter() {
-        return new JwtAuthFilter(jwtUtil, userRepository);
+        return new JwtAuthFilter(jwtUtil, tokenVersionCache, ROUTES);
     }
 
+    /**
+     * hash แบบมี version: "{bcrypt}$2a$10$..." / "{pbkdf2}..."
+     * - hash ใหม่ใช้ app.auth.password.encode-id (cost ตาม bcrypt-strength)
+     * - hash เดิมที่ไม่มี prefix ($2a$...) ยังตรวจได้ด้วย BCrypt
+     * - upgradeEncoding = true เมื่อ algorithm ไม่ใช่ตัวปัจจุบัน หรือ cost ต่ำกว่าเป้า → rehash ตอน login
+     * - profile loadtest ใช้ cost ต่ำ (application-loadtest.properties)
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.password.encode-id:bcrypt}") String encodeId,
+                                           @Value("${app.auth.password.bcrypt-strength:10}") int bcryptStrength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()
+        );
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encodeId, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
     }
 }
@@ -0,0 +1,56 @@
+package com.example.eventproject.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.eventproject.repository.UserRepository;
+import com.example.eventproject.service.UserTokensRevokedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * token version ปัจจุบันของผู้ใช้ (principal cache ของ JwtAuthFilter)
+ * --------------------------------------------------------------
+ * - token ที่ claim "ver" ต่ำกว่าค่าใน users.token_version = ถูกเพิกถอน (เช่น เปลี่ยน role)
+ * - อ่าน DB ไม่เกิน 1 ครั้งต่อผู้ใช้ต่อ ttl-ms (ไม่ใช่ทุก request) / จำกัดจำนวนผู้ใช้ด้วย max-size
+ * - เพิกถอนบน node นี้ → ล้างทันทีหลัง commit / node อื่นเห็นภายใน ttl-ms
+ */
+@Component
+public class TokenVersionCache {
+
+    /** ไม่มีผู้ใช้นี้แล้ว → ไม่มี token ไหนผ่าน */
+    static final int NO_USER = Integer.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final Cache<String, Integer> versions;
+
+    public TokenVersionCache(UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.auth.principal-cache.max-size:10000}") long maxSize,
+                             @Value("${app.auth.principal-cache.ttl-ms:30000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "authPrincipal");
+    }
+
+    /** token version นี้ยังใช้ได้ไหม (token เก่าก่อนมี claim "ver" = 0) */
+    public boolean isCurrent(String email, int tokenVersion) {
+        int current = versions.get(email, e -> userRepository.findTokenVersion(e).orElse(NO_USER));
+        return tokenVersion >= current;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokensRevoked(UserTokensRevokedEvent event) {
+        versions.invalidate(event.email());
+    }
+}
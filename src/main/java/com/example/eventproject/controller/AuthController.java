@@ -2,9 +2,11 @@ package com.example.eventproject.controller;
 
 import java.util.Map;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.server.ResponseStatusException;
 import com.example.eventproject.config.CurrentUser;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,6 +17,9 @@ import com.example.eventproject.dto.LoginRequest;
 import com.example.eventproject.dto.RegisterRequest;
 import com.example.eventproject.repository.UserRepository;
 import com.example.eventproject.service.AuthService;
+import com.example.eventproject.service.LoginRateLimiter;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @Tag(name = "Auth", description = "Authentication & Users")
 @RestController
@@ -23,10 +28,12 @@ public class AuthController {
 
     private final AuthService auth;
     private final UserRepository userRepository;
+    private final LoginRateLimiter loginRateLimiter;
 
-    public AuthController(AuthService auth, UserRepository userRepository) {
+    public AuthController(AuthService auth, UserRepository userRepository, LoginRateLimiter loginRateLimiter) {
         this.auth = auth;
         this.userRepository = userRepository;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     @Operation(summary = "Register")
@@ -37,8 +44,20 @@ public class AuthController {
 
     @Operation(summary = "Login")
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest req) {
-        return ResponseEntity.ok(auth.login(req));
+    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest req, HttpServletRequest http) {
+        // เกิน rate ต่อ IP / email → 429 ก่อนถึง BCrypt
+        // getRemoteAddr = IP จริงของ client เมื่อมาจาก proxy ที่เชื่อถือ (server.tomcat.remoteip.*)
+        loginRateLimiter.acquire(http.getRemoteAddr(), req.email());
+        boolean wrongPassword = false;
+        try {
+            return ResponseEntity.ok(auth.login(req));
+        } catch (ResponseStatusException ex) {
+            wrongPassword = ex.getStatusCode() == HttpStatus.UNAUTHORIZED;
+            throw ex;
+        } finally {
+            // โควตาของ email นับเฉพาะครั้งที่รหัสผิด
+            if (!wrongPassword) loginRateLimiter.refundEmail(req.email());
+        }
     }
 
      /* ==========================
@@ -1,24 +1,32 @@
 package com.example.eventproject.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.eventproject.dto.DashboardDto;
+import com.example.eventproject.dto.EventSalesPage;
 import com.example.eventproject.dto.EventSalesSummary;
+import com.example.eventproject.dto.SalesTimeseries;
 import com.example.eventproject.service.DashboardService;
+import com.example.eventproject.service.SalesTimeseriesService;
 
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
 
     private final DashboardService service;
+    private final SalesTimeseriesService timeseriesService;
 
-    public DashboardController(DashboardService service) {
+    public DashboardController(DashboardService service, SalesTimeseriesService timeseriesService) {
         this.service = service;
+        this.timeseriesService = timeseriesService;
     }
 
     @GetMapping("/summary")
@@ -31,4 +39,23 @@ public class DashboardController {
     public List<EventSalesSummary> getEventTable() {
         return service.getEventTable();
     }
+
+    /** ตาราง Event ทีละหน้า (ส่ง limit มา) เช่น ?limit=20&page=0&sort=sellThrough */
+    @GetMapping(value = "/events", params = "limit")
+    public EventSalesPage getEventTablePage(@RequestParam int limit,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "id") String sort) {
+        return service.getEventTablePage(page, limit, sort);
+    }
+
+    /** กราฟยอดขายของ event เช่น ?from=2025-01-01T10:00:00&to=2025-01-01T12:00:00&step=5m (default: 1 ชม.ล่าสุด ทีละ 1m) */
+    @GetMapping("/events/{id}/timeseries")
+    public SalesTimeseries getTimeseries(@PathVariable Integer id,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                         @RequestParam(defaultValue = "1m") String step) {
+        return timeseriesService.getSeries(id, from, to, step);
+    }
 }
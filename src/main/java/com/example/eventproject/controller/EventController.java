@@ -1,10 +1,14 @@
 package com.example.eventproject.controller;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import com.example.eventproject.config.CurrentUser;
 import com.example.eventproject.dto.EventDetailViewDto;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,14 +17,23 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.example.eventproject.dto.EventDetailDto;
+import com.example.eventproject.dto.EventPage;
+import com.example.eventproject.dto.EventSearchHit;
 import com.example.eventproject.dto.EventSummaryView;
 import com.example.eventproject.dto.EventUpsertRequest;
+import com.example.eventproject.model.EventSaleStatus;
+import com.example.eventproject.model.Status;
+import com.example.eventproject.service.EventAvailabilityStream;
+import com.example.eventproject.service.EventDetailCache;
+import com.example.eventproject.service.EventSearchService;
 import com.example.eventproject.service.EventService;
 
 import jakarta.validation.Valid;
@@ -33,6 +46,9 @@ import lombok.RequiredArgsConstructor;
 public class EventController {
 
     private final EventService service;
+    private final EventDetailCache detailCache;
+    private final EventAvailabilityStream availabilityStream;
+    private final EventSearchService searchService;
 
     /* =========================
      *           READ
@@ -44,16 +60,69 @@ public class EventController {
         return service.list();
     }
 
+    //รายการ Event แบบแบ่งหน้า (ส่ง limit มา → ได้ items + nextCursor / ไม่มี description)
+    @GetMapping(params = "limit")
+    public ResponseEntity<?> page(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) EventSaleStatus saleStatus
+    ) {
+        try {
+            EventPage page = service.page(status, category, from, to, saleStatus, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage())); // cursor / limit / ช่วงวันที่ผิด
+        }
+    }
+
+    //ค้นหา Event (title / category / location / description, คำสุดท้ายเป็น prefix, เรียงตามความตรง)
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<EventSearchHit> hits = searchService.search(q, limit);
+            return ResponseEntity.ok(hits);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage())); // limit นอก 1-50
+        }
+    }
+
+    //ชื่อ Event แนะนำระหว่างพิมพ์
+    @GetMapping("/search/suggest")
+    public ResponseEntity<?> suggest(@RequestParam String q,
+                                     @RequestParam(defaultValue = "8") int limit) {
+        try {
+            List<String> titles = searchService.suggest(q, limit);
+            return ResponseEntity.ok(titles);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     //รายละเอียด Event (รวม sessions และ zones)
     @GetMapping("/{id}")
     public EventDetailDto get(@PathVariable Integer id) {
-        return service.get(id);
+        return detailCache.get(id);
     }
 
     //รายละเอียด Event (View: รวม sessions + สถานะขาย + ราคาบัตรทุกโซน)
     @GetMapping("/{id}/view")
     public EventDetailViewDto getView(@PathVariable Integer id) {
-        return service.getView(id);
+        return detailCache.getView(id);
+    }
+
+    //ที่นั่งคงเหลือรายโซนแบบ live (SSE: snapshot ครั้งแรก แล้ว delta เฉพาะโซนที่เปลี่ยน)
+    @GetMapping(value = "/{id}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAvailability(@PathVariable Integer id) {
+        try {
+            return ResponseEntity.ok(availabilityStream.subscribe(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build(); // ไม่มี event นี้ → ไม่เปิดสาย
+        }
     }
 
 
@@ -0,0 +1,65 @@
+package com.example.eventproject.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.eventproject.dto.QueueDto;
+import com.example.eventproject.service.AdmissionQueueService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Waiting room ช่วงเปิดขาย
+ * 1) POST /api/queue/events/{eventId}/join?email=  → ได้ queueToken + ลำดับคิว
+ * 2) GET  /api/queue/status (X-Queue-Token)  → poll ตาม pollAfterSeconds จน admitted
+ * 3) จองด้วย header X-Queue-Pass = passToken (email เดียวกับตอน join, ใช้ได้ครั้งเดียว)
+ */
+@RestController
+@RequestMapping("/api/queue")
+@RequiredArgsConstructor
+public class QueueController {
+
+    public static final String QUEUE_TOKEN_HEADER = "X-Queue-Token";
+
+    private final AdmissionQueueService admissionQueueService;
+
+    @PostMapping("/events/{eventId}/join")
+    public ResponseEntity<?> join(@PathVariable Integer eventId, @RequestParam String email) {
+        try {
+            return ResponseEntity.ok(admissionQueueService.join(eventId, email));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<?> status(@RequestHeader(value = QUEUE_TOKEN_HEADER, required = false) String header,
+                                    @RequestParam(value = "token", required = false) String param) {
+        try {
+            QueueDto.Status status = admissionQueueService.status(header != null ? header : param);
+            return ResponseEntity.ok()
+                    .header("Retry-After", String.valueOf(status.pollAfterSeconds()))
+                    .body(status);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    /** ADMIN: ปรับอัตราปล่อยคิว (คนต่อวินาที รวมทุก node) */
+    @PutMapping("/events/{eventId}/rate")
+    public ResponseEntity<?> setRate(@PathVariable Integer eventId, @RequestParam int perSecond) {
+        try {
+            admissionQueueService.setRate(eventId, perSecond);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+}
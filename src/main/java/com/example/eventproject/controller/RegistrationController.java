@@ -1,5 +1,6 @@
 package com.example.eventproject.controller;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -14,12 +15,16 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.eventproject.dto.RegistrationDto;
 import com.example.eventproject.model.Registration;
+import com.example.eventproject.service.AdmissionQueueService;
+import com.example.eventproject.service.AsyncBookingService;
+import com.example.eventproject.service.IdempotencyService;
 import com.example.eventproject.service.RegistrationService;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 
@@ -31,16 +36,50 @@ import lombok.RequiredArgsConstructor;
 public class RegistrationController {
 
     private final RegistrationService registrationService;
+    private final IdempotencyService idempotencyService;
+    private final AdmissionQueueService admissionQueueService;
+    private final AsyncBookingService asyncBookingService;
+
+    public static final String QUEUE_PASS_HEADER = "X-Queue-Pass";
 
     /* ==========================================================
        CREATE — รองรับ (single zone) และ (items[])
        - รองรับ guest ที่ยังไม่สมัครสมาชิก
+       - ส่ง Idempotency-Key มาได้ → retry ได้ผลเดิม ไม่จองซ้ำ
+       - ช่วงเปิดขาย ต้องผ่าน waiting room ก่อน (header X-Queue-Pass ที่ออกให้ email นี้)
+         pass ถูกใช้ตอนได้ Idempotency-Key แล้ว → จองสำเร็จได้ครั้งเดียว / จองไม่สำเร็จคืน pass ให้
        ========================================================== */
     @PostMapping
     public ResponseEntity<?> create(
             @RequestParam String email,
-            @RequestBody Map<String, Object> body
+            @RequestBody Map<String, Object> body,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = QUEUE_PASS_HEADER, required = false) String queuePass
     ) {
+        Integer eventId = asInt(body.get("eventId"));
+        // ตรวจก่อน idempotency → คำตอบ 429 จะไม่ถูกเก็บไว้ตอบซ้ำ
+        if (!admissionQueueService.isAdmitted(eventId, email, queuePass)) {
+            return ResponseEntity.status(429)
+                    .header("Retry-After", "5")
+                    .body("Queue pass required — join /api/queue/events/" + body.get("eventId") + "/join");
+        }
+        return idempotencyService.execute("POST /api/registrations|" + email.trim().toLowerCase(), idempotencyKey,
+                body, () -> createWithPass(eventId, email, queuePass, body));
+    }
+
+    private ResponseEntity<?> createWithPass(Integer eventId, String email, String queuePass, Map<String, Object> body) {
+        if (!admissionQueueService.consumePass(eventId, email, queuePass)) {
+            return ResponseEntity.status(429)
+                    .body("Queue pass already used — join /api/queue/events/" + eventId + "/join again");
+        }
+        ResponseEntity<?> response = doCreate(email, body);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            admissionQueueService.releasePass(queuePass);
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> doCreate(String email, Map<String, Object> body) {
         try {
             Integer eventId = asInt(body.get("eventId"));
             Integer sessionId = asInt(body.get("sessionId"));
@@ -49,71 +88,71 @@ public class RegistrationController {
                 return ResponseEntity.badRequest().body("eventId and sessionId are required");
             }
 
-            List<Registration> regs = new ArrayList<>();
-
-            // items[] (หลาย zone หลาย quantity)
+            // items[] (หลาย zone หลาย quantity) หรือโหมดเดิม zoneId + quantity เดียว
+            List<RegistrationDto.CartLine> lines = new ArrayList<>();
             Object itemsObj = body.get("items");
             if (itemsObj instanceof List<?> items && !items.isEmpty()) {
                 for (Object o : items) {
                     if (!(o instanceof Map<?, ?> it)) continue;
-
-                    Integer zoneId = asInt(it.get("seatZoneId"));
-                    if (zoneId == null) zoneId = asInt(it.get("zoneId"));
-                    Integer qty = asInt(it.get("quantity"));
-
-                    if (zoneId == null)
-                        return ResponseEntity.badRequest().body("seatZoneId/zoneId is required");
-                    if (qty == null || qty <= 0)
-                        return ResponseEntity.badRequest().body("Quantity must be > 0");
-
-                    // รองรับ guest auto-create ผ่าน service
-                    regs.addAll(registrationService.create(email, eventId, sessionId, zoneId, qty));
+                    lines.add(toCartLine(it));
                 }
             } else {
-                // โหมดเดิม: zoneId + quantity เดียว
-                Integer zoneId = asInt(body.get("seatZoneId"));
-                if (zoneId == null) zoneId = asInt(body.get("zoneId"));
-                Integer qty = asInt(body.get("quantity"));
-
-                if (zoneId == null)
-                    return ResponseEntity.badRequest().body("seatZoneId/zoneId is required");
-                if (qty == null || qty <= 0)
-                    return ResponseEntity.badRequest().body("Quantity must be > 0");
+                lines.add(toCartLine(body));
+            }
 
-                regs = registrationService.create(email, eventId, sessionId, zoneId, qty);
+            // โหมด async: เข้าคิวแล้วตอบ 202 + orderId (poll ผลที่ /orders/{orderId})
+            if (asyncBookingService.isEnabled()) {
+                return asyncBookingService
+                        .submit(new RegistrationDto.CheckoutRequest(email, eventId, sessionId, lines))
+                        .<ResponseEntity<?>>map(pending -> ResponseEntity
+                                .accepted()
+                                .location(URI.create("/api/registrations/orders/" + pending.orderId()))
+                                .body(pending))
+                        .orElseGet(() -> ResponseEntity.status(503)
+                                .header("Retry-After", "2")
+                                .body("Booking queue is full, please retry"));
             }
 
+            // ทั้งตะกร้า = 1 transaction / 1 paymentReference
+            List<Registration> regs = registrationService.checkout(email, eventId, sessionId, lines);
             if (regs.isEmpty()) return ResponseEntity.badRequest().body("No registration created");
 
-            // สร้าง response ตามโครงสร้างใหม่ (ใช้ใบแรกเป็น sample)
-            Registration sample = regs.get(0);
-            RegistrationDto.CreateResponse response = new RegistrationDto.CreateResponse(
-                    sample.getPaymentReference(),
-                    sample.getEvent().getId(),
-                    sample.getSession().getId(),
-                    sample.getZone().getId(),
-                    sample.getZone().getName(),
-                    sample.getPrice(),
-                    regs.size(),
-                    sample.getTotalPrice(),
-                    sample.getPaymentStatus().name(),
-                    regs.stream().map(Registration::getTicketCode).collect(Collectors.toList())
-            );
+            RegistrationDto.CreateResponse response = RegistrationDto.CreateResponse.from(regs);
 
             return ResponseEntity.status(201).body(response);
 
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(409).body(ex.getMessage()); // ที่นั่งเต็ม
         } catch (Exception ex) {
             return ResponseEntity.internalServerError().body(ex.getMessage());
         }
     }
 
+    /* ==========================================================
+       ORDER STATUS — ผลของการจองแบบ async
+       ========================================================== */
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<?> orderStatus(@PathVariable String orderId) {
+        return asyncBookingService.status(orderId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).body("Order not found or expired"));
+    }
+
     /* ==========================================================
        CONFIRM PAYMENT — ยืนยันการชำระเงินทั้งชุด
        ========================================================== */
     @PatchMapping("/confirm")
-    public ResponseEntity<?> confirmPayment(@RequestBody RegistrationDto.ConfirmRequest req) {
+    public ResponseEntity<?> confirmPayment(
+            @RequestBody RegistrationDto.ConfirmRequest req,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
+    ) {
+        return idempotencyService.execute("PATCH /api/registrations/confirm", idempotencyKey,
+                req, () -> doConfirmPayment(req));
+    }
+
+    private ResponseEntity<?> doConfirmPayment(RegistrationDto.ConfirmRequest req) {
         try {
             List<Registration> updated = registrationService.confirmPayment(req.paymentReference());
             if (updated == null || updated.isEmpty()) {
@@ -130,6 +169,8 @@ public class RegistrationController {
             return ResponseEntity.ok(res);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage()); // hold หมดเวลา
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(e.getMessage());
         }
@@ -302,6 +343,12 @@ public ResponseEntity<?> getByPaymentReference(@PathVariable String paymentRefer
 
 
     /* --------------------- helpers --------------------- */
+    private static RegistrationDto.CartLine toCartLine(Map<?, ?> item) {
+        Integer zoneId = asInt(item.get("seatZoneId"));
+        if (zoneId == null) zoneId = asInt(item.get("zoneId"));
+        return new RegistrationDto.CartLine(zoneId, asInt(item.get("quantity")));
+    }
+
     private static Integer asInt(Object o) {
         if (o == null) return null;
         if (o instanceof Number n) return n.intValue();
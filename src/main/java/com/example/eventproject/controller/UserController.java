@@ -36,4 +36,14 @@ public class UserController {
     public ResponseEntity<List<User>> getGuestUsers() {
         return ResponseEntity.ok(userService.getAllGuests());
     }
+
+    /* เปลี่ยน role เช่น PUT /api/users/a@b.com/role?code=ADMIN (token เดิมของผู้ใช้ถูกเพิกถอน) */
+    @PutMapping("/{email}/role")
+    public ResponseEntity<?> changeRole(@PathVariable String email, @RequestParam String code) {
+        try {
+            return ResponseEntity.ok(userService.changeRole(email, code));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
@@ -2,16 +2,20 @@ package com.example.eventproject.controller;
 
 import java.util.List;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.example.eventproject.dto.ZoneAvailabilityDto;
 import com.example.eventproject.model.EventZone;
 import com.example.eventproject.service.EventZoneService;
+import com.example.eventproject.service.ZoneAvailabilityCache;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,13 +25,33 @@ import lombok.RequiredArgsConstructor;
 public class ZoneController {
 
     private final EventZoneService eventZoneService;
+    private final ZoneAvailabilityCache availabilityCache;
 
-    /** GET /api/zones/session/{sessionId}/availability */
+    /**
+     * GET /api/zones/session/{sessionId}/availability
+     * อ่านจาก snapshot ใน memory + ETag (If-None-Match ตรง → 304 ไม่มี body)
+     */
     @GetMapping("/session/{sessionId}/availability")
     public ResponseEntity<List<ZoneAvailabilityDto>> getAvailabilityBySession(
             @PathVariable Integer sessionId) {
-        var result = eventZoneService.getAvailabilityBySession(sessionId);
-        return ResponseEntity.ok(result);
+        var snapshot = availabilityCache.get(sessionId);
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.zones());
+    }
+
+    /**
+     * GET /api/zones/session/{sessionId}/availability/stream (SSE)
+     * event "snapshot" ครั้งแรก แล้ว "delta" เฉพาะโซนที่เปลี่ยน
+     */
+    @GetMapping(value = "/session/{sessionId}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAvailability(@PathVariable Integer sessionId) {
+        try {
+            return ResponseEntity.ok(availabilityCache.subscribe(sessionId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build(); // ไม่มี session นี้ → ไม่เปิดสาย
+        }
     }
 
     /**  GET /api/zones/group?sessionId=1&groupName=VIP */
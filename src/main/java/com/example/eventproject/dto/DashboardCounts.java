@@ -0,0 +1,12 @@
+package com.example.eventproject.dto;
+
+/**
+ * ตัวเลขดิบของหน้า dashboard ที่ได้จาก query เดียว (SUM(CASE …) แทน COUNT ทีละตัว)
+ * activeEvents = 0 เมื่อดูเฉพาะ event
+ */
+public record DashboardCounts(
+        Long activeEvents,
+        Long registrations,
+        Long ticketsSold,
+        Long checkIn
+) {}
@@ -0,0 +1,13 @@
+package com.example.eventproject.dto;
+
+import java.util.Map;
+
+/**
+ * frame ของ SSE /api/events/{id}/availability/stream
+ * - snapshot: ทุกโซนของ event / delta: เฉพาะโซนที่เปลี่ยนตั้งแต่ frame ก่อน
+ * - remaining = zoneId → ที่นั่งคงเหลือ (0 = ขายหมด)
+ */
+public record EventAvailabilityFrame(
+        Integer eventId,
+        Map<Integer, Long> remaining
+) {}
@@ -27,4 +27,14 @@ public record EventDetailViewDto(
 
         EventSaleStatus saleStatus,
         List<PriceDto> prices
-) {}
+) {
+    /** สำเนาเดิมแต่เปลี่ยนสถานะการขาย (สถานะขึ้นกับเวลา → คำนวณใหม่ทุก request ไม่ cache) */
+    public EventDetailViewDto withSaleStatus(EventSaleStatus newSaleStatus) {
+        if (newSaleStatus == saleStatus) return this;
+        return new EventDetailViewDto(
+                id, title, category, location, startDate, endDate, status,
+                saleStartAt, saleEndAt, saleUntilSoldout, doorOpenTime, description,
+                posterImageUrl, seatmapImageUrl, getCreatedAt, sessions,
+                newSaleStatus, prices);
+    }
+}
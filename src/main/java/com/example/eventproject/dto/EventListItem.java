@@ -0,0 +1,40 @@
+package com.example.eventproject.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.example.eventproject.model.EventSaleStatus;
+import com.example.eventproject.model.Status;
+
+/**
+ * แถวของหน้ารายการ event แบบแบ่งหน้า (ไม่มี description ที่เป็น TEXT)
+ */
+public record EventListItem(
+        Integer id,
+        String title,
+        String category,
+        String location,
+        LocalDate startDate,
+        LocalDate endDate,
+        Status status,
+        LocalDateTime saleStartAt,
+        LocalDateTime saleEndAt,
+        Boolean saleUntilSoldout,
+        String doorOpenTime,
+        String posterImageUrl,
+        EventSaleStatus saleStatus
+) {
+    /** ใช้ใน JPQL constructor expression (saleStatus คำนวณทีหลังใน service) */
+    public EventListItem(Integer id, String title, String category, String location,
+                         LocalDate startDate, LocalDate endDate, Status status,
+                         LocalDateTime saleStartAt, LocalDateTime saleEndAt, Boolean saleUntilSoldout,
+                         String doorOpenTime, String posterImageUrl) {
+        this(id, title, category, location, startDate, endDate, status,
+                saleStartAt, saleEndAt, saleUntilSoldout, doorOpenTime, posterImageUrl, null);
+    }
+
+    public EventListItem withSaleStatus(EventSaleStatus newSaleStatus) {
+        return new EventListItem(id, title, category, location, startDate, endDate, status,
+                saleStartAt, saleEndAt, saleUntilSoldout, doorOpenTime, posterImageUrl, newSaleStatus);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.eventproject.dto;
+
+import java.util.List;
+
+/**
+ * หน้าหนึ่งของรายการ event
+ * nextCursor = null → หน้าสุดท้าย / ไม่ null → ส่งกลับมาเป็น ?cursor= เพื่อขอหน้าถัดไป
+ */
+public record EventPage(List<EventListItem> items, String nextCursor) {}
@@ -0,0 +1,24 @@
+package com.example.eventproject.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * สรุปราคาบัตรของ event เดียว (ทุก session ทุกโซน)
+ * - prices: ราคาไม่ซ้ำ เรียงจากน้อยไปมาก / ไม่มีโซน → min, max = null
+ */
+public record EventPriceSummary(
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        List<BigDecimal> prices
+) {
+    public static EventPriceSummary of(List<BigDecimal> sortedDistinctPrices) {
+        if (sortedDistinctPrices.isEmpty()) {
+            return new EventPriceSummary(null, null, List.of());
+        }
+        return new EventPriceSummary(
+                sortedDistinctPrices.get(0),
+                sortedDistinctPrices.get(sortedDistinctPrices.size() - 1),
+                List.copyOf(sortedDistinctPrices));
+    }
+}
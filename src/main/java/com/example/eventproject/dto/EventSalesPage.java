@@ -0,0 +1,8 @@
+package com.example.eventproject.dto;
+
+import java.util.List;
+
+/**
+ * หน้าหนึ่งของตารางยอดขายราย event (hasNext = มีหน้าถัดไป ไม่ต้อง COUNT)
+ */
+public record EventSalesPage(List<EventSalesSummary> items, int page, int limit, boolean hasNext) {}
@@ -0,0 +1,12 @@
+package com.example.eventproject.dto;
+
+/**
+ * แถวดิบของตารางยอดขายราย event จาก native query (ชื่อ getter = alias ของคอลัมน์)
+ */
+public interface EventSalesRow {
+    Integer getEventId();
+    String getTitle();
+    String getCategory();
+    Long getCapacity();
+    Long getSold();
+}
@@ -0,0 +1,15 @@
+package com.example.eventproject.dto;
+
+import java.time.LocalDate;
+
+/**
+ * ผลค้นหา event หนึ่งรายการ (score = BM25 มากกว่า = ตรงกว่า)
+ */
+public record EventSearchHit(
+        Integer id,
+        String title,
+        String category,
+        String location,
+        LocalDate startDate,
+        float score
+) {}
@@ -0,0 +1,15 @@
+package com.example.eventproject.dto;
+
+import java.time.LocalDate;
+
+/**
+ * ข้อความของ event ที่นำไปทำ search index (อ่านจาก DB ครั้งเดียวตอนสร้าง / แก้ event)
+ */
+public record EventSearchSource(
+        Integer id,
+        String title,
+        String category,
+        String location,
+        String description,
+        LocalDate startDate
+) {}
@@ -0,0 +1,22 @@
+package com.example.eventproject.dto;
+
+import java.time.LocalDateTime;
+
+public class QueueDto {
+
+    /* ==========================================================
+       QUEUE STATUS — ตอบทั้งตอน join และตอน poll
+       - admitted = true → ใช้ passToken ใน header X-Queue-Pass ตอนจอง
+       ========================================================== */
+    public record Status(
+            String queueToken,
+            Integer eventId,
+            long position,
+            long ahead,
+            long estimatedWaitSeconds,
+            boolean admitted,
+            String passToken,
+            LocalDateTime passExpiresAt,
+            int pollAfterSeconds
+    ) {}
+}
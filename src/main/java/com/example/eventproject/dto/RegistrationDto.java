@@ -3,7 +3,10 @@ package com.example.eventproject.dto;
 import com.example.eventproject.model.Registration;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class RegistrationDto {
 
@@ -18,9 +21,42 @@ public class RegistrationDto {
             Integer quantity // จำนวนที่ผู้ใช้ต้องการจอง
     ) {}
 
+    /* ==========================================================
+       CART LINE — 1 บรรทัดในตะกร้า (zone + จำนวน)
+       ========================================================== */
+    public record CartLine(
+            Integer zoneId,
+            Integer quantity
+    ) {}
+
+    /* ==========================================================
+       CHECKOUT REQUEST — 1 order ในคิวจองแบบ async
+       ========================================================== */
+    public record CheckoutRequest(
+            String email,
+            Integer eventId,
+            Integer sessionId,
+            List<CartLine> lines
+    ) {}
+
+    /* ==========================================================
+       ORDER STATUS — GET /api/registrations/orders/{orderId}
+       status: PENDING / CONFIRMED / REJECTED
+       ========================================================== */
+    public record OrderStatus(
+            String orderId,
+            String status,
+            String error,
+            CreateResponse result,
+            LocalDateTime submittedAt,
+            LocalDateTime completedAt
+    ) {}
+
     /* ==========================================================
        CREATE RESPONSE — หลังจากจองสำเร็จ
        แสดงผลรวมทั้งหมดใน order เดียว
+       - zoneId / zoneName / pricePerTicket = โซนแรก (คงไว้ให้ client เดิม)
+       - lines = สรุปแยกทีละโซน
        ========================================================== */
     public record CreateResponse(
             String paymentReference,
@@ -32,6 +68,50 @@ public class RegistrationDto {
             Integer quantity,
             BigDecimal totalPrice,
             String paymentStatus,
+            List<String> ticketCodes,
+            List<LineResponse> lines
+    ) {
+        public static CreateResponse from(List<Registration> regs) {
+            Map<Integer, List<Registration>> byZone = new LinkedHashMap<>();
+            for (Registration reg : regs) {
+                byZone.computeIfAbsent(reg.getZone().getId(), k -> new ArrayList<>()).add(reg);
+            }
+            List<LineResponse> lines = new ArrayList<>();
+            for (List<Registration> zoneRegs : byZone.values()) {
+                Registration first = zoneRegs.get(0);
+                lines.add(new LineResponse(
+                        first.getZone().getId(),
+                        first.getZone().getName(),
+                        first.getPrice(),
+                        zoneRegs.size(),
+                        first.getPrice().multiply(BigDecimal.valueOf(zoneRegs.size())),
+                        zoneRegs.stream().map(Registration::getTicketCode).toList()
+                ));
+            }
+
+            Registration sample = regs.get(0);
+            return new CreateResponse(
+                    sample.getPaymentReference(),
+                    sample.getEvent().getId(),
+                    sample.getSession().getId(),
+                    sample.getZone().getId(),
+                    sample.getZone().getName(),
+                    sample.getPrice(),
+                    regs.size(),
+                    sample.getTotalPrice(),
+                    sample.getPaymentStatus().name(),
+                    regs.stream().map(Registration::getTicketCode).toList(),
+                    lines
+            );
+        }
+    }
+
+    public record LineResponse(
+            Integer zoneId,
+            String zoneName,
+            BigDecimal pricePerTicket,
+            Integer quantity,
+            BigDecimal subtotal,
             List<String> ticketCodes
     ) {}
 
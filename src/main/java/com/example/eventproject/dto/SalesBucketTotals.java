@@ -0,0 +1,16 @@
+package com.example.eventproject.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * ยอดรวมทุกโซนของ event ใน bucket เดียว (bucketSeconds = ความละเอียดที่เก็บไว้)
+ */
+public record SalesBucketTotals(
+        Integer bucketSeconds,
+        LocalDateTime bucketStart,
+        Long created,
+        Long paid,
+        Long checkedIn,
+        BigDecimal revenue
+) {}
@@ -0,0 +1,14 @@
+package com.example.eventproject.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * ยอดของโซนเดียวที่นับสดจาก registrations (ใช้ตรวจ / แก้ sales_rollup)
+ */
+public record SalesRollupCounts(
+        Long sold,
+        Long unpaid,
+        Long expired,
+        Long checkedIn,
+        BigDecimal revenue
+) {}
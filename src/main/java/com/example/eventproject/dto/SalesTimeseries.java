@@ -0,0 +1,22 @@
+package com.example.eventproject.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * กราฟยอดขายของ event (GET /api/dashboard/events/{id}/timeseries)
+ * - points ครบทุกช่วง step (ช่วงที่ไม่มียอด = 0) เรียงตามเวลา
+ * - resolutionSeconds > stepSeconds = ช่วงเก่าถูกรวมเป็น bucket หยาบกว่า step แล้ว
+ *   (ยอดของ bucket หยาบนับอยู่ในจุดที่ครอบต้นช่วงของ bucket นั้น)
+ */
+public record SalesTimeseries(
+        Integer eventId,
+        int stepSeconds,
+        int resolutionSeconds,
+        List<Point> points
+) {
+
+    /** ยอดในช่วง [start, start + step) */
+    public record Point(LocalDateTime start, long created, long paid, long checkedIn, BigDecimal revenue) {}
+}
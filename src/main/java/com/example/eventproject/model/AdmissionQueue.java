@@ -0,0 +1,53 @@
+package com.example.eventproject.model;
+
+import jakarta.persistence.*;
+
+/**
+ * สถานะ waiting room ของ 1 event ที่แชร์กันทุก node
+ * - issued = ลำดับล่าสุดที่แจก
+ * - frontier (ลำดับสูงสุดที่ปล่อยแล้ว) = base_position + rate × (เวลาที่ผ่านไปตั้งแต่ base_at) — คิดจากเวลาอย่างเดียว
+ *   เปลี่ยน rate → ย้าย base มาที่ frontier ปัจจุบัน
+ */
+@Entity
+@Table(name = "admission_queues")
+public class AdmissionQueue {
+
+    @Id
+    @Column(name = "event_id")
+    private Integer eventId;
+
+    @Column(nullable = false)
+    private long issued;
+
+    @Column(nullable = false)
+    private int rate;
+
+    @Column(name = "base_position", nullable = false)
+    private double basePosition;
+
+    /** epoch millis */
+    @Column(name = "base_at", nullable = false)
+    private long baseAt;
+
+    /** ลำดับสูงสุดที่ปล่อยแล้ว ณ เวลา nowMs (สูตรเดียวกับ AdmissionQueueRepository.issue) */
+    public long frontier(long nowMs) {
+        return (long) Math.floor(basePosition + rate * Math.max(0, nowMs - baseAt) / 1000.0);
+    }
+
+    // ===== Getters / Setters =====
+
+    public Integer getEventId() { return eventId; }
+    public void setEventId(Integer eventId) { this.eventId = eventId; }
+
+    public long getIssued() { return issued; }
+    public void setIssued(long issued) { this.issued = issued; }
+
+    public int getRate() { return rate; }
+    public void setRate(int rate) { this.rate = rate; }
+
+    public double getBasePosition() { return basePosition; }
+    public void setBasePosition(double basePosition) { this.basePosition = basePosition; }
+
+    public long getBaseAt() { return baseAt; }
+    public void setBaseAt(long baseAt) { this.baseAt = baseAt; }
+}
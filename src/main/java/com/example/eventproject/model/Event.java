@@ -7,7 +7,12 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        // keyset ของหน้ารายการ (ORDER BY start_date, id) + ตัวกรองที่พบบ่อย
+        @Index(name = "idx_events_start", columnList = "start_date, id"),
+        @Index(name = "idx_events_status_start", columnList = "status, start_date, id"),
+        @Index(name = "idx_events_category_start", columnList = "category, start_date, id")
+})
 public class Event {
 
     @Id
@@ -0,0 +1,78 @@
+package com.example.eventproject.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * ผลลัพธ์ของคำขอที่มี Idempotency-Key (ใช้ตอบซ้ำเมื่อ client retry)
+ * - key_hash = SHA-256 ของ (scope + key) → PK ยาวคงที่ 64 ตัว lookup ด้วย PK อย่างเดียว
+ * - response_body = null หมายถึงคำขอแรกยังทำงานอยู่ — node ที่ถือ claim_id ต่ออายุ locked_until เป็นระยะ
+ *   เลย locked_until แล้ว = node นั้นตาย (หยุดต่ออายุ) ให้ retry รับงานต่อด้วย claim_id ใหม่
+ * - expires_at มี index ไว้ให้งาน prune ลบทีละ batch
+ */
+@Entity
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idx_idem_expires", columnList = "expires_at"))
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "key_hash", length = 64)
+    private String keyHash;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "content_type", length = 64)
+    private String contentType;
+
+    @Lob
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "claim_id", length = 36)
+    private String claimId;
+
+    // ===== Getters / Setters =====
+
+    public String getKeyHash() { return keyHash; }
+    public void setKeyHash(String keyHash) { this.keyHash = keyHash; }
+
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+    public Integer getStatusCode() { return statusCode; }
+    public void setStatusCode(Integer statusCode) { this.statusCode = statusCode; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public String getResponseBody() { return responseBody; }
+    public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(LocalDateTime lockedUntil) { this.lockedUntil = lockedUntil; }
+
+    public String getClaimId() { return claimId; }
+    public void setClaimId(String claimId) { this.claimId = claimId; }
+
+    /** คำขอแรกทำเสร็จและบันทึกผลแล้ว */
+    public boolean isCompleted() { return statusCode != null; }
+}
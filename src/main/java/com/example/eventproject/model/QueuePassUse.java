@@ -0,0 +1,28 @@
+package com.example.eventproject.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * ลำดับคิวของ waiting room ที่ถูกใช้จองไปแล้ว (jti ของ pass token = "eventId:ลำดับ")
+ * - 1 ลำดับจองสำเร็จได้ครั้งเดียว / แถวหมดอายุพร้อม queue token แล้วงานเบื้องหลังลบทิ้ง
+ */
+@Entity
+@Table(name = "queue_pass_uses")
+public class QueuePassUse {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // ===== Getters / Setters =====
+
+    public String getJti() { return jti; }
+    public void setJti(String jti) { this.jti = jti; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -8,10 +8,20 @@ import java.time.LocalDateTime;
 @Table(name = "registrations")
 public class Registration {
 
-    public enum PayStatus { UNPAID, PAID }
+    public enum PayStatus { UNPAID, PAID, EXPIRED }
 
+    // pooled table generator: จอง id ทีละ 50 ในหน่วยความจำ → INSERT หลายใบรวมเป็น JDBC batch ได้
+    // (IDENTITY บังคับให้ INSERT ทันทีทีละแถวเพื่อรับ id กลับ จึง batch ไม่ได้)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "registration_ids")
+    @TableGenerator(
+            name = "registration_ids",
+            table = "id_generators",
+            pkColumnName = "name",
+            valueColumnName = "next_val",
+            pkColumnValue = "registrations",
+            allocationSize = 50
+    )
     private Integer id;
 
     // ========== RELATIONSHIPS ==========
@@ -53,6 +63,9 @@ public class Registration {
     @Column(name = "paid_at")
     private LocalDateTime paidAt;
 
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt; // กำหนดเวลาที่ต้องจ่าย (UNPAID = hold ชั่วคราว)
+
 
     @Column(name = "ticket_code", nullable = false, unique = true)
     private String ticketCode;
@@ -102,6 +115,9 @@ public class Registration {
     public LocalDateTime getPaidAt() { return paidAt; }
     public void setPaidAt(LocalDateTime paidAt) { this.paidAt = paidAt; }
 
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
     public String getTicketCode() { return ticketCode; }
     public void setTicketCode(String ticketCode) { this.ticketCode = ticketCode; }
 
@@ -0,0 +1,94 @@
+package com.example.eventproject.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * ยอดขายของ 1 โซนในช่วงเวลาหนึ่ง (กราฟยอดขายใน dashboard)
+ * bucket_seconds = 60 (นาที) / 3600 (ชั่วโมง) / 86400 (วัน) — bucket เก่าถูกรวมเป็นความละเอียดที่หยาบขึ้น
+ * bucket_start = ต้นช่วงเวลา (ปัดลงตามขนาด bucket)
+ */
+@Entity
+@Table(name = "sales_timeseries")
+@IdClass(SalesBucket.Key.class)
+public class SalesBucket {
+
+    @Id
+    @Column(name = "zone_id")
+    private Integer zoneId;
+
+    @Id
+    @Column(name = "bucket_seconds")
+    private Integer bucketSeconds;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long created = 0L;
+
+    @Column(nullable = false)
+    private Long paid = 0L;
+
+    @Column(name = "checked_in", nullable = false)
+    private Long checkedIn = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    // ===== Getters / Setters =====
+
+    public Integer getZoneId() { return zoneId; }
+    public void setZoneId(Integer zoneId) { this.zoneId = zoneId; }
+
+    public Integer getBucketSeconds() { return bucketSeconds; }
+    public void setBucketSeconds(Integer bucketSeconds) { this.bucketSeconds = bucketSeconds; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public Long getCreated() { return created; }
+    public void setCreated(Long created) { this.created = created; }
+
+    public Long getPaid() { return paid; }
+    public void setPaid(Long paid) { this.paid = paid; }
+
+    public Long getCheckedIn() { return checkedIn; }
+    public void setCheckedIn(Long checkedIn) { this.checkedIn = checkedIn; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+
+    /** composite key (zone_id, bucket_seconds, bucket_start) */
+    public static class Key implements Serializable {
+        private Integer zoneId;
+        private Integer bucketSeconds;
+        private LocalDateTime bucketStart;
+
+        public Key() {}
+
+        public Key(Integer zoneId, Integer bucketSeconds, LocalDateTime bucketStart) {
+            this.zoneId = zoneId;
+            this.bucketSeconds = bucketSeconds;
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return Objects.equals(zoneId, k.zoneId)
+                    && Objects.equals(bucketSeconds, k.bucketSeconds)
+                    && Objects.equals(bucketStart, k.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(zoneId, bucketSeconds, bucketStart);
+        }
+    }
+}
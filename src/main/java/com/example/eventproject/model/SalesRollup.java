@@ -0,0 +1,67 @@
+package com.example.eventproject.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * ยอดขายสะสมต่อโซน (1 แถวต่อ 1 zone พร้อม session / event ของโซนนั้น)
+ * ปรับใน transaction เดียวกับการจอง / จ่าย / หมดเวลา / เช็กอิน → dashboard ไม่ต้อง scan registrations
+ * revenue = ผลรวมราคาของใบที่จ่ายแล้ว
+ */
+@Entity
+@Table(name = "sales_rollup", indexes = {
+        @Index(name = "idx_sales_rollup_event", columnList = "event_id, session_id")
+})
+public class SalesRollup {
+
+    @Id
+    @Column(name = "zone_id")
+    private Integer zoneId;
+
+    @Column(name = "session_id", nullable = false)
+    private Integer sessionId;
+
+    @Column(name = "event_id", nullable = false)
+    private Integer eventId;
+
+    @Column(nullable = false)
+    private Long sold = 0L;
+
+    @Column(nullable = false)
+    private Long unpaid = 0L;
+
+    @Column(nullable = false)
+    private Long expired = 0L;
+
+    @Column(name = "checked_in", nullable = false)
+    private Long checkedIn = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    // ===== Getters / Setters =====
+
+    public Integer getZoneId() { return zoneId; }
+    public void setZoneId(Integer zoneId) { this.zoneId = zoneId; }
+
+    public Integer getSessionId() { return sessionId; }
+    public void setSessionId(Integer sessionId) { this.sessionId = sessionId; }
+
+    public Integer getEventId() { return eventId; }
+    public void setEventId(Integer eventId) { this.eventId = eventId; }
+
+    public Long getSold() { return sold; }
+    public void setSold(Long sold) { this.sold = sold; }
+
+    public Long getUnpaid() { return unpaid; }
+    public void setUnpaid(Long unpaid) { this.unpaid = unpaid; }
+
+    public Long getExpired() { return expired; }
+    public void setExpired(Long expired) { this.expired = expired; }
+
+    public Long getCheckedIn() { return checkedIn; }
+    public void setCheckedIn(Long checkedIn) { this.checkedIn = checkedIn; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+}
@@ -20,6 +20,10 @@ public class User {
     @JoinColumn(name = "role_id", nullable = false)
     private Role role;
 
+    // เพิ่มเมื่อเปลี่ยน role → token ที่ออกก่อนหน้าใช้ไม่ได้ (JwtAuthFilter เทียบกับ claim "ver")
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion = 0;
+
     // ===== Getters / Setters =====
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
@@ -33,5 +37,8 @@ public class User {
     public Role getRole() { return role; }
     public void setRole(Role role) { this.role = role; }
 
+    public Integer getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(Integer tokenVersion) { this.tokenVersion = tokenVersion; }
+
     
 }
@@ -0,0 +1,42 @@
+package com.example.eventproject.model;
+
+import jakarta.persistence.*;
+
+/**
+ * ตัวนับสต็อกที่นั่งของแต่ละโซน (1 แถวต่อ 1 zone)
+ * held = จองแล้วยังไม่จ่าย, sold = จ่ายแล้ว
+ * ตัดสต็อกด้วย conditional UPDATE แถวเดียว → ไม่ต้อง COUNT registrations ทุกครั้ง
+ */
+@Entity
+@Table(name = "zone_inventory")
+public class ZoneInventory {
+
+    @Id
+    @Column(name = "zone_id")
+    private Integer zoneId;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(nullable = false)
+    private Integer held = 0;
+
+    @Column(nullable = false)
+    private Integer sold = 0;
+
+    // ===== Getters / Setters =====
+
+    public Integer getZoneId() { return zoneId; }
+    public void setZoneId(Integer zoneId) { this.zoneId = zoneId; }
+
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
+
+    public Integer getHeld() { return held; }
+    public void setHeld(Integer held) { this.held = held; }
+
+    public Integer getSold() { return sold; }
+    public void setSold(Integer sold) { this.sold = sold; }
+
+    public int getRemaining() { return capacity - held - sold; }
+}
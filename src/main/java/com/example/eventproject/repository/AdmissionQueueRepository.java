@@ -0,0 +1,59 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.model.AdmissionQueue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * เรียกใน transaction ของ AdmissionQueueService → UPDATE ล็อกแถวของ event จน commit
+ * (join พร้อมกันหลาย node ได้ลำดับไม่ซ้ำ)
+ */
+@Repository
+public interface AdmissionQueueRepository extends JpaRepository<AdmissionQueue, Integer> {
+
+    /**
+     * สร้างแถวของ event ครั้งแรก (มีอยู่แล้วจะถูกข้าม)
+     *
+     * @param baseAt เวลาเริ่มปล่อยคิว (epoch millis)
+     */
+    @Modifying
+    @Query(value = """
+        INSERT IGNORE INTO admission_queues (event_id, issued, rate, base_position, base_at)
+        VALUES (:eventId, 0, :rate, 0, :baseAt)
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("eventId") Integer eventId,
+                       @Param("rate") int rate,
+                       @Param("baseAt") long baseAt);
+
+    /**
+     * แจกลำดับถัดไป: ต่อจาก issued แต่ไม่ต่ำกว่า frontier − rate + 1
+     * → ช่วงที่ไม่มีใครต่อคิว frontier วิ่งนำไปได้ แต่คนที่มาใหม่พร้อมกันผ่านทันทีได้ไม่เกิน rate คน (burst ≤ 1 วินาที)
+     *
+     * @return 0 = ยังไม่มีแถวของ event นี้
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE admission_queues
+           SET issued = GREATEST(issued + 1,
+                                 FLOOR(base_position + rate * GREATEST(0, :now - base_at) / 1000.0) - rate + 1)
+         WHERE event_id = :eventId
+    """, nativeQuery = true)
+    int issue(@Param("eventId") Integer eventId, @Param("now") long now);
+
+    /**
+     * เปลี่ยนอัตรา: ย้าย base มาที่ frontier ปัจจุบันก่อน (ลำดับที่ปล่อยแล้วไม่ถอยกลับ)
+     * ลำดับ SET สำคัญ — MySQL ใช้ค่าที่เพิ่ง SET ในคอลัมน์ถัดไป
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE admission_queues
+           SET base_position = base_position + rate * GREATEST(0, :now - base_at) / 1000.0,
+               base_at = GREATEST(base_at, :now),
+               rate = :rate
+         WHERE event_id = :eventId
+    """, nativeQuery = true)
+    int rebase(@Param("eventId") Integer eventId, @Param("rate") int rate, @Param("now") long now);
+}
@@ -1,49 +1,67 @@
 package com.example.eventproject.repository;
+import com.example.eventproject.dto.DashboardCounts;
+import com.example.eventproject.dto.EventSalesRow;
 import com.example.eventproject.model.Registration;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface DashboardRepository extends JpaRepository<Registration, Integer> {
 
-    // ---- All Events ----
-    @Query("SELECT COUNT(e) FROM Event e WHERE e.status = 'OPEN'")
-    long countActiveEvents();
-
-    @Query("SELECT COUNT(r) FROM Registration r WHERE r.paymentStatus = 'PAID'")
-    long countTicketsSoldAll();
-
-    @Query("SELECT COUNT(r) FROM Registration r")
-    long countRegistrationsAll();
-
-    @Query("SELECT COUNT(r) FROM Registration r WHERE r.isCheckedIn = true")
-    long countCheckinAll();
+    // ---- All Events: รวมจาก sales_rollup (1 แถวต่อโซน ไม่ scan registrations) ----
+    @Query("""
+        SELECT new com.example.eventproject.dto.DashboardCounts(
+            (SELECT COUNT(e) FROM Event e WHERE e.status = 'OPEN'),
+            COALESCE(SUM(s.sold + s.unpaid + s.expired), 0),
+            COALESCE(SUM(s.sold), 0),
+            COALESCE(SUM(s.checkedIn), 0)
+        )
+        FROM SalesRollup s
+    """)
+    DashboardCounts summarizeAll();
 
     // ---- Filter by Event ----
-    @Query("SELECT COUNT(r) FROM Registration r WHERE r.event.id = :eventId")
-    long countSignupsByEvent(@Param("eventId") int eventId);
-
-    @Query("SELECT COUNT(r) FROM Registration r " +
-            "WHERE r.event.id = :eventId AND r.paymentStatus != 'PAID'")
-    long countDropoffsByEvent(@Param("eventId") int eventId);
-
-    @Query("SELECT COUNT(r) FROM Registration r " +
-            "WHERE r.event.id = :eventId AND r.paymentStatus = 'PAID'")
-    long countTicketsSoldByEvent(@Param("eventId") int eventId);
-
-    @Query("SELECT COUNT(r) FROM Registration r " +
-            "WHERE r.event.id = :eventId AND r.isCheckedIn = true")
-    long countCheckinByEvent(@Param("eventId") int eventId);
-
-    // หาจำนวน sold ต่อ event
-    @Query("SELECT COUNT(r) FROM Registration r WHERE r.event.id = :eventId AND r.paymentStatus = 'PAID'")
-    long countSoldByEvent(@Param("eventId") int eventId);
-
-    // หา capacity = sum(z.capacity)
-    @Query("SELECT COALESCE(SUM(z.capacity),0) FROM EventZone z WHERE z.session.event.id = :eventId")
-    long sumCapacityByEvent(@Param("eventId") int eventId);
+    @Query("""
+        SELECT new com.example.eventproject.dto.DashboardCounts(
+            0L,
+            COALESCE(SUM(s.sold + s.unpaid + s.expired), 0),
+            COALESCE(SUM(s.sold), 0),
+            COALESCE(SUM(s.checkedIn), 0)
+        )
+        FROM SalesRollup s
+        WHERE s.eventId = :eventId
+    """)
+    DashboardCounts summarizeByEvent(@Param("eventId") int eventId);
+
+    // ---- ตาราง Event: capacity + sold ของทุก event ใน query เดียว ----
+    // รวมทีละตาราง (GROUP BY) ก่อน join → ไม่คูณแถว zone × rollup
+    // sort = 'sellThrough' → sold / capacity มากไปน้อย (capacity 0 ไว้ท้าย) / อื่น ๆ → ตาม id
+    @Query(value = """
+        SELECT e.id AS eventId,
+               e.title AS title,
+               e.category AS category,
+               COALESCE(c.capacity, 0) AS capacity,
+               COALESCE(s.sold, 0) AS sold
+          FROM events e
+          LEFT JOIN (SELECT es.event_id, SUM(z.capacity) AS capacity
+                       FROM event_zones z
+                       JOIN event_sessions es ON es.id = z.session_id
+                      GROUP BY es.event_id) c ON c.event_id = e.id
+          LEFT JOIN (SELECT sr.event_id, SUM(sr.sold) AS sold
+                       FROM sales_rollup sr
+                      GROUP BY sr.event_id) s ON s.event_id = e.id
+         ORDER BY CASE WHEN :sort = 'sellThrough' AND c.capacity > 0
+                       THEN COALESCE(s.sold, 0) * 1.0 / c.capacity END DESC,
+                  e.id
+         LIMIT :limit OFFSET :offset
+    """, nativeQuery = true)
+    List<EventSalesRow> findEventSales(@Param("sort") String sort,
+                                       @Param("limit") int limit,
+                                       @Param("offset") long offset);
 
 }
 
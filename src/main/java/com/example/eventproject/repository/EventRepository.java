@@ -1,11 +1,17 @@
 package com.example.eventproject.repository;
 
+import com.example.eventproject.dto.EventListItem;
+import com.example.eventproject.dto.EventSearchSource;
 import com.example.eventproject.dto.EventSummaryView;
 import com.example.eventproject.model.Event;
+import com.example.eventproject.model.Status;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +19,55 @@ public interface EventRepository extends JpaRepository<Event, Integer> {
 
     List<EventSummaryView> findAllByOrderByStartDateAsc();
 
+    /**
+     * รายการ event แบบ keyset (startDate, id) — หน้าไหนก็อ่านจาก index ต่อจาก cursor เท่ากัน
+     * ไม่ดึง description (TEXT) / ตัวกรองที่เป็น null = ไม่กรอง
+     *
+     * @param afterId   id ของแถวสุดท้ายหน้าก่อน (null = หน้าแรก)
+     * @param afterDate startDate ของแถวสุดท้ายหน้าก่อน (null ได้ถ้าแถวนั้นไม่มีวันเริ่ม — NULL เรียงก่อนเสมอ)
+     * @param saleStatus ชื่อ EventSaleStatus (เงื่อนไขเดียวกับ EventService.computeSaleStatus ณ :now)
+     * @param page      ใช้แค่ขนาดหน้า (ORDER BY อยู่ใน query แล้ว)
+     */
+    @Query("""
+        SELECT new com.example.eventproject.dto.EventListItem(
+            e.id, e.title, e.category, e.location, e.startDate, e.endDate, e.status,
+            e.saleStartAt, e.saleEndAt, e.saleUntilSoldout, e.doorOpenTime, e.posterImageUrl
+        )
+        FROM Event e
+        WHERE (:status IS NULL OR e.status = :status)
+          AND (:category IS NULL OR e.category = :category)
+          AND (:fromDate IS NULL OR e.startDate >= :fromDate)
+          AND (:toDate IS NULL OR e.startDate <= :toDate)
+          AND (:saleStatus IS NULL
+               OR (:saleStatus = 'UPCOMING'
+                   AND e.status <> 'CLOSED' AND e.saleStartAt > :now)
+               OR (:saleStatus = 'OPEN'
+                   AND e.status <> 'CLOSED'
+                   AND (e.saleStartAt IS NULL OR e.saleStartAt <= :now)
+                   AND (e.saleUntilSoldout = true OR e.saleEndAt IS NULL OR e.saleEndAt > :now)
+                   AND (e.endDate IS NULL OR e.endDate >= :today))
+               OR (:saleStatus = 'CLOSED'
+                   AND (e.status = 'CLOSED'
+                        OR ((e.saleStartAt IS NULL OR e.saleStartAt <= :now)
+                            AND ((e.saleUntilSoldout = false AND e.saleEndAt <= :now)
+                                 OR e.endDate < :today)))))
+          AND (:afterId IS NULL
+               OR (:afterDate IS NULL AND (e.startDate IS NOT NULL OR e.id > :afterId))
+               OR e.startDate > :afterDate
+               OR (e.startDate = :afterDate AND e.id > :afterId))
+        ORDER BY e.startDate ASC, e.id ASC
+    """)
+    List<EventListItem> findPage(@Param("status") Status status,
+                                 @Param("category") String category,
+                                 @Param("fromDate") LocalDate fromDate,
+                                 @Param("toDate") LocalDate toDate,
+                                 @Param("saleStatus") String saleStatus,
+                                 @Param("now") LocalDateTime now,
+                                 @Param("today") LocalDate today,
+                                 @Param("afterDate") LocalDate afterDate,
+                                 @Param("afterId") Integer afterId,
+                                 Pageable page);
+
     @Query("""
     SELECT e FROM Event e
     LEFT JOIN FETCH e.sessions s
@@ -21,4 +76,31 @@ public interface EventRepository extends JpaRepository<Event, Integer> {
 """)
     Optional<Event> findDetailById(Integer id);
 
+    // เวลาเปิดขาย (ใช้ตัดสินว่าต้องผ่าน waiting room หรือไม่)
+    @Query("SELECT e.saleStartAt FROM Event e WHERE e.id = :id")
+    Optional<LocalDateTime> findSaleStartAtById(@Param("id") Integer id);
+
+    /* ===== ข้อความสำหรับ search index (EventSearchService) ===== */
+
+    // สร้าง index ทั้งก้อน: ทีละ batch เรียงตาม id (keyset)
+    @Query("""
+        SELECT new com.example.eventproject.dto.EventSearchSource(
+            e.id, e.title, e.category, e.location, e.description, e.startDate
+        )
+        FROM Event e
+        WHERE e.id > :afterId
+        ORDER BY e.id
+    """)
+    List<EventSearchSource> findSearchSourcesAfter(@Param("afterId") Integer afterId, Pageable page);
+
+    // อัปเดต index ทีละ event หลังแก้
+    @Query("""
+        SELECT new com.example.eventproject.dto.EventSearchSource(
+            e.id, e.title, e.category, e.location, e.description, e.startDate
+        )
+        FROM Event e
+        WHERE e.id = :id
+    """)
+    Optional<EventSearchSource> findSearchSourceById(@Param("id") Integer id);
+
 }
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -18,7 +19,7 @@ import java.util.List;
 public interface EventZoneRepository extends JpaRepository<EventZone, Integer> {
 
     /**
-     * ดึงข้อมูลโซนทั้งหมดใน session พร้อมจำนวนที่ถูกจอง และราคา
+     * ดึงข้อมูลโซนทั้งหมดใน session พร้อมจำนวนที่ถูกจอง (sold + unpaid จาก sales_rollup) และราคา
      * ใช้ในหน้าเลือกโซนหรือดูความจุของรอบ (session)
      *
      * @param sessionId ID ของ session ที่ต้องการดู
@@ -29,21 +30,53 @@ public interface EventZoneRepository extends JpaRepository<EventZone, Integer> {
             z.id,
             z.name,
             z.capacity,
-            COUNT(r.id),
-            (z.capacity - COUNT(r.id)),
+            COALESCE(s.sold + s.unpaid, 0L),
+            (z.capacity - COALESCE(s.sold + s.unpaid, 0L)),
             z.price
         )
         FROM EventZone z
-        LEFT JOIN Registration r
-          ON r.zone.id = z.id
-         AND r.session.id = :sessionId
-         AND r.paymentStatus IN ('UNPAID', 'PAID')
+        LEFT JOIN SalesRollup s ON s.zoneId = z.id
         WHERE z.session.id = :sessionId
-        GROUP BY z.id, z.name, z.capacity, z.price
         ORDER BY z.id
     """)
     List<ZoneAvailabilityDto> findAvailabilityBySession(@Param("sessionId") Integer sessionId);
 
+    /**
+     * เหมือน findAvailabilityBySession แต่รวมทุก session ของ event
+     * ใช้ตั้งต้น / sync ข้าม node ของ SSE ราย event (ไม่ได้เรียกทุก request)
+     *
+     * @param eventId ID ของ event
+     */
+    @Query("""
+        SELECT new com.example.eventproject.dto.ZoneAvailabilityDto(
+            z.id,
+            z.name,
+            z.capacity,
+            COALESCE(s.sold + s.unpaid, 0L),
+            (z.capacity - COALESCE(s.sold + s.unpaid, 0L)),
+            z.price
+        )
+        FROM EventZone z
+        LEFT JOIN SalesRollup s ON s.zoneId = z.id
+        WHERE z.session.event.id = :eventId
+        ORDER BY z.id
+    """)
+    List<ZoneAvailabilityDto> findAvailabilityByEvent(@Param("eventId") Integer eventId);
+
+    /**
+     * ราคาไม่ซ้ำของทุกโซนใน event เดียว (เรียงน้อย → มาก) — ใช้สรุปราคาในหน้า view
+     *
+     * @param eventId ID ของ event
+     */
+    @Query("""
+        SELECT DISTINCT z.price
+        FROM EventZone z
+        WHERE z.session.event.id = :eventId
+          AND z.price IS NOT NULL
+        ORDER BY z.price
+    """)
+    List<BigDecimal> findDistinctPricesByEvent(@Param("eventId") Integer eventId);
+
     /**
      * ดึง zone ทั้งหมดใน group เดียวกันภายใน session
      * เช่น กลุ่ม VIP, GOLD, SILVER ในรอบเดียวกัน
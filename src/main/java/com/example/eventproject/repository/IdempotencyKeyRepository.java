@@ -0,0 +1,124 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * ทุกคำสั่งเขียน commit ทันที (transaction ของตัวเอง)
+ * → placeholder ต้องมองเห็นได้จาก retry ที่วิ่งมาพร้อมกันก่อนที่งานจริงจะเสร็จ
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * จอง key (placeholder ที่ยังไม่มีผลลัพธ์)
+     *
+     * @return 1 = ได้ key (เป็นคำขอแรก), 0 = มีคำขออื่นจองไว้แล้ว
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT IGNORE INTO idempotency_keys (key_hash, request_hash, claim_id, created_at, locked_until, expires_at)
+        VALUES (:keyHash, :requestHash, :claimId, :now, :lockedUntil, :expiresAt)
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("keyHash") String keyHash,
+                       @Param("requestHash") String requestHash,
+                       @Param("claimId") String claimId,
+                       @Param("now") LocalDateTime now,
+                       @Param("lockedUntil") LocalDateTime lockedUntil,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * รับงานต่อจากคำขอแรกที่ยังไม่เสร็จและเลย locked_until แล้ว (node ที่ทำอยู่หยุดต่ออายุ = ตาย)
+     * เฉพาะคำขอแบบเดียวกัน (request_hash ตรง) — เปลี่ยน claim_id → complete / release ของเจ้าของเดิมไม่มีผล
+     *
+     * @return 1 = ได้ key, 0 = ยังไม่เลยเวลา / เสร็จแล้ว / คำขอคนละแบบ
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE IdempotencyKey k
+           SET k.lockedUntil = :lockedUntil, k.claimId = :claimId
+         WHERE k.keyHash = :keyHash
+           AND k.requestHash = :requestHash
+           AND k.statusCode IS NULL
+           AND (k.lockedUntil IS NULL OR k.lockedUntil < :now)
+    """)
+    int takeOverStale(@Param("keyHash") String keyHash,
+                      @Param("requestHash") String requestHash,
+                      @Param("claimId") String claimId,
+                      @Param("now") LocalDateTime now,
+                      @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    /**
+     * ต่ออายุ claim ที่ยังทำงานอยู่ (เรียกเป็นระยะจาก node เจ้าของ)
+     *
+     * @return 0 = ถูกรับงานต่อไปแล้ว / เสร็จแล้ว
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE IdempotencyKey k
+           SET k.lockedUntil = :lockedUntil
+         WHERE k.keyHash = :keyHash
+           AND k.claimId = :claimId
+           AND k.statusCode IS NULL
+    """)
+    int renew(@Param("keyHash") String keyHash,
+              @Param("claimId") String claimId,
+              @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    /**
+     * บันทึกผลลัพธ์ — เฉพาะเจ้าของ claim ปัจจุบัน
+     *
+     * @return 0 = ถูกรับงานต่อไปแล้ว (ผลของอีกคำขอเป็นตัวจริง)
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE IdempotencyKey k
+           SET k.statusCode = :statusCode, k.contentType = :contentType, k.responseBody = :body
+         WHERE k.keyHash = :keyHash
+           AND k.claimId = :claimId
+           AND k.statusCode IS NULL
+    """)
+    int complete(@Param("keyHash") String keyHash,
+                 @Param("claimId") String claimId,
+                 @Param("statusCode") int statusCode,
+                 @Param("contentType") String contentType,
+                 @Param("body") String body);
+
+    /** ปล่อย key คืน (คำขอแรกล้มด้วย error ฝั่ง server → ให้ retry ทำใหม่ได้) — เฉพาะเจ้าของ claim ปัจจุบัน */
+    @Transactional
+    @Modifying
+    @Query("""
+        DELETE FROM IdempotencyKey k
+         WHERE k.keyHash = :keyHash
+           AND k.claimId = :claimId
+           AND k.statusCode IS NULL
+    """)
+    int release(@Param("keyHash") String keyHash, @Param("claimId") String claimId);
+
+    /** ลบ key เดียวที่หมดอายุแล้ว (ก่อนจองใหม่ด้วย key เดิม) */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.keyHash = :keyHash AND k.expiresAt < :now")
+    int deleteIfExpired(@Param("keyHash") String keyHash, @Param("now") LocalDateTime now);
+
+    /**
+     * ลบ key หมดอายุทีละ batch (ใช้ index expires_at)
+     *
+     * @return จำนวนแถวที่ลบ (น้อยกว่า limit = หมดแล้ว)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE expires_at < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
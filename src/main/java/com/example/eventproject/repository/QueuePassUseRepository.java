@@ -0,0 +1,47 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.model.QueuePassUse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * ทุกคำสั่งเขียน commit ทันที → node อื่นเห็นว่า pass ถูกใช้แล้วตั้งแต่ก่อนจองเสร็จ
+ */
+@Repository
+public interface QueuePassUseRepository extends JpaRepository<QueuePassUse, String> {
+
+    /**
+     * ใช้ pass
+     *
+     * @return 1 = ใช้ได้ (ครั้งแรก), 0 = ถูกใช้ไปแล้ว
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT IGNORE INTO queue_pass_uses (jti, expires_at)
+        VALUES (:jti, :expiresAt)
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /** คืน pass (จองไม่สำเร็จ → ใช้จองใหม่ได้) */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM QueuePassUse p WHERE p.jti = :jti")
+    int release(@Param("jti") String jti);
+
+    /**
+     * ลบแถวของ pass ที่หมดอายุแล้วทีละ batch
+     *
+     * @return จำนวนแถวที่ลบ
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM queue_pass_uses WHERE expires_at < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -1,10 +1,17 @@
 package com.example.eventproject.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.domain.Limit;
+
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -57,11 +64,63 @@ public interface RegistrationRepository extends JpaRepository<Registration, Inte
     @EntityGraph(attributePaths = {"user", "user.role", "event", "session", "zone"})
     Optional<Registration> findByTicketCode(String ticketCode);
 
+    /**
+     * เช็กอินแบบมีเงื่อนไข — สแกนพร้อมกันหลายเครื่องมีแค่คำสั่งเดียวที่ได้ 1 แถว
+     * clearAutomatically → entity ที่โหลดไว้ก่อนหน้าหลุดจาก context (ไม่ UPDATE ซ้ำตอน commit)
+     *
+     * @return 1 = เช็กอินสำเร็จ, 0 = เช็กอินไปแล้ว / ยังไม่จ่าย
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+      UPDATE Registration r
+         SET r.isCheckedIn = true, r.checkedInAt = :now
+       WHERE r.id = :id
+         AND r.paymentStatus = 'PAID'
+         AND (r.isCheckedIn = false OR r.isCheckedIn IS NULL)
+    """)
+    int markCheckedIn(@Param("id") Integer id, @Param("now") LocalDateTime now);
+
     /* ==========================================================
        PAYMENT GROUP → by paymentReference
        ========================================================== */
     List<Registration> findByPaymentReference(String paymentReference);
 
+    // ล็อกทั้งชุดก่อนยืนยันการจ่าย กันชนกับ sweeper ที่กำลังปล่อย hold หมดอายุ
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Registration r WHERE r.paymentReference = :paymentReference")
+    List<Registration> lockByPaymentReference(@Param("paymentReference") String paymentReference);
+
+    /* ==========================================================
+       HOLD EXPIRY → keyset scan (id > afterId) ทีละ batch
+       ========================================================== */
+    interface ExpiredHold {
+        Integer getId();
+        Integer getZoneId();
+    }
+
+    @Query("""
+      SELECT r.id AS id, r.zone.id AS zoneId
+      FROM Registration r
+      WHERE r.paymentStatus = 'UNPAID'
+        AND r.expiresAt < :now
+        AND r.id > :afterId
+      ORDER BY r.id
+    """)
+    List<ExpiredHold> findExpiredHolds(@Param("now") LocalDateTime now,
+                                       @Param("afterId") Integer afterId,
+                                       Limit limit);
+
+    // เปลี่ยนเป็น EXPIRED เฉพาะใบที่ยังไม่จ่ายและหมดเวลาจริง (กันชนกับ confirm)
+    @Modifying
+    @Query("""
+      UPDATE Registration r
+         SET r.paymentStatus = 'EXPIRED'
+       WHERE r.id IN :ids
+         AND r.paymentStatus = 'UNPAID'
+         AND r.expiresAt < :now
+    """)
+    int expireHolds(@Param("ids") Collection<Integer> ids, @Param("now") LocalDateTime now);
+
     /* ==========================================================
        DELETE all from event
        ========================================================== */
@@ -71,13 +130,7 @@ public interface RegistrationRepository extends JpaRepository<Registration, Inte
     int deleteAllByEventCascade(@Param("eventId") Integer eventId);
 
     /* ==========================================================
-       AGGREGATION → ตรวจสอบจำนวนตั๋วในโซน
+       AGGREGATION → ยอดจองจริงของโซนตามสถานะ (ใช้ seed zone_inventory ครั้งแรก)
        ========================================================== */
-    @Query("""
-      SELECT COUNT(r.id)
-      FROM Registration r
-      WHERE r.zone.id = :zoneId
-        AND r.paymentStatus IN ('UNPAID', 'PAID')
-    """)
-    int countAllBookedInZone(@Param("zoneId") Integer zoneId);
+    long countByZone_IdAndPaymentStatus(Integer zoneId, Registration.PayStatus paymentStatus);
 }
@@ -0,0 +1,134 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.dto.SalesRollupCounts;
+import com.example.eventproject.model.SalesRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository ของยอดขายสะสมต่อโซน (sales_rollup)
+ * --------------------------------------------------------
+ * ทุกการเปลี่ยนเป็น UPDATE แถวเดียวแบบบวกค่า (ไม่อ่านก่อนเขียน) → หลาย node เขียนพร้อมกันได้
+ * แถวของโซนถูกสร้างจากยอดจริงใน registrations ครั้งแรกที่มีการเปลี่ยน (หรือโดยงาน reconcile)
+ */
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Integer> {
+
+    /**
+     * บวกยอดของโซน (ค่าติดลบ = ลด)
+     *
+     * @return 1 = สำเร็จ, 0 = ยังไม่มีแถวของโซนนี้
+     */
+    @Modifying
+    @Query("""
+        UPDATE SalesRollup s
+           SET s.sold = s.sold + :sold,
+               s.unpaid = s.unpaid + :unpaid,
+               s.expired = s.expired + :expired,
+               s.checkedIn = s.checkedIn + :checkedIn,
+               s.revenue = s.revenue + :revenue
+         WHERE s.zoneId = :zoneId
+    """)
+    int addDeltas(@Param("zoneId") Integer zoneId,
+                  @Param("sold") long sold,
+                  @Param("unpaid") long unpaid,
+                  @Param("expired") long expired,
+                  @Param("checkedIn") long checkedIn,
+                  @Param("revenue") BigDecimal revenue);
+
+    @Query("SELECT s.zoneId FROM SalesRollup s WHERE s.zoneId IN :zoneIds")
+    List<Integer> findExistingZoneIds(@Param("zoneIds") Collection<Integer> zoneIds);
+
+    /**
+     * สร้างแถวของโซนจากยอดจริงใน registrations (โซนที่มีแถวแล้วถูกข้าม)
+     */
+    @Modifying
+    @Query(value = """
+        INSERT IGNORE INTO sales_rollup (zone_id, session_id, event_id, sold, unpaid, expired, checked_in, revenue)
+        SELECT z.id, z.session_id, es.event_id,
+               COALESCE(SUM(CASE WHEN r.payment_status = 'PAID' THEN 1 ELSE 0 END), 0),
+               COALESCE(SUM(CASE WHEN r.payment_status = 'UNPAID' THEN 1 ELSE 0 END), 0),
+               COALESCE(SUM(CASE WHEN r.payment_status = 'EXPIRED' THEN 1 ELSE 0 END), 0),
+               COALESCE(SUM(CASE WHEN r.payment_status = 'PAID' AND r.is_checked_in = TRUE THEN 1 ELSE 0 END), 0),
+               COALESCE(SUM(CASE WHEN r.payment_status = 'PAID' THEN r.price ELSE 0 END), 0)
+          FROM event_zones z
+          JOIN event_sessions es ON es.id = z.session_id
+          LEFT JOIN registrations r ON r.zone_id = z.id
+         WHERE z.id IN (:zoneIds)
+         GROUP BY z.id, z.session_id, es.event_id
+    """, nativeQuery = true)
+    int seedZones(@Param("zoneIds") Collection<Integer> zoneIds);
+
+    /** โซนที่ยังไม่มีแถว (สร้างก่อนเปิดใช้ rollup / ยังไม่มีใครจอง) */
+    @Query(value = """
+        SELECT z.id
+          FROM event_zones z
+         WHERE NOT EXISTS (SELECT 1 FROM sales_rollup s WHERE s.zone_id = z.id)
+         ORDER BY z.id
+    """, nativeQuery = true)
+    List<Integer> findZoneIdsWithoutRollup();
+
+    /**
+     * โซนที่ยอดใน rollup ไม่ตรงกับ registrations (ไม่ล็อกอะไร → ต้องตรวจซ้ำก่อนแก้)
+     */
+    @Query(value = """
+        SELECT s.zone_id
+          FROM sales_rollup s
+          LEFT JOIN (SELECT r.zone_id,
+                            SUM(CASE WHEN r.payment_status = 'PAID' THEN 1 ELSE 0 END) AS sold,
+                            SUM(CASE WHEN r.payment_status = 'UNPAID' THEN 1 ELSE 0 END) AS unpaid,
+                            SUM(CASE WHEN r.payment_status = 'EXPIRED' THEN 1 ELSE 0 END) AS expired,
+                            SUM(CASE WHEN r.payment_status = 'PAID' AND r.is_checked_in = TRUE THEN 1 ELSE 0 END) AS checked_in,
+                            SUM(CASE WHEN r.payment_status = 'PAID' THEN r.price ELSE 0 END) AS revenue
+                       FROM registrations r
+                      GROUP BY r.zone_id) a ON a.zone_id = s.zone_id
+         WHERE s.sold <> COALESCE(a.sold, 0)
+            OR s.unpaid <> COALESCE(a.unpaid, 0)
+            OR s.expired <> COALESCE(a.expired, 0)
+            OR s.checked_in <> COALESCE(a.checked_in, 0)
+            OR s.revenue <> COALESCE(a.revenue, 0)
+         ORDER BY s.zone_id
+    """, nativeQuery = true)
+    List<Integer> findDriftedZoneIds();
+
+    /** ล็อกแถวของโซนไว้จนจบ transaction (การจอง / จ่ายของโซนนี้ต้องรอ) */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SalesRollup s WHERE s.zoneId = :zoneId")
+    Optional<SalesRollup> lockByZoneId(@Param("zoneId") Integer zoneId);
+
+    /** ยอดจริงของโซนจาก registrations */
+    @Query("""
+        SELECT new com.example.eventproject.dto.SalesRollupCounts(
+            COALESCE(SUM(CASE WHEN r.paymentStatus = 'PAID' THEN 1 ELSE 0 END), 0),
+            COALESCE(SUM(CASE WHEN r.paymentStatus = 'UNPAID' THEN 1 ELSE 0 END), 0),
+            COALESCE(SUM(CASE WHEN r.paymentStatus = 'EXPIRED' THEN 1 ELSE 0 END), 0),
+            COALESCE(SUM(CASE WHEN r.paymentStatus = 'PAID' AND r.isCheckedIn = true THEN 1 ELSE 0 END), 0),
+            COALESCE(SUM(CASE WHEN r.paymentStatus = 'PAID' THEN r.price ELSE 0 END), 0)
+        )
+        FROM Registration r
+        WHERE r.zone.id = :zoneId
+    """)
+    SalesRollupCounts countByZone(@Param("zoneId") Integer zoneId);
+
+    /** แถวของโซนที่ถูกลบไปแล้ว */
+    @Modifying
+    @Query(value = """
+        DELETE FROM sales_rollup
+         WHERE NOT EXISTS (SELECT 1 FROM event_zones z WHERE z.id = sales_rollup.zone_id)
+    """, nativeQuery = true)
+    int deleteOrphans();
+
+    @Modifying
+    @Query("DELETE FROM SalesRollup s WHERE s.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Integer eventId);
+}
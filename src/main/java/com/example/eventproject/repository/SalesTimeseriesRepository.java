@@ -0,0 +1,101 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.dto.SalesBucketTotals;
+import com.example.eventproject.model.SalesBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository ของกราฟยอดขาย (sales_timeseries)
+ * --------------------------------------------------------
+ * เขียนด้วย upsert แบบบวกค่าแถวเดียว / อ่านรวมทุกโซนของ event ผ่าน sales_rollup (zone → event)
+ */
+@Repository
+public interface SalesTimeseriesRepository extends JpaRepository<SalesBucket, SalesBucket.Key> {
+
+    /** บวกยอดเข้า bucket (ยังไม่มี → สร้าง) */
+    @Modifying
+    @Query(value = """
+        INSERT INTO sales_timeseries (zone_id, bucket_seconds, bucket_start, created, paid, checked_in, revenue)
+        VALUES (:zoneId, :bucketSeconds, :bucketStart, :created, :paid, :checkedIn, :revenue)
+        ON DUPLICATE KEY UPDATE
+            created = created + VALUES(created),
+            paid = paid + VALUES(paid),
+            checked_in = checked_in + VALUES(checked_in),
+            revenue = revenue + VALUES(revenue)
+    """, nativeQuery = true)
+    int addToBucket(@Param("zoneId") Integer zoneId,
+                    @Param("bucketSeconds") int bucketSeconds,
+                    @Param("bucketStart") LocalDateTime bucketStart,
+                    @Param("created") long created,
+                    @Param("paid") long paid,
+                    @Param("checkedIn") long checkedIn,
+                    @Param("revenue") BigDecimal revenue);
+
+    /** ยอดรวมทุกโซนของ event ต่อ bucket ในช่วง [from, to) */
+    @Query("""
+        SELECT new com.example.eventproject.dto.SalesBucketTotals(
+            b.bucketSeconds, b.bucketStart, SUM(b.created), SUM(b.paid), SUM(b.checkedIn), SUM(b.revenue))
+        FROM SalesBucket b, SalesRollup s
+        WHERE s.zoneId = b.zoneId
+          AND s.eventId = :eventId
+          AND b.bucketStart >= :from AND b.bucketStart < :to
+        GROUP BY b.bucketSeconds, b.bucketStart
+        ORDER BY b.bucketStart
+    """)
+    List<SalesBucketTotals> findEventTotals(@Param("eventId") Integer eventId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    /* ==========================================================
+       COMPACTION — รวม bucket ละเอียดที่เก่ากว่า cutoff เป็น bucket หยาบ
+       ========================================================== */
+    @Query("""
+        SELECT MIN(b.bucketStart) FROM SalesBucket b
+        WHERE b.bucketSeconds = :bucketSeconds AND b.bucketStart < :before
+    """)
+    LocalDateTime findOldestBucketStart(@Param("bucketSeconds") int bucketSeconds,
+                                        @Param("before") LocalDateTime before);
+
+    @Query("""
+        SELECT b FROM SalesBucket b
+        WHERE b.bucketSeconds = :bucketSeconds
+          AND b.bucketStart >= :from AND b.bucketStart < :to
+    """)
+    List<SalesBucket> findRange(@Param("bucketSeconds") int bucketSeconds,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("""
+        DELETE FROM SalesBucket b
+        WHERE b.bucketSeconds = :bucketSeconds
+          AND b.bucketStart >= :from AND b.bucketStart < :to
+    """)
+    int deleteRange(@Param("bucketSeconds") int bucketSeconds,
+                    @Param("from") LocalDateTime from,
+                    @Param("to") LocalDateTime to);
+
+    /** ทุก bucket ของโซนใน event (ต้องเรียกก่อนลบแถว sales_rollup ของ event) */
+    @Modifying
+    @Query(value = """
+        DELETE FROM sales_timeseries
+         WHERE zone_id IN (SELECT s.zone_id FROM sales_rollup s WHERE s.event_id = :eventId)
+    """, nativeQuery = true)
+    int deleteByEventId(@Param("eventId") Integer eventId);
+
+    /** bucket ของโซนที่ถูกลบไปแล้ว */
+    @Modifying
+    @Query(value = """
+        DELETE FROM sales_timeseries
+         WHERE NOT EXISTS (SELECT 1 FROM event_zones z WHERE z.id = sales_timeseries.zone_id)
+    """, nativeQuery = true)
+    int deleteOrphans();
+}
@@ -0,0 +1,45 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.model.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * ต่ออายุ lease ของตัวเอง หรือยึด lease ที่หมดอายุแล้วของ node อื่น
+     *
+     * @return 1 = ได้ lease, 0 = node อื่นถืออยู่
+     */
+    @Modifying
+    @Query("""
+        UPDATE SchedulerLease l
+           SET l.owner = :owner, l.leaseUntil = :until
+         WHERE l.name = :name
+           AND (l.owner = :owner OR l.leaseUntil < :now)
+    """)
+    int tryAcquire(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("now") LocalDateTime now,
+                   @Param("until") LocalDateTime until);
+
+    /**
+     * สร้างแถว lease ครั้งแรก (ถ้ามีแถวอยู่แล้วจะถูกข้าม)
+     *
+     * @return 1 = สร้างและได้ lease, 0 = มีแถวอยู่แล้ว
+     */
+    @Modifying
+    @Query(value = """
+        INSERT IGNORE INTO scheduler_leases (name, owner, lease_until)
+        VALUES (:name, :owner, :until)
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name,
+                       @Param("owner") String owner,
+                       @Param("until") LocalDateTime until);
+}
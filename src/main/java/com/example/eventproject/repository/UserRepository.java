@@ -2,8 +2,11 @@ package com.example.eventproject.repository;
 
 import com.example.eventproject.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,4 +23,16 @@ public interface UserRepository extends JpaRepository<User, String> {
     /** ดึงผู้ใช้ทั้งหมดที่มี role code ที่กำหนด (เช่น 'ADMIN', 'USER', 'GUEST') */
     @Query("SELECT u FROM User u WHERE u.role.code = :roleCode")
     List<User> findAllByRoleCode(String roleCode);
+
+    /** token version ปัจจุบันของผู้ใช้ (ไม่ join roles) — ใช้ตรวจว่า token ถูกเพิกถอนหรือยัง */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.email = :email")
+    Optional<Integer> findTokenVersion(@Param("email") String email);
+
+    /** เปลี่ยน hash เฉพาะเมื่อ hash เดิมยังเป็นค่าที่อ่านไป (ผู้ใช้เปลี่ยนรหัสระหว่างนั้น → ไม่ทับ) */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :hash WHERE u.email = :email AND u.password = :expected")
+    int replacePassword(@Param("email") String email,
+                        @Param("expected") String expected,
+                        @Param("hash") String hash);
 }
@@ -0,0 +1,92 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.model.ZoneInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Repository สำหรับตัวนับสต็อกโซน (zone_inventory)
+ * --------------------------------------------------------
+ * ทุกคำสั่งเป็น UPDATE แถวเดียวแบบมีเงื่อนไข → ปลอดภัยแม้หลาย node ใช้ MySQL ตัวเดียวกัน
+ */
+@Repository
+public interface ZoneInventoryRepository extends JpaRepository<ZoneInventory, Integer> {
+
+    /**
+     * จองที่นั่ง (held += qty) เฉพาะเมื่อเหลือพอ
+     *
+     * @return 1 = จองสำเร็จ, 0 = ที่นั่งไม่พอ หรือยังไม่มีแถวของโซนนี้
+     */
+    @Modifying
+    @Query("""
+        UPDATE ZoneInventory i
+           SET i.held = i.held + :qty
+         WHERE i.zoneId = :zoneId
+           AND i.capacity - i.held - i.sold >= :qty
+    """)
+    int tryReserve(@Param("zoneId") Integer zoneId, @Param("qty") int qty);
+
+    /**
+     * คืนที่นั่งที่ถือไว้ (held -= qty) เช่น hold หมดอายุ / ยกเลิก
+     */
+    @Modifying
+    @Query("""
+        UPDATE ZoneInventory i
+           SET i.held = i.held - :qty
+         WHERE i.zoneId = :zoneId
+           AND i.held >= :qty
+    """)
+    int release(@Param("zoneId") Integer zoneId, @Param("qty") int qty);
+
+    /**
+     * ยืนยันการขาย: ย้ายจาก held → sold
+     */
+    @Modifying
+    @Query("""
+        UPDATE ZoneInventory i
+           SET i.held = i.held - :qty,
+               i.sold = i.sold + :qty
+         WHERE i.zoneId = :zoneId
+           AND i.held >= :qty
+    """)
+    int commit(@Param("zoneId") Integer zoneId, @Param("qty") int qty);
+
+    /**
+     * สร้างแถวเริ่มต้นของโซน (ถ้ามี node อื่นสร้างไปแล้วจะถูกข้าม)
+     */
+    @Modifying
+    @Query(value = """
+        INSERT IGNORE INTO zone_inventory (zone_id, capacity, held, sold)
+        VALUES (:zoneId, :capacity, :held, :sold)
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("zoneId") Integer zoneId,
+                       @Param("capacity") int capacity,
+                       @Param("held") int held,
+                       @Param("sold") int sold);
+
+    /** แถวของโซนที่กำลังจะถูกลบ (แก้ไข event → สร้างโซนใหม่) */
+    @Modifying
+    @Query("DELETE FROM ZoneInventory i WHERE i.zoneId IN :zoneIds")
+    int deleteByZoneIds(@Param("zoneIds") Collection<Integer> zoneIds);
+
+    /** ทุกแถวของโซนใน event (ต้องเรียกก่อนลบ session / zone ของ event) */
+    @Modifying
+    @Query("""
+        DELETE FROM ZoneInventory i
+         WHERE i.zoneId IN (SELECT z.id FROM EventZone z WHERE z.session.event.id = :eventId)
+    """)
+    int deleteByEventId(@Param("eventId") Integer eventId);
+
+    /** แถวของโซนที่ถูกลบไปแล้วทางอื่น */
+    @Modifying
+    @Query(value = """
+        DELETE FROM zone_inventory
+         WHERE NOT EXISTS (SELECT 1 FROM event_zones z WHERE z.id = zone_inventory.zone_id)
+    """, nativeQuery = true)
+    int deleteOrphans();
+}
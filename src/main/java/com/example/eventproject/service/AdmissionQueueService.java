@@ -0,0 +1,293 @@
+package com.example.eventproject.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.eventproject.config.JwtUtil;
+import com.example.eventproject.dto.QueueDto;
+import com.example.eventproject.model.AdmissionQueue;
+import com.example.eventproject.repository.AdmissionQueueRepository;
+import com.example.eventproject.repository.EventRepository;
+import com.example.eventproject.repository.QueuePassUseRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+
+/**
+ * Waiting room หน้าระบบจองช่วงเปิดขาย (saleStartAt → + window-minutes)
+ * --------------------------------------------------------------
+ * - join: ได้ลำดับคิวจากแถว admission_queues ของ event (แชร์ทุก node) ใส่ไว้ใน queue token ที่เซ็นแล้ว
+ *   → ไม่ต้องเก็บ state ต่อคน
+ * - ปล่อยคิวตามอัตรา admit-per-second ต่อ event รวมทุก node: frontier คิดจากเวลาอย่างเดียว (base + rate × เวลา)
+ *   → poll ที่ node ไหนก็ได้ผลเดียวกัน / burst ≤ 1 วินาทีคุมตอนแจกลำดับ
+ * - ลำดับถึงแล้ว → ได้ pass token อายุสั้นไว้ยื่นตอนจอง (ผูกกับ email ที่ join / jti = "eventId:ลำดับคิว")
+ * - ลำดับคิว 1 ลำดับจองสำเร็จได้ครั้งเดียว: poll ซ้ำได้ pass ใหม่แต่ jti เดิม (บันทึกใน queue_pass_uses ตอนจอง
+ *   เก็บไว้จน queue token หมดอายุ → ออก pass ใหม่จากลำดับเดิมไม่ได้อีก)
+ * - poll / ตรวจ pass แทบไม่แตะ DB (เวลาเปิดขาย / สถานะคิว cache สั้น ๆ ต่อ node ใน Caffeine จำกัดจำนวน event)
+ */
+@Service
+public class AdmissionQueueService {
+
+    static final String CLAIM_TYPE = JwtUtil.CLAIM_TYPE;
+    static final String CLAIM_EVENT = "eid";
+    static final String CLAIM_POSITION = "pos";
+    static final String CLAIM_EMAIL = "eml";
+    static final String CLAIM_QUEUE_EXPIRES = "qex";
+    static final String TYPE_QUEUE = "queue";
+    static final String TYPE_PASS = "pass";
+    static final String PRUNE_LEASE = "queue-pass-prune";
+    static final int PRUNE_BATCH = 1000;
+
+    private final JwtUtil jwtUtil;
+    private final JwtParser tokenParser;
+    private final EventRepository eventRepository;
+    private final AdmissionQueueRepository queueRepository;
+    private final QueuePassUseRepository passUseRepository;
+    private final SchedulerLeaseService leaseService;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int defaultRatePerSecond;
+    private final Duration window;
+    private final Duration passTtl;
+    private final Duration queueTokenTtl;
+
+    // ว่าง = event ไม่มี / ยังไม่มีใคร join (cache ผลว่างด้วย แต่จำกัดจำนวน key — eventId มาจาก client)
+    private final LoadingCache<Integer, Optional<AdmissionQueue>> queueStates;
+    private final LoadingCache<Integer, Optional<Long>> saleStarts;
+
+    public AdmissionQueueService(JwtUtil jwtUtil,
+                                 EventRepository eventRepository,
+                                 AdmissionQueueRepository queueRepository,
+                                 QueuePassUseRepository passUseRepository,
+                                 SchedulerLeaseService leaseService,
+                                 Clock clock,
+                                 @Value("${app.queue.enabled:true}") boolean enabled,
+                                 @Value("${app.queue.admit-per-second:50}") int defaultRatePerSecond,
+                                 @Value("${app.queue.window-minutes:60}") long windowMinutes,
+                                 @Value("${app.queue.pass-ttl-seconds:600}") long passTtlSeconds,
+                                 @Value("${app.queue.token-ttl-hours:6}") long queueTokenTtlHours,
+                                 @Value("${app.queue.sale-start-cache-ms:30000}") long saleStartCacheMs,
+                                 @Value("${app.queue.state-cache-ms:1000}") long stateCacheMs,
+                                 @Value("${app.queue.cache-max-events:10000}") long cacheMaxEvents) {
+        this.jwtUtil = jwtUtil;
+        this.eventRepository = eventRepository;
+        this.queueRepository = queueRepository;
+        this.passUseRepository = passUseRepository;
+        this.leaseService = leaseService;
+        this.clock = clock;
+        this.tokenParser = jwtUtil.newParser(clock);
+        this.enabled = enabled;
+        this.defaultRatePerSecond = Math.max(1, defaultRatePerSecond);
+        this.window = Duration.ofMinutes(windowMinutes);
+        this.passTtl = Duration.ofSeconds(passTtlSeconds);
+        this.queueTokenTtl = Duration.ofHours(queueTokenTtlHours);
+        // ticker ตาม clock ที่ inject → test เลื่อนเวลาได้ / โหลดพร้อมกันหลายคำขอ → query ครั้งเดียว
+        this.queueStates = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEvents)
+                .expireAfterWrite(Duration.ofMillis(stateCacheMs))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build(queueRepository::findById);
+        this.saleStarts = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEvents)
+                .expireAfterWrite(Duration.ofMillis(saleStartCacheMs))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build(id -> eventRepository.findSaleStartAtById(id)
+                        .map(t -> t.atZone(clock.getZone()).toInstant().toEpochMilli()));
+    }
+
+    /* ==========================================================
+       JOIN — ต่อคิวของ event (UPDATE ล็อกแถวของ event จน commit → ลำดับไม่ซ้ำทุก node)
+       ========================================================== */
+    @Transactional
+    public QueueDto.Status join(Integer eventId, String email) {
+        if (eventId == null) {
+            throw new IllegalArgumentException("eventId is required");
+        }
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("email is required");
+        }
+        long now = clock.millis();
+        Long saleStart = saleStartMillis(eventId);
+        if (saleStart == null && !eventRepository.existsById(eventId)) {
+            throw new IllegalArgumentException("Event not found");
+        }
+
+        if (queueRepository.issue(eventId, now) == 0) {
+            queueRepository.insertIfAbsent(eventId, defaultRatePerSecond, startOf(saleStart, now));
+            queueRepository.issue(eventId, now);
+        }
+        AdmissionQueue queue = queueRepository.findById(eventId).orElseThrow();
+        queueStates.put(eventId, Optional.of(queue));
+        long position = queue.getIssued();
+        long queueExpires = now + queueTokenTtl.toMillis();
+        String queueToken = jwtUtil.signClaims("queue:" + eventId,
+                Map.of(CLAIM_TYPE, TYPE_QUEUE, CLAIM_EVENT, eventId, CLAIM_POSITION, position,
+                        CLAIM_EMAIL, normalize(email)),
+                new Date(queueExpires));
+        return statusOf(queueToken, eventId, normalize(email), position, queueExpires, queue, saleStart, now);
+    }
+
+    /* ==========================================================
+       STATUS — poll ลำดับคิวด้วย queue token
+       ========================================================== */
+    public QueueDto.Status status(String queueToken) {
+        Claims claims = queueToken == null ? null : parse(queueToken);
+        if (claims == null || !TYPE_QUEUE.equals(claims.get(CLAIM_TYPE, String.class))) {
+            throw new IllegalArgumentException("Invalid or expired queue token");
+        }
+        Integer eventId = claims.get(CLAIM_EVENT, Integer.class);
+        long position = claims.get(CLAIM_POSITION, Number.class).longValue();
+        String email = claims.get(CLAIM_EMAIL, String.class);
+        if (email == null) {
+            throw new IllegalArgumentException("Invalid or expired queue token");
+        }
+        long now = clock.millis();
+        return statusOf(queueToken, eventId, email, position, claims.getExpiration().getTime(),
+                queueStates.get(eventId).orElse(null), saleStartMillis(eventId), now);
+    }
+
+    /* ==========================================================
+       ADMISSION CHECK — เรียกก่อนจอง
+       - นอกช่วงเปิดขายที่คนเยอะ → ผ่านเลย
+       - ในช่วงนั้น → ต้องมี pass token ของ event นี้ + email ผู้จอง ที่ยังไม่หมดอายุ
+       ========================================================== */
+    public boolean isAdmitted(Integer eventId, String email, String passToken) {
+        if (eventId == null) return true;
+        long now = clock.millis();
+        if (!isQueueActive(saleStartMillis(eventId), now)) return true;
+        return validPass(eventId, email, passToken) != null;
+    }
+
+    /**
+     * ใช้ pass จองจริง (เรียกหลังได้ Idempotency-Key แล้ว) — ลำดับคิว 1 ลำดับใช้ได้ครั้งเดียวทุก node
+     *
+     * @return false = ลำดับนี้ถูกใช้ไปแล้ว (pass ใบนี้หรือใบอื่นที่ poll ได้จากลำดับเดียวกัน) / ไม่ถูกต้อง
+     */
+    public boolean consumePass(Integer eventId, String email, String passToken) {
+        if (eventId == null) return true;
+        long now = clock.millis();
+        if (!isQueueActive(saleStartMillis(eventId), now)) return true;
+
+        Claims claims = validPass(eventId, email, passToken);
+        if (claims == null || claims.getId() == null) return false;
+        // เก็บจน queue token หมดอายุ (ยัง poll ออก pass jti เดิมได้ถึงตอนนั้น)
+        Number queueExpires = claims.get(CLAIM_QUEUE_EXPIRES, Number.class);
+        long keepUntil = Math.max(claims.getExpiration().getTime(), queueExpires == null ? 0 : queueExpires.longValue());
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(keepUntil), clock.getZone());
+        return passUseRepository.insertIfAbsent(claims.getId(), expiresAt) == 1;
+    }
+
+    /** คืน pass ที่ consume ไปแล้วแต่จองไม่สำเร็จ → ยื่นจองใหม่ได้ */
+    public void releasePass(String passToken) {
+        Claims claims = passToken == null || passToken.isBlank() ? null : parse(passToken);
+        if (claims != null && TYPE_PASS.equals(claims.get(CLAIM_TYPE, String.class)) && claims.getId() != null) {
+            passUseRepository.release(claims.getId());
+        }
+    }
+
+    /** ปรับอัตราปล่อยคิวของ event (รวมทุก node — node อื่นเห็นภายใน state-cache-ms) */
+    @Transactional
+    public void setRate(Integer eventId, int perSecond) {
+        if (perSecond <= 0) {
+            throw new IllegalArgumentException("perSecond must be > 0");
+        }
+        long now = clock.millis();
+        queueRepository.insertIfAbsent(eventId, perSecond, startOf(saleStartMillis(eventId), now));
+        queueRepository.rebase(eventId, perSecond, now);
+        queueStates.invalidate(eventId);
+    }
+
+    /** ลบบันทึกการใช้ของ pass ที่หมดอายุแล้ว (node ที่ถือ lease) */
+    @Scheduled(fixedDelayString = "${app.queue.pass-prune-interval-ms:600000}",
+            initialDelayString = "${app.queue.pass-prune-initial-delay-ms:60000}")
+    public void pruneUsedPasses() {
+        if (!leaseService.tryAcquire(PRUNE_LEASE, Duration.ofMinutes(5))) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        int n;
+        do {
+            n = passUseRepository.deleteExpired(now, PRUNE_BATCH);
+        } while (n == PRUNE_BATCH);
+    }
+
+    /* ==========================================================
+       UTILITIES
+       ========================================================== */
+
+    private QueueDto.Status statusOf(String queueToken, Integer eventId, String email, long position,
+                                     long queueExpires, AdmissionQueue queue, Long saleStart, long now) {
+        boolean active = isQueueActive(saleStart, now);
+        long frontier = !active ? Long.MAX_VALUE : queue == null ? 0 : queue.frontier(now);
+        boolean admitted = position <= frontier;
+
+        if (admitted) {
+            Instant passExpires = Instant.ofEpochMilli(now).plus(passTtl);
+            // jti ผูกกับลำดับคิว → poll กี่ครั้งก็จองได้ครั้งเดียว
+            String pass = jwtUtil.signClaims("queue-pass:" + eventId,
+                    Map.of(CLAIM_TYPE, TYPE_PASS, CLAIM_EVENT, eventId, CLAIM_EMAIL, email,
+                            Claims.ID, eventId + ":" + position, CLAIM_QUEUE_EXPIRES, queueExpires),
+                    Date.from(passExpires));
+            return new QueueDto.Status(queueToken, eventId, position, 0, 0, true, pass,
+                    LocalDateTime.ofInstant(passExpires, clock.getZone()), 0);
+        }
+
+        long ahead = position - frontier - 1;
+        int rate = queue == null ? defaultRatePerSecond : queue.getRate();
+        long waitSeconds = (position - frontier + rate - 1) / rate;
+        // ยิ่งใกล้ถึงคิวยิ่ง poll ถี่ (2–30 วินาที)
+        int pollAfter = (int) Math.max(2, Math.min(30, waitSeconds / 4));
+        return new QueueDto.Status(queueToken, eventId, position, ahead, waitSeconds, false, null, null, pollAfter);
+    }
+
+    /** pass ของ event นี้ + email นี้ ที่ลายเซ็นถูกและยังไม่หมดอายุ / ไม่ใช่ → null */
+    private Claims validPass(Integer eventId, String email, String passToken) {
+        if (passToken == null || passToken.isBlank() || email == null) return null;
+        Claims claims = parse(passToken);
+        boolean ok = claims != null
+                && TYPE_PASS.equals(claims.get(CLAIM_TYPE, String.class))
+                && eventId.equals(claims.get(CLAIM_EVENT, Integer.class))
+                && normalize(email).equals(claims.get(CLAIM_EMAIL, String.class));
+        return ok ? claims : null;
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase();
+    }
+
+    private Claims parse(String token) {
+        try {
+            return tokenParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean isQueueActive(Long saleStart, long now) {
+        return enabled && saleStart != null && now < saleStart + window.toMillis();
+    }
+
+    /** เวลาเริ่มปล่อยคิว: ตอนเปิดขาย (หรือตอนนี้ ถ้าเลยมาแล้ว / ไม่มีเวลาเปิดขาย) */
+    private static long startOf(Long saleStart, long now) {
+        return Math.max(now, saleStart == null ? now : saleStart);
+    }
+
+    /** เวลาเปิดขาย (epoch ms) / ไม่มี → null */
+    private Long saleStartMillis(Integer eventId) {
+        return saleStarts.get(eventId).orElse(null);
+    }
+}
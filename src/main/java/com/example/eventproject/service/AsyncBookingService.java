@@ -0,0 +1,235 @@
+package com.example.eventproject.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.eventproject.dto.RegistrationDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * โหมดจองแบบ async (app.booking.async.enabled=true) สำหรับ flash sale
+ * --------------------------------------------------------------
+ * - POST ตรวจ input แล้วเข้าคิว → ตอบ 202 + orderId ทันที
+ * - คิวแบ่งตาม eventId ให้ writer thread ละ 1 คิว (event เดียวกันไปคิวเดียวกันเสมอ)
+ * - writer ดึงทีละก้อน (≤ max-batch) แล้ว checkoutBatch = 1 transaction ต่อก้อน (group commit)
+ *   ถ้าทั้งก้อน commit ไม่ผ่าน → ทำทีละ order เพื่อไม่ให้ order เดียวลากทั้งก้อนล้ม
+ * - client poll ผลที่ GET /api/registrations/orders/{orderId} (เก็บไว้ result-ttl-minutes)
+ * - order ที่ยัง PENDING เกิน pending-timeout-minutes (writer ตาย / คิวหายตอน shutdown) → REJECTED
+ *   และ writer จะไม่จอง order นั้นอีก
+ * คิวและผลลัพธ์อยู่ใน memory ของ node ที่รับคำขอ
+ */
+@Slf4j
+@Service
+public class AsyncBookingService {
+
+    public static final String PENDING = "PENDING";
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String REJECTED = "REJECTED";
+
+    private final RegistrationService registrationService;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final Duration resultTtl;
+    private final Duration pendingTimeout;
+    private final List<BlockingQueue<PendingOrder>> queues = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private final ConcurrentHashMap<String, RegistrationDto.OrderStatus> results = new ConcurrentHashMap<>();
+    /** order ที่ writer กำลังจองอยู่ — purge ห้ามตัดสินว่าหมดเวลา */
+    private final Set<String> processing = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+
+    public AsyncBookingService(RegistrationService registrationService,
+                               Clock clock,
+                               @Value("${app.booking.async.enabled:false}") boolean enabled,
+                               @Value("${app.booking.async.writers:4}") int writers,
+                               @Value("${app.booking.async.queue-capacity:10000}") int queueCapacity,
+                               @Value("${app.booking.async.max-batch:100}") int maxBatch,
+                               @Value("${app.booking.async.result-ttl-minutes:15}") long resultTtlMinutes,
+                               @Value("${app.booking.async.pending-timeout-minutes:5}") long pendingTimeoutMinutes) {
+        this.registrationService = registrationService;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.resultTtl = Duration.ofMinutes(resultTtlMinutes);
+        this.pendingTimeout = Duration.ofMinutes(pendingTimeoutMinutes);
+        int partitions = Math.max(1, writers);
+        int perQueue = Math.max(1, queueCapacity / partitions);
+        for (int i = 0; i < partitions; i++) {
+            queues.add(new ArrayBlockingQueue<>(perQueue));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        running = true;
+        for (int i = 0; i < queues.size(); i++) {
+            BlockingQueue<PendingOrder> queue = queues.get(i);
+            Thread writer = new Thread(() -> drainLoop(queue), "booking-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+        log.info("Async booking enabled: {} writer(s), batch ≤ {}", queues.size(), maxBatch);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        writers.forEach(Thread::interrupt);
+    }
+
+    /* ==========================================================
+       SUBMIT — ตรวจ input แล้วเข้าคิว
+       @return สถานะ PENDING (มี orderId) หรือ empty ถ้าคิวเต็ม
+       ========================================================== */
+    public Optional<RegistrationDto.OrderStatus> submit(RegistrationDto.CheckoutRequest request) {
+        if (request.eventId() == null || request.sessionId() == null) {
+            throw new IllegalArgumentException("eventId and sessionId are required");
+        }
+        RegistrationService.mergeLines(request.lines());
+        RegistrationService.normalizeEmail(request.email());
+
+        String orderId = UUID.randomUUID().toString();
+        RegistrationDto.OrderStatus pending = new RegistrationDto.OrderStatus(
+                orderId, PENDING, null, null, LocalDateTime.now(clock), null);
+        results.put(orderId, pending);
+
+        if (!queues.get(partitionOf(request.eventId())).offer(new PendingOrder(orderId, request))) {
+            results.remove(orderId);
+            return Optional.empty();
+        }
+        return Optional.of(pending);
+    }
+
+    public Optional<RegistrationDto.OrderStatus> status(String orderId) {
+        return Optional.ofNullable(results.get(orderId));
+    }
+
+    /**
+     * ล้างผลลัพธ์ที่เกิน TTL และตัดสิน order ที่ค้าง PENDING นานเกินเป็น REJECTED
+     * (ไม่ต้องใช้ lease — เป็น state ใน memory ของ node นี้)
+     */
+    @Scheduled(fixedDelayString = "${app.booking.async.purge-interval-ms:60000}")
+    public void purgeResults() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime pendingCutoff = now.minus(pendingTimeout);
+        for (String orderId : results.keySet()) {
+            // compute ต่อ key → ไม่ชนกับ claim ของ writer
+            results.computeIfPresent(orderId, (id, s) ->
+                    PENDING.equals(s.status()) && s.submittedAt().isBefore(pendingCutoff) && !processing.contains(id)
+                            ? new RegistrationDto.OrderStatus(id, REJECTED, "Booking timed out, please try again",
+                                    null, s.submittedAt(), now)
+                            : s);
+        }
+        LocalDateTime cutoff = now.minus(resultTtl);
+        results.values().removeIf(s -> s.completedAt() != null && s.completedAt().isBefore(cutoff));
+    }
+
+    /* ==========================================================
+       WRITER
+       ========================================================== */
+
+    private void drainLoop(BlockingQueue<PendingOrder> queue) {
+        List<PendingOrder> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Async booking writer failed on a batch of {} order(s)", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** ประมวลผล 1 ก้อน (แยกออกมาให้ test เรียกตรงได้) */
+    void process(List<PendingOrder> batch) {
+        List<PendingOrder> claimed = batch.stream().filter(this::claim).toList();
+        if (claimed.isEmpty()) return;
+        try {
+            List<RegistrationService.CheckoutOutcome> outcomes;
+            try {
+                outcomes = registrationService.checkoutBatch(claimed.stream().map(PendingOrder::request).toList());
+            } catch (RuntimeException batchFailure) {
+                log.warn("Group commit of {} order(s) failed, retrying one by one: {}",
+                        claimed.size(), batchFailure.getMessage());
+                claimed.forEach(this::processSingle);
+                return;
+            }
+            for (int i = 0; i < claimed.size(); i++) {
+                complete(claimed.get(i), outcomes.get(i));
+            }
+        } finally {
+            claimed.forEach(order -> processing.remove(order.orderId()));
+        }
+    }
+
+    /** รับ order มาจอง — เฉพาะที่ยัง PENDING (หมดเวลาแล้ว = client รู้ว่าล้มแล้ว ห้ามจองทีหลัง) */
+    private boolean claim(PendingOrder order) {
+        results.computeIfPresent(order.orderId(), (id, s) -> {
+            if (PENDING.equals(s.status())) processing.add(id);
+            return s;
+        });
+        return processing.contains(order.orderId());
+    }
+
+    private void processSingle(PendingOrder order) {
+        var req = order.request();
+        try {
+            var tickets = registrationService.checkout(req.email(), req.eventId(), req.sessionId(), req.lines());
+            complete(order, new RegistrationService.CheckoutOutcome(tickets, 201, null));
+        } catch (IllegalArgumentException ex) {
+            complete(order, new RegistrationService.CheckoutOutcome(null, 400, ex.getMessage()));
+        } catch (IllegalStateException ex) {
+            complete(order, new RegistrationService.CheckoutOutcome(null, 409, ex.getMessage()));
+        } catch (RuntimeException ex) {
+            log.error("Async order {} failed", order.orderId(), ex);
+            complete(order, new RegistrationService.CheckoutOutcome(null, 500, "Booking failed, please try again"));
+        }
+    }
+
+    private void complete(PendingOrder order, RegistrationService.CheckoutOutcome outcome) {
+        RegistrationDto.OrderStatus pending = results.get(order.orderId());
+        LocalDateTime submittedAt = pending != null ? pending.submittedAt() : null;
+        RegistrationDto.OrderStatus done = outcome.isConfirmed()
+                ? new RegistrationDto.OrderStatus(order.orderId(), CONFIRMED, null,
+                        RegistrationDto.CreateResponse.from(outcome.tickets()), submittedAt, LocalDateTime.now(clock))
+                : new RegistrationDto.OrderStatus(order.orderId(), REJECTED, outcome.error(),
+                        null, submittedAt, LocalDateTime.now(clock));
+        results.put(order.orderId(), done);
+    }
+
+    private int partitionOf(Integer eventId) {
+        return Math.floorMod(eventId * 0x9E3779B9, queues.size());
+    }
+
+    record PendingOrder(String orderId, RegistrationDto.CheckoutRequest request) {}
+}
@@ -1,9 +1,9 @@
 package com.example.eventproject.service;
 
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -19,16 +19,22 @@ import com.example.eventproject.repository.UserRepository;
 @Service
 public class AuthService {
 
+    // ต้องตรงกับ id ของ encoder ใน SecurityConfig.passwordEncoder
+    private static final Pattern HASHED = Pattern.compile("\\{(bcrypt|pbkdf2)}|\\$2[aby]\\$");
+
     private final UserRepository users;
     private final RoleRepository roles;
-    private final PasswordEncoder encoder;
+    // BCrypt รันบน pool ของตัวเอง (คิวเต็ม → 503)
+    private final PasswordHashingService encoder;
+    private final PasswordUpgradeService upgrades;
     private final JwtUtil jwt;
 
     public AuthService(UserRepository users, RoleRepository roles,
-                       PasswordEncoder encoder, JwtUtil jwt) {
+                       PasswordHashingService encoder, PasswordUpgradeService upgrades, JwtUtil jwt) {
         this.users = users;
         this.roles = roles;
         this.encoder = encoder;
+        this.upgrades = upgrades;
         this.jwt = jwt;
     }
 
@@ -78,7 +84,7 @@ public class AuthService {
                     ? existing.getRole().getCode()
                     : "USER";
 
-            String token = jwt.create(existing.getEmail(), roleCode);
+            String token = jwt.create(existing, roleCode);
             return new AuthResponse(token, existing.getEmail(), existing.getName(), roleCode);
         }
 
@@ -97,7 +103,7 @@ public class AuthService {
                 ? userRole.getCode()
                 : "USER";
 
-        String token = jwt.create(u.getEmail(), roleCode);
+        String token = jwt.create(u, roleCode);
 
         return new AuthResponse(token, u.getEmail(), u.getName(), roleCode);
     }
@@ -114,20 +120,21 @@ public class AuthService {
 
         String stored = u.getPassword() == null ? "" : u.getPassword();
 
-        // ตรวจว่าเป็น BCrypt จริง ๆ ($2a/$2b/$2y)
-        boolean isBcrypt = stored.startsWith("$2a$") || stored.startsWith("$2b$") || stored.startsWith("$2y$");
+        // hash แบบมี version ({bcrypt} / {pbkdf2}) หรือ BCrypt เดิมที่ไม่มี prefix ($2a/$2b/$2y)
+        // อย่างอื่น (รวม plaintext ที่ขึ้นต้นด้วย "{") = plaintext เดิม
+        boolean isHashed = HASHED.matcher(stored).lookingAt();
 
         boolean ok;
-        if (isBcrypt) {
+        if (isHashed) {
             ok = encoder.matches(raw, stored);
         } else {
             // legacy: plaintext ใน DB → เทียบตรง 1 ครั้ง
             ok = !stored.isEmpty() && stored.equals(raw);
-            // ถ้าเทียบตรงผ่าน → อัปเกรดเป็น BCrypt ทันที
-            if (ok) {
-                u.setPassword(encoder.encode(raw)); // encode จากรหัสที่กรอก
-                users.save(u);
-            }
+        }
+
+        // ผ่านแล้ว + hash ไม่ตรงเป้า (plaintext / algorithm เก่า / cost ต่ำ) → hash ใหม่เบื้องหลัง ไม่ให้ login รอ
+        if (ok && (!isHashed || upgrades.needsUpgrade(stored))) {
+            upgrades.rehashLater(u.getEmail(), raw, stored);
         }
 
         if (!ok) {
@@ -140,7 +147,7 @@ public class AuthService {
             roleCode = u.getRole().getCode();
         }
 
-        String token = jwt.create(u.getEmail(), roleCode);
+        String token = jwt.create(u, roleCode);
         return new AuthResponse(token, u.getEmail(), u.getName(), roleCode);
     }
 }
@@ -1,10 +1,11 @@
 package com.example.eventproject.service;
 
+import com.example.eventproject.dto.DashboardCounts;
 import com.example.eventproject.dto.DashboardDto;
+import com.example.eventproject.dto.EventSalesPage;
+import com.example.eventproject.dto.EventSalesRow;
 import com.example.eventproject.dto.EventSalesSummary;
-import com.example.eventproject.model.Event;
 import com.example.eventproject.repository.DashboardRepository;
-import com.example.eventproject.repository.EventRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,13 +13,15 @@ import java.util.List;
 @Service
 public class DashboardService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    static final String SORT_ID = "id";
+    static final String SORT_SELL_THROUGH = "sellThrough";
+
     private final DashboardRepository repo;
-    private final EventRepository eventRepo;
 
 
-    public DashboardService(DashboardRepository repo, EventRepository eventRepo) {
+    public DashboardService(DashboardRepository repo) {
         this.repo = repo;
-        this.eventRepo = eventRepo;
     }
 
     public DashboardDto getDashboard(Integer eventId) {
@@ -28,17 +31,17 @@ public class DashboardService {
         // --------------------------
         if (eventId == null) {
 
-            long activeEvents = repo.countActiveEvents();
-            long ticketsSold = repo.countTicketsSoldAll();
-            long totalRegistrations = repo.countRegistrationsAll();
-            long checkIn = repo.countCheckinAll();
+            DashboardCounts counts = repo.summarizeAll();
+            long ticketsSold = counts.ticketsSold();
+            long totalRegistrations = counts.registrations();
+            long checkIn = counts.checkIn();
 
             long totalSignups = totalRegistrations;       // all regis
             long dropOffs = totalRegistrations - ticketsSold;
             long showRate = ticketsSold == 0 ? 0 : (checkIn * 100 / ticketsSold);
 
             return new DashboardDto(
-                    activeEvents,
+                    counts.activeEvents(),
                     ticketsSold,
                     totalRegistrations,
                     totalSignups,
@@ -51,10 +54,11 @@ public class DashboardService {
         // --------------------------
         // Specific Event Summary
         // --------------------------
-        long totalSignups = repo.countSignupsByEvent(eventId);
-        long dropOffs = repo.countDropoffsByEvent(eventId);
-        long ticketsSold = repo.countTicketsSoldByEvent(eventId);
-        long checkIn = repo.countCheckinByEvent(eventId);
+        DashboardCounts counts = repo.summarizeByEvent(eventId);
+        long totalSignups = counts.registrations();
+        long ticketsSold = counts.ticketsSold();
+        long dropOffs = totalSignups - ticketsSold;       // ยังไม่จ่าย / หมดอายุ
+        long checkIn = counts.checkIn();
 
         long showRate = ticketsSold == 0 ? 0 : (checkIn * 100 / ticketsSold);
 
@@ -68,21 +72,38 @@ public class DashboardService {
                 checkIn
         );
     }
+    /** ตารางทุก event เรียงตาม id (query เดียว ไม่ใช่ 2 query ต่อ event) */
     public List<EventSalesSummary> getEventTable() {
-        List<Event> events = eventRepo.findAll();
-
-        return events.stream().map(ev -> {
-            long capacity = repo.sumCapacityByEvent(ev.getId());
-            long sold = repo.countSoldByEvent(ev.getId());
-
-            return new EventSalesSummary(
-                    ev.getId(),
-                    ev.getTitle(),
-                    ev.getCategory(),
-                    capacity,
-                    sold
-            );
-        }).toList();
+        return toSummaries(repo.findEventSales(SORT_ID, Integer.MAX_VALUE, 0));
+    }
+
+    /** ตารางทีละหน้า — sort = "sellThrough" → ขายได้ / ความจุ มากไปน้อย, "id" (default) → ตาม id */
+    public EventSalesPage getEventTablePage(int page, int limit, String sort) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        if (page < 0)
+            throw new IllegalArgumentException("page must not be negative");
+        String sortKey = sort == null || sort.isBlank() ? SORT_ID : sort.trim();
+        if (!SORT_ID.equals(sortKey) && !SORT_SELL_THROUGH.equals(sortKey))
+            throw new IllegalArgumentException("sort must be " + SORT_ID + " or " + SORT_SELL_THROUGH);
+
+        // ขอเกิน 1 แถว → รู้ว่ามีหน้าถัดไปโดยไม่ต้อง COUNT
+        List<EventSalesRow> rows = repo.findEventSales(sortKey, limit + 1, (long) page * limit);
+        boolean hasNext = rows.size() > limit;
+        List<EventSalesSummary> items = toSummaries(hasNext ? rows.subList(0, limit) : rows);
+        return new EventSalesPage(items, page, limit, hasNext);
+    }
+
+    private static List<EventSalesSummary> toSummaries(List<EventSalesRow> rows) {
+        return rows.stream()
+                .map(r -> new EventSalesSummary(
+                        r.getEventId(),
+                        r.getTitle(),
+                        r.getCategory(),
+                        r.getCapacity(),
+                        r.getSold()
+                ))
+                .toList();
     }
 
 }
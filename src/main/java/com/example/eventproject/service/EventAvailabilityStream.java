@@ -0,0 +1,212 @@
+package com.example.eventproject.service;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.eventproject.dto.EventAvailabilityFrame;
+import com.example.eventproject.dto.ZoneAvailabilityDto;
+import com.example.eventproject.repository.EventZoneRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SSE ที่นั่งคงเหลือราย event (ทุกโซนทุก session)
+ * --------------------------------------------------------------
+ * - ใช้ SseEmitter (async servlet) → connection ที่รออยู่ไม่กิน thread / ส่งผ่าน SseBroadcaster (ไม่ส่งบน scheduler)
+ * - รับยอดเปลี่ยนจาก ZoneInventoryChangedEvent หลัง commit (จอง / ยืนยัน / คืนที่นั่ง)
+ *   แล้วจดโซนที่เปลี่ยนไว้ → ส่งรวมเป็น frame เดียวต่อ event ทุก frame-interval-ms
+ * - frame แปลงเป็น JSON ครั้งเดียวแล้วส่งซ้ำให้ทุก connection
+ * - node อื่นเปลี่ยน → เห็นตอน resync จาก DB ทุก resync-ms (เฉพาะ event ที่มีผู้ฟัง, query นอก lock ของ channel)
+ * - ไม่มีอะไรเปลี่ยน → ส่ง comment ทุก heartbeat-ms กัน proxy ตัดสาย และเก็บกวาดสายที่หลุด
+ * - event ที่ไม่มีโซน (ไม่มี event นี้) → ไม่เปิด stream / event ที่ผู้ฟังออกหมดแล้ว → ลบ channel ในรอบ flush
+ */
+@Slf4j
+@Service
+public class EventAvailabilityStream {
+
+    static final String EVENT_SNAPSHOT = "snapshot";
+    static final String EVENT_DELTA = "delta";
+    private static final long NEVER_SYNCED = Long.MIN_VALUE / 2; // now - NEVER_SYNCED ไม่ล้น
+
+    private final EventZoneRepository zoneRepository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final SseBroadcaster.Topic<Integer> topic;
+    private final long resyncMs;
+    private final long timeoutMs;
+
+    private final ConcurrentHashMap<Integer, Channel> channels = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Integer> eventOfZone = new ConcurrentHashMap<>();
+
+    public EventAvailabilityStream(EventZoneRepository zoneRepository,
+                                   ObjectMapper objectMapper,
+                                   Clock clock,
+                                   SseBroadcaster broadcaster,
+                                   @Value("${app.availability.event-stream.resync-ms:5000}") long resyncMs,
+                                   @Value("${app.availability.event-stream.heartbeat-ms:15000}") long heartbeatMs,
+                                   @Value("${app.availability.event-stream.timeout-ms:1800000}") long timeoutMs) {
+        this.zoneRepository = zoneRepository;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.topic = broadcaster.topic(heartbeatMs);
+        this.resyncMs = resyncMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /* ==========================================================
+       SUBSCRIBE — ส่ง snapshot ทั้ง event แล้วรอ delta
+       ========================================================== */
+    /** @throws IllegalArgumentException ไม่มี event นี้ (ไม่มีโซนเลย) */
+    public SseEmitter subscribe(Integer eventId) {
+        while (true) {
+            Channel channel = channels.computeIfAbsent(eventId, k -> new Channel());
+            if (channel.syncedAtMs == NEVER_SYNCED) {
+                resync(eventId, channel, true);
+            }
+            synchronized (channel) {
+                if (channel.removed) continue; // flush ลบไประหว่างโหลด → เอา channel ใหม่
+                if (channel.remaining.isEmpty()) {
+                    remove(eventId, channel);
+                    throw new IllegalArgumentException("Event not found");
+                }
+                return topic.open(eventId, timeoutMs, frame(EVENT_SNAPSHOT, eventId, channel.remaining));
+            }
+        }
+    }
+
+    /* ==========================================================
+       APPLY — ยอดจองเปลี่ยนบน node นี้ (หลัง commit เท่านั้น)
+       ========================================================== */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(ZoneInventoryChangedEvent event) {
+        event.bookedDeltaByZone().forEach((zoneId, delta) -> {
+            Integer eventId = eventOfZone.get(zoneId);
+            if (eventId == null) return; // ยังไม่มีใครเปิด stream ของ event นี้
+            Channel channel = channels.get(eventId);
+            if (channel == null) return;
+            if (channel.remaining.computeIfPresent(zoneId, (k, left) -> left - delta) != null) {
+                channel.dirty.add(zoneId);
+            }
+        });
+    }
+
+    /* ==========================================================
+       FLUSH — ไม่เกิน 1 frame ต่อ event ต่อรอบ (แค่เข้าคิวส่ง ไม่รอ I/O)
+       ========================================================== */
+    @Scheduled(fixedDelayString = "${app.availability.event-stream.frame-interval-ms:1000}")
+    public void flush() {
+        long now = clock.millis();
+        channels.forEach((eventId, channel) -> {
+            if (!topic.hasSubscribers(eventId)) {
+                synchronized (channel) {
+                    // subscribe ที่ถือ lock เปิดสายก่อนเสมอ → เช็กซ้ำใต้ lock แล้วลบได้ปลอดภัย
+                    if (!topic.hasSubscribers(eventId)) remove(eventId, channel);
+                }
+                return;
+            }
+            if (now - channel.syncedAtMs >= resyncMs) {
+                try {
+                    resync(eventId, channel, false);
+                } catch (RuntimeException e) {
+                    log.warn("Cannot resync availability of event {}: {}", eventId, e.toString());
+                }
+            }
+
+            synchronized (channel) {
+                if (channel.dirty.isEmpty()) return;
+                Map<Integer, Long> changed = new TreeMap<>();
+                for (Integer zoneId : channel.dirty) {
+                    channel.dirty.remove(zoneId);
+                    Long left = channel.remaining.get(zoneId);
+                    if (left != null) changed.put(zoneId, left);
+                }
+                if (changed.isEmpty()) return;
+                topic.publish(eventId, frame(EVENT_DELTA, eventId, changed), now);
+            }
+        });
+        topic.heartbeat(now);
+    }
+
+    int subscriberCount(Integer eventId) {
+        return topic.subscriberCount(eventId);
+    }
+
+    int channelCount() {
+        return channels.size();
+    }
+
+    /* ==========================================================
+       UTILITIES
+       ========================================================== */
+
+    /**
+     * โหลดยอดจริงจาก DB (นอก lock ของ channel) แล้วจดโซนที่ค่าต่างจากที่ถืออยู่ว่าต้องส่ง
+     * wait = false → มีคนโหลดอยู่แล้วก็ข้ามรอบนี้ไป / true → รอ (ผู้ฟังแรกต้องได้ snapshot ที่โหลดแล้ว)
+     */
+    private void resync(Integer eventId, Channel channel, boolean wait) {
+        if (wait) {
+            channel.loading.lock();
+        } else if (!channel.loading.tryLock()) {
+            return;
+        }
+        try {
+            if (wait && channel.syncedAtMs != NEVER_SYNCED) return; // ผู้ฟังอื่นโหลดให้แล้ว
+            List<ZoneAvailabilityDto> zones = zoneRepository.findAvailabilityByEvent(eventId);
+            synchronized (channel) {
+                for (ZoneAvailabilityDto z : zones) {
+                    eventOfZone.put(z.zoneId(), eventId);
+                    Long previous = channel.remaining.put(z.zoneId(), z.available());
+                    if (previous != null && !previous.equals(z.available())) {
+                        channel.dirty.add(z.zoneId());
+                    }
+                }
+                channel.syncedAtMs = clock.millis();
+            }
+        } finally {
+            channel.loading.unlock();
+        }
+    }
+
+    /** ลบ channel ที่ไม่มีผู้ฟัง (เรียกใต้ lock ของ channel) */
+    private void remove(Integer eventId, Channel channel) {
+        channel.removed = true;
+        channels.remove(eventId, channel);
+        for (Integer zoneId : channel.remaining.keySet()) {
+            eventOfZone.remove(zoneId, eventId);
+        }
+    }
+
+    /** สร้าง frame ครั้งเดียว (JSON ครั้งเดียว) ใช้ส่งได้ทุก connection */
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(String name, Integer eventId, Map<Integer, Long> remaining) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(new EventAvailabilityFrame(eventId, new TreeMap<>(remaining)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize availability frame", e);
+        }
+        return SseEmitter.event().name(name).data(json).build();
+    }
+
+    /** ยอดคงเหลือล่าสุดต่อโซนของ event เดียว + โซนที่รอส่ง (ผู้ฟังอยู่ใน SseBroadcaster) */
+    private static final class Channel {
+        final ConcurrentHashMap<Integer, Long> remaining = new ConcurrentHashMap<>();
+        final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+        final ReentrantLock loading = new ReentrantLock();
+        volatile long syncedAtMs = NEVER_SYNCED;
+        boolean removed; // guarded by this
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.eventproject.service;
+
+/**
+ * โครงสร้างของ event เปลี่ยน (แก้ event / session / zone หรือ clone template ลง session)
+ * ผู้ฟังควรใช้ @TransactionalEventListener เพื่อล้าง cache หลัง commit เท่านั้น
+ *
+ * @param eventId event ที่ถูกแก้
+ */
+public record EventCatalogChangedEvent(Integer eventId) {}
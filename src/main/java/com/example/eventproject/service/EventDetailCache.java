@@ -0,0 +1,93 @@
+package com.example.eventproject.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.eventproject.dto.EventDetailDto;
+import com.example.eventproject.dto.EventDetailViewDto;
+import com.example.eventproject.dto.SessionDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * read-through cache ของเอกสาร event ที่ประกอบเสร็จแล้ว (GET /api/events/{id} และ /view)
+ * --------------------------------------------------------------
+ * - hit → ไม่เปิด transaction / ไม่ fetch join 3 ชั้น / ไม่สร้าง DTO ใหม่
+ * - Caffeine (W-TinyLFU) จำกัดด้วยน้ำหนัก = 1 + จำนวน session + จำนวนโซน (event ใหญ่กินที่มากกว่า)
+ * - ล้างราย event หลัง commit เมื่อ EventService.create/update/delete หรือ clone template ลง session
+ *   (EventCatalogChangedEvent) / template เปลี่ยน → ล้างทั้งหมด (templateIds อยู่ในเอกสาร)
+ * - saleStatus ขึ้นกับเวลา → คำนวณใหม่ทุก request
+ * - node อื่นแก้ → เห็นภายใน ttl-ms / hit, miss, eviction ดูได้ที่ /actuator/metrics/cache.*
+ */
+@Service
+public class EventDetailCache {
+
+    private final EventService eventService;
+    private final Clock clock;
+    private final Cache<Integer, EventDetailDto> details;
+    private final Cache<Integer, EventDetailViewDto> views;
+
+    public EventDetailCache(EventService eventService,
+                            Clock clock,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.catalog.event-cache.max-weight:50000}") long maxWeight,
+                            @Value("${app.catalog.event-cache.ttl-ms:300000}") long ttlMs) {
+        this.eventService = eventService;
+        this.clock = clock;
+        this.details = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Integer id, EventDetailDto d) -> weightOf(d.sessions()))
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        this.views = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Integer id, EventDetailViewDto v) -> weightOf(v.sessions()))
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, details, "eventDetail");
+        CaffeineCacheMetrics.monitor(meterRegistry, views, "eventView");
+    }
+
+    /** เหมือน EventService.get แต่อ่านจาก cache ก่อน (ไม่เจอ event → IllegalArgumentException เหมือนเดิม) */
+    public EventDetailDto get(Integer id) {
+        return details.get(id, eventService::get);
+    }
+
+    /** เหมือน EventService.getView แต่อ่านจาก cache ก่อน และคำนวณ saleStatus ใหม่ทุกครั้ง */
+    public EventDetailViewDto getView(Integer id) {
+        EventDetailViewDto view = views.get(id, eventService::getView);
+        return view.withSaleStatus(EventService.computeSaleStatus(view, LocalDateTime.now(clock)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(EventCatalogChangedEvent event) {
+        details.invalidate(event.eventId());
+        views.invalidate(event.eventId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplatesChanged(ZoneTemplatesChangedEvent event) {
+        details.invalidateAll();
+        views.invalidateAll();
+    }
+
+    private static int weightOf(List<SessionDto> sessions) {
+        int weight = 1;
+        if (sessions == null) return weight;
+        for (SessionDto s : sessions) {
+            weight += 1 + (s.zones() == null ? 0 : s.zones().size());
+        }
+        return weight;
+    }
+}
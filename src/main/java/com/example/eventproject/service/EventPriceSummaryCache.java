@@ -0,0 +1,54 @@
+package com.example.eventproject.service;
+
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.eventproject.dto.EventPriceSummary;
+import com.example.eventproject.repository.EventZoneRepository;
+
+/**
+ * cache สรุปราคาบัตรต่อ event (min / max / ราคาไม่ซ้ำ)
+ * --------------------------------------------------------------
+ * - โหลดด้วย query ที่กรองเฉพาะ event นั้น (ไม่ไล่ทุกโซนทั้งระบบ)
+ * - ล้างทันทีหลัง commit เมื่อ event ถูกแก้ (EventCatalogChangedEvent)
+ * - แก้จาก node อื่น → เห็นภายใน ttl-ms
+ */
+@Service
+public class EventPriceSummaryCache {
+
+    private final EventZoneRepository zoneRepository;
+    private final Clock clock;
+    private final long ttlMs;
+
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    public EventPriceSummaryCache(EventZoneRepository zoneRepository,
+                                  Clock clock,
+                                  @Value("${app.catalog.price-summary-ttl-ms:60000}") long ttlMs) {
+        this.zoneRepository = zoneRepository;
+        this.clock = clock;
+        this.ttlMs = ttlMs;
+    }
+
+    public EventPriceSummary get(Integer eventId) {
+        long now = clock.millis();
+        Entry entry = entries.get(eventId);
+        if (entry != null && now - entry.loadedAtMs() < ttlMs) {
+            return entry.summary();
+        }
+        EventPriceSummary summary = EventPriceSummary.of(zoneRepository.findDistinctPricesByEvent(eventId));
+        entries.put(eventId, new Entry(summary, now));
+        return summary;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(EventCatalogChangedEvent event) {
+        entries.remove(event.eventId());
+    }
+
+    private record Entry(EventPriceSummary summary, long loadedAtMs) {}
+}
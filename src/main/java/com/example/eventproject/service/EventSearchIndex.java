@@ -0,0 +1,331 @@
+package com.example.eventproject.service;
+
+import java.lang.Character.UnicodeScript;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.example.eventproject.dto.EventSearchHit;
+import com.example.eventproject.dto.EventSearchSource;
+
+/**
+ * inverted index ของ event ในหน่วยความจำ (title / category / location / description)
+ * --------------------------------------------------------------
+ * - คำภาษาอังกฤษ/ตัวเลข → ทั้งคำ / ภาษาไทย (ไม่มีช่องว่าง) → bigram ของตัวอักษร
+ *   ค้น "คอนเสิร์ต" = ต้องเจอทุก bigram → ตรงกับ substring ได้โดยไม่ต้องมีพจนานุกรม
+ * - ทุกคำในคำค้นต้องเจอ (AND) / คำสุดท้ายเป็น prefix (พิมพ์ไปค้นไป)
+ * - จัดอันดับด้วย BM25 (tf ถ่วงตาม field: title > category > location > description)
+ * - put / remove ทีละ event (ไม่ต้องสร้างใหม่ทั้งก้อน) / อ่านพร้อมกันได้หลาย thread
+ */
+public class EventSearchIndex {
+
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+    static final float TITLE_WEIGHT = 3f;
+    static final float CATEGORY_WEIGHT = 2f;
+    static final float LOCATION_WEIGHT = 1.5f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+
+    /** จำนวนคำที่ขยายจาก prefix ของคำสุดท้ายได้มากสุด (เลือกคำที่พบบ่อยก่อน) */
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final TreeSet<String> terms = new TreeSet<>();
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private double totalLength;
+
+    /* ==========================================================
+       WRITE — เพิ่ม / แทนที่ / ลบ event เดียว
+       ========================================================== */
+    public void put(EventSearchSource source) {
+        Map<String, Float> tf = new LinkedHashMap<>();
+        float length = 0;
+        length += addField(tf, source.title(), TITLE_WEIGHT);
+        length += addField(tf, source.category(), CATEGORY_WEIGHT);
+        length += addField(tf, source.location(), LOCATION_WEIGHT);
+        length += addField(tf, source.description(), DESCRIPTION_WEIGHT);
+        Doc doc = new Doc(source.id(), source.title(), source.category(), source.location(),
+                source.startDate(), tf.keySet().toArray(new String[0]), length);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(source.id());
+            tf.forEach((term, weight) -> postings.computeIfAbsent(term, t -> {
+                terms.add(t);
+                return new Postings();
+            }).add(doc.id, weight));
+            docs.put(doc.id, doc);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ==========================================================
+       READ — ค้นหา (AND + prefix คำสุดท้าย) เรียงตาม BM25
+       ========================================================== */
+    public List<EventSearchHit> search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty() || limit <= 0) return List.of();
+        String last = tokens.remove(tokens.size() - 1);
+
+        lock.readLock().lock();
+        try {
+            List<Postings> required = new ArrayList<>(tokens.size());
+            for (String t : tokens) {
+                Postings p = postings.get(t);
+                if (p == null) return List.of();
+                required.add(p);
+            }
+            List<Postings> lastGroup = expand(last);
+            if (lastGroup.isEmpty()) return List.of();
+
+            double avgLength = docs.isEmpty() ? 1 : Math.max(totalLength / docs.size(), 1e-6);
+            Map<Integer, Float> scores = required.isEmpty()
+                    ? scoreUnion(lastGroup, avgLength)
+                    : scoreIntersection(required, lastGroup, avgLength);
+            return topHits(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** แยกคำค้น / เนื้อหาเป็น term (ตัวพิมพ์เล็ก, ภาษาไทยเป็น bigram) */
+    static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null || text.isEmpty()) return out;
+        String lower = text.toLowerCase(Locale.ROOT);
+        int i = 0;
+        int n = lower.length();
+        while (i < n) {
+            int cp = lower.codePointAt(i);
+            if (!isWordChar(cp)) {
+                i += Character.charCount(cp);
+                continue;
+            }
+            // ช่วงที่เป็นอักษรต่อเนื่อง แล้วแบ่งย่อยตาม script (ไทย / อื่น ๆ)
+            boolean thai = UnicodeScript.of(cp) == UnicodeScript.THAI;
+            int start = i;
+            while (i < n) {
+                int c = lower.codePointAt(i);
+                if (!isWordChar(c) || (UnicodeScript.of(c) == UnicodeScript.THAI) != thai) break;
+                i += Character.charCount(c);
+            }
+            String run = lower.substring(start, i);
+            if (thai) {
+                addBigrams(out, run);
+            } else {
+                out.add(run.length() > MAX_TOKEN_LENGTH ? run.substring(0, MAX_TOKEN_LENGTH) : run);
+            }
+        }
+        return out;
+    }
+
+    /* ==========================================================
+       UTILITIES
+       ========================================================== */
+    private static boolean isWordChar(int cp) {
+        if (Character.isLetterOrDigit(cp)) return true;
+        int type = Character.getType(cp);
+        // สระบน/ล่าง วรรณยุกต์ของไทย เป็น mark ไม่ใช่ letter
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private static void addBigrams(List<String> out, String run) {
+        if (run.length() == 1) {
+            out.add(run);
+            return;
+        }
+        for (int j = 0; j + 2 <= run.length(); j++) {
+            out.add(run.substring(j, j + 2));
+        }
+    }
+
+    private static float addField(Map<String, Float> tf, String text, float weight) {
+        List<String> tokens = tokenize(text);
+        for (String t : tokens) tf.merge(t, weight, Float::sum);
+        return tokens.size() * weight;
+    }
+
+    private void removeLocked(Integer id) {
+        Doc old = docs.remove(id);
+        if (old == null) return;
+        for (String term : old.terms) {
+            Postings p = postings.get(term);
+            if (p != null && p.remove(id) && p.size == 0) {
+                postings.remove(term);
+                terms.remove(term);
+            }
+        }
+        totalLength -= old.length;
+    }
+
+    /** term ที่ขึ้นต้นด้วย prefix (รวมตัวเอง) — เรียงตามจำนวน event ที่มี term นั้นมากไปน้อย */
+    private List<Postings> expand(String prefix) {
+        List<Postings> group = new ArrayList<>();
+        for (String t : terms.subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+            group.add(postings.get(t));
+        }
+        if (group.size() > MAX_PREFIX_EXPANSIONS) {
+            group.sort(Comparator.comparingInt((Postings p) -> p.size).reversed());
+            return group.subList(0, MAX_PREFIX_EXPANSIONS);
+        }
+        return group;
+    }
+
+    private Map<Integer, Float> scoreUnion(List<Postings> group, double avgLength) {
+        Map<Integer, Float> scores = new HashMap<>();
+        for (Postings p : group) {
+            float idf = idf(p.size);
+            for (int k = 0; k < p.size; k++) {
+                int docId = p.docs[k];
+                scores.merge(docId, bm25(idf, p.weights[k], docs.get(docId).length, avgLength), Float::sum);
+            }
+        }
+        return scores;
+    }
+
+    /** เดินจาก posting ที่สั้นที่สุด แล้ว binary search ใน posting อื่น */
+    private Map<Integer, Float> scoreIntersection(List<Postings> required, List<Postings> lastGroup, double avgLength) {
+        required.sort(Comparator.comparingInt(p -> p.size));
+        float[] requiredIdf = idfs(required);
+        float[] lastIdf = idfs(lastGroup);
+        Postings driver = required.get(0);
+        Map<Integer, Float> scores = new HashMap<>();
+        for (int k = 0; k < driver.size; k++) {
+            int docId = driver.docs[k];
+            float length = docs.get(docId).length;
+            float score = 0;
+            boolean ok = true;
+            for (int r = 0; r < required.size(); r++) {
+                Postings p = required.get(r);
+                int at = p.indexOf(docId);
+                if (at < 0) {
+                    ok = false;
+                    break;
+                }
+                score += bm25(requiredIdf[r], p.weights[at], length, avgLength);
+            }
+            if (!ok) continue;
+
+            boolean matchedLast = false;
+            for (int g = 0; g < lastGroup.size(); g++) {
+                Postings p = lastGroup.get(g);
+                int at = p.indexOf(docId);
+                if (at >= 0) {
+                    matchedLast = true;
+                    score += bm25(lastIdf[g], p.weights[at], length, avgLength);
+                }
+            }
+            if (matchedLast) scores.put(docId, score);
+        }
+        return scores;
+    }
+
+    private float[] idfs(List<Postings> list) {
+        float[] out = new float[list.size()];
+        for (int i = 0; i < out.length; i++) out[i] = idf(list.get(i).size);
+        return out;
+    }
+
+    private float idf(int df) {
+        int n = docs.size();
+        return (float) Math.log(1 + (n - df + 0.5) / (df + 0.5));
+    }
+
+    private static float bm25(float idf, float tf, float length, double avgLength) {
+        return (float) (idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength)));
+    }
+
+    private List<EventSearchHit> topHits(Map<Integer, Float> scores, int limit) {
+        // min-heap ขนาด limit → ไม่ต้อง sort ผลทั้งหมด
+        Comparator<Map.Entry<Integer, Float>> byScore = Map.Entry.<Integer, Float>comparingByValue()
+                .thenComparing(Map.Entry.<Integer, Float>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Integer, Float>> heap = new PriorityQueue<>(limit + 1, byScore);
+        for (Map.Entry<Integer, Float> e : scores.entrySet()) {
+            heap.offer(e);
+            if (heap.size() > limit) heap.poll();
+        }
+        List<EventSearchHit> hits = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Map.Entry<Integer, Float> e = heap.poll();
+            Doc d = docs.get(e.getKey());
+            hits.add(new EventSearchHit(d.id, d.title, d.category, d.location, d.startDate, e.getValue()));
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    /** ข้อมูลที่ต้องใช้ตอบผลค้น + term ของ event (ไว้ถอดออกตอนแก้ / ลบ) */
+    private record Doc(Integer id, String title, String category, String location,
+                       LocalDate startDate, String[] terms, float length) {}
+
+    /** docId เรียงจากน้อยไปมาก + tf ถ่วงน้ำหนัก (array คู่ขนาน ไม่ box) */
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        int indexOf(int docId) {
+            return Arrays.binarySearch(docs, 0, size, docId);
+        }
+
+        void add(int docId, float weight) {
+            int at = indexOf(docId);
+            if (at >= 0) {
+                weights[at] = weight;
+                return;
+            }
+            int insert = -at - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(docs, insert, docs, insert + 1, size - insert);
+            System.arraycopy(weights, insert, weights, insert + 1, size - insert);
+            docs[insert] = docId;
+            weights[insert] = weight;
+            size++;
+        }
+
+        boolean remove(int docId) {
+            int at = indexOf(docId);
+            if (at < 0) return false;
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            System.arraycopy(weights, at + 1, weights, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.eventproject.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.eventproject.dto.EventSearchHit;
+import com.example.eventproject.dto.EventSearchSource;
+import com.example.eventproject.repository.EventRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ค้นหา event จาก EventSearchIndex ในหน่วยความจำ (ไม่ยิง LIKE '%…%' ไป MySQL)
+ * --------------------------------------------------------------
+ * - สร้าง index ทั้งก้อนตอนระบบพร้อม (ApplicationReadyEvent) แล้วสร้างใหม่ทุก rebuild-interval-ms
+ *   (เก็บการแก้จาก node อื่น) — ระหว่างสร้าง คำค้นยังใช้ index เดิม / ยังไม่เคยสร้างเสร็จ → ผลว่าง
+ * - create / update / delete บน node นี้ → อ่าน event นั้นตัวเดียวแล้ว put / remove หลัง commit
+ */
+@Slf4j
+@Service
+public class EventSearchService {
+
+    static final int MAX_LIMIT = 50;
+
+    private final EventRepository eventRepo;
+    private final int batchSize;
+
+    private final Object rebuildLock = new Object();
+    private final Set<Integer> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+    private volatile EventSearchIndex index;
+
+    public EventSearchService(EventRepository eventRepo,
+                              @Value("${app.search.rebuild-batch-size:1000}") int batchSize) {
+        this.eventRepo = eventRepo;
+        this.batchSize = batchSize;
+    }
+
+    /* ==========================================================
+       READ
+       ========================================================== */
+    public List<EventSearchHit> search(String q, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT)
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        if (q == null || q.isBlank()) return List.of();
+        EventSearchIndex current = index;
+        return current == null ? List.of() : current.search(q, limit);
+    }
+
+    /** ชื่อ event สำหรับ dropdown ระหว่างพิมพ์ (คำสุดท้ายเป็น prefix อยู่แล้ว) */
+    public List<String> suggest(String q, int limit) {
+        return search(q, limit).stream().map(EventSearchHit::title).distinct().toList();
+    }
+
+    /* ==========================================================
+       WRITE — หลัง commit เท่านั้น
+       ========================================================== */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(EventCatalogChangedEvent event) {
+        if (rebuilding) changedDuringRebuild.add(event.eventId());
+        EventSearchIndex current = index;
+        // ยังไม่เคยสร้าง → warm-up ตอนเริ่มระบบโหลดทั้งก้อนอยู่แล้ว
+        if (current != null) reindex(current, event.eventId());
+    }
+
+    /** warm-up ตอนเริ่มระบบ — คำค้นแรกไม่ต้องรอโหลดทั้งก้อน */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    /** รอบแรกเริ่มหลัง 1 interval (รอบ 0 คือ warmUp) */
+    @Scheduled(initialDelayString = "${app.search.rebuild-interval-ms:600000}",
+               fixedDelayString = "${app.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            // clear ก่อนเปิด flag → การแก้ที่เข้ามาหลังเปิด flag ไม่ถูกล้างทิ้ง
+            changedDuringRebuild.clear();
+            rebuilding = true;
+            try {
+                long started = System.nanoTime();
+                EventSearchIndex fresh = new EventSearchIndex();
+                Integer afterId = 0;
+                List<EventSearchSource> batch;
+                do {
+                    batch = eventRepo.findSearchSourcesAfter(afterId, PageRequest.of(0, batchSize));
+                    for (EventSearchSource source : batch) fresh.put(source);
+                    if (!batch.isEmpty()) afterId = batch.get(batch.size() - 1).id();
+                } while (batch.size() == batchSize);
+
+                index = fresh;
+                // แก้ระหว่างโหลด → อาจอ่านมาก่อน commit ใส่ซ้ำอีกรอบให้ตรง
+                for (Integer id : changedDuringRebuild) reindex(fresh, id);
+                log.debug("Search index rebuilt: {} events in {} ms",
+                        fresh.size(), (System.nanoTime() - started) / 1_000_000);
+            } catch (RuntimeException e) {
+                // ยังไม่เคยสร้างสำเร็จ → ค้นได้ผลว่างจนกว่ารอบถัดไปจะสำเร็จ
+                log.warn("Cannot rebuild search index: {}", e.toString());
+            } finally {
+                rebuilding = false;
+            }
+        }
+    }
+
+    /* ==========================================================
+       UTILITIES
+       ========================================================== */
+    private void reindex(EventSearchIndex target, Integer id) {
+        eventRepo.findSearchSourceById(id).ifPresentOrElse(target::put, () -> target.remove(id));
+    }
+}
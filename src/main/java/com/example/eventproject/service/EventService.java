@@ -4,12 +4,16 @@ import com.example.eventproject.dto.*;
 import com.example.eventproject.model.*;
 import com.example.eventproject.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,12 +26,19 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class EventService {
 
+    static final int MAX_PAGE_SIZE = 100;
+
     private final EventRepository eventRepo;
     private final EventSessionRepository sessionRepo;
     private final EventZoneRepository zoneRepo;
     private final FileStorageService fileStorageService;
     private final RegistrationRepository registrationRepository;
     private final ZoneTemplateService zoneTemplateService;
+    private final ZoneTemplateRegistry templateRegistry;
+    private final EventPriceSummaryCache priceSummaryCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SalesRollupService salesRollupService;
+    private final ZoneInventoryService zoneInventoryService;
 
     /* ==========================================================
        READ : ดึงรายการ Event ทั้งหมด (หน้า Overview / Admin)
@@ -37,6 +48,49 @@ public class EventService {
         return eventRepo.findAllByOrderByStartDateAsc();
     }
 
+    /* ==========================================================
+       READ : รายการ Event แบบแบ่งหน้า (keyset บน startDate, id)
+       ========================================================== */
+    @Transactional(readOnly = true)
+    public EventPage page(Status status,
+                          String category,
+                          LocalDate from,
+                          LocalDate to,
+                          EventSaleStatus saleStatus,
+                          String cursor,
+                          int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        if (from != null && to != null && from.isAfter(to))
+            throw new IllegalArgumentException("from must not be after to");
+
+        Cursor after = Cursor.decode(cursor);
+        LocalDateTime now = LocalDateTime.now();
+        String categoryFilter = (category == null || category.isBlank()) ? null : category.trim();
+
+        // ขอเกิน 1 แถว → รู้ว่ามีหน้าถัดไปโดยไม่ต้อง COUNT
+        List<EventListItem> rows = eventRepo.findPage(
+                status, categoryFilter, from, to,
+                saleStatus == null ? null : saleStatus.name(),
+                now, now.toLocalDate(),
+                after == null ? null : after.startDate(),
+                after == null ? null : after.id(),
+                PageRequest.of(0, limit + 1));
+
+        boolean hasNext = rows.size() > limit;
+        List<EventListItem> items = (hasNext ? rows.subList(0, limit) : rows).stream()
+                .map(i -> i.withSaleStatus(computeSaleStatus(i.status(), i.saleStartAt(), i.saleEndAt(),
+                        Boolean.TRUE.equals(i.saleUntilSoldout()), i.endDate(), now)))
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            EventListItem last = items.get(items.size() - 1);
+            nextCursor = new Cursor(last.startDate(), last.id()).encode();
+        }
+        return new EventPage(items, nextCursor);
+    }
+
     /* ==========================================================
        READ : ดึงรายละเอียด Event พร้อม Sessions + Zones
        ========================================================== */
@@ -44,23 +98,13 @@ public class EventService {
     public EventDetailDto get(Integer id) {
         Event e = eventRepo.findDetailById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Event not found: " + id));
-        var allTemplates = zoneTemplateService.getAllTemplates();  // โหลดทั้งหมดก่อน
         var sessions = e.getSessions().stream()
                 .map(s -> {
                     boolean isTemplate = isFromTemplate(s.getZones());
 
-                    // หา templateIds → จากชื่อโซนที่ตรงกับ template
+                    // หา templateIds → จากชื่อโซนที่ตรงกับ template (index ชื่อ → id)
                     List<Integer> templateIds = isTemplate
-                            ? s.getZones().stream()
-                            .map(z -> allTemplates.stream()
-                                    .filter(t -> t.name().equals(z.getName()))
-                                    .map(ZoneTemplateDto::id)
-                                    .findFirst()
-                                    .orElse(null)
-                            )
-                            .filter(templateId -> templateId != null)
-                            .distinct()
-                            .toList()
+                            ? templateRegistry.templateIdsOf(s.getZones())
                             : List.of();
 
                     return new SessionDto(
@@ -138,6 +182,7 @@ public class EventService {
             }
         }
 
+        eventPublisher.publishEvent(new EventCatalogChangedEvent(savedEvent.getId()));
         return savedEvent.getId();
     }
 
@@ -173,6 +218,7 @@ public class EventService {
 
                 // ลบ zone เดิม
                 var oldZones = zoneRepo.findBySession_Id(savedSession.getId());
+                zoneInventoryService.removeZones(oldZones.stream().map(EventZone::getId).toList());
                 zoneRepo.deleteAll(oldZones);
 
                 // ใช้ template
@@ -197,6 +243,7 @@ public class EventService {
                 }
             }
         }
+        eventPublisher.publishEvent(new EventCatalogChangedEvent(id));
     }
 
 
@@ -210,9 +257,12 @@ public class EventService {
 
         fileStorageService.deleteFile(e.getPosterImageUrl());
         fileStorageService.deleteFile(e.getSeatmapImageUrl());
+        salesRollupService.removeEvent(id);
+        zoneInventoryService.removeEvent(id);
         registrationRepository.deleteAllByEventCascade(id);
         sessionRepo.deleteByEvent_Id(id);
         eventRepo.delete(e);
+        eventPublisher.publishEvent(new EventCatalogChangedEvent(id));
     }
 
     /* ==========================================================
@@ -264,23 +314,13 @@ public class EventService {
     public EventDetailViewDto getView(Integer id) {
         Event e = eventRepo.findDetailById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Event not found: " + id));
-        var allTemplates = zoneTemplateService.getAllTemplates();  // โหลดทั้งหมดก่อน
         var sessions = e.getSessions().stream()
                 .map(s -> {
                     boolean isTemplate = isFromTemplate(s.getZones());
 
-                    // หา templateIds → จากชื่อโซนที่ตรงกับ template
+                    // หา templateIds → จากชื่อโซนที่ตรงกับ template (index ชื่อ → id)
                     List<Integer> templateIds = isTemplate
-                            ? s.getZones().stream()
-                            .map(z -> allTemplates.stream()
-                                    .filter(t -> t.name().equals(z.getName()))
-                                    .map(ZoneTemplateDto::id)
-                                    .findFirst()
-                                    .orElse(null)
-                            )
-                            .filter(templateId -> templateId != null)
-                            .distinct()
-                            .toList()
+                            ? templateRegistry.templateIdsOf(s.getZones())
                             : List.of();
 
                     return new SessionDto(
@@ -303,9 +343,9 @@ public class EventService {
                 .toList();
 
 
-        var prices = zoneRepo.findAll().stream()
-                .map(z -> new PriceDto(z.getPrice()))
-                .distinct()
+        // ราคาเฉพาะของ event นี้ (cache ต่อ event)
+        var prices = priceSummaryCache.get(id).prices().stream()
+                .map(PriceDto::new)
                 .toList();
 
         EventSaleStatus saleStatus = computeSaleStatus(e);
@@ -324,30 +364,58 @@ public class EventService {
        HELPER FUNCTIONS
        ========================================================== */
     private EventSaleStatus computeSaleStatus(Event e) {
-        LocalDateTime now = LocalDateTime.now();
+        return computeSaleStatus(e.getStatus(), e.getSaleStartAt(), e.getSaleEndAt(),
+                e.isSaleUntilSoldout(), e.getEndDate(), LocalDateTime.now());
+    }
 
-        if (e.getStatus() == Status.CLOSED) return EventSaleStatus.CLOSED;
-        if (e.getSaleStartAt() != null && now.isBefore(e.getSaleStartAt()))
+    /** สถานะการขาย ณ เวลา now (ใช้ซ้ำกับ view ที่อยู่ใน cache) */
+    public static EventSaleStatus computeSaleStatus(EventDetailViewDto view, LocalDateTime now) {
+        return computeSaleStatus(view.status(), view.saleStartAt(), view.saleEndAt(),
+                Boolean.TRUE.equals(view.saleUntilSoldout()), view.endDate(), now);
+    }
+
+    private static EventSaleStatus computeSaleStatus(Status status,
+                                                     LocalDateTime saleStartAt,
+                                                     LocalDateTime saleEndAt,
+                                                     boolean saleUntilSoldout,
+                                                     LocalDate endDate,
+                                                     LocalDateTime now) {
+        if (status == Status.CLOSED) return EventSaleStatus.CLOSED;
+        if (saleStartAt != null && now.isBefore(saleStartAt))
             return EventSaleStatus.UPCOMING;
-        if (!e.isSaleUntilSoldout() && e.getSaleEndAt() != null &&
-                (now.isAfter(e.getSaleEndAt()) || now.isEqual(e.getSaleEndAt())))
+        if (!saleUntilSoldout && saleEndAt != null &&
+                (now.isAfter(saleEndAt) || now.isEqual(saleEndAt)))
             return EventSaleStatus.CLOSED;
-        if (e.getEndDate() != null && LocalDate.now().isAfter(e.getEndDate()))
+        if (endDate != null && now.toLocalDate().isAfter(endDate))
             return EventSaleStatus.CLOSED;
         return EventSaleStatus.OPEN;
     }
 
+    /** ตำแหน่งแถวสุดท้ายของหน้าก่อน → base64url("yyyy-MM-dd|id") ให้ client ถือไว้แบบ opaque */
+    record Cursor(LocalDate startDate, Integer id) {
+
+        String encode() {
+            String raw = (startDate == null ? "" : startDate.toString()) + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) return null;
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                LocalDate date = sep == 0 ? null : LocalDate.parse(raw.substring(0, sep));
+                return new Cursor(date, Integer.valueOf(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
     private boolean isFromTemplate(List<EventZone> zones) {
         if (zones == null || zones.isEmpty()) return false;
 
-        List<String> templateNames = zoneTemplateService.getAllTemplates()
-                .stream()
-                .map(ZoneTemplateDto::name)
-                .toList();
-
-        long matchCount = zones.stream()
-                .filter(z -> templateNames.contains(z.getName()))
-                .count();
+        long matchCount = templateRegistry.countMatching(zones);
 
         return (double) matchCount / zones.size() >= 0.8;
     }
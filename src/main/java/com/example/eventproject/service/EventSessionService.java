@@ -2,7 +2,6 @@ package com.example.eventproject.service;
 
 import com.example.eventproject.dto.SessionDto;
 import com.example.eventproject.dto.ZoneDto;
-import com.example.eventproject.dto.ZoneTemplateDto;
 import com.example.eventproject.model.EventSession;
 import com.example.eventproject.repository.EventSessionRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,30 +14,20 @@ import java.util.List;
 public class EventSessionService {
 
     private final EventSessionRepository repo;
-    private final ZoneTemplateService zoneTemplateService;
+    private final ZoneTemplateRegistry templateRegistry;
 
     public List<SessionDto> listByEvent(Integer eventId) {
 
         List<EventSession> sessions = repo.findWithZonesByEventId(eventId);
-        var allTemplates = zoneTemplateService.getAllTemplates();   // โหลด template ทั้งหมด
 
         return sessions.stream()
                 .map(s -> {
 
                     boolean isTemplate = s.isUseZoneTemplate();
 
-                    // หา templateIds จากชื่อ zone
+                    // หา templateIds จากชื่อ zone (index ชื่อ → id)
                     List<Integer> templateIds = isTemplate
-                            ? s.getZones().stream()
-                            .map(z -> allTemplates.stream()
-                                    .filter(t -> t.name().equals(z.getName()))
-                                    .map(ZoneTemplateDto::id)
-                                    .findFirst()
-                                    .orElse(null)
-                            )
-                            .filter(tid -> tid != null)
-                            .distinct()
-                            .toList()
+                            ? templateRegistry.templateIdsOf(s.getZones())
                             : List.of();
 
                     // แปลง zone -> ZoneDto
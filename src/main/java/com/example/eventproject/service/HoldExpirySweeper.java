@@ -0,0 +1,61 @@
+package com.example.eventproject.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * งานเบื้องหลัง: ปล่อย hold (UNPAID) ที่หมดเวลาคืนให้ zone inventory
+ * --------------------------------------------------------------
+ * - รันบน node ที่ถือ lease "hold-expiry" เท่านั้น
+ * - ทำทีละ batch (แต่ละ batch คือ 1 transaction) และจำกัดจำนวน batch ต่อรอบ
+ */
+@Slf4j
+@Component
+public class HoldExpirySweeper {
+
+    static final String LEASE_NAME = "hold-expiry";
+
+    private final RegistrationService registrationService;
+    private final SchedulerLeaseService leaseService;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration leaseTtl;
+
+    public HoldExpirySweeper(RegistrationService registrationService,
+                             SchedulerLeaseService leaseService,
+                             @Value("${app.holds.sweep-batch-size:500}") int batchSize,
+                             @Value("${app.holds.sweep-max-batches:20}") int maxBatchesPerRun,
+                             @Value("${app.holds.sweep-lease-seconds:120}") long leaseSeconds) {
+        this.registrationService = registrationService;
+        this.leaseService = leaseService;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.leaseTtl = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${app.holds.sweep-interval-ms:30000}",
+            initialDelayString = "${app.holds.sweep-initial-delay-ms:30000}")
+    public void sweep() {
+        if (!leaseService.tryAcquire(LEASE_NAME, leaseTtl)) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Integer afterId = 0;
+        int batches = 0;
+        while (batches < maxBatchesPerRun) {
+            afterId = registrationService.releaseExpiredHolds(afterId, now, batchSize);
+            if (afterId == null) break;
+            batches++;
+        }
+        if (batches > 0) {
+            log.info("Hold sweeper processed {} batch(es) of expired holds", batches);
+        }
+    }
+}
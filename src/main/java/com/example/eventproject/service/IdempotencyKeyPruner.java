@@ -0,0 +1,62 @@
+package com.example.eventproject.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.eventproject.repository.IdempotencyKeyRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * งานเบื้องหลัง: ลบ Idempotency-Key ที่หมดอายุ
+ * --------------------------------------------------------------
+ * - รันบน node ที่ถือ lease "idempotency-prune" เท่านั้น
+ * - DELETE ... LIMIT ทีละ batch ตาม index expires_at (ไม่ล็อกตารางนาน)
+ */
+@Slf4j
+@Component
+public class IdempotencyKeyPruner {
+
+    static final String LEASE_NAME = "idempotency-prune";
+
+    private final IdempotencyKeyRepository repository;
+    private final SchedulerLeaseService leaseService;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration leaseTtl;
+
+    public IdempotencyKeyPruner(IdempotencyKeyRepository repository,
+                                SchedulerLeaseService leaseService,
+                                @Value("${app.idempotency.prune-batch-size:1000}") int batchSize,
+                                @Value("${app.idempotency.prune-max-batches:50}") int maxBatchesPerRun,
+                                @Value("${app.idempotency.prune-lease-seconds:300}") long leaseSeconds) {
+        this.repository = repository;
+        this.leaseService = leaseService;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.leaseTtl = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.prune-interval-ms:600000}",
+            initialDelayString = "${app.idempotency.prune-initial-delay-ms:60000}")
+    public void prune() {
+        if (!leaseService.tryAcquire(LEASE_NAME, leaseTtl)) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        long deleted = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int n = repository.deleteExpired(now, batchSize);
+            deleted += n;
+            if (n < batchSize) break;
+        }
+        if (deleted > 0) {
+            log.info("Pruned {} expired idempotency key(s)", deleted);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.eventproject.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.eventproject.model.IdempotencyKey;
+import com.example.eventproject.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * รองรับ header Idempotency-Key (client retry แล้วได้ผลเดิม ไม่สร้าง order ซ้ำ)
+ * --------------------------------------------------------------
+ * 1. จอง key ด้วย INSERT IGNORE (commit ทันที) พร้อม claim_id สุ่ม → คำขอที่มาพร้อมกันมีแค่ตัวเดียวที่ได้ทำงานจริง
+ * 2. ทำงานจริง แล้วเก็บ status + body ไว้ (2xx / 4xx) — complete / release ต้องตรง claim_id
+ * 3. คำขอซ้ำ → ตอบผลที่เก็บไว้โดยไม่เรียก service (ไม่แตะ inventory)
+ * 5xx / exception → ปล่อย key คืนให้ retry ทำใหม่ได้
+ * ระหว่างทำงาน node เจ้าของต่ออายุ locked_until ทุก heartbeat-ms (คำขอช้าแต่ยังทำอยู่ไม่ถูกแย่ง)
+ *   หยุดต่ออายุเกิน processing-timeout = node ตาย → retry ด้วยคำขอเดิมรับงานต่อด้วย claim_id ใหม่
+ *   (order ของคำขอแรกที่ commit แล้วแต่ไม่ได้เก็บผล → hold ที่ไม่ถูกจ่ายจะหมดอายุเอง)
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration processingTimeout;
+    // claim ที่ node นี้กำลังทำอยู่: claimId → keyHash (ต่ออายุใน renewClaims)
+    private final Map<String, String> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.processing-timeout-seconds:30}") long processingTimeoutSeconds) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.processingTimeout = Duration.ofSeconds(processingTimeoutSeconds);
+    }
+
+    /**
+     * รัน action แบบ idempotent
+     *
+     * @param scope   แยก namespace ของ key เช่น "POST /api/registrations|user@mail.com"
+     * @param key     ค่า header (null/ว่าง = ไม่ใช้ idempotency)
+     * @param request ข้อมูลคำขอ ใช้ตรวจว่า key เดิมถูกใช้กับคำขอคนละแบบหรือไม่
+     */
+    public ResponseEntity<?> execute(String scope,
+                                     String key,
+                                     Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String keyHash = sha256(scope + "\n" + key);
+        String requestHash = sha256(toJson(request));
+
+        LocalDateTime now = LocalDateTime.now();
+        String claimId = UUID.randomUUID().toString();
+        if (!claim(keyHash, requestHash, claimId, now)) {
+            return replay(keyHash, requestHash, now);
+        }
+
+        inFlight.put(claimId, keyHash);
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            inFlight.remove(claimId);
+            repository.release(keyHash, claimId);
+            throw ex;
+        }
+        inFlight.remove(claimId);
+
+        if (response.getStatusCode().is5xxServerError()) {
+            repository.release(keyHash, claimId);
+        } else {
+            store(keyHash, claimId, response);
+        }
+        return response;
+    }
+
+    /** ต่ออายุ claim ที่ยังทำงานอยู่บน node นี้ (heartbeat-ms ต้องสั้นกว่า processing-timeout หลายเท่า) */
+    @Scheduled(fixedDelayString = "${app.idempotency.heartbeat-ms:10000}")
+    public void renewClaims() {
+        if (inFlight.isEmpty()) return;
+        LocalDateTime lockedUntil = LocalDateTime.now().plus(processingTimeout);
+        inFlight.forEach((claimId, keyHash) -> {
+            if (repository.renew(keyHash, claimId, lockedUntil) == 0) {
+                log.warn("Idempotency key {} was taken over while still in progress", keyHash);
+            }
+        });
+    }
+
+    /* ==========================================================
+       UTILITIES
+       ========================================================== */
+
+    private boolean claim(String keyHash, String requestHash, String claimId, LocalDateTime now) {
+        LocalDateTime lockedUntil = now.plus(processingTimeout);
+        LocalDateTime expiresAt = now.plus(ttl);
+        if (repository.insertIfAbsent(keyHash, requestHash, claimId, now, lockedUntil, expiresAt) == 1) {
+            return true;
+        }
+        // key เดิมหมดอายุแล้วแต่ prune ยังไม่มาลบ → ถือเป็นคำขอใหม่
+        if (repository.deleteIfExpired(keyHash, now) == 1
+                && repository.insertIfAbsent(keyHash, requestHash, claimId, now, lockedUntil, expiresAt) == 1) {
+            return true;
+        }
+        // เจ้าของเดิมหยุดต่ออายุเกิน processing-timeout (node ตาย) → รับงานต่อ
+        if (repository.takeOverStale(keyHash, requestHash, claimId, now, lockedUntil) == 1) {
+            log.warn("Idempotency key {} owner stopped renewing, taking over", keyHash);
+            return true;
+        }
+        return false;
+    }
+
+    private ResponseEntity<?> replay(String keyHash, String requestHash, LocalDateTime now) {
+        IdempotencyKey stored = repository.findById(keyHash).orElse(null);
+        if (stored == null || !stored.isCompleted()) {
+            long waitSeconds = stored == null || stored.getLockedUntil() == null
+                    ? 1
+                    : Math.max(1, Duration.between(now, stored.getLockedUntil()).toSeconds() + 1);
+            return ResponseEntity.status(409)
+                    .header("Retry-After", String.valueOf(waitSeconds))
+                    .body("A request with this " + HEADER + " is still being processed");
+        }
+        if (!stored.getRequestHash().equals(requestHash)) {
+            return ResponseEntity.unprocessableEntity().body(HEADER + " was already used with a different request");
+        }
+        return ResponseEntity.status(stored.getStatusCode())
+                .header(REPLAYED_HEADER, "true")
+                .contentType(MediaType.parseMediaType(stored.getContentType()))
+                .body(stored.getResponseBody());
+    }
+
+    private void store(String keyHash, String claimId, ResponseEntity<?> response) {
+        Object body = response.getBody();
+        String contentType;
+        String serialized;
+        if (body == null || body instanceof String) {
+            contentType = MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8";
+            serialized = body == null ? "" : (String) body;
+        } else {
+            contentType = MediaType.APPLICATION_JSON_VALUE;
+            serialized = toJson(body);
+        }
+        if (repository.complete(keyHash, claimId, response.getStatusCode().value(), contentType, serialized) == 0) {
+            log.warn("Idempotency key {} was taken over before completion, result not stored", keyHash);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize idempotent request/response", e);
+        }
+    }
+
+    static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.eventproject.service;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * จำกัดความถี่การ login ต่อ IP และต่อ email (token bucket ในหน่วยความจำของ node)
+ * --------------------------------------------------------------
+ * - bucket เต็ม capacity แล้วเติม refill-per-minute ต่อนาที / login 1 ครั้ง = 1 token
+ * - ไม่มี token → 429 + Retry-After ก่อนถึง BCrypt (ยิงรัวไม่ทำให้ pool hash เต็ม)
+ * - bucket ของ email จองไว้ก่อนแล้วคืนเมื่อไม่ใช่รหัสผิด → นับเฉพาะครั้งที่ล้มเหลว
+ *   (ผู้ใช้ที่ login สำเร็จบ่อย ๆ ไม่โดนจำกัด / จองก่อนแล้วค่อยคืน → ยิงพร้อมกันก็ไม่เกิน capacity)
+ * - IP มาจาก request.getRemoteAddr() — หลัง proxy ต้องตั้ง server.forward-headers-strategy + trusted proxies
+ * - bucket ที่ไม่ถูกใช้ idle-minutes ถูกทิ้ง / จำนวน bucket จำกัดด้วย max-keys
+ */
+@Service
+public class LoginRateLimiter {
+
+    private final Clock clock;
+    private final Cache<String, TokenBucket> buckets;
+    private final int ipCapacity;
+    private final double ipRefillPerMs;
+    private final int emailCapacity;
+    private final double emailRefillPerMs;
+    private final Counter limited;
+
+    public LoginRateLimiter(Clock clock,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.auth.login-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${app.auth.login-limit.ip.refill-per-minute:30}") double ipRefillPerMinute,
+                            @Value("${app.auth.login-limit.email.capacity:5}") int emailCapacity,
+                            @Value("${app.auth.login-limit.email.refill-per-minute:5}") double emailRefillPerMinute,
+                            @Value("${app.auth.login-limit.max-keys:100000}") long maxKeys,
+                            @Value("${app.auth.login-limit.idle-minutes:15}") long idleMinutes) {
+        this.clock = clock;
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerMs = ipRefillPerMinute / 60_000.0;
+        this.emailCapacity = emailCapacity;
+        this.emailRefillPerMs = emailRefillPerMinute / 60_000.0;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+        this.limited = Counter.builder("auth.login.limited").register(meterRegistry);
+    }
+
+    /** ใช้ token ของ IP และ email นี้ 1 ครั้ง / หมด → RetryLaterException (429) */
+    public void acquire(String clientIp, String email) {
+        long now = clock.millis();
+        if (clientIp != null) {
+            take("ip:" + clientIp, ipCapacity, ipRefillPerMs, now);
+        }
+        String normalized = email == null ? "" : email.trim().toLowerCase();
+        if (!normalized.isEmpty()) {
+            take("email:" + normalized, emailCapacity, emailRefillPerMs, now);
+        }
+    }
+
+    /** login ไม่ได้ล้มเพราะรหัสผิด (สำเร็จ / ระบบไม่ว่าง) → คืน token ของ email ที่จองไว้ */
+    public void refundEmail(String email) {
+        String normalized = email == null ? "" : email.trim().toLowerCase();
+        if (normalized.isEmpty()) return;
+        TokenBucket bucket = buckets.getIfPresent("email:" + normalized);
+        if (bucket != null) {
+            bucket.refund(emailCapacity);
+        }
+    }
+
+    private void take(String key, int capacity, double refillPerMs, long now) {
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(capacity, now));
+        long waitMs = bucket.tryTake(capacity, refillPerMs, now);
+        if (waitMs > 0) {
+            limited.increment();
+            throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_LOGIN_ATTEMPTS",
+                    (waitMs + 999) / 1000);
+        }
+    }
+
+    static final class TokenBucket {
+        private double tokens;
+        private long updatedAt;
+
+        TokenBucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.updatedAt = now;
+        }
+
+        /** @return 0 = ได้ token / > 0 = ต้องรออีกกี่ ms */
+        synchronized long tryTake(int capacity, double refillPerMs, long now) {
+            if (now > updatedAt) {
+                tokens = Math.min(capacity, tokens + (now - updatedAt) * refillPerMs);
+                updatedAt = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return refillPerMs <= 0 ? Long.MAX_VALUE / 2 : (long) Math.ceil((1 - tokens) / refillPerMs);
+        }
+
+        synchronized void refund(int capacity) {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.eventproject.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * BCrypt บน thread pool แยก (ไม่กิน CPU ของ thread Tomcat ที่รับการจอง)
+ * --------------------------------------------------------------
+ * - thread = จำนวน core (app.auth.hash.threads, 0 = ตาม CPU) / คิวจำกัด queue-capacity
+ * - คิวเต็ม หรือรอเกิน timeout-ms → 503 + Retry-After ทันที (ไม่ต่อคิวยาว)
+ * - งานพื้นหลัง (rehash) รับเฉพาะตอนคิวยังว่างเกินครึ่ง → ไม่แย่งที่ของ login
+ * - metrics: auth.password.hash (เวลา hash ต่อครั้ง แยก op), auth.password.hash.queue (งานที่รอ),
+ *   auth.password.hash.rejected
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeoutMs;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejected;
+
+    public PasswordHashingService(PasswordEncoder encoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.auth.hash.threads:0}") int threads,
+                                  @Value("${app.auth.hash.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.auth.hash.timeout-ms:5000}") long timeoutMs) {
+        this.encoder = encoder;
+        this.timeoutMs = timeoutMs;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash").tag("op", "encode").register(meterRegistry);
+        this.matchTimer = Timer.builder("auth.password.hash").tag("op", "matches").register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.hash.rejected").register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encoder.encode(rawPassword), encodeTimer);
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> encoder.matches(rawPassword, encodedPassword), matchTimer);
+    }
+
+    /** hash นี้ควรถูก hash ใหม่ไหม (algorithm / cost ไม่ตรงเป้า) — อ่าน prefix อย่างเดียว ไม่ต้องเข้า pool */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * hash ใน pool โดยไม่รอผล แล้วส่งผลให้ onEncoded (รันบน thread ของ pool)
+     *
+     * @return false = คิวใช้ไปเกินครึ่งแล้ว ไม่รับงาน (ให้ลองใหม่ครั้งหน้า)
+     */
+    public boolean encodeInBackground(CharSequence rawPassword, Consumer<String> onEncoded) {
+        if (executor.getQueue().size() * 2 >= queueCapacity) {
+            return false;
+        }
+        try {
+            executor.execute(() -> onEncoded.accept(encodeTimer.record(() -> encoder.encode(rawPassword))));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task, Timer timer) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw busy();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static RetryLaterException busy() {
+        return new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "AUTH_BUSY", 2);
+    }
+}
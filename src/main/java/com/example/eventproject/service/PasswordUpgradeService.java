@@ -0,0 +1,66 @@
+package com.example.eventproject.service;
+
+import org.springframework.stereotype.Service;
+
+import com.example.eventproject.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * hash รหัสผ่านใหม่หลัง login สำเร็จ (algorithm / cost เปลี่ยน หรือยังเป็น plaintext เดิม)
+ * --------------------------------------------------------------
+ * - ส่งงานเข้า pool ของ PasswordHashingService แล้วคืนทันที → response ของ login ไม่ต้องรอ hash รอบที่สอง
+ * - pool ยุ่ง → ข้ามไปก่อน (login ครั้งหน้าค่อยลองใหม่)
+ * - เขียนกลับแบบมีเงื่อนไข hash เดิม → ไม่ทับรหัสที่ถูกเปลี่ยนระหว่างนั้น
+ * - metrics: auth.password.rehash (result = submitted / skipped / updated / stale)
+ */
+@Slf4j
+@Service
+public class PasswordUpgradeService {
+
+    private final PasswordHashingService hashing;
+    private final UserRepository users;
+    private final Counter submitted;
+    private final Counter skipped;
+    private final Counter updated;
+    private final Counter stale;
+
+    public PasswordUpgradeService(PasswordHashingService hashing, UserRepository users, MeterRegistry meterRegistry) {
+        this.hashing = hashing;
+        this.users = users;
+        this.submitted = counter(meterRegistry, "submitted");
+        this.skipped = counter(meterRegistry, "skipped");
+        this.updated = counter(meterRegistry, "updated");
+        this.stale = counter(meterRegistry, "stale");
+    }
+
+    /** ต้อง hash ใหม่ไหม (ไม่ใช่ plaintext — plaintext เรียก rehashLater เสมอ) */
+    public boolean needsUpgrade(String storedHash) {
+        return hashing.upgradeEncoding(storedHash);
+    }
+
+    /** เรียกหลังตรวจรหัสผ่านผ่านแล้วเท่านั้น */
+    public void rehashLater(String email, String rawPassword, String storedHash) {
+        boolean queued = hashing.encodeInBackground(rawPassword, hash -> apply(email, storedHash, hash));
+        (queued ? submitted : skipped).increment();
+    }
+
+    void apply(String email, String storedHash, String newHash) {
+        try {
+            if (users.replacePassword(email, storedHash, newHash) > 0) {
+                updated.increment();
+            } else {
+                stale.increment();
+            }
+        } catch (RuntimeException e) {
+            // ไม่กระทบ login ที่ตอบไปแล้ว — hash เดิมยังใช้ได้
+            log.warn("Password rehash for {} failed: {}", email, e.toString());
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("auth.password.rehash").tag("result", result).register(registry);
+    }
+}
@@ -4,13 +4,21 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import com.example.eventproject.dto.RegistrationDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.eventproject.model.Event;
+import com.example.eventproject.model.EventSession;
 import com.example.eventproject.model.Registration;
 import com.example.eventproject.model.Role;
 import com.example.eventproject.model.User;
@@ -33,6 +41,13 @@ public class RegistrationService {
     private final EventZoneRepository zoneRepository;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final ZoneInventoryService zoneInventoryService;
+    private final TicketCodeGenerator ticketCodeGenerator;
+    private final SalesRollupService salesRollupService;
+
+    // เวลาที่ถือที่นั่งไว้ให้จ่ายเงิน ก่อน sweeper จะปล่อยคืน
+    @Value("${app.holds.ttl-minutes:15}")
+    private long holdTtlMinutes = 15;
 
     /* ==========================================================
      CREATE MULTI-TICKET REGISTRATION (Single Zone)
@@ -44,63 +59,202 @@ public class RegistrationService {
                                      Integer sessionId,
                                      Integer zoneId,
                                      Integer quantity) {
+        return checkout(email, eventId, sessionId, List.of(new RegistrationDto.CartLine(zoneId, quantity)));
+    }
+
+    /* ==========================================================
+     CHECKOUT — ตะกร้าหลายโซนใน transaction เดียว
+    - ตรวจทุกบรรทัดก่อน แล้วตัดสต็อกทุกโซนพร้อมกัน (ได้ทั้งหมดหรือไม่ได้เลย)
+    - ทุกใบใช้ paymentReference เดียวกัน และ INSERT เป็น batch เดียว
+   ========================================================== */
+    @Transactional
+    public List<Registration> checkout(String email,
+                                       Integer eventId,
+                                       Integer sessionId,
+                                       List<RegistrationDto.CartLine> lines) {
+
+        PreparedOrder order = prepare(email, eventId, sessionId, lines);
+
+        // 5. ตัดสต็อกทุกโซน (รวมทั้ง Paid + Unpaid) — โซนไหนไม่พอจะโยน IllegalStateException
+        zoneInventoryService.reserveAll(order.reservations());
+        salesRollupService.apply(bookedDeltas(order));
 
-        // 1. ตรวจสอบจำนวน ticket ที่ต้องการจอง
-        if (quantity == null || quantity <= 0) {
-            throw new IllegalArgumentException("Quantity must be > 0");
+        // 8. บันทึกทุกใบพร้อมกัน → flush เป็น INSERT batch เดียว
+        return registrationRepository.saveAll(buildTickets(order));
+    }
+
+    /* ==========================================================
+     CHECKOUT BATCH — group commit ของหลาย order (async pipeline)
+    - ทุก order ใน batch: 1 transaction, 1 saveAll
+    - order ที่ไม่ผ่าน (ข้อมูลผิด / ที่นั่งไม่พอ) ได้ผลลัพธ์ของตัวเอง ไม่ทำให้ทั้ง batch ล้ม
+   ========================================================== */
+    @Transactional
+    public List<CheckoutOutcome> checkoutBatch(List<RegistrationDto.CheckoutRequest> requests) {
+        CheckoutOutcome[] outcomes = new CheckoutOutcome[requests.size()];
+        List<Integer> prepared = new ArrayList<>();
+        List<PreparedOrder> orders = new ArrayList<>();
+
+        // 1. ตรวจทีละ order (ไม่แตะ inventory)
+        for (int i = 0; i < requests.size(); i++) {
+            var req = requests.get(i);
+            try {
+                orders.add(prepare(req.email(), req.eventId(), req.sessionId(), req.lines()));
+                prepared.add(i);
+            } catch (IllegalArgumentException ex) {
+                outcomes[i] = CheckoutOutcome.rejected(400, ex.getMessage());
+            }
         }
 
-        // 2. normalize email
-        String normalizedEmail = (email == null ? "" : email).trim().toLowerCase();
-        if (normalizedEmail.isEmpty()) {
-            throw new IllegalArgumentException("Email is required");
+        // 2. ตัดสต็อกทุก order ในรอบเดียว
+        boolean[] reserved = zoneInventoryService.reserveEach(
+                orders.stream().map(PreparedOrder::reservations).toList());
+
+        // 3. สร้างตั๋วของ order ที่ได้ที่นั่ง แล้ว INSERT รวมครั้งเดียว
+        List<Registration> all = new ArrayList<>();
+        List<SalesRollupService.Delta> booked = new ArrayList<>();
+        for (int k = 0; k < orders.size(); k++) {
+            int i = prepared.get(k);
+            if (!reserved[k]) {
+                outcomes[i] = CheckoutOutcome.rejected(409, "Not enough seats left for this order");
+                continue;
+            }
+            List<Registration> tickets = buildTickets(orders.get(k));
+            all.addAll(tickets);
+            booked.addAll(bookedDeltas(orders.get(k)));
+            outcomes[i] = CheckoutOutcome.confirmed(tickets);
+        }
+        if (!all.isEmpty()) {
+            salesRollupService.apply(booked);
+            registrationRepository.saveAll(all);
         }
+        return List.of(outcomes);
+    }
+
+    /** ผลของ 1 order ใน batch (tickets = null ถ้าไม่ผ่าน) */
+    public record CheckoutOutcome(List<Registration> tickets, int status, String error) {
+        static CheckoutOutcome confirmed(List<Registration> tickets) {
+            return new CheckoutOutcome(tickets, 201, null);
+        }
+
+        static CheckoutOutcome rejected(int status, String error) {
+            return new CheckoutOutcome(null, status, error);
+        }
+
+        public boolean isConfirmed() { return tickets != null; }
+    }
+
+    /** order ที่ตรวจแล้ว พร้อมตัดสต็อก */
+    private record PreparedOrder(String email,
+                                 User user,
+                                 Event event,
+                                 EventSession session,
+                                 List<ZoneInventoryService.Reservation> reservations) {}
+
+    /** ข้อ 1–4 ของ checkout: ตรวจ input และโหลด entity (ยังไม่ตัดสต็อก) */
+    private PreparedOrder prepare(String email,
+                                  Integer eventId,
+                                  Integer sessionId,
+                                  List<RegistrationDto.CartLine> lines) {
+
+        // 1. ตรวจทุกบรรทัด + รวมโซนซ้ำ (คงลำดับตามที่ผู้ใช้ส่งมา)
+        Map<Integer, Integer> quantityByZone = mergeLines(lines);
+
+        // 2. normalize email
+        String normalizedEmail = normalizeEmail(email);
 
         // 3. ตรวจสอบว่ามีผู้ใช้นี้อยู่ในระบบหรือยัง — ถ้าไม่มีก็สร้าง guest
         User user = ensureUserExists(normalizedEmail);
 
-        // 4. ตรวจสอบ entity หลักที่ต้องมี
+        // 4. ตรวจสอบ entity หลักที่ต้องมี (event / session ครั้งเดียวต่อ order)
         var event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new IllegalArgumentException("Event not found"));
         var session = sessionRepository.findById(sessionId)
                 .orElseThrow(() -> new IllegalArgumentException("Session not found"));
-        var zone = zoneRepository.findById(zoneId)
-                .orElseThrow(() -> new IllegalArgumentException("Zone not found"));
+        if (session.getEvent() != null && !eventId.equals(session.getEvent().getId())) {
+            throw new IllegalArgumentException("Session does not belong to event");
+        }
 
-        // 5. ตรวจสอบความจุโซน (รวมทั้ง Paid + Unpaid)
-        int totalBooked = registrationRepository.countAllBookedInZone(zoneId);
-        if (totalBooked + quantity > zone.getCapacity()) {
-            throw new IllegalStateException("Zone " + zone.getName() + " is fully booked");
+        List<ZoneInventoryService.Reservation> reservations = new ArrayList<>();
+        for (var entry : quantityByZone.entrySet()) {
+            var zone = zoneRepository.findById(entry.getKey())
+                    .orElseThrow(() -> new IllegalArgumentException("Zone not found"));
+            if (zone.getSession() != null && !sessionId.equals(zone.getSession().getId())) {
+                throw new IllegalArgumentException("Zone " + zone.getName() + " does not belong to session");
+            }
+            reservations.add(new ZoneInventoryService.Reservation(zone, entry.getValue()));
         }
+        return new PreparedOrder(normalizedEmail, user, event, session, reservations);
+    }
+
+    private static List<SalesRollupService.Delta> bookedDeltas(PreparedOrder order) {
+        return order.reservations().stream()
+                .map(r -> SalesRollupService.Delta.booked(r.zone().getId(), r.quantity()))
+                .toList();
+    }
 
+    /** ข้อ 6–7 ของ checkout: สร้าง Registration ทุกใบของ order (ยังไม่ INSERT) */
+    private List<Registration> buildTickets(PreparedOrder order) {
         // 6. สร้างรหัสชำระเงินกลาง (ใช้ร่วมกันทุกใบ)
         String paymentRef = "PAY-" + LocalDate.now() + "-" +
                 UUID.randomUUID().toString().substring(0, 6).toUpperCase();
 
         List<Registration> tickets = new ArrayList<>();
-        BigDecimal pricePerTicket = zone.getPrice();
-        BigDecimal total = pricePerTicket.multiply(BigDecimal.valueOf(quantity));
-
-        // 7. วนสร้าง Registration แยกใบตามจำนวนที่ผู้ใช้จอง
-        for (int i = 1; i <= quantity; i++) {
-            Registration reg = new Registration();
-            reg.setEmail(normalizedEmail);       // ใช้ email ที่ normalize แล้ว
-            reg.setUser(user);                   // ผูกกับ user ที่เป็น guest หรือ user จริง
-            reg.setEvent(event);
-            reg.setSession(session);
-            reg.setZone(zone);
-            reg.setPrice(pricePerTicket);
-            reg.setTotalPrice(total);
-            reg.setPaymentReference(paymentRef);
-            reg.setPaymentStatus(Registration.PayStatus.UNPAID);
-            reg.setTicketCode(generateTicketCode(event.getTitle(), i));
-            reg.setCreatedAt(LocalDateTime.now());
-            tickets.add(registrationRepository.save(reg));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(holdTtlMinutes);
+        BigDecimal total = BigDecimal.ZERO;
+        for (var r : order.reservations()) {
+            total = total.add(r.zone().getPrice().multiply(BigDecimal.valueOf(r.quantity())));
+        }
+        String codePrefix = TicketCodeGenerator.prefixOf(order.event().getTitle());
+
+        // 7. วนสร้าง Registration แยกใบตามจำนวนที่ผู้ใช้จองของแต่ละโซน
+        for (var r : order.reservations()) {
+            for (int i = 1; i <= r.quantity(); i++) {
+                Registration reg = new Registration();
+                reg.setEmail(order.email());         // ใช้ email ที่ normalize แล้ว
+                reg.setUser(order.user());           // ผูกกับ user ที่เป็น guest หรือ user จริง
+                reg.setEvent(order.event());
+                reg.setSession(order.session());
+                reg.setZone(r.zone());
+                reg.setPrice(r.zone().getPrice());
+                reg.setTotalPrice(total);            // ราคารวมทั้ง order (ทุกโซน)
+                reg.setPaymentReference(paymentRef);
+                reg.setPaymentStatus(Registration.PayStatus.UNPAID);
+                reg.setExpiresAt(expiresAt);
+                reg.setTicketCode(ticketCodeGenerator.next(codePrefix));
+                reg.setCreatedAt(now);
+                tickets.add(reg);
+            }
         }
-
         return tickets;
     }
 
+    /** ตรวจบรรทัดในตะกร้า + รวมโซนซ้ำ (zoneId → จำนวน ตามลำดับที่ส่งมา) */
+    static Map<Integer, Integer> mergeLines(List<RegistrationDto.CartLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        Map<Integer, Integer> quantityByZone = new LinkedHashMap<>();
+        for (RegistrationDto.CartLine line : lines) {
+            if (line == null || line.zoneId() == null) {
+                throw new IllegalArgumentException("seatZoneId/zoneId is required");
+            }
+            if (line.quantity() == null || line.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be > 0");
+            }
+            quantityByZone.merge(line.zoneId(), line.quantity(), Integer::sum);
+        }
+        return quantityByZone;
+    }
+
+    static String normalizeEmail(String email) {
+        String normalized = (email == null ? "" : email).trim().toLowerCase();
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Email is required");
+        }
+        return normalized;
+    }
+
     /* ==========================================================
        AUTO-CREATE USER IF NOT EXISTS (Guest)
        ========================================================== */
@@ -133,11 +287,34 @@ public class RegistrationService {
        ========================================================== */
     @Transactional
     public List<Registration> confirmPayment(String paymentReference) {
-        var regs = registrationRepository.findByPaymentReference(paymentReference);
+        var regs = registrationRepository.lockByPaymentReference(paymentReference);
         if (regs.isEmpty())
             throw new IllegalArgumentException("Payment reference not found");
 
+        // hold หมดเวลาแล้ว (หรือ sweeper ปล่อยคืนไปแล้ว) → จ่ายไม่ได้
         LocalDateTime now = LocalDateTime.now();
+        boolean expired = regs.stream().anyMatch(reg ->
+                reg.getPaymentStatus() == Registration.PayStatus.EXPIRED
+                        || (reg.getPaymentStatus() == Registration.PayStatus.UNPAID
+                        && reg.getExpiresAt() != null && reg.getExpiresAt().isBefore(now)));
+        if (expired)
+            throw new IllegalStateException("Hold expired for payment reference " + paymentReference);
+
+        // ย้ายที่นั่งที่ยังไม่จ่ายจาก held → sold (ก่อนแก้ entity เพื่อไม่ให้ auto-flush ปนกับ seed)
+        var unpaid = regs.stream()
+                .filter(reg -> reg.getPaymentStatus() == Registration.PayStatus.UNPAID)
+                .toList();
+        var unpaidByZone = unpaid.stream()
+                .collect(Collectors.groupingBy(Registration::getZone, Collectors.counting()));
+        if (!unpaidByZone.isEmpty()) {
+            zoneInventoryService.commitAll(unpaidByZone.entrySet().stream()
+                    .map(e -> new ZoneInventoryService.Reservation(e.getKey(), e.getValue().intValue()))
+                    .toList());
+            salesRollupService.apply(unpaid.stream()
+                    .map(reg -> SalesRollupService.Delta.paid(reg.getZone().getId(), 1, reg.getPrice()))
+                    .toList());
+        }
+
         for (Registration reg : regs) {
             reg.setPaymentStatus(Registration.PayStatus.PAID);
             reg.setPaidAt(now);
@@ -145,6 +322,42 @@ public class RegistrationService {
         return registrationRepository.saveAll(regs);
     }
 
+    /* ==========================================================
+       HOLD EXPIRY — ปล่อย hold ที่หมดเวลาคืน inventory (1 batch)
+       - keyset: ดึงเฉพาะ id > afterId เรียงตาม id
+       - คืนค่า id สุดท้ายที่สแกน (null = ไม่มีเหลือแล้ว)
+       ========================================================== */
+    @Transactional
+    public Integer releaseExpiredHolds(Integer afterId, LocalDateTime now, int batchSize) {
+        var batch = registrationRepository.findExpiredHolds(now, afterId, Limit.of(batchSize));
+        if (batch.isEmpty()) return null;
+
+        // แถว rollup ต้องมีก่อน expireHolds (ไม่งั้นแถวที่สร้างทีหลังจะนับใบที่เพิ่ง expire ซ้ำ)
+        salesRollupService.ensureRows(batch.stream()
+                .map(RegistrationRepository.ExpiredHold::getZoneId)
+                .collect(Collectors.toSet()));
+
+        Map<Integer, Integer> releasedByZone = new TreeMap<>();
+        batch.stream()
+                .collect(Collectors.groupingBy(
+                        RegistrationRepository.ExpiredHold::getZoneId,
+                        Collectors.mapping(RegistrationRepository.ExpiredHold::getId, Collectors.toList())))
+                .forEach((zoneId, ids) -> {
+                    int released = registrationRepository.expireHolds(ids, now);
+                    if (released > 0) {
+                        releasedByZone.put(zoneId, released);
+                    }
+                });
+        if (!releasedByZone.isEmpty()) {
+            zoneInventoryService.releaseAll(releasedByZone);
+            salesRollupService.apply(releasedByZone.entrySet().stream()
+                    .map(e -> SalesRollupService.Delta.expired(e.getKey(), e.getValue()))
+                    .toList());
+        }
+
+        return batch.get(batch.size() - 1).getId();
+    }
+
     /* ==========================================================
        CHECK-IN — จาก ticket code
        ========================================================== */
@@ -175,11 +388,19 @@ public class RegistrationService {
             throw new IllegalStateException("Ticket already checked-in");
         }
 
-        // 6. ✔ ทำการเช็กอิน
+        // 6. ✔ ทำการเช็กอิน — UPDATE แบบมีเงื่อนไข (สแกนซ้ำพร้อมกันได้ 0 แถว → ไม่นับยอดซ้ำ)
+        //    แถว rollup ต้องมีก่อน UPDATE (ไม่งั้นแถวที่ seed ทีหลังจะนับเช็กอินนี้ซ้ำ)
+        Integer zoneId = reg.getZone().getId();
+        salesRollupService.ensureRows(List.of(zoneId));
+        LocalDateTime now = LocalDateTime.now();
+        if (registrationRepository.markCheckedIn(reg.getId(), now) == 0) {
+            throw new IllegalStateException("Ticket already checked-in");
+        }
+        salesRollupService.apply(List.of(SalesRollupService.Delta.checkedIn(zoneId)));
         reg.setIsCheckedIn(true);
-        reg.setCheckedInAt(LocalDateTime.now());
+        reg.setCheckedInAt(now);
 
-        return registrationRepository.save(reg);
+        return reg;
     }
 
 
@@ -234,23 +455,10 @@ public class RegistrationService {
     // ลบregis ทั้งหมดของ Event หนึ่ง
     @Transactional
     public int deleteAllByEventCascade(Integer eventId) {
+        salesRollupService.removeEvent(eventId);
         return registrationRepository.deleteAllByEventCascade(eventId);
     }
 
-    /* ==========================================================
-       UTILITIES  (ticket code)
-       ========================================================== */
-    private String generateTicketCode(String title, int seq) {
-        String prefix = title.replaceAll("[^A-Za-z]", "").toUpperCase();
-        String code;
-        do {
-            code = prefix.substring(0, Math.min(prefix.length(), 5))
-                    + "-" + UUID.randomUUID().toString().substring(0, 6).toUpperCase()
-                    + "-" + String.format("%03d", seq);
-        } while (registrationRepository.findByTicketCode(code).isPresent());
-        return code;
-    }
-
     /* ==========================================================
        READ BY PAYMENT REFERENCE
        ========================================================== */
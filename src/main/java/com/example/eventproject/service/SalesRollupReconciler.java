@@ -0,0 +1,72 @@
+package com.example.eventproject.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.eventproject.repository.SalesRollupRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * งานเบื้องหลัง: สร้าง / ตรวจ sales_rollup เทียบกับ registrations
+ * --------------------------------------------------------------
+ * - รันบน node ที่ถือ lease "sales-rollup" เท่านั้น (รอบแรกไม่นานหลังเริ่มระบบ → เติมแถวของข้อมูลเดิม)
+ * - ลบแถว zone_inventory ของโซนที่ไม่มีแล้วไปด้วย
+ * - หาโซนที่ยอดไม่ตรงด้วย query เดียว แล้วแก้ทีละโซน (ล็อกแถวแล้วนับใหม่ในแต่ละ transaction)
+ */
+@Slf4j
+@Component
+public class SalesRollupReconciler {
+
+    static final String LEASE_NAME = "sales-rollup";
+
+    private final SalesRollupService rollupService;
+    private final SalesRollupRepository rollupRepository;
+    private final ZoneInventoryService inventoryService;
+    private final SchedulerLeaseService leaseService;
+    private final int seedBatchSize;
+    private final int maxFixesPerRun;
+    private final Duration leaseTtl;
+
+    public SalesRollupReconciler(SalesRollupService rollupService,
+                                 SalesRollupRepository rollupRepository,
+                                 ZoneInventoryService inventoryService,
+                                 SchedulerLeaseService leaseService,
+                                 @Value("${app.rollup.seed-batch-size:500}") int seedBatchSize,
+                                 @Value("${app.rollup.max-fixes-per-run:1000}") int maxFixesPerRun,
+                                 @Value("${app.rollup.lease-seconds:600}") long leaseSeconds) {
+        this.rollupService = rollupService;
+        this.rollupRepository = rollupRepository;
+        this.inventoryService = inventoryService;
+        this.leaseService = leaseService;
+        this.seedBatchSize = seedBatchSize;
+        this.maxFixesPerRun = maxFixesPerRun;
+        this.leaseTtl = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${app.rollup.reconcile-interval-ms:3600000}",
+            initialDelayString = "${app.rollup.reconcile-initial-delay-ms:20000}")
+    public void reconcile() {
+        if (!leaseService.tryAcquire(LEASE_NAME, leaseTtl)) {
+            return;
+        }
+
+        int seeded = rollupService.seedMissing(seedBatchSize);
+        // zone_inventory ของโซนที่ถูกลบไม่ผ่าน EventService (เช่นลบตรงใน DB)
+        int orphans = inventoryService.deleteOrphans();
+        List<Integer> drifted = rollupRepository.findDriftedZoneIds();
+        int fixed = 0;
+        for (Integer zoneId : drifted.subList(0, Math.min(drifted.size(), maxFixesPerRun))) {
+            // ยอดอาจเพิ่งเปลี่ยนระหว่างตรวจ → reconcileZone นับใหม่หลังล็อก แก้เฉพาะที่ยังไม่ตรงจริง
+            if (rollupService.reconcileZone(zoneId)) fixed++;
+        }
+        if (seeded > 0 || fixed > 0 || orphans > 0) {
+            log.info("Sales rollup: seeded {} zone(s), corrected {} of {} suspect zone(s), removed {} orphan inventory row(s)",
+                    seeded, fixed, drifted.size(), orphans);
+        }
+    }
+}
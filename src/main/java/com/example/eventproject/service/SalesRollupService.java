@@ -0,0 +1,169 @@
+package com.example.eventproject.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.eventproject.dto.SalesRollupCounts;
+import com.example.eventproject.model.SalesRollup;
+import com.example.eventproject.repository.SalesRollupRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ยอดขายสะสมต่อโซน (sales_rollup) ที่ dashboard / หน้าเลือกโซนอ่าน
+ * --------------------------------------------------------------
+ * - เรียกใน transaction เดียวกับการเปลี่ยน registrations → ยอด commit / rollback ไปพร้อมกัน
+ * - ต้องเรียกก่อนเขียน registrations ของโซนนั้นใน transaction (แถวที่เพิ่งสร้างจะได้ไม่นับซ้ำ)
+ * - UPDATE เรียงตาม zoneId (ลำดับ lock เดียวกับ ZoneInventoryService) → ไม่ deadlock ข้าม order
+ * - แถวเพี้ยน (เช่น แก้ DB ตรง ๆ) → SalesRollupReconciler แก้ให้ตรงกับ registrations
+ * - ยอดเดียวกันถูกบวกเข้า bucket นาทีปัจจุบันของกราฟยอดขาย (SalesTimeseriesService) ต่อจาก UPDATE ของโซน
+ */
+@Slf4j
+@Service
+public class SalesRollupService {
+
+    private final SalesRollupRepository rollupRepository;
+    private final SalesTimeseriesService timeseriesService;
+
+    public SalesRollupService(SalesRollupRepository rollupRepository, SalesTimeseriesService timeseriesService) {
+        this.rollupRepository = rollupRepository;
+        this.timeseriesService = timeseriesService;
+    }
+
+    /* ==========================================================
+       APPLY — บวกยอดหลายโซน (ถ้ายังไม่มีแถว → สร้างจากยอดจริงแล้วบวก)
+       ========================================================== */
+    @Transactional
+    public void apply(List<Delta> deltas) {
+        TreeMap<Integer, Delta> byZone = new TreeMap<>();
+        for (Delta d : deltas) {
+            byZone.merge(d.zoneId(), d, Delta::plus);
+        }
+        for (Delta d : byZone.values()) {
+            if (d.isEmpty()) continue;
+            int updated = add(d);
+            if (updated == 0) {
+                rollupRepository.seedZones(List.of(d.zoneId()));
+                updated = add(d);
+            }
+            if (updated == 0) {
+                log.warn("Sales rollup drift: zone {} has no rollup row", d.zoneId());
+            }
+            timeseriesService.record(d);
+        }
+    }
+
+    /**
+     * สร้างแถวของโซนที่ยังไม่มี — ใช้ก่อนคำสั่งที่แก้ registrations ทันที (bulk UPDATE)
+     * แล้วค่อย apply ยอดที่ได้จริงตามหลัง
+     */
+    @Transactional
+    public void ensureRows(Collection<Integer> zoneIds) {
+        if (zoneIds.isEmpty()) return;
+        Set<Integer> missing = new HashSet<>(zoneIds);
+        missing.removeAll(rollupRepository.findExistingZoneIds(zoneIds));
+        if (!missing.isEmpty()) {
+            rollupRepository.seedZones(missing);
+        }
+    }
+
+    /** ลบยอดทั้ง event (พร้อมลบ registrations ของ event) — กราฟยอดขายหาโซนของ event จากแถว rollup จึงลบก่อน */
+    @Transactional
+    public void removeEvent(Integer eventId) {
+        timeseriesService.removeEvent(eventId);
+        rollupRepository.deleteByEventId(eventId);
+    }
+
+    /* ==========================================================
+       RECONCILE — แก้แถวของโซนให้ตรงกับ registrations
+       ล็อกแถวก่อนนับ → การจอง / จ่ายที่ค้างอยู่จะ commit ก่อน หรือรอแล้วบวกต่อจากค่าที่แก้แล้ว
+       ========================================================== */
+    @Transactional
+    public boolean reconcileZone(Integer zoneId) {
+        SalesRollup row = rollupRepository.lockByZoneId(zoneId).orElse(null);
+        if (row == null) return false;
+
+        SalesRollupCounts actual = rollupRepository.countByZone(zoneId);
+        if (matches(row, actual)) return false;
+
+        log.warn("Sales rollup drift in zone {}: sold {}→{}, unpaid {}→{}, expired {}→{}, checkedIn {}→{}, revenue {}→{}",
+                zoneId, row.getSold(), actual.sold(), row.getUnpaid(), actual.unpaid(),
+                row.getExpired(), actual.expired(), row.getCheckedIn(), actual.checkedIn(),
+                row.getRevenue(), actual.revenue());
+        row.setSold(actual.sold());
+        row.setUnpaid(actual.unpaid());
+        row.setExpired(actual.expired());
+        row.setCheckedIn(actual.checkedIn());
+        row.setRevenue(actual.revenue());
+        return true;
+    }
+
+    /** สร้างแถวของโซนที่ยังไม่มีทีละ batch + ลบแถวของโซนที่ถูกลบ */
+    @Transactional
+    public int seedMissing(int batchSize) {
+        rollupRepository.deleteOrphans();
+        List<Integer> missing = rollupRepository.findZoneIdsWithoutRollup();
+        int seeded = 0;
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            List<Integer> batch = new ArrayList<>(missing.subList(from, Math.min(from + batchSize, missing.size())));
+            seeded += rollupRepository.seedZones(batch);
+        }
+        return seeded;
+    }
+
+    /* ==========================================================
+       UTILITIES
+       ========================================================== */
+    private int add(Delta d) {
+        return rollupRepository.addDeltas(d.zoneId(), d.sold(), d.unpaid(), d.expired(), d.checkedIn(), d.revenue());
+    }
+
+    private static boolean matches(SalesRollup row, SalesRollupCounts actual) {
+        return row.getSold().equals(actual.sold())
+                && row.getUnpaid().equals(actual.unpaid())
+                && row.getExpired().equals(actual.expired())
+                && row.getCheckedIn().equals(actual.checkedIn())
+                && row.getRevenue().compareTo(actual.revenue()) == 0;
+    }
+
+    /** ยอดที่เปลี่ยนของ 1 โซน (ค่าติดลบ = ลด) / created = จำนวนใบที่เพิ่งจอง (ใช้กับกราฟยอดขายเท่านั้น) */
+    public record Delta(Integer zoneId, long created, long sold, long unpaid, long expired, long checkedIn,
+                        BigDecimal revenue) {
+
+        /** จองใหม่ (ยังไม่จ่าย) */
+        public static Delta booked(Integer zoneId, int quantity) {
+            return new Delta(zoneId, quantity, 0, quantity, 0, 0, BigDecimal.ZERO);
+        }
+
+        /** จ่ายเงินแล้ว: unpaid → sold */
+        public static Delta paid(Integer zoneId, int quantity, BigDecimal revenue) {
+            return new Delta(zoneId, 0, quantity, -quantity, 0, 0, revenue);
+        }
+
+        /** hold หมดเวลา: unpaid → expired */
+        public static Delta expired(Integer zoneId, int quantity) {
+            return new Delta(zoneId, 0, 0, -quantity, quantity, 0, BigDecimal.ZERO);
+        }
+
+        public static Delta checkedIn(Integer zoneId) {
+            return new Delta(zoneId, 0, 0, 0, 0, 1, BigDecimal.ZERO);
+        }
+
+        Delta plus(Delta other) {
+            return new Delta(zoneId, created + other.created, sold + other.sold, unpaid + other.unpaid,
+                    expired + other.expired, checkedIn + other.checkedIn, revenue.add(other.revenue));
+        }
+
+        boolean isEmpty() {
+            return created == 0 && sold == 0 && unpaid == 0 && expired == 0 && checkedIn == 0 && revenue.signum() == 0;
+        }
+    }
+}
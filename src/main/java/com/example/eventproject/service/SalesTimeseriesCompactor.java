@@ -0,0 +1,77 @@
+package com.example.eventproject.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static com.example.eventproject.service.SalesTimeseriesService.DAY;
+import static com.example.eventproject.service.SalesTimeseriesService.HOUR;
+import static com.example.eventproject.service.SalesTimeseriesService.MINUTE;
+
+/**
+ * งานเบื้องหลัง: ย่อกราฟยอดขาย
+ * --------------------------------------------------------------
+ * - bucket นาทีที่เก่ากว่า minute-retention → รวมเป็นชั่วโมง / bucket ชั่วโมงที่เก่ากว่า hour-retention → รวมเป็นวัน
+ * - รันบน node ที่ถือ lease "sales-timeseries" เท่านั้น / 1 ช่วงต่อ transaction ไม่เกิน max-buckets-per-run ต่อรอบ
+ * - bucket ที่ถูกย่อเก่ากว่าเวลาปัจจุบันมาก → ไม่ชนกับการบวกยอดของการจองที่กำลังเกิดขึ้น
+ */
+@Slf4j
+@Component
+public class SalesTimeseriesCompactor {
+
+    static final String LEASE_NAME = "sales-timeseries";
+
+    private final SalesTimeseriesService timeseriesService;
+    private final SchedulerLeaseService leaseService;
+    private final Clock clock;
+    private final Duration minuteRetention;
+    private final Duration hourRetention;
+    private final int maxBucketsPerRun;
+    private final Duration leaseTtl;
+
+    public SalesTimeseriesCompactor(SalesTimeseriesService timeseriesService,
+                                    SchedulerLeaseService leaseService,
+                                    Clock clock,
+                                    @Value("${app.timeseries.minute-retention-hours:48}") long minuteRetentionHours,
+                                    @Value("${app.timeseries.hour-retention-days:90}") long hourRetentionDays,
+                                    @Value("${app.timeseries.max-buckets-per-run:500}") int maxBucketsPerRun,
+                                    @Value("${app.timeseries.lease-seconds:600}") long leaseSeconds) {
+        this.timeseriesService = timeseriesService;
+        this.leaseService = leaseService;
+        this.clock = clock;
+        this.minuteRetention = Duration.ofHours(minuteRetentionHours);
+        this.hourRetention = Duration.ofDays(hourRetentionDays);
+        this.maxBucketsPerRun = maxBucketsPerRun;
+        this.leaseTtl = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${app.timeseries.compact-interval-ms:600000}",
+            initialDelayString = "${app.timeseries.compact-initial-delay-ms:60000}")
+    public void compact() {
+        if (!leaseService.tryAcquire(LEASE_NAME, leaseTtl)) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        int orphans = timeseriesService.deleteOrphans();
+        int hours = compactLevel(MINUTE, HOUR, now.minus(minuteRetention), maxBucketsPerRun);
+        int days = compactLevel(HOUR, DAY, now.minus(hourRetention), maxBucketsPerRun - hours);
+        if (orphans > 0 || hours > 0 || days > 0) {
+            log.info("Sales timeseries: compacted {} hour(s) and {} day(s), removed {} orphan bucket(s)", hours, days, orphans);
+        }
+    }
+
+    private int compactLevel(int fromSeconds, int toSeconds, LocalDateTime cutoff, int budget) {
+        int done = 0;
+        while (done < budget && timeseriesService.compactOldest(fromSeconds, toSeconds, cutoff)) {
+            done++;
+        }
+        return done;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.eventproject.service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.eventproject.dto.SalesBucketTotals;
+import com.example.eventproject.dto.SalesTimeseries;
+import com.example.eventproject.model.SalesBucket;
+import com.example.eventproject.repository.SalesTimeseriesRepository;
+import com.example.eventproject.service.SalesRollupService.Delta;
+
+/**
+ * กราฟยอดขายราย event (จอง / จ่าย / เช็กอิน / รายได้ ต่อช่วงเวลา)
+ * --------------------------------------------------------------
+ * - ยอดใหม่บวกเข้า bucket นาทีปัจจุบันของโซน (เรียกจาก SalesRollupService.apply ใน transaction เดียวกัน)
+ *   แถวของโซนถูกล็อกต่อจากแถว sales_rollup ของโซนเดียวกัน → ลำดับ lock เดิม ไม่ deadlock
+ * - bucket เก่ากว่า retention ถูกรวมเป็นชั่วโมง / วัน โดย SalesTimeseriesCompactor
+ * - อ่าน: รวมทุกโซนของ event แล้วจัดลง step ที่ขอ (ช่วงไม่มียอด = 0)
+ */
+@Service
+public class SalesTimeseriesService {
+
+    static final int MINUTE = 60;
+    static final int HOUR = 3600;
+    static final int DAY = 86400;
+    static final int MAX_POINTS = 1440;
+
+    private static final Pattern STEP = Pattern.compile("(\\d{1,4})([mhd])");
+
+    private final SalesTimeseriesRepository repo;
+    private final Clock clock;
+
+    public SalesTimeseriesService(SalesTimeseriesRepository repo, Clock clock) {
+        this.repo = repo;
+        this.clock = clock;
+    }
+
+    /* ==========================================================
+       WRITE — บวกยอดของโซนเข้า bucket นาทีปัจจุบัน
+       ========================================================== */
+    @Transactional
+    public void record(Delta d) {
+        if (d.created() == 0 && d.sold() == 0 && d.checkedIn() == 0 && d.revenue().signum() == 0) {
+            return; // เช่น hold หมดเวลา → ไม่มีอะไรลงกราฟ
+        }
+        LocalDateTime bucket = floor(LocalDateTime.now(clock), MINUTE);
+        repo.addToBucket(d.zoneId(), MINUTE, bucket, d.created(), d.sold(), d.checkedIn(), d.revenue());
+    }
+
+    @Transactional
+    public void removeEvent(Integer eventId) {
+        repo.deleteByEventId(eventId);
+    }
+
+    /* ==========================================================
+       READ — GET /api/dashboard/events/{id}/timeseries
+       ========================================================== */
+    @Transactional(readOnly = true)
+    public SalesTimeseries getSeries(Integer eventId, LocalDateTime from, LocalDateTime to, String step) {
+        int stepSeconds = parseStep(step);
+        LocalDateTime end = to != null ? to : LocalDateTime.now(clock);
+        LocalDateTime begin = from != null ? from : end.minusHours(1);
+        if (!begin.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        LocalDateTime start = floor(begin, stepSeconds);
+        LocalDateTime limit = ceil(end, stepSeconds);
+        long points = Duration.between(start, limit).getSeconds() / stepSeconds;
+        if (points > MAX_POINTS) {
+            throw new IllegalArgumentException("Too many points (" + points + "), max " + MAX_POINTS + " — use a larger step");
+        }
+
+        int n = (int) points;
+        long[] created = new long[n];
+        long[] paid = new long[n];
+        long[] checkedIn = new long[n];
+        BigDecimal[] revenue = new BigDecimal[n];
+        Arrays.fill(revenue, BigDecimal.ZERO);
+        int resolution = stepSeconds;
+
+        for (SalesBucketTotals row : repo.findEventTotals(eventId, start, limit)) {
+            int i = (int) (Duration.between(start, row.bucketStart()).getSeconds() / stepSeconds);
+            created[i] += row.created();
+            paid[i] += row.paid();
+            checkedIn[i] += row.checkedIn();
+            revenue[i] = revenue[i].add(row.revenue());
+            resolution = Math.max(resolution, row.bucketSeconds());
+        }
+
+        List<SalesTimeseries.Point> series = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            series.add(new SalesTimeseries.Point(start.plusSeconds((long) i * stepSeconds),
+                    created[i], paid[i], checkedIn[i], revenue[i]));
+        }
+        return new SalesTimeseries(eventId, stepSeconds, resolution, series);
+    }
+
+    /* ==========================================================
+       COMPACTION — รวม bucket ที่เก่าที่สุด 1 ช่วง (ขนาด toSeconds) ต่อ transaction
+       ========================================================== */
+
+    /**
+     * รวม bucket ขนาด fromSeconds ที่เก่าที่สุดก่อน before เป็น bucket ขนาด toSeconds
+     *
+     * @return false = ไม่มีช่วงที่พ้น before ทั้งช่วงเหลือแล้ว
+     */
+    @Transactional
+    public boolean compactOldest(int fromSeconds, int toSeconds, LocalDateTime before) {
+        LocalDateTime oldest = repo.findOldestBucketStart(fromSeconds, before);
+        if (oldest == null) return false;
+
+        LocalDateTime start = floor(oldest, toSeconds);
+        LocalDateTime end = start.plusSeconds(toSeconds);
+        if (end.isAfter(before)) return false; // ช่วงยังไม่พ้น cutoff ทั้งช่วง (ช่วงหลังจากนี้ก็เช่นกัน)
+
+        TreeMap<Integer, SalesBucket> byZone = new TreeMap<>();
+        for (SalesBucket b : repo.findRange(fromSeconds, start, end)) {
+            byZone.merge(b.getZoneId(), b, SalesTimeseriesService::sum);
+        }
+        for (SalesBucket b : byZone.values()) {
+            repo.addToBucket(b.getZoneId(), toSeconds, start, b.getCreated(), b.getPaid(), b.getCheckedIn(), b.getRevenue());
+        }
+        repo.deleteRange(fromSeconds, start, end);
+        return true;
+    }
+
+    @Transactional
+    public int deleteOrphans() {
+        return repo.deleteOrphans();
+    }
+
+    /* ==========================================================
+       UTILITIES
+       ========================================================== */
+
+    /** "1m" / "5m" / "1h" / "1d" → วินาที (ต้องหาร 1 วันลงตัว เพื่อให้ทุกจุดเริ่มตรงขอบ bucket) */
+    static int parseStep(String step) {
+        Matcher m = STEP.matcher(step == null ? "" : step.trim());
+        if (!m.matches()) {
+            throw new IllegalArgumentException("Invalid step: " + step + " (e.g. 1m, 5m, 1h, 1d)");
+        }
+        int unit = switch (m.group(2)) {
+            case "m" -> MINUTE;
+            case "h" -> HOUR;
+            default -> DAY;
+        };
+        long seconds = Long.parseLong(m.group(1)) * unit;
+        if (seconds == 0 || seconds > DAY || DAY % seconds != 0) {
+            throw new IllegalArgumentException("Invalid step: " + step + " (must divide one day)");
+        }
+        return (int) seconds;
+    }
+
+    /** ปัดลงตามขนาด bucket (นับจากเที่ยงคืน) */
+    static LocalDateTime floor(LocalDateTime t, int seconds) {
+        LocalDateTime day = t.toLocalDate().atStartOfDay();
+        long s = Duration.between(day, t).getSeconds();
+        return day.plusSeconds(s - s % seconds);
+    }
+
+    static LocalDateTime ceil(LocalDateTime t, int seconds) {
+        LocalDateTime f = floor(t, seconds);
+        return f.equals(t) ? f : f.plusSeconds(seconds);
+    }
+
+    private static SalesBucket sum(SalesBucket a, SalesBucket b) {
+        SalesBucket s = new SalesBucket();
+        s.setZoneId(a.getZoneId());
+        s.setCreated(a.getCreated() + b.getCreated());
+        s.setPaid(a.getPaid() + b.getPaid());
+        s.setCheckedIn(a.getCheckedIn() + b.getCheckedIn());
+        s.setRevenue(a.getRevenue().add(b.getRevenue()));
+        return s;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.eventproject.service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.eventproject.repository.SchedulerLeaseRepository;
+
+/**
+ * ประสานงานเบื้องหลังระหว่างหลาย replica ผ่านแถว lease ใน DB
+ * → งานชื่อเดียวกันจะมีแค่ node เดียวที่รันในแต่ละช่วงเวลา
+ */
+@Service
+public class SchedulerLeaseService {
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final String owner;
+
+    public SchedulerLeaseService(SchedulerLeaseRepository leaseRepository) {
+        this.leaseRepository = leaseRepository;
+        this.owner = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * ขอ (หรือต่ออายุ) lease ของงาน
+     *
+     * @param name ชื่องาน เช่น "hold-expiry"
+     * @param ttl  ระยะเวลาที่ถือ lease ได้ก่อนให้ node อื่นยึดต่อ
+     * @return true ถ้า node นี้เป็นผู้ถือ lease
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String name, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(ttl);
+        if (leaseRepository.tryAcquire(name, owner, now, until) == 1) {
+            return true;
+        }
+        return leaseRepository.insertIfAbsent(name, owner, until) == 1;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.eventproject.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ส่ง SSE ให้ผู้ฟังจำนวนมาก (ใช้ร่วมกันโดย EventAvailabilityStream / ZoneAvailabilityCache)
+ * --------------------------------------------------------------
+ * - publish แค่ใส่ frame ลงคิวของผู้ฟังแต่ละคน → thread ของ @Scheduled ไม่ติด I/O และไม่มีใครถือ lock ระหว่างส่ง
+ * - ส่งจริงบน thread pool แยก (send-threads / คิวงาน send-queue-capacity) เรียงตามลำดับต่อผู้ฟัง
+ * - ผู้ฟังช้า (frame ค้างเกิน max-pending-frames) หรือ pool เต็ม → ตัดสายทิ้ง (client ต่อใหม่ได้ snapshot ใหม่)
+ * - heartbeat: key ที่ไม่มี frame นาน heartbeat-ms → ส่ง comment กัน proxy ตัดสาย และเก็บกวาดสายที่หลุด
+ * - key ที่ผู้ฟังคนสุดท้ายปิดสาย → ลบทิ้ง (key มาจาก client จึงต้องไม่ค้างใน map)
+ */
+@Slf4j
+@Component
+public class SseBroadcaster {
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("").build();
+
+    private final Executor executor;
+    private final int maxPendingFrames;
+
+    @Autowired
+    public SseBroadcaster(@Value("${app.sse.send-threads:8}") int threads,
+                          @Value("${app.sse.send-queue-capacity:10000}") int queueCapacity,
+                          @Value("${app.sse.max-pending-frames:16}") int maxPendingFrames) {
+        this(newPool(threads, queueCapacity), maxPendingFrames);
+    }
+
+    /** test: กำหนด executor เอง (เช่น Runnable::run = ส่งทันทีบน thread ผู้เรียก) */
+    SseBroadcaster(Executor executor, int maxPendingFrames) {
+        this.executor = executor;
+        this.maxPendingFrames = Math.max(1, maxPendingFrames);
+    }
+
+    /** กลุ่มผู้ฟังแยกตาม key (event / session) */
+    public <K> Topic<K> topic(long heartbeatMs) {
+        return new Topic<>(heartbeatMs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    private static ThreadPoolExecutor newPool(int threads, int queueCapacity) {
+        int size = Math.max(1, threads);
+        AtomicInteger seq = new AtomicInteger();
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "sse-send-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /* ==========================================================
+       TOPIC — ผู้ฟังต่อ key
+       ========================================================== */
+    public final class Topic<K> {
+
+        private final long heartbeatMs;
+        private final ConcurrentHashMap<K, Channel> channels = new ConcurrentHashMap<>();
+
+        private Topic(long heartbeatMs) {
+            this.heartbeatMs = heartbeatMs;
+        }
+
+        /** เปิดสายใหม่ — first (snapshot) ถูกส่งก่อน frame ที่ publish หลังจากนี้เสมอ */
+        public SseEmitter open(K key, long timeoutMs, Set<ResponseBodyEmitter.DataWithMediaType> first) {
+            SseEmitter emitter = new SseEmitter(timeoutMs);
+            Subscriber subscriber = new Subscriber(emitter, s -> detach(key, s));
+            emitter.onCompletion(subscriber::close);
+            emitter.onTimeout(subscriber::close);
+            emitter.onError(e -> subscriber.close());
+            subscriber.enqueue(first);
+            // เข้ากลุ่มใน compute → ไม่ชนกับ detach ของผู้ฟังคนสุดท้ายที่กำลังลบ channel
+            channels.compute(key, (k, channel) -> {
+                Channel target = channel == null ? new Channel() : channel;
+                target.subscribers.add(subscriber);
+                return target;
+            });
+            if (subscriber.isClosed()) {
+                detach(key, subscriber); // ถูกตัด / ปิดไปก่อนเข้ากลุ่ม
+            }
+            return emitter;
+        }
+
+        /** ส่ง frame ให้ทุกผู้ฟังของ key (ไม่รอส่งเสร็จ) */
+        public void publish(K key, Set<ResponseBodyEmitter.DataWithMediaType> frame, long nowMs) {
+            Channel channel = channels.get(key);
+            if (channel == null) return;
+            channel.lastFrameAtMs = nowMs;
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.enqueue(frame);
+            }
+        }
+
+        /** ส่ง comment ให้ key ที่มีผู้ฟังแต่ไม่มี frame มานาน heartbeat-ms */
+        public void heartbeat(long nowMs) {
+            channels.forEach((key, channel) -> {
+                if (!channel.subscribers.isEmpty() && nowMs - channel.lastFrameAtMs >= heartbeatMs) {
+                    publish(key, HEARTBEAT, nowMs);
+                }
+            });
+        }
+
+        public boolean hasSubscribers(K key) {
+            Channel channel = channels.get(key);
+            return channel != null && !channel.subscribers.isEmpty();
+        }
+
+        public int subscriberCount(K key) {
+            Channel channel = channels.get(key);
+            return channel == null ? 0 : channel.subscribers.size();
+        }
+
+        /** จำนวน key ที่มีผู้ฟังอยู่ */
+        public int size() {
+            return channels.size();
+        }
+
+        /** เอาผู้ฟังออก — คนสุดท้ายออกแล้วลบ channel ของ key นั้น */
+        private void detach(K key, Subscriber subscriber) {
+            channels.computeIfPresent(key, (k, channel) -> {
+                channel.subscribers.remove(subscriber);
+                return channel.subscribers.isEmpty() ? null : channel;
+            });
+        }
+    }
+
+    /** ผู้ฟังของ key เดียว — สร้าง / ลบใน compute ของ map เท่านั้น */
+    private static final class Channel {
+        final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        volatile long lastFrameAtMs;
+    }
+
+    /** สาย SSE 1 สาย + frame ที่รอส่ง (ส่งทีละ frame ตามลำดับ บน executor) */
+    private final class Subscriber implements Runnable {
+
+        final SseEmitter emitter;
+        private final Consumer<Subscriber> detach;
+        private final ArrayDeque<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ArrayDeque<>(); // guarded by this
+        private boolean scheduled; // guarded by this
+        private boolean closed;    // guarded by this
+
+        Subscriber(SseEmitter emitter, Consumer<Subscriber> detach) {
+            this.emitter = emitter;
+            this.detach = detach;
+        }
+
+        void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            synchronized (this) {
+                if (closed) return;
+                if (pending.size() < maxPendingFrames) {
+                    pending.add(frame);
+                    if (scheduled) return;
+                    scheduled = true;
+                } else {
+                    frame = null; // ช้าเกินไป
+                }
+            }
+            if (frame == null) {
+                drop("too slow");
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                drop("send pool is full");
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> frame;
+                synchronized (this) {
+                    frame = closed ? null : pending.poll();
+                    if (frame == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(frame);
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                    return;
+                }
+            }
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            detach.accept(this);
+        }
+
+        private void drop(String reason) {
+            log.debug("Dropping SSE subscriber: {}", reason);
+            close();
+            emitter.complete();
+        }
+    }
+}
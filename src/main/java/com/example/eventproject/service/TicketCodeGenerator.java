@@ -0,0 +1,131 @@
+package com.example.eventproject.service;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ออกรหัสตั๋วที่ไม่ซ้ำโดยไม่ต้องถาม DB ก่อน (Snowflake-style)
+ * --------------------------------------------------------------
+ * id 63 บิต = [41 บิต ms นับจาก EPOCH][10 บิต node][12 บิต sequence]
+ * แล้วเข้ารหัส Crockford base32 ยาวคงที่ 13 ตัว + สุ่มต่อท้าย 8 ตัว (40 บิต) → "PREFX-0HZ4W6E1T2K3MX7QD2RBA"
+ * - ภายใน node: state (ms, seq) อยู่ใน AtomicLong ตัวเดียว อัปเดตด้วย CAS
+ *   seq เต็มใน ms เดียวกัน → ทดไปใช้ ms ถัดไป / นาฬิกาถอยหลัง → ใช้ค่าเดิมต่อ (ไม่บล็อก)
+ * - ข้าม node: แยกกันด้วย node-id (app.ticket-code.node-id ควรไม่ซ้ำกันต่อ instance — ไม่ตั้ง → สุ่มให้ + warn)
+ * - ส่วนสุ่ม (SecureRandom): ถือตั๋วใบหนึ่งแล้วเดารหัสของ order ข้างเคียงไม่ได้
+ *   และ node-id ชนกันก็ยังต้องสุ่มได้ 40 บิตตรงกันถึงจะชน unique index ของ ticket_code
+ */
+@Slf4j
+@Component
+public class TicketCodeGenerator {
+
+    // 2025-01-01T00:00:00Z — 41 บิตใช้ได้ ~69 ปี
+    static final long EPOCH_MS = 1735689600000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQ_BITS = 12;
+    static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int CODE_LENGTH = 13;       // ceil(63 / 5)
+    private static final int RANDOM_LENGTH = 8;      // 40 บิต
+    private static final int PREFIX_LENGTH = 5;
+    private static final String DEFAULT_PREFIX = "TKT";
+
+    private final int nodeId;
+    private final LongSupplier clock;
+    // (ms - EPOCH) << SEQ_BITS | seq
+    private final AtomicLong state = new AtomicLong();
+    // DRBG ต่อ thread → ไม่แย่ง lock ของ SecureRandom ตัวเดียวกันตอนออกตั๋วพร้อมกันหลาย order
+    private final ThreadLocal<SecureRandom> random = ThreadLocal.withInitial(TicketCodeGenerator::newSecureRandom);
+
+    @Autowired
+    public TicketCodeGenerator(@Value("${app.ticket-code.node-id:-1}") int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+        if (nodeId < 0) {
+            // ส่วนสุ่ม 40 บิตกันชนอยู่แล้ว — node-id ซ้ำแค่เสียการเรียงตามเวลาข้าม node
+            log.warn("app.ticket-code.node-id (NODE_ID) not set, using random node id {}", this.nodeId);
+        }
+    }
+
+    TicketCodeGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("node-id must be between 0 and " + MAX_NODE);
+        }
+        this.nodeId = nodeId < 0 ? ThreadLocalRandom.current().nextInt(MAX_NODE + 1) : nodeId;
+        this.clock = clock;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * prefix จากชื่องาน: เอาเฉพาะ A-Z (ตัวพิมพ์ใหญ่) ไม่เกิน 5 ตัว
+     * คำนวณครั้งเดียวต่อ order แล้วส่งให้ next(prefix) ทุกใบ
+     */
+    public static String prefixOf(String title) {
+        if (title == null) return DEFAULT_PREFIX;
+        StringBuilder sb = new StringBuilder(PREFIX_LENGTH);
+        for (int i = 0; i < title.length() && sb.length() < PREFIX_LENGTH; i++) {
+            char c = title.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                sb.append((char) (c - ('a' - 'A')));
+            } else if (c >= 'A' && c <= 'Z') {
+                sb.append(c);
+            }
+        }
+        return sb.length() == 0 ? DEFAULT_PREFIX : sb.toString();
+    }
+
+    /** รหัสตั๋วใบถัดไป เช่น "CONCE-0HZ4W6E1T2K3MX7QD2RBA" */
+    public String next(String prefix) {
+        int offset = prefix.length() + 1;
+        char[] out = new char[offset + CODE_LENGTH + RANDOM_LENGTH];
+        prefix.getChars(0, prefix.length(), out, 0);
+        out[prefix.length()] = '-';
+        encode(nextId(), out, offset, CODE_LENGTH);
+        encode(random.get().nextLong(), out, offset + CODE_LENGTH, RANDOM_LENGTH);
+        return new String(out);
+    }
+
+    /** id 63 บิตที่เรียงตามเวลา ไม่ซ้ำภายใน node */
+    long nextId() {
+        long now = clock.getAsLong() - EPOCH_MS;
+        long prev;
+        long next;
+        do {
+            prev = state.get();
+            long prevMs = prev >>> SEQ_BITS;
+            // ms ใหม่ → seq เริ่ม 0 / ms เดิมหรือนาฬิกาถอย → +1 (seq ล้นจะทดเข้า ms เอง)
+            next = now > prevMs ? now << SEQ_BITS : prev + 1;
+        } while (!state.compareAndSet(prev, next));
+
+        long ms = next >>> SEQ_BITS;
+        long seq = next & ((1L << SEQ_BITS) - 1);
+        return (ms << (NODE_BITS + SEQ_BITS)) | ((long) nodeId << SEQ_BITS) | seq;
+    }
+
+    private static void encode(long value, char[] out, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            out[i] = CROCKFORD[(int) (value & 31)];
+            value >>>= 5;
+        }
+    }
+
+    private static SecureRandom newSecureRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.eventproject.service;
 
+import com.example.eventproject.model.Role;
 import com.example.eventproject.model.User;
+import com.example.eventproject.repository.RoleRepository;
 import com.example.eventproject.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -12,6 +16,8 @@ import java.util.List;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /* ==========================================================
        GET ALL USERS
@@ -44,4 +50,25 @@ public class UserService {
     public List<User> getAllGuests() {
         return userRepository.findAllByRoleCode("GUEST");
     }
+
+    /* ==========================================================
+       CHANGE ROLE — token เดิมของผู้ใช้ใช้ไม่ได้ทันที (ต้อง login ใหม่เพื่อรับ role ใหม่)
+       ========================================================== */
+    @Transactional
+    public User changeRole(String email, String roleCode) {
+        if (roleCode == null || roleCode.isBlank()) {
+            throw new IllegalArgumentException("Role code is required");
+        }
+        String normalizedRole = roleCode.trim().toUpperCase();
+
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + email));
+        Role role = roleRepository.findByCode(normalizedRole)
+                .orElseThrow(() -> new IllegalArgumentException("Role not found: " + normalizedRole));
+
+        user.setRole(role);
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        eventPublisher.publishEvent(new UserTokensRevokedEvent(user.getEmail()));
+        return user;
+    }
 }
@@ -0,0 +1,9 @@
+package com.example.eventproject.service;
+
+/**
+ * token ทั้งหมดของผู้ใช้ที่ออกก่อนหน้าถูกเพิกถอน (token version เพิ่มขึ้น เช่น เปลี่ยน role)
+ * ผู้ฟังควรใช้ @TransactionalEventListener เพื่อล้าง cache หลัง commit เท่านั้น
+ *
+ * @param email ผู้ใช้ที่ถูกเพิกถอน
+ */
+public record UserTokensRevokedEvent(String email) {}
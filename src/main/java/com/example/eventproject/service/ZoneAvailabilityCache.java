@@ -0,0 +1,267 @@
+package com.example.eventproject.service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.eventproject.dto.ZoneAvailabilityDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * snapshot ที่นั่งคงเหลือต่อ session ในหน่วยความจำ (หน้าเลือกโซน)
+ * --------------------------------------------------------------
+ * - โหลดด้วย EventZoneService.getAvailabilityBySession (LEFT JOIN + GROUP BY) ครั้งแรก แล้วอ่านจาก memory
+ * - จอง / คืนที่นั่งบน node นี้ → ปรับ snapshot ทันทีหลัง commit (ZoneInventoryChangedEvent)
+ * - การเปลี่ยนจาก node อื่น / แก้โซนจากหลังบ้าน → เห็นภายใน max-staleness-ms (โหลดใหม่ทั้ง session)
+ *   ระหว่างโหลดใหม่ คำขออื่นได้ snapshot เดิมไปก่อน (DB โดนแค่ครั้งเดียวต่อ session)
+ * - SSE: ส่ง snapshot แรก แล้วส่งเฉพาะโซนที่เปลี่ยนทุก push-interval-ms (รวมหลายการจองเป็นก้อนเดียว)
+ *   ส่งผ่าน SseBroadcaster (pool แยก ไม่ส่งบน scheduler) / ไม่มีอะไรเปลี่ยนนาน heartbeat-ms → comment
+ * - sessionId มาจาก client: ผลว่าง (ไม่มี session / ไม่มีโซน) ไม่ถูก cache, snapshot จำกัด max-sessions (Caffeine)
+ *   และ channel ของ session ที่ผู้ฟังออกหมดถูกลบในรอบ push
+ */
+@Slf4j
+@Service
+public class ZoneAvailabilityCache {
+
+    static final String EVENT_SNAPSHOT = "snapshot";
+    static final String EVENT_DELTA = "delta";
+
+    private final EventZoneService eventZoneService;
+    private final Clock clock;
+    private final SseBroadcaster.Topic<Integer> topic;
+    private final long maxStalenessMs;
+    private final long sseTimeoutMs;
+
+    private final Cache<Integer, Snapshot> snapshots;
+    private final ConcurrentHashMap<Integer, Integer> sessionOfZone = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Channel> channels = new ConcurrentHashMap<>();
+
+    public ZoneAvailabilityCache(EventZoneService eventZoneService,
+                                 Clock clock,
+                                 SseBroadcaster broadcaster,
+                                 @Value("${app.availability.max-staleness-ms:2000}") long maxStalenessMs,
+                                 @Value("${app.availability.sse-timeout-ms:300000}") long sseTimeoutMs,
+                                 @Value("${app.availability.heartbeat-ms:15000}") long heartbeatMs,
+                                 @Value("${app.availability.max-sessions:10000}") long maxSessions) {
+        this.eventZoneService = eventZoneService;
+        this.clock = clock;
+        this.topic = broadcaster.topic(heartbeatMs);
+        this.maxStalenessMs = maxStalenessMs;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.snapshots = Caffeine.newBuilder().maximumSize(maxSessions).build();
+    }
+
+    /* ==========================================================
+       READ — snapshot ล่าสุดของ session (เก่าได้ไม่เกิน max-staleness-ms)
+       ========================================================== */
+    public Snapshot get(Integer sessionId) {
+        Snapshot current = snapshots.getIfPresent(sessionId);
+        if (current == null) {
+            // คำขอพร้อมกันรอโหลดครั้งเดียว / ผลว่าง → mapping คืน null = ไม่ cache
+            Snapshot loaded = snapshots.get(sessionId, id -> nonEmpty(load(id)));
+            return loaded != null ? loaded : Snapshot.of(sessionId, List.of(), clock.millis());
+        }
+        if (clock.millis() - current.loadedAtMs() >= maxStalenessMs
+                && current.refreshing().compareAndSet(false, true)) {
+            try {
+                Snapshot fresh = load(sessionId);
+                if (fresh.zones().isEmpty()) {
+                    snapshots.invalidate(sessionId); // session / โซนถูกลบไปแล้ว
+                } else {
+                    snapshots.put(sessionId, fresh);
+                }
+                return fresh;
+            } catch (RuntimeException e) {
+                current.refreshing().set(false);
+                throw e;
+            }
+        }
+        return current;
+    }
+
+    /* ==========================================================
+       APPLY — ยอดจองเปลี่ยนบน node นี้ (หลัง commit เท่านั้น)
+       ========================================================== */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(ZoneInventoryChangedEvent event) {
+        Map<Integer, Map<Integer, Integer>> bySession = new HashMap<>();
+        event.bookedDeltaByZone().forEach((zoneId, delta) -> {
+            Integer sessionId = sessionOfZone.get(zoneId);
+            // session ที่ยังไม่มีใครเปิดดู → ไม่ต้องทำอะไร (โหลดสดตอนมีคนขอ)
+            if (sessionId != null) {
+                bySession.computeIfAbsent(sessionId, k -> new HashMap<>()).put(zoneId, delta);
+            }
+        });
+        bySession.forEach((sessionId, deltas) ->
+                snapshots.asMap().computeIfPresent(sessionId, (k, snapshot) -> snapshot.apply(deltas)));
+    }
+
+    /* ==========================================================
+       SSE — สมัครรับการเปลี่ยนแปลงของ session
+       ========================================================== */
+    /** @throws IllegalArgumentException session ไม่มีโซนเลย (ไม่มี session นี้) */
+    public SseEmitter subscribe(Integer sessionId) {
+        Snapshot snapshot = get(sessionId);
+        if (snapshot.zones().isEmpty()) {
+            throw new IllegalArgumentException("Session not found");
+        }
+        while (true) {
+            Channel channel = channels.computeIfAbsent(sessionId, k -> new Channel(snapshot));
+            synchronized (channel) {
+                if (channel.removed) continue; // pushUpdates ลบไปพอดี → เอา channel ใหม่
+                // ส่งฉบับเดียวกับที่ channel ส่งล่าสุด → delta รอบถัดไปต่อกันพอดี
+                Snapshot initial = channel.lastSent;
+                return topic.open(sessionId, sseTimeoutMs, SseEmitter.event()
+                        .name(EVENT_SNAPSHOT)
+                        .id(initial.etag())
+                        .data(initial.zones())
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * ส่งโซนที่เปลี่ยนให้ผู้ฟังทุกคนของแต่ละ session
+     * (เรียก get() นอก lock → session ที่มีผู้ฟังถูกโหลดใหม่ตาม max-staleness-ms ด้วย)
+     * ใต้ lock แค่เทียบ snapshot แล้วเข้าคิวส่ง — ไม่รอ I/O
+     * channel ที่ไม่มีผู้ฟังถูกลบ (เช็กซ้ำใต้ lock เดียวกับที่ subscribe ใช้เปิดสาย)
+     */
+    @Scheduled(fixedDelayString = "${app.availability.push-interval-ms:500}")
+    public void pushUpdates() {
+        long now = clock.millis();
+        channels.forEach((sessionId, channel) -> {
+            if (!topic.hasSubscribers(sessionId)) {
+                synchronized (channel) {
+                    if (!topic.hasSubscribers(sessionId)) {
+                        channel.removed = true;
+                        channels.remove(sessionId, channel);
+                    }
+                }
+                return;
+            }
+            Snapshot current;
+            try {
+                current = get(sessionId);
+            } catch (RuntimeException e) {
+                log.warn("Cannot refresh availability of session {}: {}", sessionId, e.toString());
+                return;
+            }
+            synchronized (channel) {
+                if (current.etag().equals(channel.lastSent.etag())) return;
+                List<ZoneAvailabilityDto> changed = current.changedSince(channel.lastSent);
+                channel.lastSent = current;
+                if (changed.isEmpty()) return;
+                topic.publish(sessionId, SseEmitter.event()
+                        .name(EVENT_DELTA)
+                        .id(current.etag())
+                        .data(changed)
+                        .build(), now);
+            }
+        });
+        topic.heartbeat(now);
+    }
+
+    int subscriberCount(Integer sessionId) {
+        return topic.subscriberCount(sessionId);
+    }
+
+    int channelCount() {
+        return channels.size();
+    }
+
+    /* ==========================================================
+       UTILITIES
+       ========================================================== */
+    private Snapshot load(Integer sessionId) {
+        List<ZoneAvailabilityDto> zones = List.copyOf(eventZoneService.getAvailabilityBySession(sessionId));
+        for (ZoneAvailabilityDto z : zones) {
+            if (z.zoneId() != null) sessionOfZone.put(z.zoneId(), sessionId);
+        }
+        return Snapshot.of(sessionId, zones, clock.millis());
+    }
+
+    private static Snapshot nonEmpty(Snapshot snapshot) {
+        return snapshot.zones().isEmpty() ? null : snapshot;
+    }
+
+    /** ฉบับที่ส่งไปล่าสุดของ session เดียว (ผู้ฟังอยู่ใน SseBroadcaster) */
+    private static final class Channel {
+        Snapshot lastSent; // guarded by this
+        boolean removed;   // guarded by this
+
+        Channel(Snapshot lastSent) {
+            this.lastSent = lastSent;
+        }
+    }
+
+    /**
+     * ข้อมูลคงเหลือของทุกโซนใน session (immutable)
+     * etag คำนวณจากเนื้อหา → ข้อมูลเท่ากันได้ etag เดียวกันแม้โหลดใหม่หรืออยู่คนละ node
+     */
+    public record Snapshot(Integer sessionId,
+                           List<ZoneAvailabilityDto> zones,
+                           String etag,
+                           long loadedAtMs,
+                           AtomicBoolean refreshing) {
+
+        static Snapshot of(Integer sessionId, List<ZoneAvailabilityDto> zones, long loadedAtMs) {
+            return new Snapshot(sessionId, zones, etagOf(sessionId, zones), loadedAtMs, new AtomicBoolean());
+        }
+
+        /** snapshot ใหม่หลังบวกยอดจอง (zoneId → delta) — อายุยังนับจากตอนโหลดเดิม */
+        Snapshot apply(Map<Integer, Integer> bookedDeltaByZone) {
+            List<ZoneAvailabilityDto> next = new ArrayList<>(zones.size());
+            for (ZoneAvailabilityDto z : zones) {
+                Integer delta = bookedDeltaByZone.get(z.zoneId());
+                if (delta == null || delta == 0) {
+                    next.add(z);
+                } else {
+                    next.add(new ZoneAvailabilityDto(z.zoneId(), z.zoneName(), z.capacity(),
+                            z.booked() + delta, z.available() - delta, z.price()));
+                }
+            }
+            List<ZoneAvailabilityDto> copy = List.copyOf(next);
+            return new Snapshot(sessionId, copy, etagOf(sessionId, copy), loadedAtMs, refreshing);
+        }
+
+        /** โซนที่ต่างจาก snapshot ก่อนหน้า (รวมโซนที่เพิ่งเพิ่ม) */
+        List<ZoneAvailabilityDto> changedSince(Snapshot previous) {
+            Map<Integer, ZoneAvailabilityDto> before = new HashMap<>();
+            for (ZoneAvailabilityDto z : previous.zones()) before.put(z.zoneId(), z);
+            List<ZoneAvailabilityDto> changed = new ArrayList<>();
+            for (ZoneAvailabilityDto z : zones) {
+                if (!z.equals(before.get(z.zoneId()))) changed.add(z);
+            }
+            return changed;
+        }
+
+        private static String etagOf(Integer sessionId, List<ZoneAvailabilityDto> zones) {
+            long h = 1125899906842597L;
+            for (ZoneAvailabilityDto z : zones) {
+                h = 31 * h + Objects.hashCode(z.zoneId());
+                h = 31 * h + Objects.hashCode(z.zoneName());
+                h = 31 * h + Objects.hashCode(z.capacity());
+                h = 31 * h + Objects.hashCode(z.booked());
+                h = 31 * h + Objects.hashCode(z.available());
+                BigDecimal price = z.price();
+                h = 31 * h + (price == null ? 0 : price.stripTrailingZeros().hashCode());
+            }
+            return "\"" + sessionId + "-" + Long.toHexString(h) + "\"";
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.eventproject.service;
+
+import java.util.Map;
+
+/**
+ * ยอดจอง (UNPAID + PAID) ของโซนเปลี่ยน — publish จาก ZoneInventoryService
+ * ผู้ฟังควรใช้ @TransactionalEventListener เพื่อเห็นเฉพาะ transaction ที่ commit แล้ว
+ *
+ * @param bookedDeltaByZone zoneId → จำนวนที่นั่งที่ถูกจองเพิ่ม (+) / คืน (-)
+ */
+public record ZoneInventoryChangedEvent(Map<Integer, Integer> bookedDeltaByZone) {}
@@ -0,0 +1,341 @@
+package com.example.eventproject.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.eventproject.model.EventZone;
+import com.example.eventproject.model.Registration;
+import com.example.eventproject.model.ZoneInventory;
+import com.example.eventproject.repository.RegistrationRepository;
+import com.example.eventproject.repository.ZoneInventoryRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service ตัดสต็อกที่นั่งของโซน (zone inventory)
+ * --------------------------------------------------------------
+ * - ตรวจความจุด้วย conditional UPDATE แถวเดียว → O(1) ไม่ว่าโซนจะขายไปกี่ใบแล้ว
+ * - striped lock ภายใน JVM เรียงคิวคำขอโซนเดียวกันก่อนถึง DB (ถือจนจบ transaction)
+ * - sold-out hint อายุสั้น ตัดคำขอที่ไม่มีทางสำเร็จทิ้งโดยไม่แตะ DB
+ * ความถูกต้องข้าม node มาจาก UPDATE ... WHERE เท่านั้น ส่วน lock / hint เป็นแค่ fast path
+ * ทุกครั้งที่ยอดจองเปลี่ยน → publish ZoneInventoryChangedEvent (ให้ cache หน้าเลือกโซนตามทัน)
+ */
+@Slf4j
+@Service
+public class ZoneInventoryService {
+
+    private final ZoneInventoryRepository inventoryRepository;
+    private final RegistrationRepository registrationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReentrantLock[] stripes;
+    private final long soldOutHintNanos;
+    private final ConcurrentHashMap<Integer, SoldOutHint> soldOutHints = new ConcurrentHashMap<>();
+
+    public ZoneInventoryService(ZoneInventoryRepository inventoryRepository,
+                                RegistrationRepository registrationRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${app.inventory.lock-stripes:64}") int lockStripes,
+                                @Value("${app.inventory.sold-out-hint-ms:1000}") long soldOutHintMs) {
+        this.inventoryRepository = inventoryRepository;
+        this.registrationRepository = registrationRepository;
+        this.eventPublisher = eventPublisher;
+        this.stripes = new ReentrantLock[Math.max(1, lockStripes)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.soldOutHintNanos = TimeUnit.MILLISECONDS.toNanos(soldOutHintMs);
+    }
+
+    /* ==========================================================
+       RESERVE — จองที่นั่ง (held += qty) ถ้าไม่พอ → IllegalStateException
+       ========================================================== */
+    @Transactional
+    public void reserve(EventZone zone, int quantity) {
+        reserveAll(List.of(new Reservation(zone, quantity)));
+    }
+
+    /* ==========================================================
+       RESERVE ALL — จองหลายโซนใน transaction เดียว (ได้ทั้งหมดหรือไม่ได้เลย)
+       - ล็อก stripe เรียงตาม index และ UPDATE เรียงตาม zoneId
+         → ทุก order ขอ lock ลำดับเดียวกัน ไม่เกิด deadlock ข้าม order
+       - โซนไหนไม่พอ → โยน IllegalStateException แล้ว rollback ทั้งก้อน
+       ========================================================== */
+    @Transactional
+    public void reserveAll(List<Reservation> reservations) {
+        // 0. รวมโซนซ้ำ + เรียงตาม zoneId
+        TreeMap<Integer, Reservation> byZone = new TreeMap<>();
+        for (Reservation r : reservations) {
+            byZone.merge(r.zone().getId(), r,
+                    (a, b) -> new Reservation(a.zone(), a.quantity() + b.quantity()));
+        }
+
+        // 1. fast path: เพิ่งรู้ว่าเหลือไม่พอ → ตัดทิ้งเลย ก่อนล็อกอะไร
+        long now = System.nanoTime();
+        for (Reservation r : byZone.values()) {
+            SoldOutHint hint = soldOutHints.get(r.zone().getId());
+            if (hint != null && hint.rejects(r.quantity(), now)) {
+                throw fullyBooked(r.zone());
+            }
+        }
+
+        // 2. เรียงคิวภายใน node ก่อนแย่ง row lock ใน DB
+        lockUntilCompletion(byZone.keySet());
+
+        // 3. ตัดสต็อกแบบมีเงื่อนไขทีละโซน (ถ้ายังไม่มีแถว → seed แล้วลองใหม่)
+        for (Reservation r : byZone.values()) {
+            EventZone zone = r.zone();
+            Integer zoneId = zone.getId();
+            int updated = inventoryRepository.tryReserve(zoneId, r.quantity());
+            if (updated == 0 && seedIfAbsent(zone)) {
+                updated = inventoryRepository.tryReserve(zoneId, r.quantity());
+            }
+
+            if (updated == 0) {
+                int remaining = inventoryRepository.findById(zoneId)
+                        .map(ZoneInventory::getRemaining)
+                        .orElse(0);
+                soldOutHints.put(zoneId, new SoldOutHint(remaining, System.nanoTime() + soldOutHintNanos));
+                throw fullyBooked(zone);
+            }
+            soldOutHints.remove(zoneId);
+        }
+        publishBooked(byZone.values());
+    }
+
+    /* ==========================================================
+       RESERVE EACH — group commit ของหลาย order ใน transaction เดียว
+       - ล็อก stripe ของทุกโซนใน batch ก่อน (เรียงตาม index เหมือนเดิม)
+       - ไล่ทีละ order: โซนไหนไม่พอ → คืนโซนที่ตัดไปแล้วของ order นั้น แล้วตอบ false
+       - ไม่โยน exception → transaction ของ batch ไม่ถูก mark rollback เพราะ order เดียว
+       ========================================================== */
+    @Transactional
+    public boolean[] reserveEach(List<List<Reservation>> orders) {
+        TreeSet<Integer> zoneIds = new TreeSet<>();
+        for (List<Reservation> order : orders) {
+            for (Reservation r : order) zoneIds.add(r.zone().getId());
+        }
+        lockUntilCompletion(zoneIds);
+
+        boolean[] reserved = new boolean[orders.size()];
+        List<Reservation> booked = new ArrayList<>();
+        long now = System.nanoTime();
+        for (int i = 0; i < orders.size(); i++) {
+            reserved[i] = tryReserveOrder(orders.get(i), now);
+            if (reserved[i]) booked.addAll(orders.get(i));
+        }
+        publishBooked(booked);
+        return reserved;
+    }
+
+    private boolean tryReserveOrder(List<Reservation> order, long nowNanos) {
+        TreeMap<Integer, Reservation> byZone = new TreeMap<>();
+        for (Reservation r : order) {
+            byZone.merge(r.zone().getId(), r,
+                    (a, b) -> new Reservation(a.zone(), a.quantity() + b.quantity()));
+        }
+        for (Reservation r : byZone.values()) {
+            SoldOutHint hint = soldOutHints.get(r.zone().getId());
+            if (hint != null && hint.rejects(r.quantity(), nowNanos)) return false;
+        }
+
+        List<Reservation> applied = new ArrayList<>();
+        for (Reservation r : byZone.values()) {
+            Integer zoneId = r.zone().getId();
+            int updated = inventoryRepository.tryReserve(zoneId, r.quantity());
+            if (updated == 0 && seedIfAbsent(r.zone())) {
+                updated = inventoryRepository.tryReserve(zoneId, r.quantity());
+            }
+            if (updated == 0) {
+                // คืนเฉพาะที่ order นี้ตัดไป (order อื่นใน batch ไม่กระทบ)
+                for (Reservation done : applied) {
+                    inventoryRepository.release(done.zone().getId(), done.quantity());
+                }
+                int remaining = inventoryRepository.findById(zoneId)
+                        .map(ZoneInventory::getRemaining)
+                        .orElse(0);
+                soldOutHints.put(zoneId, new SoldOutHint(remaining, System.nanoTime() + soldOutHintNanos));
+                return false;
+            }
+            applied.add(r);
+            soldOutHints.remove(zoneId);
+        }
+        return true;
+    }
+
+    /* ==========================================================
+       COMMIT — จ่ายเงินแล้ว ย้าย held → sold
+       ========================================================== */
+    @Transactional
+    public void commit(EventZone zone, int quantity) {
+        commitAll(List.of(new Reservation(zone, quantity)));
+    }
+
+    /** commit หลายโซนของ order เดียว — ลำดับ lock เดียวกับ reserveAll */
+    @Transactional
+    public void commitAll(List<Reservation> reservations) {
+        TreeMap<Integer, Reservation> byZone = new TreeMap<>();
+        for (Reservation r : reservations) {
+            byZone.merge(r.zone().getId(), r,
+                    (a, b) -> new Reservation(a.zone(), a.quantity() + b.quantity()));
+        }
+        lockUntilCompletion(byZone.keySet());
+
+        for (Reservation r : byZone.values()) {
+            EventZone zone = r.zone();
+            Integer zoneId = zone.getId();
+            int updated = inventoryRepository.commit(zoneId, r.quantity());
+            if (updated == 0 && seedIfAbsent(zone)) {
+                updated = inventoryRepository.commit(zoneId, r.quantity());
+            }
+            if (updated == 0) {
+                log.warn("Inventory drift: cannot commit {} held seat(s) in zone {}", r.quantity(), zoneId);
+            }
+        }
+    }
+
+    /* ==========================================================
+       RELEASE — คืนที่นั่งที่ถือไว้ (held -= qty)
+       ========================================================== */
+    @Transactional
+    public void release(Integer zoneId, int quantity) {
+        releaseAll(Map.of(zoneId, quantity));
+    }
+
+    /** คืนหลายโซนใน transaction เดียว (zoneId → จำนวน) — ลำดับ lock เดียวกับ reserveAll */
+    @Transactional
+    public void releaseAll(Map<Integer, Integer> quantityByZone) {
+        TreeMap<Integer, Integer> byZone = new TreeMap<>(quantityByZone);
+        lockUntilCompletion(byZone.keySet());
+
+        Map<Integer, Integer> released = new TreeMap<>();
+        byZone.forEach((zoneId, quantity) -> {
+            if (inventoryRepository.release(zoneId, quantity) == 0) {
+                log.warn("Inventory drift: cannot release {} held seat(s) in zone {}", quantity, zoneId);
+            } else {
+                released.put(zoneId, -quantity);
+            }
+            soldOutHints.remove(zoneId);
+        });
+        if (!released.isEmpty()) {
+            eventPublisher.publishEvent(new ZoneInventoryChangedEvent(released));
+        }
+    }
+
+    /* ==========================================================
+       CLEANUP — แถวของโซนที่ถูกลบ
+       ========================================================== */
+
+    /** เรียกใน transaction เดียวกับที่ลบโซน */
+    @Transactional
+    public void removeZones(Collection<Integer> zoneIds) {
+        if (zoneIds.isEmpty()) return;
+        inventoryRepository.deleteByZoneIds(zoneIds);
+        zoneIds.forEach(soldOutHints::remove);
+    }
+
+    @Transactional
+    public void removeEvent(Integer eventId) {
+        inventoryRepository.deleteByEventId(eventId);
+    }
+
+    /** โซนที่ถูกลบโดยไม่ผ่าน removeZones / removeEvent (เรียกจากงานเบื้องหลัง) */
+    @Transactional
+    public int deleteOrphans() {
+        return inventoryRepository.deleteOrphans();
+    }
+
+    /* ==========================================================
+       UTILITIES
+       ========================================================== */
+
+    /**
+     * สร้างแถว inventory ของโซนจากยอดจองจริง (ทำครั้งเดียวต่อโซน)
+     *
+     * @return true ถ้าเพิ่งสร้าง (ควรลองคำสั่งเดิมอีกครั้ง)
+     */
+    private boolean seedIfAbsent(EventZone zone) {
+        Integer zoneId = zone.getId();
+        if (inventoryRepository.existsById(zoneId)) {
+            return false;
+        }
+        int held = (int) registrationRepository.countByZone_IdAndPaymentStatus(zoneId, Registration.PayStatus.UNPAID);
+        int sold = (int) registrationRepository.countByZone_IdAndPaymentStatus(zoneId, Registration.PayStatus.PAID);
+        inventoryRepository.insertIfAbsent(zoneId, zone.getCapacity(), held, sold);
+        return true;
+    }
+
+    /**
+     * ล็อก stripe ของทุกโซนเรียงตาม index ของ stripe
+     * (ทุกเมธอดขอ lock ทั้งชุดก่อนแตะ DB และเรียงเหมือนกัน → ไม่มี deadlock ใน JVM)
+     */
+    private void lockUntilCompletion(Collection<Integer> zoneIds) {
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Integer zoneId : zoneIds) {
+            stripeIndexes.add(stripeOf(zoneId));
+        }
+        for (int index : stripeIndexes) {
+            lockStripeUntilCompletion(index);
+        }
+    }
+
+    private int stripeOf(Integer zoneId) {
+        return Math.floorMod(zoneId * 0x9E3779B9, stripes.length);
+    }
+
+    /**
+     * ล็อก stripe ไว้จนกว่า transaction ปัจจุบันจะจบ
+     * (row lock ใน DB ก็ถูกถือจนจบ transaction อยู่แล้ว จึงไม่เพิ่มเวลารอ)
+     */
+    private void lockStripeUntilCompletion(int index) {
+        ReentrantLock lock = stripes[index];
+        lock.lock();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        } else {
+            lock.unlock();
+        }
+    }
+
+    /** แจ้งยอดจองที่เพิ่มขึ้น — ผู้ฟังจะได้รับหลัง commit */
+    private void publishBooked(Collection<Reservation> reservations) {
+        if (reservations.isEmpty()) return;
+        Map<Integer, Integer> delta = new TreeMap<>();
+        for (Reservation r : reservations) {
+            delta.merge(r.zone().getId(), r.quantity(), Integer::sum);
+        }
+        eventPublisher.publishEvent(new ZoneInventoryChangedEvent(delta));
+    }
+
+    private static IllegalStateException fullyBooked(EventZone zone) {
+        return new IllegalStateException("Zone " + zone.getName() + " is fully booked");
+    }
+
+    /** คำขอจองของ 1 โซน */
+    public record Reservation(EventZone zone, int quantity) {}
+
+    /** จำนวนที่เหลือล่าสุดที่เห็น + เวลาหมดอายุของข้อมูลนี้ */
+    private record SoldOutHint(int remaining, long expiresAtNanos) {
+        boolean rejects(int quantity, long nowNanos) {
+            return nowNanos - expiresAtNanos < 0 && quantity > remaining;
+        }
+    }
+}
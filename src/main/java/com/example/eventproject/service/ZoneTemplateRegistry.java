@@ -0,0 +1,107 @@
+package com.example.eventproject.service;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.eventproject.model.EventZone;
+import com.example.eventproject.model.ZoneTemplate;
+import com.example.eventproject.repository.ZoneTemplateRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * index ชื่อ zone template → template id (ใช้ทั้งแอป)
+ * --------------------------------------------------------------
+ * - โหลดครั้งเดียวเป็น map ที่แก้ไม่ได้ แล้วค้นแบบ O(1) ต่อโซน (แทนการไล่ทุก template ทุกโซน)
+ * - template ถูกสร้าง / แก้ / ลบ → สร้าง index ใหม่ทั้งก้อนแล้วสลับ reference (ผู้อ่านไม่เห็นครึ่ง ๆ กลาง ๆ)
+ * - แก้จาก node อื่น → เห็นภายใน ttl-ms
+ * ชื่อซ้ำกันหลาย template → ใช้ id น้อยสุด (เหมือนการค้นแบบเดิมที่เจอตัวแรก)
+ */
+@Slf4j
+@Component
+public class ZoneTemplateRegistry {
+
+    private final ZoneTemplateRepository templateRepository;
+    private final Clock clock;
+    private final long ttlMs;
+
+    private volatile Index index;
+
+    public ZoneTemplateRegistry(ZoneTemplateRepository templateRepository,
+                                Clock clock,
+                                @Value("${app.catalog.template-registry-ttl-ms:300000}") long ttlMs) {
+        this.templateRepository = templateRepository;
+        this.clock = clock;
+        this.ttlMs = ttlMs;
+    }
+
+    /** template id ของชื่อโซนนี้ หรือ null ถ้าไม่ได้มาจาก template */
+    public Integer idOf(String zoneName) {
+        return zoneName == null ? null : current().idByName().get(zoneName);
+    }
+
+    /** template id (ไม่ซ้ำ เรียงตามลำดับโซน) ของโซนที่ชื่อตรงกับ template */
+    public List<Integer> templateIdsOf(Collection<EventZone> zones) {
+        Map<String, Integer> idByName = current().idByName();
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (EventZone z : zones) {
+            Integer id = z.getName() == null ? null : idByName.get(z.getName());
+            if (id != null) ids.add(id);
+        }
+        return List.copyOf(ids);
+    }
+
+    /** จำนวนโซนที่ชื่อตรงกับ template */
+    public long countMatching(Collection<EventZone> zones) {
+        Map<String, Integer> idByName = current().idByName();
+        return zones.stream()
+                .filter(z -> z.getName() != null && idByName.containsKey(z.getName()))
+                .count();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplatesChanged(ZoneTemplatesChangedEvent event) {
+        try {
+            index = load();
+        } catch (RuntimeException e) {
+            // โหลดไม่ได้ → ทิ้ง index เดิม ให้ผู้อ่านคนถัดไปโหลดเอง
+            log.warn("Cannot reload zone template registry: {}", e.toString());
+            index = null;
+        }
+    }
+
+    private Index current() {
+        Index snapshot = index;
+        if (snapshot != null && clock.millis() - snapshot.loadedAtMs() < ttlMs) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = index;
+            if (snapshot == null || clock.millis() - snapshot.loadedAtMs() >= ttlMs) {
+                snapshot = load();
+                index = snapshot;
+            }
+            return snapshot;
+        }
+    }
+
+    private Index load() {
+        Map<String, Integer> idByName = new HashMap<>();
+        for (ZoneTemplate t : templateRepository.findAll(Sort.by("id"))) {
+            idByName.putIfAbsent(t.getName(), t.getId());
+        }
+        return new Index(Map.copyOf(idByName), clock.millis());
+    }
+
+    private record Index(Map<String, Integer> idByName, long loadedAtMs) {}
+}
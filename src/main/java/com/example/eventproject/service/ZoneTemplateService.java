@@ -8,6 +8,7 @@ import com.example.eventproject.repository.EventSessionRepository;
 import com.example.eventproject.repository.EventZoneRepository;
 import com.example.eventproject.repository.ZoneTemplateRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +24,7 @@ public class ZoneTemplateService {
     private final ZoneTemplateRepository templateRepository;
     private final EventZoneRepository zoneRepository;
     private final EventSessionRepository sessionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /* ==========================================================
        READ : template ทั้งหมด
@@ -53,6 +55,7 @@ public class ZoneTemplateService {
         tpl.setPrice(dto.price());
 
         ZoneTemplate saved = templateRepository.save(tpl);
+        eventPublisher.publishEvent(new ZoneTemplatesChangedEvent());
 
         return new ZoneTemplateDto(
                 saved.getId(),
@@ -77,6 +80,7 @@ public class ZoneTemplateService {
         tpl.setPrice(dto.price());
 
         ZoneTemplate saved = templateRepository.save(tpl);
+        eventPublisher.publishEvent(new ZoneTemplatesChangedEvent());
 
         return new ZoneTemplateDto(
                 saved.getId(),
@@ -96,6 +100,7 @@ public class ZoneTemplateService {
             throw new IllegalArgumentException("Template not found: " + id);
         }
         templateRepository.deleteById(id);
+        eventPublisher.publishEvent(new ZoneTemplatesChangedEvent());
     }
 
     /* ==========================================================
@@ -124,6 +129,7 @@ public class ZoneTemplateService {
 
             zoneRepository.save(zone);
         }
+        eventPublisher.publishEvent(new EventCatalogChangedEvent(session.getEvent().getId()));
     }
 
 }
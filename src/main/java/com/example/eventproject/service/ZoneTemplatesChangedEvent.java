@@ -0,0 +1,6 @@
+package com.example.eventproject.service;
+
+/**
+ * มีการสร้าง / แก้ / ลบ zone template — ให้ ZoneTemplateRegistry โหลด index ใหม่หลัง commit
+ */
+public record ZoneTemplatesChangedEvent() {}
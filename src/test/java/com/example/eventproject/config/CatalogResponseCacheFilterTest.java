@@ -0,0 +1,165 @@
+package com.example.eventproject.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.eventproject.service.EventCatalogChangedEvent;
+import com.example.eventproject.service.ZoneTemplatesChangedEvent;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+class CatalogResponseCacheFilterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private String body = "[{\"id\":1,\"title\":\"Concert\"}]";
+    private int status = 200;
+
+    private CatalogResponseCacheFilter filter;
+
+    private final FilterChain controller = (req, res) -> {
+        calls.incrementAndGet();
+        res.setContentType("application/json");
+        ((HttpServletResponse) res).setStatus(status);
+        res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        filter = new CatalogResponseCacheFilter(nanos::get, 1_000_000, 60_000, 64);
+    }
+
+    @Test
+    void second_request_is_served_from_cache_without_calling_controller() throws Exception {
+        MockHttpServletResponse first = perform(get("/api/events"));
+        MockHttpServletResponse second = perform(get("/api/events"));
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getContentAsString()).isEqualTo(body);
+        assertThat(second.getContentType()).startsWith("application/json");
+        assertThat(second.getHeader("ETag")).isNotBlank().isEqualTo(first.getHeader("ETag"));
+        assertThat(first.getContentAsString()).isEqualTo(body);
+    }
+
+    @Test
+    void matching_if_none_match_returns_304_without_body() throws Exception {
+        String etag = perform(get("/api/events/7")).getHeader("ETag");
+
+        MockHttpServletRequest conditional = get("/api/events/7");
+        conditional.addHeader("If-None-Match", etag);
+        MockHttpServletResponse res = perform(conditional);
+
+        assertThat(res.getStatus()).isEqualTo(304);
+        assertThat(res.getContentAsByteArray()).isEmpty();
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void gzip_variant_is_sent_only_when_client_accepts_it() throws Exception {
+        body = "[" + "{\"id\":1,\"title\":\"Concert\"},".repeat(20) + "{}]";
+        perform(get("/api/zone-templates"));
+
+        MockHttpServletRequest gzipReq = get("/api/zone-templates");
+        gzipReq.addHeader("Accept-Encoding", "br, gzip");
+        MockHttpServletResponse gz = perform(gzipReq);
+
+        assertThat(gz.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(gz.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gz.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(body);
+        }
+
+        MockHttpServletRequest refused = get("/api/zone-templates");
+        refused.addHeader("Accept-Encoding", "gzip;q=0");
+        assertThat(perform(refused).getHeader("Content-Encoding")).isNull();
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void catalog_change_evicts_list_detail_and_sessions_of_that_event_only() throws Exception {
+        perform(get("/api/events"));
+        perform(get("/api/events/1"));
+        perform(get("/api/events/1/sessions"));
+        perform(get("/api/events/2"));
+        calls.set(0);
+
+        filter.onCatalogChanged(new EventCatalogChangedEvent(1));
+        perform(get("/api/events"));
+        perform(get("/api/events/1"));
+        perform(get("/api/events/1/sessions"));
+        perform(get("/api/events/2"));
+
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void response_loaded_across_an_invalidation_is_not_cached() throws Exception {
+        FilterChain racing = (req, res) -> {
+            controller.doFilter(req, res);
+            filter.onTemplatesChanged(new ZoneTemplatesChangedEvent());
+        };
+        filter.doFilter(get("/api/zone-templates"), new MockHttpServletResponse(), racing);
+
+        perform(get("/api/zone-templates"));
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void errors_other_paths_and_query_strings_are_not_cached() throws Exception {
+        status = 404;
+        perform(get("/api/events/9"));
+        perform(get("/api/events/9"));
+        status = 200;
+
+        perform(get("/api/events/9/view"));
+        perform(get("/api/events/9/view"));
+
+        MockHttpServletRequest withQuery = get("/api/events");
+        withQuery.setQueryString("page=2");
+        perform(withQuery);
+        perform(withQuery);
+
+        assertThat(calls.get()).isEqualTo(6);
+    }
+
+    @Test
+    void entries_expire_after_ttl() throws Exception {
+        perform(get("/api/events"));
+        nanos.addAndGet(60_001L * 1_000_000L);
+        perform(get("/api/events"));
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void key_normalizes_event_id_and_rejects_non_numeric_paths() {
+        assertThat(CatalogResponseCacheFilter.keyOf("/api/events/007/sessions")).isEqualTo("/api/events/7/sessions");
+        assertThat(CatalogResponseCacheFilter.keyOf("/api/events/abc")).isNull();
+        assertThat(CatalogResponseCacheFilter.keyOf("/api/events/1/availability/stream")).isNull();
+        assertThat(CatalogResponseCacheFilter.keyOf("/api/zone-templates/3")).isNull();
+    }
+
+    private MockHttpServletRequest get(String path) {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", path);
+        req.setServletPath(path);
+        return req;
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest req) throws Exception {
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(req, res, controller);
+        return res;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.eventproject.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.eventproject.model.User;
+import com.example.eventproject.repository.UserRepository;
+import com.example.eventproject.service.UserTokensRevokedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+class JwtAuthFilterTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AtomicReference<Authentication> seen = new AtomicReference<>();
+    private final FilterChain controller = (req, res) ->
+            seen.set(SecurityContextHolder.getContext().getAuthentication());
+
+    private TokenVersionCache versions;
+    private JwtAuthFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        versions = new TokenVersionCache(userRepository, new SimpleMeterRegistry(), 100, 60_000);
+        filter = new JwtAuthFilter(jwtUtil, versions);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void principal_is_built_from_claims_and_user_version_is_read_once() throws Exception {
+        when(userRepository.findTokenVersion("a@b.com")).thenReturn(Optional.of(0));
+        String token = jwtUtil.create(user("a@b.com", "Alice", 0), "ADMIN");
+
+        perform(token);
+        CurrentUser first = (CurrentUser) seen.get().getPrincipal();
+        perform(token);
+
+        assertThat(first.getEmail()).isEqualTo("a@b.com");
+        assertThat(first.getName()).isEqualTo("Alice");
+        assertThat(first.getRole()).isEqualTo("ADMIN");
+        assertThat(seen.get().getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+        verify(userRepository, times(1)).findTokenVersion("a@b.com");
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void token_issued_before_revocation_is_rejected() throws Exception {
+        when(userRepository.findTokenVersion("a@b.com")).thenReturn(Optional.of(0), Optional.of(1));
+        String oldToken = jwtUtil.create(user("a@b.com", "Alice", 0), "ADMIN");
+        perform(oldToken);
+        assertThat(seen.get()).isNotNull();
+
+        versions.onTokensRevoked(new UserTokensRevokedEvent("a@b.com"));
+
+        perform(oldToken);
+        assertThat(seen.get()).isNull();
+        perform(jwtUtil.create(user("a@b.com", "Alice", 1), "USER"));
+        assertThat(((CurrentUser) seen.get().getPrincipal()).getRole()).isEqualTo("USER");
+    }
+
+    @Test
+    void invalid_token_or_deleted_user_stays_anonymous() throws Exception {
+        when(userRepository.findTokenVersion("gone@b.com")).thenReturn(Optional.empty());
+
+        perform("not-a-jwt");
+        assertThat(seen.get()).isNull();
+        perform(jwtUtil.create(user("gone@b.com", "Gone", 0), "USER"));
+        assertThat(seen.get()).isNull();
+    }
+
+    @Test
+    void queue_pass_token_is_not_a_login() throws Exception {
+        // ผู้ใช้ที่สมัครด้วย email "queue-pass:42" ต้องไม่ได้สิทธิ์จาก pass ของคิว
+        when(userRepository.findTokenVersion("queue-pass:42")).thenReturn(Optional.of(0));
+        String pass = jwtUtil.signClaims("queue-pass:42", Map.of(JwtUtil.CLAIM_TYPE, "pass"),
+                new Date(System.currentTimeMillis() + 60_000));
+
+        perform(pass);
+
+        assertThat(seen.get()).isNull();
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void public_routes_skip_token_parsing() throws Exception {
+        String token = jwtUtil.create(user("a@b.com", "A", 0), "USER");
+
+        perform("POST", "/api/auth/login", token);
+        assertThat(seen.get()).isNull();
+        perform("OPTIONS", "/api/registrations/me", token);
+        assertThat(seen.get()).isNull();
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    private void perform(String token) throws Exception {
+        perform("GET", "/api/registrations/me", token);
+    }
+
+    private void perform(String method, String path, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest req = new MockHttpServletRequest(method, path);
+        req.setServletPath(path);
+        req.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(req, new MockHttpServletResponse(), controller);
+    }
+
+    private static User user(String email, String name, int tokenVersion) {
+        User u = new User();
+        u.setEmail(email);
+        u.setName(name);
+        u.setTokenVersion(tokenVersion);
+        return u;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.eventproject.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+
+class JwtUtilTest {
+
+    private final AtomicLong millis = new AtomicLong(System.currentTimeMillis());
+    private final JwtUtil jwtUtil = new JwtUtil(100, millis::get);
+
+    @Test
+    void repeated_token_is_served_from_cache() {
+        String token = jwtUtil.generateToken("a@b.com", "USER", "Alice", 0);
+
+        Claims first = jwtUtil.parseClaims(token);
+        Claims second = jwtUtil.parseClaims(token);
+
+        assertThat(first.getSubject()).isEqualTo("a@b.com");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void cached_token_stops_working_after_expiry() {
+        String token = jwtUtil.signClaims("a@b.com", Map.of(JwtUtil.CLAIM_TYPE, "queue"),
+                new Date(millis.get() + 60_000));
+        assertThat(jwtUtil.parseClaims(token)).isNotNull();
+
+        millis.addAndGet(61_000);
+
+        assertThat(jwtUtil.parseClaims(token)).isNull();
+    }
+
+    @Test
+    void tampered_payload_with_cached_signature_is_rejected() {
+        String token = jwtUtil.generateToken("a@b.com", "USER", "Alice", 0);
+        String admin = jwtUtil.generateToken("a@b.com", "ADMIN", "Alice", 0);
+        assertThat(jwtUtil.parseClaims(token)).isNotNull();
+
+        // payload ของ token ADMIN + signature ของ token USER ที่อยู่ใน cache แล้ว
+        String forged = admin.substring(0, admin.lastIndexOf('.')) + token.substring(token.lastIndexOf('.'));
+
+        assertThat(jwtUtil.parseClaims(forged)).isNull();
+    }
+
+    @Test
+    void disabled_cache_still_verifies() {
+        JwtUtil uncached = new JwtUtil(0);
+        String token = uncached.generateToken("a@b.com", "USER", "Alice", 0);
+
+        assertThat(uncached.parseClaims(token).getSubject()).isEqualTo("a@b.com");
+        assertThat(uncached.parseClaims(token + "x")).isNull();
+    }
+
+    @Test
+    void internal_token_cannot_claim_login_type() {
+        Date exp = new Date(millis.get() + 60_000);
+
+        assertThatThrownBy(() -> jwtUtil.signClaims("x", Map.of(JwtUtil.CLAIM_TYPE, JwtUtil.TYPE_ACCESS), exp))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> jwtUtil.signClaims("x", Map.of(), exp))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(jwtUtil.parseClaims(jwtUtil.generateToken("a@b.com", "USER", "A", 0))
+                .get(JwtUtil.CLAIM_TYPE)).isEqualTo(JwtUtil.TYPE_ACCESS);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.eventproject.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+class RouteTableTest {
+
+    private final RouteTable routes = SecurityConfig.ROUTES;
+
+    private final Authentication anonymous = new AnonymousAuthenticationToken(
+            "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+    private final Authentication user = authenticated("ROLE_USER");
+    private final Authentication admin = authenticated("ROLE_ADMIN");
+
+    @Test
+    void first_declared_rule_wins_per_method() {
+        // GET /api/events/** permitAll มาก่อน / POST ตกไปที่ rule ADMIN
+        assertThat(allowed("GET", "/api/events/12", anonymous)).isTrue();
+        assertThat(allowed("POST", "/api/events/12", user)).isFalse();
+        assertThat(allowed("POST", "/api/events/12", admin)).isTrue();
+
+        // /api/registrations/orders/* permitAll ก่อน GET /api/registrations/** (USER, ADMIN)
+        assertThat(allowed("GET", "/api/registrations/orders/7", anonymous)).isTrue();
+        assertThat(allowed("GET", "/api/registrations/user/a@b.com", user)).isFalse();
+        assertThat(allowed("GET", "/api/registrations/me", user)).isTrue();
+        assertThat(allowed("GET", "/api/registrations/me", anonymous)).isFalse();
+
+        // health เปิด / actuator อื่นเฉพาะ ADMIN
+        assertThat(allowed("GET", "/actuator/health", anonymous)).isTrue();
+        assertThat(allowed("GET", "/actuator/metrics", user)).isFalse();
+        assertThat(allowed("GET", "/actuator/metrics", admin)).isTrue();
+    }
+
+    @Test
+    void single_segment_wildcard_and_trailing_double_star() {
+        assertThat(allowed("PUT", "/api/users/a@b.com/role", admin)).isTrue();
+        assertThat(allowed("PUT", "/api/users/a@b.com/role", user)).isFalse();
+        // "*" ต้องมีหนึ่งส่วนพอดี
+        assertThat(routes.match("PUT", "/api/users/role")).isNull();
+        assertThat(routes.match("PUT", "/api/users/a/b/role")).isNull();
+        assertThat(routes.match("PUT", "/api/users//role")).isNull();
+
+        // "/**" ตรงทั้งตัวมันเองและทุกอย่างที่ตามมา
+        assertThat(routes.match("GET", "/api/events").pattern()).isEqualTo("/api/events/**");
+        assertThat(routes.match("GET", "/api/events/1/zones/2").pattern()).isEqualTo("/api/events/**");
+        assertThat(routes.match("GET", "/api/eventsX")).isNull();
+    }
+
+    @Test
+    void unmatched_route_requires_login() {
+        assertThat(routes.match("GET", "/api/users/me")).isNull();
+        assertThat(allowed("GET", "/api/users/me", anonymous)).isFalse();
+        assertThat(allowed("GET", "/api/users/me", null)).isFalse();
+        assertThat(allowed("GET", "/api/users/me", user)).isTrue();
+    }
+
+    @Test
+    void only_public_routes_skip_jwt() {
+        for (String path : List.of("/api/auth/login", "/api/auth/register", "/swagger-ui/index.html",
+                "/swagger-ui.html", "/v3/api-docs", "/images/a.png", "/error")) {
+            assertThat(routes.skipsJwt(request("POST", path))).as(path).isTrue();
+        }
+        assertThat(routes.skipsJwt(request("OPTIONS", "/api/registrations"))).isTrue();
+
+        // permitAll แต่ยังอ่าน token (เช่น /api/auth/me, GET /api/events)
+        assertThat(routes.skipsJwt(request("GET", "/api/auth/me"))).isFalse();
+        assertThat(routes.skipsJwt(request("GET", "/api/events/1"))).isFalse();
+    }
+
+    @Test
+    void path_includes_path_info() {
+        MockHttpServletRequest req = request("GET", "/api/registrations/me");
+        req.setServletPath("/api");
+        req.setPathInfo("/registrations/me");
+        assertThat(routes.isAllowed(anonymous, req)).isFalse();
+        assertThat(routes.isAllowed(user, req)).isTrue();
+    }
+
+    @Test
+    void rejects_unsupported_patterns() {
+        assertThatThrownBy(() -> RouteTable.builder().permitAll("/static/*.js").build())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RouteTable.builder().permitAll(HttpMethod.GET, "api/events").build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private boolean allowed(String method, String path, Authentication auth) {
+        return routes.isAllowed(auth, request(method, path));
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest req = new MockHttpServletRequest(method, path);
+        req.setServletPath(path);
+        return req;
+    }
+
+    private static Authentication authenticated(String role) {
+        TestingAuthenticationToken auth = new TestingAuthenticationToken("a@b.com", null, role);
+        auth.setAuthenticated(true);
+        return auth;
+    }
+}
@@ -6,6 +6,8 @@ import com.example.eventproject.dto.LoginRequest;
 import com.example.eventproject.dto.RegisterRequest;
 import com.example.eventproject.repository.UserRepository;
 import com.example.eventproject.service.AuthService;
+import com.example.eventproject.service.LoginRateLimiter;
+import com.example.eventproject.service.RetryLaterException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,10 +15,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +47,9 @@ class AuthControllerTest {
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    LoginRateLimiter loginRateLimiter;
+
     @Test
     @DisplayName("POST /api/auth/register → 200 OK + JSON")
     void register_shouldReturnOk() throws Exception {
@@ -94,4 +106,40 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.token").value("fake-jwt-login"))
                 .andExpect(jsonPath("$.email").value("a@b.com"));
     }
+
+    @Test
+    @DisplayName("POST /api/auth/login เกิน rate → 429 + Retry-After และไม่เรียก AuthService")
+    void login_rateLimited_shouldReturn429() throws Exception {
+        doThrow(new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_LOGIN_ATTEMPTS", 12))
+                .when(loginRateLimiter).acquire(anyString(), eq("a@b.com"));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("a@b.com", "x"))))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "12"));
+
+        verify(auth, never()).login(any(LoginRequest.class));
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/login รหัสผิด → ไม่คืนโควตา email / สำเร็จ → คืน")
+    void login_refundsEmailQuotaOnlyOnSuccess() throws Exception {
+        when(auth.login(new LoginRequest("a@b.com", "bad")))
+                .thenThrow(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "INVALID_CREDENTIALS"));
+        when(auth.login(new LoginRequest("a@b.com", "good")))
+                .thenReturn(new AuthResponse("fake-jwt", "a@b.com", "Alice", "USER"));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("a@b.com", "bad"))))
+                .andExpect(status().isUnauthorized());
+        verify(loginRateLimiter, never()).refundEmail(anyString());
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest("a@b.com", "good"))))
+                .andExpect(status().isOk());
+        verify(loginRateLimiter).refundEmail("a@b.com");
+    }
 }
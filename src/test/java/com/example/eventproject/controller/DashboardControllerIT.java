@@ -2,8 +2,11 @@
 package com.example.eventproject.controller;
 
 import com.example.eventproject.dto.DashboardDto;
+import com.example.eventproject.dto.EventSalesPage;
 import com.example.eventproject.dto.EventSalesSummary;
+import com.example.eventproject.dto.SalesTimeseries;
 import com.example.eventproject.service.DashboardService;
+import com.example.eventproject.service.SalesTimeseriesService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +16,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.Mockito.when;
@@ -31,6 +36,9 @@ class DashboardControllerIT {
     @MockBean
     DashboardService service;
 
+    @MockBean
+    SalesTimeseriesService timeseriesService;
+
     @Test
     @DisplayName("GET /api/dashboard/summary → 200 + JSON fields ถูกต้อง")
     void summary_ok_200() throws Exception {
@@ -84,4 +92,45 @@ class DashboardControllerIT {
                 // และมี 1 element
                 .andExpect(jsonPath("$.length()").value(1));
     }
+
+    @Test
+    @DisplayName("GET /api/dashboard/events?limit=&page=&sort=sellThrough → 200 + items/hasNext")
+    void eventTablePage_ok_200() throws Exception {
+
+        when(service.getEventTablePage(1, 20, "sellThrough")).thenReturn(new EventSalesPage(
+                List.of(new EventSalesSummary(3, "Hot Show", "Concert", 100L, 99L)), 1, 20, true));
+
+        mvc.perform(get("/api/dashboard/events")
+                        .param("limit", "20")
+                        .param("page", "1")
+                        .param("sort", "sellThrough")
+                        .with(user("admin").roles("ADMIN"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].eventId").value(3))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    @DisplayName("GET /api/dashboard/events/{id}/timeseries?from&to&step → 200 + points")
+    void timeseries_ok_200() throws Exception {
+
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 10, 10);
+        when(timeseriesService.getSeries(7, from, to, "5m")).thenReturn(new SalesTimeseries(7, 300, 300, List.of(
+                new SalesTimeseries.Point(from, 12, 10, 0, new BigDecimal("5000.00")),
+                new SalesTimeseries.Point(from.plusMinutes(5), 3, 4, 0, new BigDecimal("2000.00")))));
+
+        mvc.perform(get("/api/dashboard/events/7/timeseries")
+                        .param("from", "2025-01-01T10:00:00")
+                        .param("to", "2025-01-01T10:10:00")
+                        .param("step", "5m")
+                        .with(user("admin").roles("ADMIN"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stepSeconds").value(300))
+                .andExpect(jsonPath("$.points.length()").value(2))
+                .andExpect(jsonPath("$.points[0].created").value(12))
+                .andExpect(jsonPath("$.points[1].paid").value(4));
+    }
 }
@@ -1,6 +1,13 @@
 // src/test/java/com/example/eventproject/controller/EventControllerIT.java
 package com.example.eventproject.controller;
 
+import com.example.eventproject.dto.EventPage;
+import com.example.eventproject.dto.EventSearchHit;
+import com.example.eventproject.model.EventSaleStatus;
+import com.example.eventproject.model.Status;
+import com.example.eventproject.service.EventAvailabilityStream;
+import com.example.eventproject.service.EventDetailCache;
+import com.example.eventproject.service.EventSearchService;
 import com.example.eventproject.service.EventService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +18,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.mockito.Mockito.when;
@@ -28,6 +36,15 @@ class EventControllerIT {
     @MockBean
     EventService eventService;
 
+    @MockBean
+    EventAvailabilityStream availabilityStream;
+
+    @MockBean
+    EventDetailCache detailCache;
+
+    @MockBean
+    EventSearchService searchService;
+
     @Test
     @DisplayName("GET /api/events → 200 (list event summary)")
     void list_ok_print_shape() throws Exception {
@@ -41,11 +58,74 @@ class EventControllerIT {
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @DisplayName("GET /api/events?limit=… → 200 (หน้าแบบ keyset: items + nextCursor)")
+    void page_ok_with_filters() throws Exception {
+        when(eventService.page(Status.OPEN, "concert", LocalDate.of(2026, 4, 1), null,
+                EventSaleStatus.OPEN, "abc", 20))
+                .thenReturn(new EventPage(List.of(), "next"));
+
+        mvc.perform(get("/api/events")
+                        .param("limit", "20")
+                        .param("cursor", "abc")
+                        .param("status", "OPEN")
+                        .param("category", "concert")
+                        .param("from", "2026-04-01")
+                        .param("saleStatus", "OPEN")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    @DisplayName("GET /api/events?limit=… cursor เสีย / limit เกิน / from > to → 400 (ไม่ใช่ 500)")
+    void page_badRequest_400() throws Exception {
+        when(eventService.page(null, null, null, null, null, "broken", 20))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mvc.perform(get("/api/events")
+                        .param("limit", "20")
+                        .param("cursor", "broken")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+    }
+
+    @Test
+    @DisplayName("GET /api/events/search?q=… → 200 (ไม่ชนกับ /{id})")
+    void search_ok() throws Exception {
+        when(searchService.search("คอนเสิร์ต", 20))
+                .thenReturn(List.of(new EventSearchHit(1, "คอนเสิร์ตใหญ่", "concert", "BKK", null, 2.5f)));
+
+        mvc.perform(get("/api/events/search")
+                        .param("q", "คอนเสิร์ต")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].title").value("คอนเสิร์ตใหญ่"));
+    }
+
+    @Test
+    @DisplayName("GET /api/events/search / suggest limit นอก 1-50 → 400 (ไม่ใช่ 500)")
+    void search_badLimit_400() throws Exception {
+        when(searchService.search("jazz", 51))
+                .thenThrow(new IllegalArgumentException("limit must be between 1 and 50"));
+        when(searchService.suggest("jazz", 0))
+                .thenThrow(new IllegalArgumentException("limit must be between 1 and 50"));
+
+        mvc.perform(get("/api/events/search").param("q", "jazz").param("limit", "51"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("limit must be between 1 and 50"));
+        mvc.perform(get("/api/events/search/suggest").param("q", "jazz").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /api/events/1 → 200 (detail event)")
     void getEvent_found_200() throws Exception {
         // ไม่ยุ่งกับโครง EventDetailDto เลย ให้คืน null ก็ได้
-        when(eventService.get(1)).thenReturn(null);
+        when(detailCache.get(1)).thenReturn(null);
 
         mvc.perform(get("/api/events/1")
                         .accept(MediaType.APPLICATION_JSON))
@@ -5,6 +5,7 @@ import com.example.eventproject.dto.EventDetailDto;
 import com.example.eventproject.dto.EventDetailViewDto;
 import com.example.eventproject.dto.EventSummaryView;
 import com.example.eventproject.dto.EventUpsertRequest;
+import com.example.eventproject.service.EventDetailCache;
 import com.example.eventproject.service.EventService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -31,6 +32,9 @@ class EventControllerTest {
     @Mock
     EventService eventService;
 
+    @Mock
+    EventDetailCache detailCache;
+
     @InjectMocks
     EventController controller;
 
@@ -49,27 +53,27 @@ class EventControllerTest {
     }
 
     @Test
-    @DisplayName("get(id) → คืน DTO จาก service.get(id)")
+    @DisplayName("get(id) → คืน DTO จาก detailCache.get(id) (cache โหลดจาก service.get เมื่อ miss)")
     void get_ok() {
         EventDetailDto dto = mock(EventDetailDto.class);
-        when(eventService.get(123)).thenReturn(dto);
+        when(detailCache.get(123)).thenReturn(dto);
 
         EventDetailDto result = controller.get(123);
 
         assertSame(dto, result);
-        verify(eventService).get(123);
+        verify(detailCache).get(123);
     }
 
     @Test
-    @DisplayName("getView(id) → คืน DTO จาก service.getView(id)")
+    @DisplayName("getView(id) → คืน DTO จาก detailCache.getView(id)")
     void getView_ok() {
         EventDetailViewDto viewDto = mock(EventDetailViewDto.class);
-        when(eventService.getView(10)).thenReturn(viewDto);
+        when(detailCache.getView(10)).thenReturn(viewDto);
 
         EventDetailViewDto result = controller.getView(10);
 
         assertSame(viewDto, result);
-        verify(eventService).getView(10);
+        verify(detailCache).getView(10);
     }
 
     /* ===================== CREATE ===================== */
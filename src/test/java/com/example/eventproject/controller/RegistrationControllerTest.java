@@ -2,8 +2,12 @@ package com.example.eventproject.controller;
 
 import com.example.eventproject.dto.RegistrationDto;
 import com.example.eventproject.model.Registration;
+import com.example.eventproject.service.AdmissionQueueService;
+import com.example.eventproject.service.AsyncBookingService;
+import com.example.eventproject.service.IdempotencyService;
 import com.example.eventproject.service.RegistrationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -12,16 +16,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
@@ -40,6 +48,24 @@ class RegistrationControllerTest {
     @MockBean
     RegistrationService registrationService;
 
+    @MockBean
+    IdempotencyService idempotencyService;
+
+    @MockBean
+    AdmissionQueueService admissionQueueService;
+
+    @MockBean
+    AsyncBookingService asyncBookingService; // isEnabled() = false → ทาง sync
+
+    @BeforeEach
+    void passThroughIdempotency() {
+        // ไม่ได้ทดสอบ idempotency ที่นี่ → ให้ mock รัน action ตรง ๆ
+        when(idempotencyService.execute(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(inv -> inv.<Supplier<ResponseEntity<?>>>getArgument(3).get());
+        when(admissionQueueService.isAdmitted(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
+        when(admissionQueueService.consumePass(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
+    }
+
     /* ==========================================================
        SAMPLE DTO RESPONSE (ใช้กับ service.getAllByUser / getByUserAndStatus)
        ========================================================== */
@@ -87,6 +113,153 @@ class RegistrationControllerTest {
         return r;
     }
 
+    /* ==========================================================
+       POST /api/registrations — items[] = 1 checkout
+       ========================================================== */
+
+    @Test
+    @DisplayName("POST /api/registrations (items[]) → เรียก checkout ครั้งเดียว และตอบ lines แยกโซน")
+    void create_items_singleCheckout() throws Exception {
+        var event = new com.example.eventproject.model.Event();
+        event.setId(1);
+        var session = new com.example.eventproject.model.EventSession();
+        session.setId(2);
+        var zone1 = new com.example.eventproject.model.EventZone();
+        zone1.setId(10);
+        zone1.setName("VIP");
+        var zone2 = new com.example.eventproject.model.EventZone();
+        zone2.setId(20);
+        zone2.setName("GA");
+
+        Registration vip = sampleRegistration(1);
+        Registration ga = sampleRegistration(2);
+        for (Registration r : List.of(vip, ga)) {
+            r.setEvent(event);
+            r.setSession(session);
+            r.setPaymentReference("PAY-CART");
+            r.setPaymentStatus(Registration.PayStatus.UNPAID);
+        }
+        vip.setZone(zone1);
+        ga.setZone(zone2);
+
+        when(registrationService.checkout(Mockito.eq("user@example.com"), Mockito.eq(1), Mockito.eq(2), Mockito.anyList()))
+                .thenReturn(List.of(vip, ga));
+
+        String body = """
+                {"eventId":1,"sessionId":2,"items":[{"seatZoneId":10,"quantity":1},{"zoneId":20,"quantity":1}]}
+                """;
+
+        mvc.perform(post("/api/registrations")
+                        .param("email", "user@example.com")
+                        .header("Idempotency-Key", "retry-key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.quantity", is(2)))
+                .andExpect(jsonPath("$.lines.length()", is(2)))
+                .andExpect(jsonPath("$.lines[1].zoneName", is("GA")));
+
+        verify(idempotencyService).execute(Mockito.eq("POST /api/registrations|user@example.com"),
+                Mockito.eq("retry-key-1"), Mockito.any(), Mockito.any());
+        verify(registrationService).checkout("user@example.com", 1, 2, List.of(
+                new RegistrationDto.CartLine(10, 1),
+                new RegistrationDto.CartLine(20, 1)));
+    }
+
+    @Test
+    @DisplayName("POST /api/registrations ช่วงเปิดขายโดยไม่มี queue pass → 429 และไม่เรียก checkout")
+    void create_withoutQueuePass_429() throws Exception {
+        when(admissionQueueService.isAdmitted(1, "user@example.com", null)).thenReturn(false);
+
+        mvc.perform(post("/api/registrations")
+                        .param("email", "user@example.com")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"eventId\":1,\"sessionId\":2,\"zoneId\":10,\"quantity\":1}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "5"));
+
+        Mockito.verifyNoInteractions(registrationService);
+    }
+
+    @Test
+    @DisplayName("POST /api/registrations ด้วย pass ที่ใช้ไปแล้ว → 429 และไม่เรียก checkout")
+    void create_withUsedQueuePass_429() throws Exception {
+        when(admissionQueueService.consumePass(1, "user@example.com", "pass-1")).thenReturn(false);
+
+        mvc.perform(post("/api/registrations")
+                        .param("email", "user@example.com")
+                        .header(RegistrationController.QUEUE_PASS_HEADER, "pass-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"eventId\":1,\"sessionId\":2,\"zoneId\":10,\"quantity\":1}"))
+                .andExpect(status().isTooManyRequests());
+
+        Mockito.verifyNoInteractions(registrationService);
+    }
+
+    @Test
+    @DisplayName("POST /api/registrations จองไม่สำเร็จ (ที่นั่งเต็ม) → คืน pass ให้ใช้ใหม่ได้")
+    void create_failed_releasesQueuePass() throws Exception {
+        when(registrationService.checkout(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.anyList()))
+                .thenThrow(new IllegalStateException("Zone is full"));
+
+        mvc.perform(post("/api/registrations")
+                        .param("email", "user@example.com")
+                        .header(RegistrationController.QUEUE_PASS_HEADER, "pass-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"eventId\":1,\"sessionId\":2,\"zoneId\":10,\"quantity\":1}"))
+                .andExpect(status().isConflict());
+
+        verify(admissionQueueService).releasePass("pass-1");
+    }
+
+    @Test
+    @DisplayName("POST /api/registrations เมื่อเปิด async booking → 202 + Location ของ order")
+    void create_async_202() throws Exception {
+        when(asyncBookingService.isEnabled()).thenReturn(true);
+        when(asyncBookingService.submit(Mockito.any())).thenReturn(Optional.of(
+                new RegistrationDto.OrderStatus("abc", AsyncBookingService.PENDING, null, null,
+                        LocalDateTime.now(), null)));
+
+        mvc.perform(post("/api/registrations")
+                        .param("email", "user@example.com")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"eventId\":1,\"sessionId\":2,\"zoneId\":10,\"quantity\":1}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/registrations/orders/abc"))
+                .andExpect(jsonPath("$.status", is("PENDING")));
+
+        Mockito.verify(registrationService, Mockito.never())
+                .checkout(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("POST /api/registrations เมื่อคิว async เต็ม → 503 + Retry-After")
+    void create_async_queueFull_503() throws Exception {
+        when(asyncBookingService.isEnabled()).thenReturn(true);
+        when(asyncBookingService.submit(Mockito.any())).thenReturn(Optional.empty());
+
+        mvc.perform(post("/api/registrations")
+                        .param("email", "user@example.com")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"eventId\":1,\"sessionId\":2,\"zoneId\":10,\"quantity\":1}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    @DisplayName("GET /api/registrations/orders/{id} → 200 / 404")
+    void orderStatus() throws Exception {
+        when(asyncBookingService.status("abc")).thenReturn(Optional.of(
+                new RegistrationDto.OrderStatus("abc", AsyncBookingService.REJECTED, "Sold out", null,
+                        LocalDateTime.now(), LocalDateTime.now())));
+
+        mvc.perform(get("/api/registrations/orders/abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error", is("Sold out")));
+        mvc.perform(get("/api/registrations/orders/nope"))
+                .andExpect(status().isNotFound());
+    }
+
     /* ==========================================================
        /api/registrations/me
        ========================================================== */
@@ -1,9 +1,11 @@
 // src/test/java/com/example/eventproject/controller/ZoneControllerIT.java
 package com.example.eventproject.controller;
 
+import com.example.eventproject.config.ClockConfig;
 import com.example.eventproject.dto.ZoneAvailabilityDto;
 import com.example.eventproject.model.EventZone;
 import com.example.eventproject.service.EventZoneService;
+import com.example.eventproject.service.ZoneAvailabilityCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -11,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -23,6 +26,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(controllers = ZoneController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import({ZoneAvailabilityCache.class, ClockConfig.class})
 class ZoneControllerIT {
 
     @Autowired
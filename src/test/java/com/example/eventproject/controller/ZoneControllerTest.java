@@ -1,7 +1,9 @@
 package com.example.eventproject.controller;
 
+import com.example.eventproject.config.ClockConfig;
 import com.example.eventproject.dto.ZoneAvailabilityDto;
 import com.example.eventproject.service.EventZoneService;
+import com.example.eventproject.service.ZoneAvailabilityCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -34,7 +36,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
 @WebMvcTest(controllers = ZoneController.class)
 @AutoConfigureMockMvc(addFilters = false)
-@Import(ZoneControllerTest.TestErrorHandler.class)
+@Import({ZoneControllerTest.TestErrorHandler.class, ZoneAvailabilityCache.class, ClockConfig.class})
 class ZoneControllerTest {
 
     @Autowired
@@ -91,6 +93,25 @@ class ZoneControllerTest {
         verify(zoneService, times(1)).getAvailabilityBySession(eq(sessionId));
     }
 
+    @Test
+    @DisplayName("GET /api/zones/session/{sessionId}/availability :: ETag ตรง (If-None-Match) → 304 และไม่ query ซ้ำ")
+    void getAvailability_ifNoneMatch_304() throws Exception {
+        Integer sessionId = 11;
+        Mockito.when(zoneService.getAvailabilityBySession(eq(sessionId))).thenReturn(List.of(
+                new ZoneAvailabilityDto(1, "A", 100, 40L, 60L, new BigDecimal("500.00"))));
+
+        String etag = mvc.perform(get("/api/zones/session/{sessionId}/availability", sessionId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/api/zones/session/{sessionId}/availability", sessionId)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(zoneService, times(1)).getAvailabilityBySession(eq(sessionId));
+    }
+
     @RestControllerAdvice
     static class TestErrorHandler {
         @ExceptionHandler(Exception.class)
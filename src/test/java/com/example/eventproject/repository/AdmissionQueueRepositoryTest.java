@@ -0,0 +1,86 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.model.AdmissionQueue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * สูตรแจกลำดับ / เปลี่ยนอัตราของ waiting room บน H2 จริง (ต้องตรงกับ AdmissionQueue.frontier)
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admissiondb;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AdmissionQueueRepositoryTest {
+
+    private static final int EVENT_ID = 7;
+    private static final long START = 1_000_000L;
+
+    @Autowired TestEntityManager em;
+    @Autowired AdmissionQueueRepository repo;
+
+    private AdmissionQueue load() {
+        em.clear();
+        return repo.findById(EVENT_ID).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("issue: ยังไม่มีแถว → 0 / insertIfAbsent ครั้งที่สองถูกข้าม")
+    void issue_requiresRow() {
+        assertThat(repo.issue(EVENT_ID, START)).isZero();
+        assertThat(repo.insertIfAbsent(EVENT_ID, 100, START)).isEqualTo(1);
+        assertThat(repo.insertIfAbsent(EVENT_ID, 999, START)).isZero();
+        assertThat(load().getRate()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("issue: ต่อจาก issued / คิวว่างนาน → กระโดดไปที่ frontier − rate + 1")
+    void issue_continuesOrJumpsToFrontier() {
+        repo.insertIfAbsent(EVENT_ID, 100, START);
+        repo.issue(EVENT_ID, START);
+        repo.issue(EVENT_ID, START);
+        assertThat(load().getIssued()).isEqualTo(2);
+
+        repo.issue(EVENT_ID, START + 60_000);
+        AdmissionQueue q = load();
+        assertThat(q.getIssued()).isEqualTo(5_901);
+        assertThat(q.frontier(START + 60_000)).isEqualTo(6_000);
+    }
+
+    @Test
+    @DisplayName("rebase: frontier ไม่ถอยกลับ แล้วเดินต่อด้วยอัตราใหม่")
+    void rebase_keepsFrontierAndAppliesNewRate() {
+        repo.insertIfAbsent(EVENT_ID, 100, START);
+
+        repo.rebase(EVENT_ID, 1_000, START + 2_500);
+        AdmissionQueue q = load();
+        assertThat(q.getRate()).isEqualTo(1_000);
+        assertThat(q.frontier(START + 2_500)).isEqualTo(250);
+        assertThat(q.frontier(START + 3_500)).isEqualTo(1_250);
+    }
+
+    @Test
+    @DisplayName("rebase ก่อนเปิดขาย → base_at ยังเป็นเวลาเปิดขาย")
+    void rebase_beforeStart_keepsBaseAt() {
+        repo.insertIfAbsent(EVENT_ID, 100, START);
+
+        repo.rebase(EVENT_ID, 500, START - 10_000);
+        AdmissionQueue q = load();
+        assertThat(q.getBaseAt()).isEqualTo(START);
+        assertThat(q.frontier(START)).isZero();
+        assertThat(q.frontier(START + 1_000)).isEqualTo(500);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.dto.DashboardCounts;
+import com.example.eventproject.dto.EventSalesRow;
+import com.example.eventproject.model.Event;
+import com.example.eventproject.model.EventSession;
+import com.example.eventproject.model.EventZone;
+import com.example.eventproject.model.Registration;
+import com.example.eventproject.model.Registration.PayStatus;
+import com.example.eventproject.model.Role;
+import com.example.eventproject.model.Status;
+import com.example.eventproject.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * query สรุป dashboard (อ่านจาก sales_rollup ที่สร้างจาก registrations) บน H2 จริง
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:dashboarddb;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class DashboardRepositoryTest {
+
+    @Autowired TestEntityManager em;
+    @Autowired DashboardRepository repo;
+    @Autowired SalesRollupRepository rollupRepo;
+
+    private Event concert;
+    private EventZone concertZone;
+    private EventZone festivalZone;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setCode("USER");
+        em.persist(role);
+        User user = new User();
+        user.setEmail("a@x.com");
+        user.setRole(role);
+        em.persist(user);
+
+        concert = event("concert", Status.OPEN);
+        concertZone = zone(concert, 100);
+        Event festival = event("festival", Status.CLOSED);
+        festivalZone = zone(festival, 10);
+        event("no-zones", Status.CLOSED);
+
+        registration(concertZone, PayStatus.PAID, true, "T1");
+        registration(concertZone, PayStatus.PAID, false, "T2");
+        registration(concertZone, PayStatus.UNPAID, false, "T3");
+        registration(festivalZone, PayStatus.PAID, true, "T4");
+        registration(festivalZone, PayStatus.EXPIRED, false, "T5");
+        em.flush();
+        rollupRepo.seedZones(List.of(concertZone.getId(), festivalZone.getId()));
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("summarizeAll: ทุกตัวเลขจาก query เดียว")
+    void summarize_all() {
+        assertThat(repo.summarizeAll()).isEqualTo(new DashboardCounts(1L, 5L, 3L, 2L));
+    }
+
+    @Test
+    @DisplayName("summarizeByEvent: นับเฉพาะ event / event ไม่มีใบจอง → 0")
+    void summarize_by_event() {
+        assertThat(repo.summarizeByEvent(concert.getId())).isEqualTo(new DashboardCounts(0L, 3L, 2L, 1L));
+        assertThat(repo.summarizeByEvent(-1)).isEqualTo(new DashboardCounts(0L, 0L, 0L, 0L));
+    }
+
+    @Test
+    @DisplayName("findEventSales: capacity + sold ทุก event / เรียงตาม id หรือ sell-through / แบ่งหน้า")
+    void event_sales_table() {
+        assertThat(repo.findEventSales("id", 10, 0))
+                .extracting(EventSalesRow::getTitle, EventSalesRow::getCapacity, EventSalesRow::getSold)
+                .containsExactly(
+                        tuple("concert", 100L, 2L),
+                        tuple("festival", 10L, 1L),
+                        tuple("no-zones", 0L, 0L));
+
+        // festival 1/10 > concert 2/100 / ไม่มีความจุ → ท้ายสุด
+        assertThat(repo.findEventSales("sellThrough", 10, 0))
+                .extracting(EventSalesRow::getTitle)
+                .containsExactly("festival", "concert", "no-zones");
+        assertThat(repo.findEventSales("sellThrough", 1, 1))
+                .extracting(EventSalesRow::getTitle)
+                .containsExactly("concert");
+    }
+
+    private Event event(String title, Status status) {
+        Event e = new Event();
+        e.setTitle(title);
+        e.setCategory(title);
+        e.setStatus(status);
+        em.persist(e);
+        return e;
+    }
+
+    private EventZone zone(Event event, int capacity) {
+        EventSession s = new EventSession();
+        s.setEvent(event);
+        s.setName("R1");
+        s.setStartTime(LocalTime.of(19, 0));
+        em.persist(s);
+        EventZone z = new EventZone();
+        z.setSession(s);
+        z.setName("A");
+        z.setCapacity(capacity);
+        z.setPrice(new BigDecimal("1000.00"));
+        em.persist(z);
+        return z;
+    }
+
+    private void registration(EventZone zone, PayStatus status, boolean checkedIn, String code) {
+        Registration r = new Registration();
+        r.setEmail("a@x.com");
+        r.setEvent(zone.getSession().getEvent());
+        r.setSession(zone.getSession());
+        r.setZone(zone);
+        r.setPaymentStatus(status);
+        r.setIsCheckedIn(checkedIn);
+        r.setTicketCode(code);
+        em.persist(r);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.dto.EventListItem;
+import com.example.eventproject.model.Event;
+import com.example.eventproject.model.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * keyset + ตัวกรองของ EventRepository.findPage บน H2 จริง
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pagedb;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EventRepositoryPageTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired TestEntityManager em;
+    @Autowired EventRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        // วันเริ่มซ้ำกัน + ไม่มีวันเริ่ม → ต้องเรียงด้วย id ต่อและไม่ข้าม/ซ้ำข้ามหน้า
+        persist("no-date", null, Status.OPEN, null, null);
+        persist("a1", LocalDate.of(2026, 4, 1), Status.OPEN, null, null);
+        persist("a2", LocalDate.of(2026, 4, 1), Status.CLOSED, null, null);
+        persist("a3", LocalDate.of(2026, 4, 1), Status.OPEN, NOW.plusDays(3), null);
+        persist("b", LocalDate.of(2026, 5, 1), Status.OPEN, NOW.minusDays(3), NOW.minusDays(1));
+        persist("c", LocalDate.of(2026, 6, 1), Status.OPEN, NOW.minusDays(3), NOW.plusDays(10));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("เดินทีละ 2 แถวด้วย cursor ได้ครบทุกแถว ตามลำดับ (startDate, id) ไม่ซ้ำ")
+    void walks_all_pages_in_order() {
+        List<String> titles = new ArrayList<>();
+        LocalDate afterDate = null;
+        Integer afterId = null;
+        for (int guard = 0; guard < 10; guard++) {
+            List<EventListItem> page = repo.findPage(null, null, null, null, null, NOW, NOW.toLocalDate(),
+                    afterDate, afterId, PageRequest.of(0, 2));
+            if (page.isEmpty()) break;
+            page.forEach(i -> titles.add(i.title()));
+            EventListItem last = page.get(page.size() - 1);
+            afterDate = last.startDate();
+            afterId = last.id();
+        }
+        assertThat(titles).containsExactly("no-date", "a1", "a2", "a3", "b", "c");
+    }
+
+    @Test
+    @DisplayName("กรองตาม saleStatus ตรงกับ computeSaleStatus")
+    void filters_by_sale_status() {
+        assertThat(titles("UPCOMING")).containsExactly("a3");
+        assertThat(titles("OPEN")).containsExactly("no-date", "a1", "c");
+        assertThat(titles("CLOSED")).containsExactly("a2", "b");
+    }
+
+    @Test
+    @DisplayName("กรองตาม status / category / ช่วงวันเริ่ม")
+    void filters_by_status_category_and_date_range() {
+        List<EventListItem> closed = repo.findPage(Status.CLOSED, null, null, null, null, NOW, NOW.toLocalDate(),
+                null, null, PageRequest.of(0, 10));
+        assertThat(closed).extracting(EventListItem::title).containsExactly("a2");
+
+        List<EventListItem> ranged = repo.findPage(null, "concert", LocalDate.of(2026, 4, 2), LocalDate.of(2026, 6, 1),
+                null, NOW, NOW.toLocalDate(), null, null, PageRequest.of(0, 10));
+        assertThat(ranged).extracting(EventListItem::title).containsExactly("b", "c");
+    }
+
+    private List<String> titles(String saleStatus) {
+        return repo.findPage(null, null, null, null, saleStatus, NOW, NOW.toLocalDate(), null, null,
+                        PageRequest.of(0, 10))
+                .stream().map(EventListItem::title).toList();
+    }
+
+    private void persist(String title, LocalDate start, Status status, LocalDateTime saleStart, LocalDateTime saleEnd) {
+        Event e = new Event();
+        e.setTitle(title);
+        e.setCategory("concert");
+        e.setDescription("long text that the list page never needs");
+        e.setStartDate(start);
+        e.setEndDate(start == null ? null : start.plusDays(1));
+        e.setStatus(status);
+        e.setSaleStartAt(saleStart);
+        e.setSaleEndAt(saleEnd);
+        em.persist(e);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.dto.SalesRollupCounts;
+import com.example.eventproject.model.Event;
+import com.example.eventproject.model.EventSession;
+import com.example.eventproject.model.EventZone;
+import com.example.eventproject.model.Registration;
+import com.example.eventproject.model.Registration.PayStatus;
+import com.example.eventproject.model.Role;
+import com.example.eventproject.model.SalesRollup;
+import com.example.eventproject.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * seed / บวกยอด / ตรวจยอดเพี้ยนของ sales_rollup บน H2 จริง
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rollupdb;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SalesRollupRepositoryTest {
+
+    @Autowired TestEntityManager em;
+    @Autowired SalesRollupRepository repo;
+
+    private EventZone vip;
+    private EventZone regular;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setCode("USER");
+        em.persist(role);
+        User user = new User();
+        user.setEmail("a@x.com");
+        user.setRole(role);
+        em.persist(user);
+
+        Event event = new Event();
+        event.setTitle("concert");
+        em.persist(event);
+        EventSession session = new EventSession();
+        session.setEvent(event);
+        session.setStartTime(LocalTime.of(19, 0));
+        em.persist(session);
+        vip = zone(session, "VIP", "1500.00");
+        regular = zone(session, "REG", "500.00");
+
+        registration(vip, PayStatus.PAID, true, "T1");
+        registration(vip, PayStatus.PAID, false, "T2");
+        registration(vip, PayStatus.UNPAID, false, "T3");
+        registration(vip, PayStatus.EXPIRED, false, "T4");
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("seedZones: สร้างแถวจากยอดจริง (โซนที่ไม่มีใบจองได้ 0) / เรียกซ้ำไม่ทับของเดิม")
+    void seed_from_registrations() {
+        assertThat(repo.findZoneIdsWithoutRollup()).containsExactly(vip.getId(), regular.getId());
+
+        repo.seedZones(List.of(vip.getId(), regular.getId()));
+        repo.addDeltas(vip.getId(), 0, 1, 0, 0, BigDecimal.ZERO);
+        repo.seedZones(List.of(vip.getId()));
+        em.clear();
+
+        SalesRollup row = repo.findById(vip.getId()).orElseThrow();
+        assertThat(row.getSold()).isEqualTo(2L);
+        assertThat(row.getUnpaid()).isEqualTo(2L);
+        assertThat(row.getExpired()).isEqualTo(1L);
+        assertThat(row.getCheckedIn()).isEqualTo(1L);
+        assertThat(row.getRevenue()).isEqualByComparingTo("3000.00");
+        assertThat(repo.findById(regular.getId()).orElseThrow().getSold()).isZero();
+        assertThat(repo.findZoneIdsWithoutRollup()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findDriftedZoneIds / countByZone: เจอเฉพาะโซนที่ยอดไม่ตรงกับ registrations")
+    void detects_drift() {
+        repo.seedZones(List.of(vip.getId(), regular.getId()));
+        assertThat(repo.findDriftedZoneIds()).isEmpty();
+
+        repo.addDeltas(regular.getId(), 1, 0, 0, 0, new BigDecimal("500.00"));
+        em.clear();
+
+        assertThat(repo.findDriftedZoneIds()).containsExactly(regular.getId());
+        assertThat(repo.countByZone(vip.getId()))
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(new SalesRollupCounts(2L, 1L, 1L, 1L, new BigDecimal("3000")));
+    }
+
+    private EventZone zone(EventSession session, String name, String price) {
+        EventZone z = new EventZone();
+        z.setSession(session);
+        z.setName(name);
+        z.setCapacity(100);
+        z.setPrice(new BigDecimal(price));
+        em.persist(z);
+        return z;
+    }
+
+    private void registration(EventZone zone, PayStatus status, boolean checkedIn, String code) {
+        Registration r = new Registration();
+        r.setEmail("a@x.com");
+        r.setEvent(zone.getSession().getEvent());
+        r.setSession(zone.getSession());
+        r.setZone(zone);
+        r.setPrice(zone.getPrice());
+        r.setPaymentStatus(status);
+        r.setIsCheckedIn(checkedIn);
+        r.setTicketCode(code);
+        em.persist(r);
+    }
+}
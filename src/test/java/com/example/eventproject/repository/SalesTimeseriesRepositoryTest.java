@@ -0,0 +1,126 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.dto.SalesBucketTotals;
+import com.example.eventproject.model.Event;
+import com.example.eventproject.model.EventSession;
+import com.example.eventproject.model.EventZone;
+import com.example.eventproject.model.SalesRollup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * upsert / อ่านรวมราย event / ลบตาม event ของ sales_timeseries บน H2 จริง
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:timeseriesdb;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SalesTimeseriesRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Autowired TestEntityManager em;
+    @Autowired SalesTimeseriesRepository repo;
+
+    private Event concert;
+    private EventZone vip;
+    private EventZone regular;
+    private EventZone otherEventZone;
+
+    @BeforeEach
+    void setUp() {
+        concert = event("concert");
+        EventSession session = session(concert);
+        vip = zone(session, "VIP");
+        regular = zone(session, "REG");
+        otherEventZone = zone(session(event("festival")), "A");
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("addToBucket + findEventTotals: bucket เดิมถูกบวกเพิ่ม / รวมทุกโซนของ event / ไม่ปน event อื่น")
+    void upsert_and_read_event_totals() {
+        repo.addToBucket(vip.getId(), 60, T0, 2, 0, 0, BigDecimal.ZERO);
+        repo.addToBucket(vip.getId(), 60, T0, 0, 2, 0, new BigDecimal("3000.00"));
+        repo.addToBucket(regular.getId(), 60, T0, 1, 0, 0, BigDecimal.ZERO);
+        repo.addToBucket(regular.getId(), 60, T0.plusMinutes(3), 0, 0, 1, BigDecimal.ZERO);
+        repo.addToBucket(vip.getId(), 3600, T0.minusHours(1), 5, 5, 0, new BigDecimal("7500.00"));
+        repo.addToBucket(otherEventZone.getId(), 60, T0, 9, 9, 9, new BigDecimal("9.00"));
+        em.clear();
+
+        assertThat(repo.findEventTotals(concert.getId(), T0.minusHours(1), T0.plusHours(1)))
+                .extracting(SalesBucketTotals::bucketSeconds, SalesBucketTotals::bucketStart,
+                        SalesBucketTotals::created, SalesBucketTotals::paid, SalesBucketTotals::checkedIn)
+                .containsExactly(
+                        tuple(3600, T0.minusHours(1), 5L, 5L, 0L),
+                        tuple(60, T0, 3L, 2L, 0L),
+                        tuple(60, T0.plusMinutes(3), 0L, 0L, 1L));
+        assertThat(repo.findEventTotals(concert.getId(), T0.plusMinutes(1), T0.plusHours(1))).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("deleteByEventId: ลบเฉพาะ bucket ของโซนใน event / deleteRange ลบเฉพาะความละเอียดและช่วงที่ขอ")
+    void delete_by_event_and_range() {
+        repo.addToBucket(vip.getId(), 60, T0, 1, 0, 0, BigDecimal.ZERO);
+        repo.addToBucket(vip.getId(), 60, T0.plusHours(1), 1, 0, 0, BigDecimal.ZERO);
+        repo.addToBucket(vip.getId(), 3600, T0, 1, 0, 0, BigDecimal.ZERO);
+        repo.addToBucket(otherEventZone.getId(), 60, T0, 1, 0, 0, BigDecimal.ZERO);
+
+        repo.addToBucket(otherEventZone.getId(), 3600, T0, 1, 0, 0, BigDecimal.ZERO);
+
+        assertThat(repo.deleteByEventId(concert.getId())).isEqualTo(3);
+        assertThat(repo.deleteRange(60, T0, T0.plusHours(1))).isEqualTo(1);
+        assertThat(repo.count()).isEqualTo(1);
+    }
+
+    private Event event(String title) {
+        Event e = new Event();
+        e.setTitle(title);
+        em.persist(e);
+        return e;
+    }
+
+    private EventSession session(Event event) {
+        EventSession s = new EventSession();
+        s.setEvent(event);
+        s.setStartTime(LocalTime.of(19, 0));
+        em.persist(s);
+        return s;
+    }
+
+    private EventZone zone(EventSession session, String name) {
+        EventZone z = new EventZone();
+        z.setSession(session);
+        z.setName(name);
+        z.setCapacity(100);
+        z.setPrice(new BigDecimal("1500.00"));
+        em.persist(z);
+
+        SalesRollup rollup = new SalesRollup();
+        rollup.setZoneId(z.getId());
+        rollup.setSessionId(session.getId());
+        rollup.setEventId(session.getEvent().getId());
+        em.persist(rollup);
+        return z;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.eventproject.repository;
+
+import com.example.eventproject.model.Event;
+import com.example.eventproject.model.EventSession;
+import com.example.eventproject.model.EventZone;
+import com.example.eventproject.model.ZoneInventory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ลบแถว zone_inventory ของโซนที่ถูกลบ บน H2 จริง
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:inventorydb;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ZoneInventoryRepositoryTest {
+
+    @Autowired TestEntityManager em;
+    @Autowired ZoneInventoryRepository repo;
+
+    private Event event;
+    private EventZone vip;
+    private EventZone regular;
+    private EventZone other;
+
+    @BeforeEach
+    void setUp() {
+        event = new Event();
+        event.setTitle("concert");
+        em.persist(event);
+        EventSession session = session(event);
+        vip = zone(session, "VIP");
+        regular = zone(session, "REG");
+
+        Event otherEvent = new Event();
+        otherEvent.setTitle("other");
+        em.persist(otherEvent);
+        other = zone(session(otherEvent), "GA");
+
+        for (EventZone z : List.of(vip, regular, other)) {
+            ZoneInventory inv = new ZoneInventory();
+            inv.setZoneId(z.getId());
+            inv.setCapacity(100);
+            em.persist(inv);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("deleteByZoneIds / deleteByEventId: ลบเฉพาะแถวของโซนที่ระบุ")
+    void delete_byZoneIds_and_byEvent() {
+        assertThat(repo.deleteByZoneIds(List.of(vip.getId()))).isEqualTo(1);
+        assertThat(repo.deleteByEventId(event.getId())).isEqualTo(1);
+        assertThat(repo.findAll()).extracting(ZoneInventory::getZoneId).containsExactly(other.getId());
+    }
+
+    @Test
+    @DisplayName("deleteOrphans: แถวของโซนที่ไม่มีแล้วถูกลบ")
+    void deleteOrphans_removesRowsOfDeletedZones() {
+        em.remove(em.find(EventZone.class, regular.getId()));
+        em.flush();
+
+        assertThat(repo.deleteOrphans()).isEqualTo(1);
+        assertThat(repo.findAll()).extracting(ZoneInventory::getZoneId)
+                .containsExactlyInAnyOrder(vip.getId(), other.getId());
+    }
+
+    private EventSession session(Event e) {
+        EventSession s = new EventSession();
+        s.setEvent(e);
+        s.setStartTime(LocalTime.of(19, 0));
+        em.persist(s);
+        return s;
+    }
+
+    private EventZone zone(EventSession session, String name) {
+        EventZone z = new EventZone();
+        z.setSession(session);
+        z.setName(name);
+        z.setCapacity(100);
+        z.setPrice(new BigDecimal("500.00"));
+        em.persist(z);
+        return z;
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.config.JwtUtil;
+import com.example.eventproject.dto.QueueDto;
+import com.example.eventproject.model.AdmissionQueue;
+import com.example.eventproject.repository.AdmissionQueueRepository;
+import com.example.eventproject.repository.EventRepository;
+import com.example.eventproject.repository.QueuePassUseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AdmissionQueueServiceTest {
+
+    private static final int EVENT_ID = 7;
+    private static final int RATE = 100;
+    private static final LocalDateTime SALE_START = LocalDateTime.of(2026, 1, 1, 10, 0);
+    private static final String EMAIL = "buyer@example.com";
+
+    @Mock
+    EventRepository eventRepository;
+
+    @Mock
+    AdmissionQueueRepository queueRepository;
+
+    @Mock
+    QueuePassUseRepository passUseRepository;
+
+    @Mock
+    SchedulerLeaseService leaseService;
+
+    MutableClock clock;
+    AdmissionQueueService service;
+
+    /** นาฬิกาที่ test เลื่อนเองได้ */
+    static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) { this.now = now; }
+
+        void advanceMillis(long ms) { now = now.plusMillis(ms); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    /**
+     * ตาราง admission_queues จำลอง (แชร์ระหว่าง "node")
+     * issue() ถือ lock ไว้จน findById() ของเธรดเดียวกัน = row lock ของ UPDATE จน commit ของ join
+     */
+    static final class QueueTable {
+        private final Map<Integer, AdmissionQueue> rows = new ConcurrentHashMap<>();
+        private final ReentrantLock rowLock = new ReentrantLock();
+
+        void stub(AdmissionQueueRepository repo) {
+            when(repo.insertIfAbsent(anyInt(), anyInt(), anyLong())).thenAnswer(inv -> {
+                AdmissionQueue q = new AdmissionQueue();
+                q.setEventId(inv.getArgument(0));
+                q.setRate(inv.getArgument(1));
+                q.setBaseAt(inv.getArgument(2));
+                return rows.putIfAbsent(q.getEventId(), q) == null ? 1 : 0;
+            });
+            when(repo.issue(anyInt(), anyLong())).thenAnswer(inv -> {
+                AdmissionQueue q = rows.get(inv.<Integer>getArgument(0));
+                if (q == null) return 0;
+                rowLock.lock();
+                q.setIssued(Math.max(q.getIssued() + 1, q.frontier(inv.getArgument(1)) - q.getRate() + 1));
+                return 1;
+            });
+            when(repo.rebase(anyInt(), anyInt(), anyLong())).thenAnswer(inv -> {
+                AdmissionQueue q = rows.get(inv.<Integer>getArgument(0));
+                long now = inv.getArgument(2);
+                q.setBasePosition(q.getBasePosition() + q.getRate() * Math.max(0, now - q.getBaseAt()) / 1000.0);
+                q.setBaseAt(Math.max(q.getBaseAt(), now));
+                q.setRate(inv.getArgument(1));
+                return 1;
+            });
+            when(repo.findById(anyInt())).thenAnswer(inv -> {
+                AdmissionQueue q = rows.get(inv.<Integer>getArgument(0));
+                Optional<AdmissionQueue> copy = Optional.ofNullable(q).map(QueueTable::copy);
+                if (rowLock.isHeldByCurrentThread()) rowLock.unlock();
+                return copy;
+            });
+        }
+
+        private static AdmissionQueue copy(AdmissionQueue q) {
+            AdmissionQueue c = new AdmissionQueue();
+            c.setEventId(q.getEventId());
+            c.setIssued(q.getIssued());
+            c.setRate(q.getRate());
+            c.setBasePosition(q.getBasePosition());
+            c.setBaseAt(q.getBaseAt());
+            return c;
+        }
+    }
+
+    private AdmissionQueueService newNode() {
+        return new AdmissionQueueService(new JwtUtil(), eventRepository, queueRepository, passUseRepository,
+                leaseService, clock, true, RATE, 60, 600, 6, 30_000, 1_000, 10_000);
+    }
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(SALE_START.toInstant(ZoneOffset.UTC));
+        when(eventRepository.findSaleStartAtById(EVENT_ID)).thenReturn(Optional.of(SALE_START));
+        Set<String> usedPasses = ConcurrentHashMap.newKeySet();
+        when(passUseRepository.insertIfAbsent(anyString(), any(LocalDateTime.class)))
+                .thenAnswer(inv -> usedPasses.add(inv.getArgument(0)) ? 1 : 0);
+        when(passUseRepository.release(anyString()))
+                .thenAnswer(inv -> usedPasses.remove(inv.<String>getArgument(0)) ? 1 : 0);
+        new QueueTable().stub(queueRepository);
+        service = newNode();
+    }
+
+    @Test
+    @DisplayName("burst 10,000 คนพร้อมกัน → ปล่อยไม่เกิน rate ต่อวินาที เรียงตามลำดับ และหมดคิวใน ~100 วินาที")
+    void burst10k_admittedAtConfiguredRate() throws Exception {
+        int clients = 10_000;
+
+        // 1. ทุกคน join พร้อมกันจากหลายเธรด → ลำดับไม่ซ้ำ
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<String> tokens = java.util.Collections.synchronizedList(new ArrayList<>());
+        Set<Long> positions = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < clients; i++) {
+            pool.submit(() -> {
+                QueueDto.Status s = service.join(EVENT_ID, EMAIL);
+                positions.add(s.position());
+                tokens.add(s.queueToken());
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        assertThat(positions).hasSize(clients);
+        verify(eventRepository, atMost(1)).findSaleStartAtById(EVENT_ID);
+
+        // 2. จำลอง client poll ตาม pollAfterSeconds ที่ได้รับ (เลื่อนนาฬิกาทีละวินาที)
+        //    ทุกครั้งที่ poll: ได้ pass ⇔ position ≤ RATE × วินาทีที่ผ่านไป (ปล่อยตามอัตรา + FIFO)
+        int[] nextPollAt = new int[clients];
+        boolean[] done = new boolean[clients];
+        int admittedTotal = 0;
+        int polls = 0;
+        int second = 0;
+        while (admittedTotal < clients) {
+            assertThat(second).as("queue should drain").isLessThan(clients / RATE + 40);
+            clock.advanceMillis(1_000);
+            second++;
+            for (int i = 0; i < clients; i++) {
+                if (done[i] || nextPollAt[i] > second) continue;
+                QueueDto.Status s = service.status(tokens.get(i));
+                polls++;
+                assertThat(s.admitted()).isEqualTo(s.position() <= (long) RATE * second);
+                if (s.admitted()) {
+                    done[i] = true;
+                    admittedTotal++;
+                } else {
+                    nextPollAt[i] = second + s.pollAfterSeconds();
+                }
+            }
+        }
+        // poll เบา: เฉลี่ยไม่กี่ครั้งต่อคน แทนที่จะยิงทุกวินาที
+        assertThat(polls).isLessThan(clients * 15);
+    }
+
+    @Test
+    @DisplayName("ยังไม่ถึงลำดับ → admitted=false พร้อมจำนวนคนข้างหน้าและเวลารอ")
+    void status_notYetAdmitted() {
+        for (int i = 0; i < 499; i++) service.join(EVENT_ID, EMAIL);
+        QueueDto.Status mine = service.join(EVENT_ID, EMAIL);
+
+        QueueDto.Status s = service.status(mine.queueToken());
+
+        assertThat(s.position()).isEqualTo(500);
+        assertThat(s.admitted()).isFalse();
+        assertThat(s.ahead()).isEqualTo(499);
+        assertThat(s.estimatedWaitSeconds()).isEqualTo(5);
+        assertThat(s.passToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("pass token ใช้ได้เฉพาะ event และ email ของตัวเอง และช่วงเปิดขายต้องมี pass")
+    void isAdmitted_requiresPassForSameEvent() {
+        when(eventRepository.findSaleStartAtById(8)).thenReturn(Optional.of(SALE_START));
+        QueueDto.Status mine = service.join(EVENT_ID, EMAIL);
+        clock.advanceMillis(1_000);
+        QueueDto.Status s = service.status(mine.queueToken());
+        assertThat(s.admitted()).isTrue();
+
+        assertThat(service.isAdmitted(EVENT_ID, EMAIL, s.passToken())).isTrue();
+        assertThat(service.isAdmitted(EVENT_ID, " Buyer@Example.com ", s.passToken())).isTrue();
+        assertThat(service.isAdmitted(EVENT_ID, EMAIL, null)).isFalse();
+        assertThat(service.isAdmitted(EVENT_ID, EMAIL, mine.queueToken())).isFalse(); // queue token ไม่ใช่ pass
+        assertThat(service.isAdmitted(8, EMAIL, s.passToken())).isFalse();
+        assertThat(service.isAdmitted(EVENT_ID, "other@example.com", s.passToken())).isFalse();
+    }
+
+    @Test
+    @DisplayName("pass จองได้ครั้งเดียว / จองไม่สำเร็จคืน pass แล้วใช้ใหม่ได้")
+    void consumePass_singleUse() {
+        QueueDto.Status mine = service.join(EVENT_ID, EMAIL);
+        clock.advanceMillis(1_000);
+        String pass = service.status(mine.queueToken()).passToken();
+
+        assertThat(service.consumePass(EVENT_ID, EMAIL, pass)).isTrue();
+        assertThat(service.consumePass(EVENT_ID, EMAIL, pass)).isFalse();
+
+        service.releasePass(pass);
+        assertThat(service.consumePass(EVENT_ID, EMAIL, pass)).isTrue();
+        assertThat(service.consumePass(EVENT_ID, "other@example.com", pass)).isFalse();
+    }
+
+    @Test
+    @DisplayName("poll ซ้ำได้ pass ใหม่ แต่ลำดับคิวเดียวจองได้ครั้งเดียว (pass ใบที่สองใช้ไม่ได้)")
+    void repeatedPolls_passesShareOneUse() {
+        QueueDto.Status mine = service.join(EVENT_ID, EMAIL);
+        clock.advanceMillis(1_000);
+        String first = service.status(mine.queueToken()).passToken();
+        clock.advanceMillis(1_000);
+        String second = service.status(mine.queueToken()).passToken();
+        assertThat(second).isNotEqualTo(first);
+
+        assertThat(service.consumePass(EVENT_ID, EMAIL, first)).isTrue();
+        assertThat(service.consumePass(EVENT_ID, EMAIL, second)).isFalse();
+
+        // บันทึกการใช้เก็บจน queue token หมดอายุ (6 ชม.) ไม่ใช่แค่อายุ pass
+        verify(passUseRepository).insertIfAbsent(eq(EVENT_ID + ":" + mine.position()),
+                eq(SALE_START.plusHours(6)));
+    }
+
+    @Test
+    @DisplayName("นอกช่วงเปิดขาย (หลัง window หรือไม่มี saleStartAt) → ไม่ต้องมี pass")
+    void isAdmitted_outsideWindow() {
+        when(eventRepository.findSaleStartAtById(9)).thenReturn(Optional.empty());
+        assertThat(service.isAdmitted(9, EMAIL, null)).isTrue();
+        assertThat(service.consumePass(9, EMAIL, null)).isTrue();
+
+        clock.advanceMillis(61 * 60_000L);
+        assertThat(service.isAdmitted(EVENT_ID, EMAIL, null)).isTrue();
+    }
+
+    @Test
+    @DisplayName("setRate: เพิ่มอัตรา → ปล่อยคิวเร็วขึ้นทันที")
+    void setRate_changesAdmissionSpeed() {
+        QueueDto.Status last = null;
+        for (int i = 0; i < 1_000; i++) last = service.join(EVENT_ID, EMAIL);
+
+        service.setRate(EVENT_ID, 1_000);
+        clock.advanceMillis(1_000);
+
+        assertThat(service.status(last.queueToken()).admitted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("หลาย node: join คนละ node ได้ลำดับต่อกัน และ poll ที่ node ไหนก็ได้ผลเดียวกัน")
+    void multiNode_sharedPositionsAndFrontier() {
+        AdmissionQueueService other = newNode();
+        for (int i = 0; i < 150; i++) service.join(EVENT_ID, EMAIL);
+        QueueDto.Status mine = other.join(EVENT_ID, EMAIL);
+        assertThat(mine.position()).isEqualTo(151);
+
+        clock.advanceMillis(1_000);
+        assertThat(service.status(mine.queueToken()).admitted()).isFalse();
+        assertThat(other.status(mine.queueToken()).admitted()).isFalse();
+
+        clock.advanceMillis(1_000);
+        assertThat(service.status(mine.queueToken()).admitted()).isTrue();
+        assertThat(other.status(mine.queueToken()).admitted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("ไม่มีใครต่อคิวนาน → คนมาใหม่ผ่านทันทีได้ไม่เกิน rate คน (burst ≤ 1 วินาที)")
+    void idleQueue_burstCappedAtRate() {
+        service.join(EVENT_ID, EMAIL);
+        clock.advanceMillis(60_000);
+
+        QueueDto.Status last = null;
+        int admitted = 0;
+        for (int i = 0; i < RATE * 3; i++) {
+            last = service.join(EVENT_ID, EMAIL);
+            if (last.admitted()) admitted++;
+        }
+
+        assertThat(admitted).isEqualTo(RATE);
+        assertThat(last.ahead()).isEqualTo(2L * RATE - 1);
+    }
+
+    @Test
+    @DisplayName("token ปลอม/หมดอายุ → IllegalArgumentException")
+    void status_invalidToken() {
+        assertThatThrownBy(() -> service.status("not-a-token"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
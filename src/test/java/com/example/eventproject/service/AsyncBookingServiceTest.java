@@ -0,0 +1,202 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.dto.RegistrationDto;
+import com.example.eventproject.model.Event;
+import com.example.eventproject.model.EventSession;
+import com.example.eventproject.model.EventZone;
+import com.example.eventproject.model.Registration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncBookingServiceTest {
+
+    @Mock
+    RegistrationService registrationService;
+
+    AsyncBookingService service;
+
+    static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2025-06-01T10:00:00Z");
+
+        void advanceMinutes(long minutes) { now = now.plusSeconds(minutes * 60); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) service.stop();
+    }
+
+    private AsyncBookingService newService(boolean enabled, int writers, int capacity) {
+        return newService(Clock.systemDefaultZone(), enabled, writers, capacity);
+    }
+
+    private AsyncBookingService newService(Clock clock, boolean enabled, int writers, int capacity) {
+        return new AsyncBookingService(registrationService, clock,
+                enabled, writers, capacity, 50, 15, 5);
+    }
+
+    private static RegistrationDto.CheckoutRequest request(String email) {
+        return new RegistrationDto.CheckoutRequest(email, 1, 2, List.of(new RegistrationDto.CartLine(10, 1)));
+    }
+
+    private static Registration ticket() {
+        Event e = new Event();
+        e.setId(1);
+        EventSession s = new EventSession();
+        s.setId(2);
+        EventZone z = new EventZone();
+        z.setId(10);
+        z.setName("A");
+        Registration r = new Registration();
+        r.setEvent(e);
+        r.setSession(s);
+        r.setZone(z);
+        r.setPrice(new BigDecimal("100.00"));
+        r.setTotalPrice(new BigDecimal("100.00"));
+        r.setPaymentReference("PAY-1");
+        r.setPaymentStatus(Registration.PayStatus.UNPAID);
+        r.setTicketCode("T-1");
+        return r;
+    }
+
+    @Test
+    @DisplayName("submit: input ไม่ถูกต้อง → IllegalArgumentException ทันที ไม่เข้าคิว")
+    void submit_validatesSynchronously() {
+        service = newService(false, 1, 10);
+
+        assertThatThrownBy(() -> service.submit(new RegistrationDto.CheckoutRequest(
+                "a@test.com", 1, 2, List.of(new RegistrationDto.CartLine(10, 0)))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.submit(new RegistrationDto.CheckoutRequest(
+                " ", 1, 2, List.of(new RegistrationDto.CartLine(10, 1)))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("submit: คิวเต็ม → empty (controller ตอบ 503)")
+    void submit_boundedQueue() {
+        service = newService(false, 1, 2); // ไม่ start writer → คิวไม่ถูกดึง
+
+        assertThat(service.submit(request("a@test.com"))).isPresent();
+        assertThat(service.submit(request("b@test.com"))).isPresent();
+        assertThat(service.submit(request("c@test.com"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("process: ผลของแต่ละ order ใน batch → CONFIRMED / REJECTED")
+    void process_mapsOutcomes() {
+        service = newService(false, 1, 10);
+        var ok = service.submit(request("a@test.com")).orElseThrow();
+        var full = service.submit(request("b@test.com")).orElseThrow();
+        when(registrationService.checkoutBatch(anyList())).thenReturn(List.of(
+                new RegistrationService.CheckoutOutcome(List.of(ticket()), 201, null),
+                new RegistrationService.CheckoutOutcome(null, 409, "Not enough seats left for this order")));
+
+        service.process(List.of(
+                new AsyncBookingService.PendingOrder(ok.orderId(), request("a@test.com")),
+                new AsyncBookingService.PendingOrder(full.orderId(), request("b@test.com"))));
+
+        var okStatus = service.status(ok.orderId()).orElseThrow();
+        assertThat(okStatus.status()).isEqualTo(AsyncBookingService.CONFIRMED);
+        assertThat(okStatus.result().paymentReference()).isEqualTo("PAY-1");
+        var fullStatus = service.status(full.orderId()).orElseThrow();
+        assertThat(fullStatus.status()).isEqualTo(AsyncBookingService.REJECTED);
+        assertThat(fullStatus.error()).contains("Not enough seats");
+    }
+
+    @Test
+    @DisplayName("process: group commit ล้ม → ทำทีละ order แทน")
+    void process_fallsBackToSingleOrders() {
+        service = newService(false, 1, 10);
+        var a = service.submit(request("a@test.com")).orElseThrow();
+        var b = service.submit(request("b@test.com")).orElseThrow();
+        when(registrationService.checkoutBatch(anyList())).thenThrow(new RuntimeException("deadlock"));
+        when(registrationService.checkout(eq("a@test.com"), any(), any(), anyList())).thenReturn(List.of(ticket()));
+        when(registrationService.checkout(eq("b@test.com"), any(), any(), anyList()))
+                .thenThrow(new IllegalStateException("Zone A is fully booked"));
+
+        service.process(List.of(
+                new AsyncBookingService.PendingOrder(a.orderId(), request("a@test.com")),
+                new AsyncBookingService.PendingOrder(b.orderId(), request("b@test.com"))));
+
+        assertThat(service.status(a.orderId()).orElseThrow().status()).isEqualTo(AsyncBookingService.CONFIRMED);
+        assertThat(service.status(b.orderId()).orElseThrow().error()).contains("fully booked");
+    }
+
+    @Test
+    @DisplayName("enabled: writer thread ดึงคิวเป็นก้อนแล้วเรียก checkoutBatch จนได้ผล")
+    void writer_drainsQueueInBatches() throws Exception {
+        service = newService(true, 1, 1000);
+        when(registrationService.checkoutBatch(anyList())).thenAnswer(inv -> {
+            List<?> batch = inv.getArgument(0);
+            return batch.stream()
+                    .map(r -> new RegistrationService.CheckoutOutcome(List.of(ticket()), 201, null))
+                    .toList();
+        });
+        service.start();
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(service.submit(request("u" + i + "@test.com")).orElseThrow().orderId());
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline
+                && ids.stream().anyMatch(id -> service.status(id).orElseThrow().status().equals(AsyncBookingService.PENDING))) {
+            Thread.sleep(10);
+        }
+        assertThat(ids).allSatisfy(id ->
+                assertThat(service.status(id).orElseThrow().status()).isEqualTo(AsyncBookingService.CONFIRMED));
+        // 200 order ด้วย batch ≤ 50 → ไม่เกิน 200 ครั้ง และปกติแค่ไม่กี่ครั้ง
+        verify(registrationService, atLeast(4)).checkoutBatch(anyList());
+        verify(registrationService, never()).checkout(any(), any(), any(), anyList());
+    }
+
+    @Test
+    @DisplayName("purge: PENDING เกิน pending-timeout → REJECTED และ writer ไม่จอง order นั้นทีหลัง")
+    void purge_expiresStalePending() {
+        MutableClock clock = new MutableClock();
+        service = newService(clock, false, 1, 10);
+        var stale = service.submit(request("a@test.com")).orElseThrow();
+        clock.advanceMinutes(4);
+        var fresh = service.submit(request("b@test.com")).orElseThrow();
+
+        clock.advanceMinutes(2);
+        service.purgeResults();
+
+        var timedOut = service.status(stale.orderId()).orElseThrow();
+        assertThat(timedOut.status()).isEqualTo(AsyncBookingService.REJECTED);
+        assertThat(timedOut.error()).contains("timed out");
+        assertThat(service.status(fresh.orderId()).orElseThrow().status()).isEqualTo(AsyncBookingService.PENDING);
+
+        service.process(List.of(new AsyncBookingService.PendingOrder(stale.orderId(), request("a@test.com"))));
+        verifyNoInteractions(registrationService);
+        assertThat(service.status(stale.orderId()).orElseThrow().status()).isEqualTo(AsyncBookingService.REJECTED);
+
+        // ผล REJECTED ที่หมดเวลาถูกล้างตาม result-ttl เหมือนผลอื่น
+        clock.advanceMinutes(16);
+        service.purgeResults();
+        assertThat(service.status(stale.orderId())).isEmpty();
+    }
+}
@@ -14,7 +14,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Optional;
@@ -29,7 +28,8 @@ class AuthServiceTest {
 
     @Mock UserRepository users;
     @Mock RoleRepository roles;
-    @Mock PasswordEncoder encoder;
+    @Mock PasswordHashingService encoder;
+    @Mock PasswordUpgradeService upgrades;
     @Mock JwtUtil jwt;
 
     @InjectMocks AuthService service;
@@ -55,7 +55,7 @@ class AuthServiceTest {
 
         when(encoder.encode("p@ss")).thenReturn("bcrypt:p@ss");
         when(users.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(jwt.create(emailNorm, "USER")).thenReturn("jwt-token");
+        when(jwt.create(withEmail(emailNorm), eq("USER"))).thenReturn("jwt-token");
 
         // act
         AuthResponse res = service.register(new RegisterRequest(
@@ -80,7 +80,7 @@ class AuthServiceTest {
                         "Alice".equals(u.getName()) &&
                         u.getRole() == userRole
         ));
-        verify(jwt).create(emailNorm, "USER");
+        verify(jwt).create(withEmail(emailNorm), eq("USER"));
     }
 
     @Test
@@ -102,7 +102,7 @@ class AuthServiceTest {
 
         when(encoder.encode("newpass")).thenReturn("bcrypt:new");
         when(users.save(guest)).thenReturn(guest);
-        when(jwt.create(email, "USER")).thenReturn("jwt-token");
+        when(jwt.create(withEmail(email), eq("USER"))).thenReturn("jwt-token");
 
         AuthResponse res = service.register(new RegisterRequest(
                 email,
@@ -124,7 +124,7 @@ class AuthServiceTest {
         verify(users).findByEmail(email);
         verify(encoder).encode("newpass");
         verify(users).save(guest);
-        verify(jwt).create(email, "USER");
+        verify(jwt).create(withEmail(email), eq("USER"));
     }
 
     @Test
@@ -150,7 +150,7 @@ class AuthServiceTest {
         assertTrue(ex.getMessage().toLowerCase().contains("email"));
         verify(users).findByEmail(email);
         verify(users, never()).save(any());
-        verify(jwt, never()).create(anyString(), anyString());
+        verify(jwt, never()).create(any(User.class), anyString());
     }
 
     @Test
@@ -163,7 +163,7 @@ class AuthServiceTest {
 
         when(encoder.encode("pw")).thenReturn("bcrypt:pw");
         when(users.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(jwt.create(email, "USER")).thenReturn("jwt-token");
+        when(jwt.create(withEmail(email), eq("USER"))).thenReturn("jwt-token");
 
         AuthResponse res = service.register(new RegisterRequest(
                 email,
@@ -182,7 +182,7 @@ class AuthServiceTest {
                         "NoRole".equals(u.getName()) &&
                         u.getRole() == null
         ));
-        verify(jwt).create(email, "USER");
+        verify(jwt).create(withEmail(email), eq("USER"));
     }
 
     @Test
@@ -190,7 +190,7 @@ class AuthServiceTest {
     void register_emptyEmail() {
         assertThrows(IllegalArgumentException.class,
                 () -> service.register(new RegisterRequest("  ", "pw", "Name")));
-        verifyNoInteractions(users, roles, encoder, jwt);
+        verifyNoInteractions(users, roles, encoder, upgrades, jwt);
     }
 
     @Test
@@ -198,7 +198,7 @@ class AuthServiceTest {
     void register_emptyPassword() {
         assertThrows(IllegalArgumentException.class,
                 () -> service.register(new RegisterRequest("a@b.com", "  ", "Name")));
-        verifyNoInteractions(users, roles, encoder, jwt);
+        verifyNoInteractions(users, roles, encoder, upgrades, jwt);
     }
 
     /* =========================
@@ -217,7 +217,7 @@ class AuthServiceTest {
 
         assertEquals(UNAUTHORIZED, ex.getStatusCode());
         assertTrue(ex.getReason().contains("INVALID_CREDENTIALS"));
-        verify(jwt, never()).create(anyString(), anyString());
+        verify(jwt, never()).create(any(User.class), anyString());
     }
 
     @Test
@@ -237,7 +237,8 @@ class AuthServiceTest {
 
         assertEquals(UNAUTHORIZED, ex.getStatusCode());
         verify(users, never()).save(any());
-        verify(jwt, never()).create(anyString(), anyString());
+        verify(upgrades, never()).rehashLater(anyString(), anyString(), anyString());
+        verify(jwt, never()).create(any(User.class), anyString());
     }
 
     @Test
@@ -253,7 +254,7 @@ class AuthServiceTest {
 
         when(users.findByEmail("admin@example.com")).thenReturn(Optional.of(u));
         when(encoder.matches("1234", "$2y$10$hash")).thenReturn(true);
-        when(jwt.create("admin@example.com", "ADMIN")).thenReturn("jwt-admin");
+        when(jwt.create(withEmail("admin@example.com"), eq("ADMIN"))).thenReturn("jwt-admin");
 
         AuthResponse res = service.login(new LoginRequest(" ADMIN@example.com ", "1234"));
 
@@ -261,13 +262,14 @@ class AuthServiceTest {
         assertEquals("jwt-admin", res.token());
         assertEquals("ADMIN", res.role());
 
-        // ไม่ต้อง save เพราะเป็น bcrypt อยู่แล้ว
+        // ไม่ต้อง save เพราะเป็น bcrypt อยู่แล้ว (needsUpgrade = false)
         verify(users, never()).save(any());
-        verify(jwt).create("admin@example.com", "ADMIN");
+        verify(upgrades, never()).rehashLater(anyString(), anyString(), anyString());
+        verify(jwt).create(withEmail("admin@example.com"), eq("ADMIN"));
     }
 
     @Test
-    @DisplayName("login: password เก็บเป็น plain text และตรง → upgrade เป็น bcrypt + role fallback USER")
+    @DisplayName("login: password เก็บเป็น plain text และตรง → ส่ง rehash เบื้องหลัง + role fallback USER")
     void login_plain_ok_thenUpgrade() {
         User u = new User();
         u.setEmail("plain@example.com");
@@ -275,9 +277,7 @@ class AuthServiceTest {
         u.setRole(null); // ไม่มี role -> fallback USER
 
         when(users.findByEmail("plain@example.com")).thenReturn(Optional.of(u));
-        // plain path จะไม่เรียก encoder.matches แต่จะไปเข้าก้อน else
-        when(encoder.encode("plain123")).thenReturn("$2a$10$newhash");
-        when(jwt.create("plain@example.com", "USER")).thenReturn("jwt-user");
+        when(jwt.create(withEmail("plain@example.com"), eq("USER"))).thenReturn("jwt-user");
 
         AuthResponse res = service.login(new LoginRequest("Plain@Example.com", "plain123"));
 
@@ -285,16 +285,33 @@ class AuthServiceTest {
         assertEquals("jwt-user", res.token());
         assertEquals("USER", res.role());
 
-        // ต้องมีการอัปเดตรหัสใน DB
-        verify(users).save(argThat(saved ->
-                "$2a$10$newhash".equals(saved.getPassword()) &&
-                        "plain@example.com".equals(saved.getEmail())
-        ));
+        // hash ใหม่ไม่ทำใน request → ไม่ encode / save ตรงนี้
+        verify(upgrades).rehashLater("plain@example.com", "plain123", "plain123");
+        verify(encoder, never()).encode(anyString());
+        verify(users, never()).save(any());
 
         // ใน path นี้ไม่ควรเรียก matches
         verify(encoder, never()).matches(anyString(), anyString());
     }
 
+    @Test
+    @DisplayName("login: bcrypt ตรงแต่ cost / algorithm ไม่ตรงเป้า → ส่ง rehash เบื้องหลัง")
+    void login_bcrypt_ok_outdatedHash_rehashLater() {
+        User u = new User();
+        u.setEmail("old@example.com");
+        u.setPassword("$2a$04$oldhash");
+
+        when(users.findByEmail("old@example.com")).thenReturn(Optional.of(u));
+        when(encoder.matches("pw", "$2a$04$oldhash")).thenReturn(true);
+        when(upgrades.needsUpgrade("$2a$04$oldhash")).thenReturn(true);
+        when(jwt.create(withEmail("old@example.com"), eq("USER"))).thenReturn("jwt-user");
+
+        service.login(new LoginRequest("old@example.com", "pw"));
+
+        verify(upgrades).rehashLater("old@example.com", "pw", "$2a$04$oldhash");
+        verify(users, never()).save(any());
+    }
+
     @Test
     @DisplayName("login: password plain แต่ไม่ตรง → 401")
     void login_plain_wrongPassword() {
@@ -311,6 +328,28 @@ class AuthServiceTest {
 
         assertEquals(UNAUTHORIZED, ex.getStatusCode());
         verify(users, never()).save(any());
-        verify(jwt, never()).create(anyString(), anyString());
+        verify(jwt, never()).create(any(User.class), anyString());
+    }
+
+    @Test
+    @DisplayName("login: plaintext เดิมที่ขึ้นต้นด้วย { → เทียบแบบ plaintext (ไม่ส่งให้ encoder)")
+    void login_plainStartingWithBrace_ok() {
+        User u = new User();
+        u.setEmail("brace@example.com");
+        u.setPassword("{secret}");
+
+        when(users.findByEmail("brace@example.com")).thenReturn(Optional.of(u));
+        when(jwt.create(withEmail("brace@example.com"), eq("USER"))).thenReturn("jwt-user");
+
+        AuthResponse res = service.login(new LoginRequest("brace@example.com", "{secret}"));
+
+        assertEquals("jwt-user", res.token());
+        verify(encoder, never()).matches(anyString(), anyString());
+        verify(upgrades).rehashLater("brace@example.com", "{secret}", "{secret}");
+    }
+
+    /** matcher: User ที่มี email ตรง */
+    private static User withEmail(String email) {
+        return argThat(u -> u != null && email.equals(u.getEmail()));
     }
 }
@@ -1,11 +1,12 @@
 // src/test/java/com/example/eventproject/service/DashboardServiceTest.java
 package com.example.eventproject.service;
 
+import com.example.eventproject.dto.DashboardCounts;
 import com.example.eventproject.dto.DashboardDto;
+import com.example.eventproject.dto.EventSalesPage;
+import com.example.eventproject.dto.EventSalesRow;
 import com.example.eventproject.dto.EventSalesSummary;
-import com.example.eventproject.model.Event;
 import com.example.eventproject.repository.DashboardRepository;
-import com.example.eventproject.repository.EventRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,9 +26,6 @@ class DashboardServiceTest {
     @Mock
     DashboardRepository repo;
 
-    @Mock
-    EventRepository eventRepo;
-
     @InjectMocks
     DashboardService service;
 
@@ -38,10 +36,7 @@ class DashboardServiceTest {
     @Test
     @DisplayName("getDashboard(null): คำนวณสรุปทุก Event ถูกต้อง")
     void getDashboard_allEvents() {
-        when(repo.countActiveEvents()).thenReturn(3L);
-        when(repo.countTicketsSoldAll()).thenReturn(80L);
-        when(repo.countRegistrationsAll()).thenReturn(100L);
-        when(repo.countCheckinAll()).thenReturn(60L);
+        when(repo.summarizeAll()).thenReturn(new DashboardCounts(3L, 100L, 80L, 60L));
 
         DashboardDto dto = service.getDashboard(null);
 
@@ -55,12 +50,8 @@ class DashboardServiceTest {
         assertEquals(75L, dto.showRate());
         assertEquals(60L, dto.checkIn());
 
-        verify(repo).countActiveEvents();
-        verify(repo).countTicketsSoldAll();
-        verify(repo).countRegistrationsAll();
-        verify(repo).countCheckinAll();
+        verify(repo).summarizeAll();
         verifyNoMoreInteractions(repo);
-        verifyNoInteractions(eventRepo);
     }
 
     // ========================================================================
@@ -72,10 +63,7 @@ class DashboardServiceTest {
     void getDashboard_specificEvent() {
         Integer eventId = 10;
 
-        when(repo.countSignupsByEvent(eventId)).thenReturn(50L);
-        when(repo.countDropoffsByEvent(eventId)).thenReturn(10L);
-        when(repo.countTicketsSoldByEvent(eventId)).thenReturn(40L);
-        when(repo.countCheckinByEvent(eventId)).thenReturn(30L);
+        when(repo.summarizeByEvent(eventId)).thenReturn(new DashboardCounts(0L, 50L, 40L, 30L));
 
         DashboardDto dto = service.getDashboard(eventId);
 
@@ -89,12 +77,8 @@ class DashboardServiceTest {
         assertEquals(75L, dto.showRate());
         assertEquals(30L, dto.checkIn());
 
-        verify(repo).countSignupsByEvent(eventId);
-        verify(repo).countDropoffsByEvent(eventId);
-        verify(repo).countTicketsSoldByEvent(eventId);
-        verify(repo).countCheckinByEvent(eventId);
+        verify(repo).summarizeByEvent(eventId);
         verifyNoMoreInteractions(repo);
-        verifyNoInteractions(eventRepo);
     }
 
     // ========================================================================
@@ -102,28 +86,12 @@ class DashboardServiceTest {
     // ========================================================================
 
     @Test
-    @DisplayName("getEventTable(): map Event → EventSalesSummary ถูกต้อง")
+    @DisplayName("getEventTable(): query เดียว → EventSalesSummary ถูกต้อง")
     void getEventTable_ok() {
 
-        Event e1 = new Event();
-        e1.setId(1);
-        e1.setTitle("DevConf");
-        e1.setCategory("Tech");
-
-        Event e2 = new Event();
-        e2.setId(2);
-        e2.setTitle("Music Fest");
-        e2.setCategory("Festival");
-
-        // ให้ repo คืน list ของ event 2 ตัวนี้
-        when(eventRepo.findAll()).thenReturn(List.of(e1, e2));
-
-        // 👉 ผูก stub ตาม eventId จริง ๆ (หลีกเลี่ยง null + NPE จาก unboxing)
-        when(repo.sumCapacityByEvent(1)).thenReturn(1000L);
-        when(repo.sumCapacityByEvent(2)).thenReturn(500L);
-
-        when(repo.countSoldByEvent(1)).thenReturn(700L);
-        when(repo.countSoldByEvent(2)).thenReturn(250L);
+        when(repo.findEventSales("id", Integer.MAX_VALUE, 0))
+                .thenReturn(List.of(row(1, "DevConf", "Tech", 1000L, 700L),
+                        row(2, "Music Fest", "Festival", 500L, 250L)));
 
         List<EventSalesSummary> result = service.getEventTable();
 
@@ -144,11 +112,42 @@ class DashboardServiceTest {
         assertEquals(500L, s2.capacity());
         assertEquals(250L, s2.sold());
 
-        verify(eventRepo).findAll();
-        verify(repo).sumCapacityByEvent(1);
-        verify(repo).sumCapacityByEvent(2);
-        verify(repo).countSoldByEvent(1);
-        verify(repo).countSoldByEvent(2);
-        verifyNoMoreInteractions(repo, eventRepo);
+        verify(repo).findEventSales("id", Integer.MAX_VALUE, 0);
+        verifyNoMoreInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("getEventTablePage(): ขอเกิน 1 แถวเพื่อรู้ hasNext + offset ตามหน้า")
+    void getEventTablePage_hasNext() {
+        when(repo.findEventSales("sellThrough", 3, 4L))
+                .thenReturn(List.of(row(7, "A", "x", 10L, 9L), row(3, "B", "x", 10L, 5L), row(4, "C", "x", 10L, 1L)));
+
+        EventSalesPage page = service.getEventTablePage(2, 2, "sellThrough");
+
+        assertEquals(2, page.items().size());
+        assertEquals(7, page.items().get(0).eventId());
+        assertEquals(3, page.items().get(1).eventId());
+        assertTrue(page.hasNext());
+        assertEquals(2, page.page());
+    }
+
+    @Test
+    @DisplayName("getEventTablePage(): limit / page / sort ไม่ถูกต้อง → IllegalArgumentException")
+    void getEventTablePage_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> service.getEventTablePage(0, 0, "id"));
+        assertThrows(IllegalArgumentException.class, () -> service.getEventTablePage(0, 101, "id"));
+        assertThrows(IllegalArgumentException.class, () -> service.getEventTablePage(-1, 10, "id"));
+        assertThrows(IllegalArgumentException.class, () -> service.getEventTablePage(0, 10, "title"));
+        verifyNoInteractions(repo);
+    }
+
+    private static EventSalesRow row(int id, String title, String category, long capacity, long sold) {
+        return new EventSalesRow() {
+            @Override public Integer getEventId() { return id; }
+            @Override public String getTitle() { return title; }
+            @Override public String getCategory() { return category; }
+            @Override public Long getCapacity() { return capacity; }
+            @Override public Long getSold() { return sold; }
+        };
     }
 }
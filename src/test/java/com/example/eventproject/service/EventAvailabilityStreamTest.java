@@ -0,0 +1,183 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.controller.EventController;
+import com.example.eventproject.dto.ZoneAvailabilityDto;
+import com.example.eventproject.repository.EventZoneRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ต่อ SSE ผ่าน MockMvc จริง (async) แล้วดูว่า frame ถูกส่งออกไปตามที่คาด
+ */
+@ExtendWith(MockitoExtension.class)
+class EventAvailabilityStreamTest {
+
+    static final int EVENT_ID = 7;
+    static final long RESYNC_MS = 5_000;
+    static final long HEARTBEAT_MS = 15_000;
+
+    @Mock
+    EventZoneRepository zoneRepository;
+    @Mock
+    EventService eventService;
+
+    MutableClock clock;
+    EventAvailabilityStream stream;
+    MockMvc mvc;
+
+    static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2025-06-01T10:00:00Z");
+
+        void advanceMillis(long ms) { now = now.plusMillis(ms); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        // ส่งบน thread ที่เรียก → ตรวจ response ได้ทันทีหลัง flush
+        stream = new EventAvailabilityStream(zoneRepository, new ObjectMapper(), clock,
+                new SseBroadcaster(Runnable::run, 16), RESYNC_MS, HEARTBEAT_MS, 60_000);
+        mvc = MockMvcBuilders.standaloneSetup(new EventController(eventService, null, stream, null)).build();
+    }
+
+    private static ZoneAvailabilityDto zone(int id, int capacity, long booked) {
+        return new ZoneAvailabilityDto(id, "Z" + id, capacity, booked, capacity - booked, new BigDecimal("100.00"));
+    }
+
+    private MockHttpServletResponse open() throws Exception {
+        return mvc.perform(get("/api/events/{id}/availability/stream", EVENT_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    @Test
+    @DisplayName("subscribe: ส่ง snapshot ทุกโซนของ event ทันที (DB ครั้งเดียวแม้หลายผู้ฟัง)")
+    void subscribe_sendsSnapshot() throws Exception {
+        when(zoneRepository.findAvailabilityByEvent(EVENT_ID)).thenReturn(List.of(zone(1, 10, 2), zone(2, 5, 5)));
+
+        MockHttpServletResponse first = open();
+        MockHttpServletResponse second = open();
+
+        assertThat(first.getContentAsString())
+                .contains("event:snapshot")
+                .contains("\"remaining\":{\"1\":8,\"2\":0}");
+        assertThat(second.getContentAsString()).contains("event:snapshot");
+        assertThat(stream.subscriberCount(EVENT_ID)).isEqualTo(2);
+        verify(zoneRepository, times(1)).findAvailabilityByEvent(EVENT_ID);
+    }
+
+    @Test
+    @DisplayName("flush: หลายการจองในรอบเดียว → delta frame เดียว เฉพาะโซนที่เปลี่ยน")
+    void flush_coalescesChanges() throws Exception {
+        when(zoneRepository.findAvailabilityByEvent(EVENT_ID)).thenReturn(List.of(zone(1, 10, 2), zone(2, 5, 0)));
+        MockHttpServletResponse response = open();
+
+        stream.onInventoryChanged(new ZoneInventoryChangedEvent(Map.of(1, 1)));
+        stream.onInventoryChanged(new ZoneInventoryChangedEvent(Map.of(1, 2)));
+        stream.flush();
+        stream.flush(); // ไม่มีอะไรเปลี่ยน → ไม่ส่งซ้ำ
+
+        String body = response.getContentAsString();
+        assertThat(body.split("event:delta", -1)).hasSize(2);
+        assertThat(body).contains("\"remaining\":{\"1\":5}");
+    }
+
+    @Test
+    @DisplayName("flush: ครบ resync-ms → โหลดจาก DB ใหม่ และส่งโซนที่ node อื่นเปลี่ยน")
+    void flush_resyncsFromDatabase() throws Exception {
+        when(zoneRepository.findAvailabilityByEvent(EVENT_ID))
+                .thenReturn(List.of(zone(1, 10, 2), zone(2, 5, 0)))
+                .thenReturn(List.of(zone(1, 10, 2), zone(2, 5, 5)));
+        MockHttpServletResponse response = open();
+
+        stream.flush();
+        clock.advanceMillis(RESYNC_MS);
+        stream.flush();
+
+        assertThat(response.getContentAsString()).contains("event:delta").contains("\"remaining\":{\"2\":0}");
+        verify(zoneRepository, times(2)).findAvailabilityByEvent(EVENT_ID);
+    }
+
+    @Test
+    @DisplayName("flush: ไม่มีอะไรเปลี่ยนนาน heartbeat-ms → ส่ง comment")
+    void flush_sendsHeartbeatWhenIdle() throws Exception {
+        when(zoneRepository.findAvailabilityByEvent(EVENT_ID)).thenReturn(List.of(zone(1, 10, 2)));
+        MockHttpServletResponse response = open();
+        stream.flush();
+        int afterFirst = response.getContentAsString().length();
+
+        stream.flush(); // ยังไม่ครบ heartbeat-ms
+        assertThat(response.getContentAsString()).hasSize(afterFirst);
+
+        clock.advanceMillis(HEARTBEAT_MS);
+        stream.flush();
+        assertThat(response.getContentAsString().substring(afterFirst)).startsWith(":");
+    }
+
+    @Test
+    @DisplayName("subscribe: event ที่ไม่มี (ไม่มีโซน) → 404 และไม่ค้าง channel")
+    void subscribe_unknownEvent_404() throws Exception {
+        when(zoneRepository.findAvailabilityByEvent(999)).thenReturn(List.of());
+
+        mvc.perform(get("/api/events/{id}/availability/stream", 999))
+                .andExpect(status().isNotFound());
+
+        assertThat(stream.channelCount()).isZero();
+        assertThat(stream.subscriberCount(999)).isZero();
+    }
+
+    @Test
+    @DisplayName("flush: ผู้ฟังออกหมดแล้ว → ลบ channel / เปิดใหม่ได้ snapshot จาก DB")
+    void flush_dropsChannelWithoutSubscribers() throws Exception {
+        when(zoneRepository.findAvailabilityByEvent(EVENT_ID)).thenReturn(List.of(zone(1, 10, 2)));
+        SseEmitter emitter = stream.subscribe(EVENT_ID);
+        assertThat(stream.channelCount()).isEqualTo(1);
+
+        emitter.complete();
+        clock.advanceMillis(HEARTBEAT_MS);
+        stream.flush(); // heartbeat ส่งไม่ได้ → ตัดผู้ฟังที่หลุด
+        assertThat(stream.subscriberCount(EVENT_ID)).isZero();
+        stream.flush();
+        assertThat(stream.channelCount()).isZero();
+
+        clearInvocations(zoneRepository);
+        assertThat(open().getContentAsString()).contains("event:snapshot");
+        verify(zoneRepository, times(1)).findAvailabilityByEvent(EVENT_ID);
+    }
+
+    @Test
+    @DisplayName("onInventoryChanged: event ที่ไม่มีใครเปิด stream → ไม่แตะ DB")
+    void inventoryChange_withoutSubscribers_ignored() {
+        stream.onInventoryChanged(new ZoneInventoryChangedEvent(Map.of(1, 1)));
+        stream.flush();
+
+        verifyNoInteractions(zoneRepository);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.dto.EventDetailDto;
+import com.example.eventproject.dto.EventDetailViewDto;
+import com.example.eventproject.dto.PriceDto;
+import com.example.eventproject.dto.SessionDto;
+import com.example.eventproject.model.EventSaleStatus;
+import com.example.eventproject.model.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventDetailCacheTest {
+
+    static final LocalDateTime SALE_START = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    @Mock
+    EventService eventService;
+
+    MutableClock clock;
+    SimpleMeterRegistry meterRegistry;
+    EventDetailCache cache;
+
+    static final class MutableClock extends Clock {
+        private volatile Instant now = SALE_START.minusMinutes(1).toInstant(ZoneOffset.UTC);
+
+        void advanceMillis(long ms) { now = now.plusMillis(ms); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new EventDetailCache(eventService, clock, meterRegistry, 1_000, 300_000);
+    }
+
+    private static EventDetailDto detail(int id) {
+        return new EventDetailDto(id, "E" + id, null, null, null, null, Status.OPEN,
+                null, null, false, null, null, null, null, null, List.of());
+    }
+
+    private static EventDetailViewDto view(int id) {
+        return new EventDetailViewDto(id, "E" + id, null, null, null, LocalDate.of(2025, 12, 31), Status.OPEN,
+                SALE_START, null, true, null, null, null, null, null,
+                List.<SessionDto>of(), EventSaleStatus.UPCOMING, List.<PriceDto>of());
+    }
+
+    @Test
+    @DisplayName("get: miss ครั้งแรกโหลดจาก EventService แล้ว hit ครั้งต่อไป (metrics นับ hit/miss)")
+    void get_readThrough() {
+        when(eventService.get(1)).thenReturn(detail(1));
+
+        EventDetailDto first = cache.get(1);
+        EventDetailDto second = cache.get(1);
+
+        assertThat(second).isSameAs(first);
+        verify(eventService, times(1)).get(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "eventDetail").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "eventDetail").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("getView: saleStatus คำนวณใหม่ทุก request แม้เอกสารมาจาก cache")
+    void getView_recomputesSaleStatus() {
+        when(eventService.getView(1)).thenReturn(view(1));
+
+        assertThat(cache.getView(1).saleStatus()).isEqualTo(EventSaleStatus.UPCOMING);
+        clock.advanceMillis(120_000); // เลยเวลาเปิดขายแล้ว
+        assertThat(cache.getView(1).saleStatus()).isEqualTo(EventSaleStatus.OPEN);
+
+        verify(eventService, times(1)).getView(1);
+    }
+
+    @Test
+    @DisplayName("onCatalogChanged: ล้างเฉพาะ event ที่ถูกแก้ (ทั้ง detail และ view)")
+    void catalogChange_invalidatesOnlyThatEvent() {
+        when(eventService.get(anyInt())).thenAnswer(inv -> detail(inv.getArgument(0)));
+        when(eventService.getView(1)).thenReturn(view(1));
+        cache.get(1);
+        cache.get(2);
+        cache.getView(1);
+
+        cache.onCatalogChanged(new EventCatalogChangedEvent(1));
+        cache.get(1);
+        cache.get(2);
+        cache.getView(1);
+
+        verify(eventService, times(2)).get(1);
+        verify(eventService, times(1)).get(2);
+        verify(eventService, times(2)).getView(1);
+    }
+
+    @Test
+    @DisplayName("get: event ไม่มี → exception เดิมจาก service และไม่ cache")
+    void get_notFound_propagates() {
+        when(eventService.get(9)).thenThrow(new IllegalArgumentException("Event not found: 9"));
+
+        assertThatThrownBy(() -> cache.get(9)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cache.get(9)).isInstanceOf(IllegalArgumentException.class);
+        verify(eventService, times(2)).get(9);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.dto.EventPriceSummary;
+import com.example.eventproject.repository.EventZoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventPriceSummaryCacheTest {
+
+    static final long TTL_MS = 60_000;
+    static final Instant NOW = Instant.parse("2025-06-01T10:00:00Z");
+
+    @Mock
+    EventZoneRepository zoneRepository;
+
+    MutableClock clock;
+    EventPriceSummaryCache cache;
+
+    static final class MutableClock extends Clock {
+        private volatile Instant now = NOW;
+
+        void advanceMillis(long ms) { now = now.plusMillis(ms); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        cache = new EventPriceSummaryCache(zoneRepository, clock, TTL_MS);
+    }
+
+    @Test
+    @DisplayName("get: min / max / ราคาไม่ซ้ำ จาก query ของ event เดียว และ query ครั้งเดียวภายใน TTL")
+    void get_summarisesAndCaches() {
+        when(zoneRepository.findDistinctPricesByEvent(1)).thenReturn(List.of(
+                new BigDecimal("500.00"), new BigDecimal("800.00"), new BigDecimal("1500.00")));
+
+        EventPriceSummary first = cache.get(1);
+        EventPriceSummary second = cache.get(1);
+
+        assertThat(first.minPrice()).isEqualByComparingTo("500");
+        assertThat(first.maxPrice()).isEqualByComparingTo("1500");
+        assertThat(first.prices()).hasSize(3);
+        assertThat(second).isSameAs(first);
+        verify(zoneRepository, times(1)).findDistinctPricesByEvent(1);
+        verify(zoneRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("get: event ไม่มีโซน → min / max = null")
+    void get_emptyEvent() {
+        when(zoneRepository.findDistinctPricesByEvent(2)).thenReturn(List.of());
+
+        EventPriceSummary summary = cache.get(2);
+
+        assertThat(summary.minPrice()).isNull();
+        assertThat(summary.maxPrice()).isNull();
+        assertThat(summary.prices()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("onCatalogChanged: ล้างเฉพาะ event ที่ถูกแก้")
+    void catalogChange_evictsOnlyThatEvent() {
+        when(zoneRepository.findDistinctPricesByEvent(anyInt())).thenReturn(List.of(new BigDecimal("100")));
+        cache.get(1);
+        cache.get(2);
+
+        cache.onCatalogChanged(new EventCatalogChangedEvent(1));
+        cache.get(1);
+        cache.get(2);
+
+        verify(zoneRepository, times(2)).findDistinctPricesByEvent(1);
+        verify(zoneRepository, times(1)).findDistinctPricesByEvent(2);
+    }
+
+    @Test
+    @DisplayName("get: เกิน TTL → โหลดใหม่ (รองรับการแก้จาก node อื่น)")
+    void get_reloadsAfterTtl() {
+        when(zoneRepository.findDistinctPricesByEvent(1)).thenReturn(List.of(new BigDecimal("100")));
+        cache.get(1);
+        clock.advanceMillis(TTL_MS - 1);
+        cache.get(1);
+        clock.advanceMillis(1);
+        cache.get(1);
+        cache.get(1);
+
+        verify(zoneRepository, times(2)).findDistinctPricesByEvent(1);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.eventproject.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.eventproject.dto.EventSearchHit;
+import com.example.eventproject.dto.EventSearchSource;
+
+class EventSearchIndexTest {
+
+    private EventSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EventSearchIndex();
+        index.put(source(1, "MARIAH CAREY The Celebration of Mimi", "concert", "Impact Arena",
+                "คอนเสิร์ตฉลองอัลบั้ม The Emancipation of Mimi"));
+        index.put(source(2, "เทศกาลดนตรีริมทะเล", "festival", "พัทยา", "ดนตรีสดตลอดคืน"));
+        index.put(source(3, "Bangkok Jazz Night", "concert", "Bangkok", "jazz jazz jazz"));
+        index.put(source(4, "Workshop ถ่ายภาพ", "workshop", "Bangkok", "เรียนถ่ายภาพกับมืออาชีพ"));
+    }
+
+    @Test
+    void thai_text_without_spaces_matches_by_substring() {
+        assertThat(ids(index.search("คอนเสิร์ต", 10))).containsExactly(1);
+        assertThat(ids(index.search("ดนตรี", 10))).containsExactly(2);
+        assertThat(ids(index.search("ถ่ายภาพ", 10))).containsExactly(4);
+        assertThat(ids(index.search("ภาพยนตร์", 10))).isEmpty();
+    }
+
+    @Test
+    void tokenizer_splits_mixed_script_and_lowercases() {
+        assertThat(EventSearchIndex.tokenize("Workshop ถ่ายภาพ!")).containsExactly("workshop", "ถ่", "่า", "าย", "ยภ", "ภา", "าพ");
+        assertThat(EventSearchIndex.tokenize("ก")).containsExactly("ก");
+    }
+
+    @Test
+    void last_word_is_a_prefix_and_earlier_words_must_all_match() {
+        assertThat(ids(index.search("mari", 10))).containsExactly(1);
+        assertThat(ids(index.search("bangkok ja", 10))).containsExactly(3);
+        assertThat(ids(index.search("bangkok mimi", 10))).isEmpty();
+    }
+
+    @Test
+    void bm25_ranks_title_match_and_higher_term_frequency_first() {
+        index.put(source(5, "Open Air", "concert", "Chiang Mai", "a little jazz on the side"));
+
+        List<EventSearchHit> hits = index.search("jazz", 10);
+
+        assertThat(ids(hits)).containsExactly(3, 5);
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+    }
+
+    @Test
+    void put_replaces_and_remove_drops_a_document() {
+        index.put(source(3, "Bangkok Blues Night", "concert", "Bangkok", null));
+        assertThat(ids(index.search("jazz", 10))).isEmpty();
+        assertThat(ids(index.search("blues", 10))).containsExactly(3);
+
+        index.remove(3);
+        assertThat(ids(index.search("blues", 10))).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void limit_keeps_only_the_best_hits() {
+        assertThat(index.search("concert", 1)).hasSize(1);
+        assertThat(index.search("   ", 10)).isEmpty();
+    }
+
+    private static EventSearchSource source(int id, String title, String category, String location, String description) {
+        return new EventSearchSource(id, title, category, location, description, null);
+    }
+
+    private static List<Integer> ids(List<EventSearchHit> hits) {
+        return hits.stream().map(EventSearchHit::id).toList();
+    }
+}
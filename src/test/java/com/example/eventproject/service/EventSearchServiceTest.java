@@ -0,0 +1,102 @@
+package com.example.eventproject.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.eventproject.dto.EventSearchHit;
+import com.example.eventproject.dto.EventSearchSource;
+import com.example.eventproject.repository.EventRepository;
+
+@ExtendWith(MockitoExtension.class)
+class EventSearchServiceTest {
+
+    @Mock EventRepository eventRepo;
+
+    private EventSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new EventSearchService(eventRepo, 2);
+    }
+
+    @Test
+    void warm_up_builds_the_index_in_keyset_batches() {
+        when(eventRepo.findSearchSourcesAfter(eq(0), any()))
+                .thenReturn(List.of(source(1, "Jazz Night"), source(2, "Rock Night")));
+        when(eventRepo.findSearchSourcesAfter(eq(2), any()))
+                .thenReturn(List.of(source(5, "Jazz Brunch")));
+
+        service.warmUp();
+        assertThat(service.search("jazz", 10)).extracting(EventSearchHit::id).containsExactlyInAnyOrder(1, 5);
+        assertThat(service.suggest("roc", 5)).containsExactly("Rock Night");
+
+        verify(eventRepo).findSearchSourcesAfter(0, PageRequest.of(0, 2));
+        verify(eventRepo).findSearchSourcesAfter(2, PageRequest.of(0, 2));
+        verify(eventRepo, times(2)).findSearchSourcesAfter(any(), any());
+    }
+
+    @Test
+    void catalog_change_updates_only_that_event() {
+        when(eventRepo.findSearchSourcesAfter(eq(0), any())).thenReturn(List.of(source(1, "Jazz Night")));
+        service.warmUp();
+
+        when(eventRepo.findSearchSourceById(1)).thenReturn(Optional.of(source(1, "Blues Night")));
+        service.onCatalogChanged(new EventCatalogChangedEvent(1));
+        assertThat(service.search("jazz", 10)).isEmpty();
+        assertThat(service.search("blues", 10)).hasSize(1);
+
+        when(eventRepo.findSearchSourceById(1)).thenReturn(Optional.empty());
+        service.onCatalogChanged(new EventCatalogChangedEvent(1));
+        assertThat(service.search("blues", 10)).isEmpty();
+        verify(eventRepo, times(1)).findSearchSourcesAfter(any(), any());
+    }
+
+    @Test
+    void search_before_warm_up_does_not_load_the_catalog() {
+        assertThat(service.search("jazz", 10)).isEmpty();
+        verifyNoInteractions(eventRepo);
+    }
+
+    @Test
+    void change_committed_during_rebuild_is_reapplied_to_the_fresh_index() {
+        when(eventRepo.findSearchSourcesAfter(eq(0), any())).thenAnswer(inv -> {
+            // อีก thread แก้ event 1 ระหว่างโหลด (index ยังไม่มี → แค่จดไว้)
+            service.onCatalogChanged(new EventCatalogChangedEvent(1));
+            return List.of(source(1, "Jazz Night"));
+        });
+        when(eventRepo.findSearchSourceById(1)).thenReturn(Optional.of(source(1, "Blues Night")));
+
+        service.warmUp();
+
+        assertThat(service.search("jazz", 10)).isEmpty();
+        assertThat(service.search("blues", 10)).hasSize(1);
+    }
+
+    @Test
+    void blank_query_or_bad_limit() {
+        assertThat(service.search(" ", 10)).isEmpty();
+        assertThatThrownBy(() -> service.search("jazz", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.search("jazz", 51)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(eventRepo);
+    }
+
+    private static EventSearchSource source(int id, String title) {
+        return new EventSearchSource(id, title, "concert", "Bangkok", null, null);
+    }
+}
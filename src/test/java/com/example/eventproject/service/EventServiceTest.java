@@ -1,8 +1,15 @@
 package com.example.eventproject.service;
 
+import com.example.eventproject.dto.EventDetailViewDto;
+import com.example.eventproject.dto.EventListItem;
+import com.example.eventproject.dto.EventPage;
+import com.example.eventproject.dto.EventPriceSummary;
 import com.example.eventproject.dto.EventSummaryView;
 import com.example.eventproject.dto.EventUpsertRequest;
+import com.example.eventproject.dto.PriceDto;
 import com.example.eventproject.model.Event;
+import com.example.eventproject.model.EventSaleStatus;
+import com.example.eventproject.model.Status;
 import com.example.eventproject.repository.EventRepository;
 import com.example.eventproject.repository.EventSessionRepository;
 import com.example.eventproject.repository.EventZoneRepository;
@@ -14,8 +21,13 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +48,11 @@ class EventServiceTest {
     @Mock private FileStorageService fileStorageService;
     @Mock private RegistrationRepository registrationRepository;
     @Mock private ZoneTemplateService zoneTemplateService;
+    @Mock private ZoneTemplateRegistry templateRegistry;
+    @Mock private EventPriceSummaryCache priceSummaryCache;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private SalesRollupService salesRollupService;
+    @Mock private ZoneInventoryService zoneInventoryService;
 
     @InjectMocks private EventService service;
 
@@ -94,6 +111,61 @@ class EventServiceTest {
         verifyNoInteractions(sessionRepo, zoneRepo, fileStorageService, registrationRepository, zoneTemplateService);
     }
 
+    /* =============== page(...) =============== */
+
+    private EventListItem item(int id, LocalDate startDate) {
+        return new EventListItem(id, "E" + id, "concert", "LOC", startDate, startDate, Status.OPEN,
+                null, null, true, null, null);
+    }
+
+    @Test
+    @DisplayName("page: ได้เกิน limit → ตัดเหลือ limit + nextCursor ชี้แถวสุดท้าย และ cursor นั้นส่งกลับเข้า repo ได้")
+    void page_next_cursor_round_trip() {
+        LocalDate d = LocalDate.now().plusYears(1);
+        when(eventRepo.findPage(any(), any(), any(), any(), any(), any(), any(), isNull(), isNull(), any()))
+                .thenReturn(List.of(item(1, d), item(2, d), item(3, d)));
+
+        EventPage first = service.page(null, " ", null, null, null, null, 2);
+
+        assertEquals(2, first.items().size());
+        assertEquals(EventSaleStatus.OPEN, first.items().get(0).saleStatus());
+        assertNotNull(first.nextCursor());
+        verify(eventRepo).findPage(isNull(), isNull(), isNull(), isNull(), isNull(), any(), any(),
+                isNull(), isNull(), eq(PageRequest.of(0, 3)));
+
+        when(eventRepo.findPage(any(), any(), any(), any(), any(), any(), any(), eq(d), eq(2), any()))
+                .thenReturn(List.of(item(3, d)));
+        EventPage second = service.page(Status.OPEN, "concert", null, null, EventSaleStatus.OPEN, first.nextCursor(), 2);
+
+        assertEquals(1, second.items().size());
+        assertNull(second.nextCursor());
+        verify(eventRepo).findPage(eq(Status.OPEN), eq("concert"), isNull(), isNull(), eq("OPEN"), any(), any(),
+                eq(d), eq(2), eq(PageRequest.of(0, 3)));
+    }
+
+    @Test
+    @DisplayName("page: แถวสุดท้ายไม่มี startDate → cursor ยังพา id ต่อได้")
+    void page_cursor_without_start_date() {
+        when(eventRepo.findPage(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(item(5, null), item(6, null)));
+
+        EventPage first = service.page(null, null, null, null, null, null, 1);
+        service.page(null, null, null, null, null, first.nextCursor(), 1);
+
+        verify(eventRepo).findPage(any(), any(), any(), any(), any(), any(), any(), isNull(), eq(5), any());
+    }
+
+    @Test
+    @DisplayName("page: limit / cursor / ช่วงวันไม่ถูกต้อง → IllegalArgumentException")
+    void page_rejects_bad_input() {
+        assertThrows(IllegalArgumentException.class, () -> service.page(null, null, null, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> service.page(null, null, null, null, null, null, 101));
+        assertThrows(IllegalArgumentException.class, () -> service.page(null, null, null, null, null, "%%%", 10));
+        assertThrows(IllegalArgumentException.class, () -> service.page(null, null,
+                LocalDate.of(2026, 5, 1), LocalDate.of(2026, 4, 1), null, null, 10));
+        verifyNoInteractions(eventRepo);
+    }
+
     /* =============== create(...) =============== */
 
     @Test
@@ -177,6 +249,7 @@ class EventServiceTest {
 
         verify(eventRepo, atLeastOnce()).save(existing);
         verify(fileStorageService, never()).deleteFile(any());
+        verify(eventPublisher).publishEvent(new EventCatalogChangedEvent(77));
     }
 
     @Test
@@ -216,6 +289,25 @@ class EventServiceTest {
         verifyNoInteractions(sessionRepo, zoneRepo, fileStorageService, registrationRepository, zoneTemplateService);
     }
 
+    /* =============== getView(id) =============== */
+
+    @Test
+    @DisplayName("getView: ราคามาจาก price summary ของ event นี้ ไม่ดึงทุกโซนทั้งระบบ")
+    void getView_pricesFromSummary() {
+        Event e = new Event();
+        e.setId(5);
+        e.setSessions(new LinkedHashSet<>());
+        when(eventRepo.findDetailById(5)).thenReturn(Optional.of(e));
+        when(priceSummaryCache.get(5)).thenReturn(EventPriceSummary.of(
+                List.of(new BigDecimal("500.00"), new BigDecimal("1200.00"))));
+
+        EventDetailViewDto view = service.getView(5);
+
+        assertEquals(List.of(new PriceDto(new BigDecimal("500.00")), new PriceDto(new BigDecimal("1200.00"))),
+                view.prices());
+        verify(zoneRepo, never()).findAll();
+    }
+
     /* =============== delete(id) =============== */
 
     @Test
@@ -232,9 +324,11 @@ class EventServiceTest {
 
         verify(fileStorageService).deleteFile("p");
         verify(fileStorageService).deleteFile("s");
+        verify(zoneInventoryService).removeEvent(101);
         verify(registrationRepository).deleteAllByEventCascade(101);
         verify(sessionRepo).deleteByEvent_Id(101);
         verify(eventRepo).delete(e);
+        verify(eventPublisher).publishEvent(new EventCatalogChangedEvent(101));
     }
 
     @Test
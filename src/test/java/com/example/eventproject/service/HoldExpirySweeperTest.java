@@ -0,0 +1,62 @@
+package com.example.eventproject.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldExpirySweeperTest {
+
+    @Mock
+    RegistrationService registrationService;
+    @Mock
+    SchedulerLeaseService leaseService;
+
+    @Test
+    @DisplayName("sweep: ไม่ได้ lease → ไม่สแกน registrations เลย")
+    void sweep_withoutLease_doesNothing() {
+        HoldExpirySweeper sweeper = new HoldExpirySweeper(registrationService, leaseService, 100, 5, 60);
+        when(leaseService.tryAcquire(eq(HoldExpirySweeper.LEASE_NAME), any(Duration.class))).thenReturn(false);
+
+        sweeper.sweep();
+
+        verifyNoInteractions(registrationService);
+    }
+
+    @Test
+    @DisplayName("sweep: เดิน keyset ต่อจาก id สุดท้ายจนหมด")
+    void sweep_walksKeysetUntilEmpty() {
+        HoldExpirySweeper sweeper = new HoldExpirySweeper(registrationService, leaseService, 100, 5, 60);
+        when(leaseService.tryAcquire(eq(HoldExpirySweeper.LEASE_NAME), any(Duration.class))).thenReturn(true);
+        when(registrationService.releaseExpiredHolds(eq(0), any(LocalDateTime.class), eq(100))).thenReturn(250);
+        when(registrationService.releaseExpiredHolds(eq(250), any(LocalDateTime.class), eq(100))).thenReturn(null);
+
+        sweeper.sweep();
+
+        verify(registrationService).releaseExpiredHolds(eq(0), any(LocalDateTime.class), eq(100));
+        verify(registrationService).releaseExpiredHolds(eq(250), any(LocalDateTime.class), eq(100));
+    }
+
+    @Test
+    @DisplayName("sweep: จำกัดจำนวน batch ต่อรอบ")
+    void sweep_respectsMaxBatches() {
+        HoldExpirySweeper sweeper = new HoldExpirySweeper(registrationService, leaseService, 10, 3, 60);
+        when(leaseService.tryAcquire(eq(HoldExpirySweeper.LEASE_NAME), any(Duration.class))).thenReturn(true);
+        when(registrationService.releaseExpiredHolds(anyInt(), any(LocalDateTime.class), eq(10)))
+                .thenAnswer(inv -> (Integer) inv.getArgument(0) + 10);
+
+        sweeper.sweep();
+
+        verify(registrationService, times(3)).releaseExpiredHolds(anyInt(), any(LocalDateTime.class), eq(10));
+    }
+}
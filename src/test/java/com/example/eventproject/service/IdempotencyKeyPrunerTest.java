@@ -0,0 +1,59 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyKeyPrunerTest {
+
+    @Mock
+    IdempotencyKeyRepository repository;
+    @Mock
+    SchedulerLeaseService leaseService;
+
+    @Test
+    @DisplayName("prune: ไม่ได้ lease → ไม่ลบอะไร")
+    void prune_withoutLease_doesNothing() {
+        IdempotencyKeyPruner pruner = new IdempotencyKeyPruner(repository, leaseService, 100, 5, 60);
+        when(leaseService.tryAcquire(eq(IdempotencyKeyPruner.LEASE_NAME), any(Duration.class))).thenReturn(false);
+
+        pruner.prune();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("prune: ลบทีละ batch จนได้น้อยกว่า batch size")
+    void prune_deletesUntilShortBatch() {
+        IdempotencyKeyPruner pruner = new IdempotencyKeyPruner(repository, leaseService, 100, 5, 60);
+        when(leaseService.tryAcquire(eq(IdempotencyKeyPruner.LEASE_NAME), any(Duration.class))).thenReturn(true);
+        when(repository.deleteExpired(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 40);
+
+        pruner.prune();
+
+        verify(repository, times(3)).deleteExpired(any(LocalDateTime.class), eq(100));
+    }
+
+    @Test
+    @DisplayName("prune: ไม่เกิน max batches ต่อรอบ")
+    void prune_respectsMaxBatches() {
+        IdempotencyKeyPruner pruner = new IdempotencyKeyPruner(repository, leaseService, 10, 3, 60);
+        when(leaseService.tryAcquire(eq(IdempotencyKeyPruner.LEASE_NAME), any(Duration.class))).thenReturn(true);
+        when(repository.deleteExpired(any(LocalDateTime.class), eq(10))).thenReturn(10);
+
+        pruner.prune();
+
+        verify(repository, times(3)).deleteExpired(any(LocalDateTime.class), eq(10));
+    }
+}
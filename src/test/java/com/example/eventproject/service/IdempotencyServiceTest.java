@@ -0,0 +1,213 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.model.IdempotencyKey;
+import com.example.eventproject.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    IdempotencyKeyRepository repository;
+
+    IdempotencyService service;
+    AtomicInteger calls;
+
+    private static final Map<String, Object> REQUEST = Map.of("eventId", 1);
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotencyService(repository, new ObjectMapper(), 24, 30);
+        calls = new AtomicInteger();
+    }
+
+    private ResponseEntity<?> run(String key) {
+        return service.execute("POST /x", key, REQUEST, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(201).body(Map.of("paymentReference", "PAY-1"));
+        });
+    }
+
+    private IdempotencyKey stored(Object request, Integer status, String body) {
+        IdempotencyKey k = new IdempotencyKey();
+        k.setRequestHash(IdempotencyService.sha256(toJson(request)));
+        k.setStatusCode(status);
+        k.setContentType("application/json");
+        k.setResponseBody(body);
+        return k;
+    }
+
+    private static String toJson(Object o) {
+        try {
+            return new ObjectMapper().writeValueAsString(o);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    @DisplayName("ไม่มี header → รัน action ตรง ๆ ไม่แตะตาราง")
+    void noKey_passThrough() {
+        assertThat(run(null).getStatusCode().value()).isEqualTo(201);
+        assertThat(calls).hasValue(1);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("คำขอแรก → จอง key, รัน action แล้วเก็บ response เป็น JSON")
+    void firstRequest_storesResponse() {
+        when(repository.insertIfAbsent(anyString(), anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        ResponseEntity<?> res = run("k1");
+
+        assertThat(res.getStatusCode().value()).isEqualTo(201);
+        assertThat(calls).hasValue(1);
+        verify(repository).complete(anyString(), anyString(), eq(201), eq("application/json"), eq("{\"paymentReference\":\"PAY-1\"}"));
+    }
+
+    @Test
+    @DisplayName("complete / release ใช้ claim_id เดียวกับตอนจอง (เจ้าของที่ถูกรับงานต่อแล้วเขียนทับไม่ได้)")
+    void completeAndRelease_areFencedByClaimId() {
+        ArgumentCaptor<String> claimed = ArgumentCaptor.forClass(String.class);
+        when(repository.insertIfAbsent(anyString(), anyString(), claimed.capture(), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        run("k1");
+        String first = claimed.getValue();
+        verify(repository).complete(anyString(), eq(first), eq(201), anyString(), anyString());
+
+        service.execute("POST /x", "k2", REQUEST, () -> ResponseEntity.internalServerError().body("boom"));
+        String second = claimed.getValue();
+        verify(repository).release(anyString(), eq(second));
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("คำขอที่ยังทำงานอยู่ถูกต่ออายุ locked_until ทุก heartbeat → ช้าแค่ไหนก็ไม่ถูกแย่ง / เสร็จแล้วหยุดต่อ")
+    void inFlightClaim_isRenewedUntilDone() {
+        ArgumentCaptor<String> claimed = ArgumentCaptor.forClass(String.class);
+        when(repository.insertIfAbsent(anyString(), anyString(), claimed.capture(), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(repository.renew(anyString(), anyString(), any(LocalDateTime.class))).thenReturn(1);
+
+        service.execute("POST /x", "k1", REQUEST, () -> {
+            service.renewClaims(); // heartbeat ระหว่างจองที่นานเกิน processing-timeout
+            return ResponseEntity.status(201).body("ok");
+        });
+        service.renewClaims();
+
+        verify(repository, times(1)).renew(anyString(), eq(claimed.getValue()), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("retry ด้วย key เดิม → ได้ response เดิม ไม่เรียก action ซ้ำ")
+    void replay_returnsStoredResponse() {
+        when(repository.insertIfAbsent(anyString(), anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0);
+        when(repository.findById(anyString()))
+                .thenReturn(Optional.of(stored(REQUEST, 201, "{\"paymentReference\":\"PAY-1\"}")));
+
+        ResponseEntity<?> res = run("k1");
+
+        assertThat(calls).hasValue(0);
+        assertThat(res.getStatusCode().value()).isEqualTo(201);
+        assertThat(res.getBody()).isEqualTo("{\"paymentReference\":\"PAY-1\"}");
+        assertThat(res.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("key เดิมแต่ request ต่าง → 422")
+    void replay_differentRequest_422() {
+        when(repository.insertIfAbsent(anyString(), anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0);
+        when(repository.findById(anyString()))
+                .thenReturn(Optional.of(stored(Map.of("eventId", 2), 201, "{}")));
+
+        assertThat(run("k1").getStatusCode().value()).isEqualTo(422);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("คำขอแรกยังทำงานอยู่ → 409")
+    void replay_inProgress_409() {
+        when(repository.insertIfAbsent(anyString(), anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0);
+        IdempotencyKey inProgress = stored(REQUEST, null, null);
+        inProgress.setLockedUntil(LocalDateTime.now().plusSeconds(20));
+        when(repository.findById(anyString())).thenReturn(Optional.of(inProgress));
+
+        ResponseEntity<?> res = run("k1");
+        assertThat(res.getStatusCode().value()).isEqualTo(409);
+        assertThat(Integer.parseInt(res.getHeaders().getFirst("Retry-After"))).isBetween(1, 21);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("เจ้าของเดิมหยุดต่ออายุเกิน processing-timeout (node ตาย) → retry รับงานต่อแทน 409")
+    void staleInProgress_isTakenOver() {
+        when(repository.insertIfAbsent(anyString(), anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0);
+        when(repository.takeOverStale(anyString(), eq(IdempotencyService.sha256(toJson(REQUEST))), anyString(),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+
+        ResponseEntity<?> res = run("k1");
+
+        assertThat(res.getStatusCode().value()).isEqualTo(201);
+        assertThat(calls).hasValue(1);
+        verify(repository).complete(anyString(), anyString(), eq(201), eq("application/json"), anyString());
+    }
+
+    @Test
+    @DisplayName("key หมดอายุแล้ว → ลบแล้วจองใหม่ ทำงานเป็นคำขอใหม่")
+    void expiredKey_isReclaimed() {
+        when(repository.insertIfAbsent(anyString(), anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0, 1);
+        when(repository.deleteIfExpired(anyString(), any(LocalDateTime.class))).thenReturn(1);
+
+        assertThat(run("k1").getStatusCode().value()).isEqualTo(201);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("action ตอบ 5xx หรือโยน exception → ปล่อย key คืนให้ retry ได้")
+    void serverError_releasesKey() {
+        when(repository.insertIfAbsent(anyString(), anyString(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        service.execute("POST /x", "k1", REQUEST, () -> ResponseEntity.internalServerError().body("boom"));
+        assertThatThrownBy(() -> service.execute("POST /x", "k2", REQUEST, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        verify(repository, times(2)).release(anyString(), anyString());
+        verify(repository, never()).complete(anyString(), anyString(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("key ยาวเกิน 255 → 400")
+    void keyTooLong_400() {
+        assertThat(run("x".repeat(256)).getStatusCode().value()).isEqualTo(400);
+        verifyNoInteractions(repository);
+    }
+}
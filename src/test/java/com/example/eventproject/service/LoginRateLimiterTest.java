@@ -0,0 +1,97 @@
+package com.example.eventproject.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+class LoginRateLimiterTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    // IP: 4 ครั้ง เติม 60/นาที / email: 2 ครั้ง เติม 6/นาที (1 token ทุก 10 วินาที)
+    private final LoginRateLimiter limiter = new LoginRateLimiter(clock, new SimpleMeterRegistry(), 4, 60, 2, 6, 1000, 15);
+
+    @Test
+    @DisplayName("acquire: email เดิมเกิน capacity → 429 + Retry-After ตามเวลาเติม token")
+    void acquire_sameEmail_limited() {
+        limiter.acquire("10.0.0.1", "a@b.com");
+        limiter.acquire("10.0.0.2", " A@B.com ");   // normalize แล้วเป็น bucket เดียวกัน
+
+        RetryLaterException ex = assertThrows(RetryLaterException.class,
+                () -> limiter.acquire("10.0.0.3", "a@b.com"));
+        assertEquals(TOO_MANY_REQUESTS, ex.getStatusCode());
+        assertEquals(10, ex.getRetryAfterSeconds());
+        assertEquals("10", ex.getHeaders().getFirst("Retry-After"));
+
+        // email อื่นยังผ่าน
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.3", "c@d.com"));
+    }
+
+    @Test
+    @DisplayName("acquire: IP เดียวไล่หลาย email → จำกัดที่ IP")
+    void acquire_sameIp_limited() {
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire("10.0.0.9", "user" + i + "@b.com");
+        }
+        assertThrows(RetryLaterException.class, () -> limiter.acquire("10.0.0.9", "other@b.com"));
+    }
+
+    @Test
+    @DisplayName("acquire: เวลาผ่านไป → token เติมกลับ")
+    void acquire_refillsOverTime() {
+        limiter.acquire("10.0.0.1", "a@b.com");
+        limiter.acquire("10.0.0.1", "a@b.com");
+        assertThrows(RetryLaterException.class, () -> limiter.acquire("10.0.0.1", "a@b.com"));
+
+        clock.advance(10_000);
+
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.1", "a@b.com"));
+        assertThrows(RetryLaterException.class, () -> limiter.acquire("10.0.0.1", "a@b.com"));
+    }
+
+    @Test
+    @DisplayName("refundEmail: login สำเร็จไม่กินโควตาของ email (IP ยังนับทุกครั้ง)")
+    void refundEmail_onlyFailuresCount() {
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire("10.0.0." + i, "a@b.com");
+            limiter.refundEmail(" A@B.com ");
+        }
+        limiter.acquire("10.0.0.8", "a@b.com");           // รหัสผิด 1
+        limiter.acquire("10.0.0.8", "a@b.com");           // รหัสผิด 2
+        assertThrows(RetryLaterException.class, () -> limiter.acquire("10.0.0.8", "a@b.com"));
+
+        limiter.refundEmail("unknown@b.com");             // ไม่มี bucket → ไม่สร้างใหม่
+        assertDoesNotThrow(() -> limiter.acquire("10.0.0.7", "unknown@b.com"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(long ms) {
+            millis += ms;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.eventproject.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+class PasswordHashingServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /** encoder ที่ค้างจนกว่า release (จำลอง BCrypt ที่ช้า) */
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence raw) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + raw;
+        }
+
+        @Override
+        public boolean matches(CharSequence raw, String encoded) {
+            return encode(raw).equals(encoded);
+        }
+    };
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    @DisplayName("encode / matches: คืนผลของ encoder และบันทึกเวลา hash")
+    void encodeAndMatches() {
+        release.countDown();
+        service = new PasswordHashingService(slowEncoder, registry, 1, 4, 1000);
+
+        assertEquals("hash:pw", service.encode("pw"));
+        assertTrue(service.matches("pw", "hash:pw"));
+        assertFalse(service.matches("pw", "hash:other"));
+        assertEquals(1, registry.get("auth.password.hash").tag("op", "encode").timer().count());
+        assertEquals(2, registry.get("auth.password.hash").tag("op", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("คิวเต็ม → 503 + Retry-After ทันที (ไม่รอ)")
+    void queueFull_rejectsFast() throws Exception {
+        service = new PasswordHashingService(slowEncoder, registry, 1, 1, 5000);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("a"));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("b"));
+        waitForQueue(1);
+
+        long t0 = System.nanoTime();
+        RetryLaterException ex = assertThrows(RetryLaterException.class, () -> service.encode("c"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0) < 1000);
+        assertEquals(SERVICE_UNAVAILABLE, ex.getStatusCode());
+        assertNotNull(ex.getHeaders().getFirst("Retry-After"));
+        assertEquals(1.0, registry.get("auth.password.hash.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash:a", running.get(2, TimeUnit.SECONDS));
+        assertEquals("hash:b", queued.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("รอเกิน timeout → 503")
+    void timeout_returns503() {
+        service = new PasswordHashingService(slowEncoder, registry, 1, 4, 50);
+
+        RetryLaterException ex = assertThrows(RetryLaterException.class, () -> service.encode("slow"));
+        assertEquals(SERVICE_UNAVAILABLE, ex.getStatusCode());
+    }
+
+    private void waitForQueue(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (registry.get("auth.password.hash.queue").gauge().value() < size) {
+            if (System.currentTimeMillis() > deadline) fail("queue never reached " + size);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.config.SecurityConfig;
+import com.example.eventproject.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordUpgradeServiceTest {
+
+    @Mock UserRepository users;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // encoder จริงตาม SecurityConfig (cost ต่ำให้เทสต์เร็ว)
+    private final PasswordEncoder encoder = new SecurityConfig(null, null).passwordEncoder("bcrypt", 5);
+    private final PasswordHashingService hashing = new PasswordHashingService(encoder, registry, 1, 4, 5000);
+    private final PasswordUpgradeService service = new PasswordUpgradeService(hashing, users, registry);
+
+    @AfterEach
+    void tearDown() {
+        hashing.shutdown();
+    }
+
+    @Test
+    @DisplayName("needsUpgrade: ไม่มี prefix / cost ต่ำกว่าเป้า / algorithm อื่น → true, ตรงเป้า → false")
+    void needsUpgrade_followsTargetProfile() {
+        String legacy = new BCryptPasswordEncoder(5).encode("pw");
+
+        assertTrue(service.needsUpgrade(legacy));                                        // $2a$05$... ไม่มี {id}
+        assertTrue(service.needsUpgrade("{bcrypt}" + new BCryptPasswordEncoder(4).encode("pw")));
+        assertTrue(service.needsUpgrade(new SecurityConfig(null, null).passwordEncoder("pbkdf2", 5).encode("pw")));
+        assertFalse(service.needsUpgrade(encoder.encode("pw")));
+
+        // hash เดิมที่ไม่มี prefix ยังตรวจรหัสผ่านได้
+        assertTrue(encoder.matches("pw", legacy));
+    }
+
+    @Test
+    @DisplayName("rehashLater: hash ใหม่ใน pool แล้วเขียนกลับแบบมีเงื่อนไข hash เดิม")
+    void rehashLater_replacesPasswordInBackground() {
+        when(users.replacePassword(eq("a@b.com"), eq("plain"), anyString())).thenReturn(1);
+
+        service.rehashLater("a@b.com", "plain", "plain");
+
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(users, timeout(2000)).replacePassword(eq("a@b.com"), eq("plain"), hash.capture());
+        assertTrue(hash.getValue().startsWith("{bcrypt}$2a$05$"));
+        assertTrue(encoder.matches("plain", hash.getValue()));
+        assertFalse(service.needsUpgrade(hash.getValue()));
+        assertEquals(1.0, registry.get("auth.password.rehash").tag("result", "submitted").counter().count());
+    }
+
+    @Test
+    @DisplayName("apply: hash เดิมถูกเปลี่ยนไปแล้ว → ไม่ทับ นับเป็น stale / DB error ไม่โยนออก")
+    void apply_staleOrFailing() {
+        when(users.replacePassword("a@b.com", "old", "new")).thenReturn(0);
+        service.apply("a@b.com", "old", "new");
+        assertEquals(1.0, registry.get("auth.password.rehash").tag("result", "stale").counter().count());
+
+        when(users.replacePassword("a@b.com", "old", "boom")).thenThrow(new IllegalStateException("db down"));
+        assertDoesNotThrow(() -> service.apply("a@b.com", "old", "boom"));
+    }
+}
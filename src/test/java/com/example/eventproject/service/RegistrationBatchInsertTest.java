@@ -0,0 +1,153 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.config.ClockConfig;
+import com.example.eventproject.model.*;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * วัดจำนวน SQL round trip ต่อ 1 order (10 ใบ) บน H2 จริง
+ * - before: flush ทีละใบ (พฤติกรรมเดียวกับ IDENTITY เดิมที่ INSERT ทันทีทุก save)
+ * - after : RegistrationService.create → saveAll → INSERT batch เดียว
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batchdb;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "app.ticket-code.node-id=1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.eventproject.service.RegistrationBatchInsertTest$SqlRecorder"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RegistrationService.class, ZoneInventoryService.class, TicketCodeGenerator.class, SalesRollupService.class,
+        SalesTimeseriesService.class, ClockConfig.class})
+class RegistrationBatchInsertTest {
+
+    private static final int TICKETS = 10;
+
+    /** เก็บ SQL ทุกคำสั่งที่ Hibernate prepare */
+    public static class SqlRecorder implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql.toLowerCase(Locale.ROOT));
+            return sql;
+        }
+    }
+
+    @Autowired
+    TestEntityManager em;
+    @Autowired
+    RegistrationService registrationService;
+
+    private Event event;
+    private EventSession session;
+    private EventZone zone;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setCode("USER");
+        em.persist(role);
+
+        User user = new User();
+        user.setEmail("buyer@test.com");
+        user.setName("Buyer");
+        user.setRole(role);
+        em.persist(user);
+
+        event = new Event();
+        event.setTitle("Batch Concert");
+        em.persist(event);
+
+        session = new EventSession();
+        session.setEvent(event);
+        session.setStartTime(LocalTime.of(19, 0));
+        em.persist(session);
+
+        zone = new EventZone();
+        zone.setSession(session);
+        zone.setName("A");
+        zone.setCapacity(1000);
+        zone.setPrice(new BigDecimal("500.00"));
+        em.persist(zone);
+
+        ZoneInventory inventory = new ZoneInventory();
+        inventory.setZoneId(zone.getId());
+        inventory.setCapacity(1000);
+        em.persist(inventory);
+
+        SalesRollup rollup = new SalesRollup();
+        rollup.setZoneId(zone.getId());
+        rollup.setSessionId(session.getId());
+        rollup.setEventId(event.getId());
+        em.persist(rollup);
+
+        em.flush();
+        em.clear();
+        SqlRecorder.SQL.clear();
+    }
+
+    private static long count(String prefix) {
+        return SqlRecorder.SQL.stream().filter(sql -> sql.startsWith(prefix)).count();
+    }
+
+    @Test
+    @DisplayName("before: flush ทีละใบ → INSERT registrations 10 ครั้งต่อ order")
+    void perTicketFlush_roundTrips() {
+        for (int i = 0; i < TICKETS; i++) {
+            Registration reg = new Registration();
+            reg.setEmail("buyer@test.com");
+            reg.setEvent(em.getEntityManager().getReference(Event.class, event.getId()));
+            reg.setSession(em.getEntityManager().getReference(EventSession.class, session.getId()));
+            reg.setZone(em.getEntityManager().getReference(EventZone.class, zone.getId()));
+            reg.setPrice(zone.getPrice());
+            reg.setTotalPrice(zone.getPrice());
+            reg.setTicketCode("LEGACY-" + i);
+            reg.setCreatedAt(LocalDateTime.now());
+            em.persist(reg);
+            em.flush();
+        }
+
+        long inserts = count("insert into registrations");
+        assertThat(inserts).isEqualTo(TICKETS);
+    }
+
+    @Test
+    @DisplayName("after: create() → INSERT registrations ถูกรวมเป็น batch เดียวต่อ order")
+    void create_batchesInserts() {
+        List<Registration> tickets = registrationService.create(
+                "buyer@test.com", event.getId(), session.getId(), zone.getId(), TICKETS);
+        em.flush();
+
+        long inserts = count("insert into registrations");
+        long total = SqlRecorder.SQL.size();
+        assertThat(tickets).hasSize(TICKETS).allSatisfy(r -> assertThat(r.getId()).isNotNull());
+        assertThat(inserts).isEqualTo(1);
+        // ไม่มี SELECT เช็ครหัสตั๋วซ้ำทีละใบอีกแล้ว
+        assertThat(SqlRecorder.SQL).noneMatch(sql -> sql.startsWith("select") && sql.contains("ticket_code=?"));
+        assertThat(total).isLessThan(TICKETS);
+    }
+}
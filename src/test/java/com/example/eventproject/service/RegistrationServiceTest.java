@@ -1,5 +1,6 @@
 package com.example.eventproject.service;
 
+import com.example.eventproject.dto.RegistrationDto;
 import com.example.eventproject.model.Event;
 import com.example.eventproject.model.EventSession;
 import com.example.eventproject.model.EventZone;
@@ -17,17 +18,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +54,12 @@ class RegistrationServiceTest {
     UserRepository userRepository;
     @Mock
     RoleRepository roleRepository;
+    @Mock
+    ZoneInventoryService zoneInventoryService;
+    @Mock
+    SalesRollupService salesRollupService;
+    @Spy
+    TicketCodeGenerator ticketCodeGenerator = new TicketCodeGenerator(1, System::currentTimeMillis);
 
     @InjectMocks
     RegistrationService service;
@@ -123,24 +138,16 @@ class RegistrationServiceTest {
         when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
         when(zoneRepository.findById(zoneId)).thenReturn(Optional.of(zone));
 
-        // มีจองไปแล้ว 3 ที่นั่ง
-        when(registrationRepository.countAllBookedInZone(zoneId)).thenReturn(3);
-
-        // save() ให้ set id (ถ้ามี) แล้วคืน object เดิมกลับมา
-        Answer<Registration> saveAnswer = inv -> {
-            Registration r = inv.getArgument(0);
-            try {
-                var getIdMethod = Registration.class.getMethod("getId");
-                Object currentId = getIdMethod.invoke(r);
-                if (currentId == null) {
-                    var setIdMethod = Registration.class.getMethod("setId", Integer.class);
-                    setIdMethod.invoke(r, 1000);
-                }
-            } catch (Exception ignored) {
+        // saveAll() ให้ set id เรียงกันแล้วคืน list เดิมกลับมา (ทั้ง order บันทึกครั้งเดียว)
+        Answer<List<Registration>> saveAllAnswer = inv -> {
+            List<Registration> regs = inv.getArgument(0);
+            int nextId = 1000;
+            for (Registration r : regs) {
+                if (r.getId() == null) r.setId(nextId++);
             }
-            return r;
+            return regs;
         };
-        when(registrationRepository.save(any(Registration.class))).thenAnswer(saveAnswer);
+        when(registrationRepository.saveAll(anyList())).thenAnswer(saveAllAnswer);
 
         List<Registration> tickets = service.create(emailInput, eventId, sessionId, zoneId, quantity);
 
@@ -157,8 +164,10 @@ class RegistrationServiceTest {
             assertThat(r.getPaymentStatus()).isEqualTo(Registration.PayStatus.UNPAID);
             assertThat(r.getTicketCode()).isNotBlank();
             assertThat(r.getCreatedAt()).isNotNull();
+            assertThat(r.getExpiresAt()).isAfter(r.getCreatedAt());
             assertThat(r.getPrice()).isEqualByComparingTo("100.00");
         }
+        assertThat(tickets).extracting(Registration::getTicketCode).doesNotHaveDuplicates();
 
         // totalPrice ของแต่ละใบ = price * quantity ทั้งชุด
         assertThat(tickets.get(0).getTotalPrice()).isEqualByComparingTo("200.00");
@@ -172,9 +181,12 @@ class RegistrationServiceTest {
         verify(eventRepository).findById(eventId);
         verify(sessionRepository).findById(sessionId);
         verify(zoneRepository).findById(zoneId);
-        verify(registrationRepository).countAllBookedInZone(zoneId);
-        verify(registrationRepository, times(2)).save(any(Registration.class));
-        // ❌ อย่าใช้ verifyNoMoreInteractions(registrationRepository) เพราะ generateTicketCode() เรียก findByTicketCode()
+        verify(zoneInventoryService).reserveAll(List.of(new ZoneInventoryService.Reservation(zone, quantity)));
+        verify(salesRollupService).apply(List.of(SalesRollupService.Delta.booked(zoneId, quantity)));
+        verify(registrationRepository).saveAll(anyList());
+        verify(registrationRepository, never()).save(any(Registration.class));
+        // รหัสตั๋วออกจาก TicketCodeGenerator โดยไม่ต้องเช็คซ้ำกับ DB
+        verify(registrationRepository, never()).findByTicketCode(anyString());
     }
 
     @Test
@@ -227,14 +239,16 @@ class RegistrationServiceTest {
         when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
         when(zoneRepository.findById(zoneId)).thenReturn(Optional.of(zone));
 
-        // จองไปแล้ว 3 ที่ -> 3 + 5 = 8 > 6
-        when(registrationRepository.countAllBookedInZone(zoneId)).thenReturn(3);
+        // inventory แจ้งว่าที่นั่งไม่พอ
+        doThrow(new IllegalStateException("Zone " + zone.getName() + " is fully booked"))
+                .when(zoneInventoryService).reserveAll(anyList());
 
         assertThatThrownBy(() -> service.create(email, eventId, sessionId, zoneId, quantity))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Zone " + zone.getName() + " is fully booked");
 
         verify(registrationRepository, never()).save(any());
+        verify(registrationRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -265,9 +279,8 @@ class RegistrationServiceTest {
         when(eventRepository.findById(1)).thenReturn(Optional.of(event));
         when(sessionRepository.findById(2)).thenReturn(Optional.of(session));
         when(zoneRepository.findById(3)).thenReturn(Optional.of(zone));
-        when(registrationRepository.countAllBookedInZone(3)).thenReturn(0);
 
-        when(registrationRepository.save(any(Registration.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(registrationRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
 
         List<Registration> list = service.create(email, 1, 2, 3, 1);
 
@@ -282,6 +295,120 @@ class RegistrationServiceTest {
         verify(roleRepository).findByCode("GUEST");
     }
 
+    /* ===================== checkout() ===================== */
+
+    @Test
+    @DisplayName("checkout: หลายโซน → reserveAll ครั้งเดียว, paymentReference เดียว, saveAll ครั้งเดียว")
+    void checkout_multiZone_singleOrder() {
+        String email = "cart@test.com";
+        Role role = new Role();
+        role.setCode("USER");
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(newUser(email, role)));
+
+        Event event = newEvent(1, "Cart Fest");
+        EventSession session = newSession(2);
+        EventZone vip = newZone(10, "VIP", new BigDecimal("500.00"), 10);
+        EventZone ga = newZone(20, "GA", new BigDecimal("100.00"), 100);
+        when(eventRepository.findById(1)).thenReturn(Optional.of(event));
+        when(sessionRepository.findById(2)).thenReturn(Optional.of(session));
+        when(zoneRepository.findById(10)).thenReturn(Optional.of(vip));
+        when(zoneRepository.findById(20)).thenReturn(Optional.of(ga));
+        when(registrationRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        // GA ซ้ำสองบรรทัด → รวมเป็น 3 ใบ
+        List<Registration> regs = service.checkout(email, 1, 2, List.of(
+                new RegistrationDto.CartLine(20, 1),
+                new RegistrationDto.CartLine(10, 2),
+                new RegistrationDto.CartLine(20, 2)));
+
+        assertThat(regs).hasSize(5);
+        assertThat(regs).extracting(Registration::getPaymentReference).containsOnly(regs.get(0).getPaymentReference());
+        assertThat(regs).allSatisfy(r -> assertThat(r.getTotalPrice()).isEqualByComparingTo("1300.00"));
+        assertThat(regs).filteredOn(r -> r.getZone() == ga).hasSize(3);
+        assertThat(regs).extracting(Registration::getTicketCode).doesNotHaveDuplicates();
+
+        verify(eventRepository, times(1)).findById(1);
+        verify(sessionRepository, times(1)).findById(2);
+        verify(zoneInventoryService).reserveAll(List.of(
+                new ZoneInventoryService.Reservation(ga, 3),
+                new ZoneInventoryService.Reservation(vip, 2)));
+        verify(registrationRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("checkout: บรรทัดไหนไม่ถูกต้อง → IllegalArgumentException ก่อนแตะ DB")
+    void checkout_invalidLine() {
+        assertThatThrownBy(() -> service.checkout("a@test.com", 1, 2, List.of(
+                new RegistrationDto.CartLine(10, 1),
+                new RegistrationDto.CartLine(20, 0))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Quantity must be > 0");
+
+        assertThatThrownBy(() -> service.checkout("a@test.com", 1, 2, List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(userRepository, eventRepository, sessionRepository,
+                zoneRepository, registrationRepository, zoneInventoryService);
+    }
+
+    @Test
+    @DisplayName("checkout: zone ไม่ได้อยู่ใน session ที่ระบุ → IllegalArgumentException และไม่ตัดสต็อก")
+    void checkout_zoneFromOtherSession() {
+        String email = "a@test.com";
+        Role role = new Role();
+        role.setCode("USER");
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(newUser(email, role)));
+
+        EventZone other = newZone(10, "VIP", new BigDecimal("500.00"), 10);
+        other.setSession(newSession(99));
+        when(eventRepository.findById(1)).thenReturn(Optional.of(newEvent(1, "E")));
+        when(sessionRepository.findById(2)).thenReturn(Optional.of(newSession(2)));
+        when(zoneRepository.findById(10)).thenReturn(Optional.of(other));
+
+        assertThatThrownBy(() -> service.checkout(email, 1, 2, List.of(new RegistrationDto.CartLine(10, 1))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not belong to session");
+
+        verifyNoInteractions(zoneInventoryService);
+    }
+
+    /* ===================== checkoutBatch() ===================== */
+
+    @Test
+    @DisplayName("checkoutBatch: แต่ละ order ได้ผลของตัวเอง และตั๋วของ order ที่ผ่านถูก INSERT ใน saveAll เดียว")
+    void checkoutBatch_perOrderOutcomes_singleSaveAll() {
+        Role role = new Role();
+        role.setCode("USER");
+        when(userRepository.findByEmail(anyString()))
+                .thenAnswer(inv -> Optional.of(newUser(inv.getArgument(0), role)));
+
+        Event event = newEvent(1, "Flash");
+        EventSession session = newSession(2);
+        EventZone hot = newZone(10, "HOT", new BigDecimal("100.00"), 1);
+        EventZone ga = newZone(20, "GA", new BigDecimal("50.00"), 100);
+        when(eventRepository.findById(1)).thenReturn(Optional.of(event));
+        when(sessionRepository.findById(2)).thenReturn(Optional.of(session));
+        when(zoneRepository.findById(10)).thenReturn(Optional.of(hot));
+        when(zoneRepository.findById(20)).thenReturn(Optional.of(ga));
+        when(zoneRepository.findById(99)).thenReturn(Optional.empty());
+        // order แรกได้ที่นั่ง, order ที่สองไม่พอ
+        when(zoneInventoryService.reserveEach(anyList())).thenReturn(new boolean[]{true, false});
+
+        List<RegistrationService.CheckoutOutcome> outcomes = service.checkoutBatch(List.of(
+                new RegistrationDto.CheckoutRequest("a@test.com", 1, 2, List.of(new RegistrationDto.CartLine(20, 2))),
+                new RegistrationDto.CheckoutRequest("b@test.com", 1, 2, List.of(new RegistrationDto.CartLine(99, 1))),
+                new RegistrationDto.CheckoutRequest("c@test.com", 1, 2, List.of(new RegistrationDto.CartLine(10, 5)))));
+
+        assertThat(outcomes).hasSize(3);
+        assertThat(outcomes.get(0).isConfirmed()).isTrue();
+        assertThat(outcomes.get(0).tickets()).hasSize(2);
+        assertThat(outcomes.get(1).status()).isEqualTo(400);
+        assertThat(outcomes.get(1).error()).contains("Zone not found");
+        assertThat(outcomes.get(2).status()).isEqualTo(409);
+
+        verify(registrationRepository, times(1)).saveAll(argThat(list -> ((List<?>) list).size() == 2));
+    }
+
     /* ===================== confirmPayment() ===================== */
 
     @Test
@@ -289,12 +416,15 @@ class RegistrationServiceTest {
     void confirmPayment_success() {
         String ref = "PAY-" + LocalDate.now() + "-ABC123";
 
+        EventZone zone = newZone(5, "VIP", new BigDecimal("100.00"), 10);
         Registration r1 = new Registration();
         Registration r2 = new Registration();
+        r1.setZone(zone);
+        r2.setZone(zone);
         r1.setPaymentStatus(Registration.PayStatus.UNPAID);
         r2.setPaymentStatus(Registration.PayStatus.UNPAID);
 
-        when(registrationRepository.findByPaymentReference(ref)).thenReturn(List.of(r1, r2));
+        when(registrationRepository.lockByPaymentReference(ref)).thenReturn(List.of(r1, r2));
         when(registrationRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
 
         List<Registration> list = service.confirmPayment(ref);
@@ -306,20 +436,99 @@ class RegistrationServiceTest {
                     assertThat(r.getPaidAt()).isNotNull();
                 });
 
-        verify(registrationRepository).findByPaymentReference(ref);
+        verify(registrationRepository).lockByPaymentReference(ref);
         verify(registrationRepository).saveAll(anyList());
+        // ย้าย held → sold ครั้งเดียวต่อโซน
+        verify(zoneInventoryService).commitAll(List.of(new ZoneInventoryService.Reservation(zone, 2)));
+        verify(salesRollupService).apply(List.of(
+                SalesRollupService.Delta.paid(5, 1, BigDecimal.ZERO),
+                SalesRollupService.Delta.paid(5, 1, BigDecimal.ZERO)));
+    }
+
+    @Test
+    @DisplayName("confirmPayment: ใบที่จ่ายแล้วไม่ถูกนับซ้ำใน inventory")
+    void confirmPayment_alreadyPaid_doesNotCommitAgain() {
+        String ref = "PAY-PAID";
+        Registration r1 = new Registration();
+        r1.setZone(newZone(5, "VIP", new BigDecimal("100.00"), 10));
+        r1.setPaymentStatus(Registration.PayStatus.PAID);
+
+        when(registrationRepository.lockByPaymentReference(ref)).thenReturn(List.of(r1));
+        when(registrationRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        service.confirmPayment(ref);
+
+        verifyNoInteractions(zoneInventoryService, salesRollupService);
     }
 
     @Test
     @DisplayName("confirmPayment: ถ้าไม่เจอ paymentReference -> IllegalArgumentException")
     void confirmPayment_notFound() {
-        when(registrationRepository.findByPaymentReference("X")).thenReturn(List.of());
+        when(registrationRepository.lockByPaymentReference("X")).thenReturn(List.of());
 
         assertThatThrownBy(() -> service.confirmPayment("X"))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Payment reference not found");
     }
 
+    @Test
+    @DisplayName("confirmPayment: hold หมดเวลาแล้ว -> IllegalStateException และไม่แตะ inventory")
+    void confirmPayment_holdExpired() {
+        String ref = "PAY-OLD";
+        Registration r1 = new Registration();
+        r1.setZone(newZone(5, "VIP", new BigDecimal("100.00"), 10));
+        r1.setPaymentStatus(Registration.PayStatus.UNPAID);
+        r1.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+
+        when(registrationRepository.lockByPaymentReference(ref)).thenReturn(List.of(r1));
+
+        assertThatThrownBy(() -> service.confirmPayment(ref))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Hold expired");
+
+        verifyNoInteractions(zoneInventoryService);
+        verify(registrationRepository, never()).saveAll(anyList());
+    }
+
+    /* ===================== releaseExpiredHolds() ===================== */
+
+    private RegistrationRepository.ExpiredHold hold(int id, int zoneId) {
+        return new RegistrationRepository.ExpiredHold() {
+            @Override public Integer getId() { return id; }
+            @Override public Integer getZoneId() { return zoneId; }
+        };
+    }
+
+    @Test
+    @DisplayName("releaseExpiredHolds: expire ทีละโซนแล้วคืนที่นั่งตามจำนวนที่ expire ได้จริง")
+    void releaseExpiredHolds_releasesPerZone() {
+        LocalDateTime now = LocalDateTime.now();
+        when(registrationRepository.findExpiredHolds(eq(now), eq(0), any(Limit.class)))
+                .thenReturn(List.of(hold(11, 1), hold(12, 1), hold(13, 2)));
+        when(registrationRepository.expireHolds(List.of(11, 12), now)).thenReturn(2);
+        when(registrationRepository.expireHolds(List.of(13), now)).thenReturn(0); // ถูกจ่ายไปก่อนแล้ว
+
+        Integer lastId = service.releaseExpiredHolds(0, now, 100);
+
+        assertThat(lastId).isEqualTo(13);
+        verify(zoneInventoryService).releaseAll(Map.of(1, 2));
+        // แถว rollup ถูกเตรียมก่อน expire แล้วย้ายเฉพาะที่ expire ได้จริง
+        var order = inOrder(salesRollupService, registrationRepository);
+        order.verify(salesRollupService).ensureRows(Set.of(1, 2));
+        order.verify(registrationRepository).expireHolds(List.of(11, 12), now);
+        order.verify(salesRollupService).apply(List.of(SalesRollupService.Delta.expired(1, 2)));
+    }
+
+    @Test
+    @DisplayName("releaseExpiredHolds: ไม่มี hold หมดอายุ -> คืน null")
+    void releaseExpiredHolds_empty() {
+        LocalDateTime now = LocalDateTime.now();
+        when(registrationRepository.findExpiredHolds(eq(now), eq(50), any(Limit.class))).thenReturn(List.of());
+
+        assertThat(service.releaseExpiredHolds(50, now, 100)).isNull();
+        verifyNoInteractions(zoneInventoryService);
+    }
+
     /* ===================== checkInByEventSessionAndCode() ===================== */
 
     @Test
@@ -335,12 +544,14 @@ class RegistrationServiceTest {
         Registration reg = new Registration();
         reg.setEvent(event);
         reg.setSession(session);
+        reg.setZone(newZone(7, "A", new BigDecimal("100.00"), 10));
         reg.setPaymentStatus(Registration.PayStatus.PAID);
         reg.setIsCheckedIn(false);
         reg.setTicketCode(code);
+        reg.setId(55);
 
         when(registrationRepository.findByTicketCode(code)).thenReturn(Optional.of(reg));
-        when(registrationRepository.save(any(Registration.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(registrationRepository.markCheckedIn(eq(55), any(LocalDateTime.class))).thenReturn(1);
 
         Registration saved = service.checkInByEventSessionAndCode(eventId, sessionId, code);
 
@@ -348,7 +559,53 @@ class RegistrationServiceTest {
         assertThat(saved.getCheckedInAt()).isNotNull();
 
         verify(registrationRepository).findByTicketCode(code);
-        verify(registrationRepository).save(any(Registration.class));
+        verify(registrationRepository).markCheckedIn(eq(55), any(LocalDateTime.class));
+        verify(salesRollupService).apply(List.of(SalesRollupService.Delta.checkedIn(7)));
+    }
+
+    @Test
+    @DisplayName("checkInByEventSessionAndCode: สแกนพร้อมกัน อีกเครื่องเช็กอินไปก่อน (UPDATE ได้ 0 แถว) -> 409 และไม่นับยอดซ้ำ")
+    void checkIn_concurrentScan_countedOnce() {
+        String code = "CODE";
+        Registration reg = new Registration();
+        reg.setId(56);
+        reg.setEvent(newEvent(1, "E"));
+        reg.setSession(newSession(10));
+        reg.setZone(newZone(7, "A", new BigDecimal("100.00"), 10));
+        reg.setPaymentStatus(Registration.PayStatus.PAID);
+        reg.setIsCheckedIn(false); // อ่านมาก่อนอีกเครื่อง commit
+
+        when(registrationRepository.findByTicketCode(code)).thenReturn(Optional.of(reg));
+        when(registrationRepository.markCheckedIn(eq(56), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThatThrownBy(() -> service.checkInByEventSessionAndCode(1, 10, code))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already checked-in");
+        verify(salesRollupService, never()).apply(anyList());
+    }
+
+    @Test
+    @DisplayName("checkInByEventSessionAndCode: โซนยังไม่มีแถว rollup -> seed ก่อน UPDATE แล้วค่อยบวก (ไม่นับเช็กอินซ้ำ)")
+    void checkIn_unseededZone_seedsBeforeUpdate() {
+        String code = "CODE";
+        Registration reg = new Registration();
+        reg.setId(57);
+        reg.setEvent(newEvent(1, "E"));
+        reg.setSession(newSession(10));
+        reg.setZone(newZone(7, "A", new BigDecimal("100.00"), 10));
+        reg.setPaymentStatus(Registration.PayStatus.PAID);
+        reg.setIsCheckedIn(false);
+
+        when(registrationRepository.findByTicketCode(code)).thenReturn(Optional.of(reg));
+        when(registrationRepository.markCheckedIn(eq(57), any(LocalDateTime.class))).thenReturn(1);
+
+        service.checkInByEventSessionAndCode(1, 10, code);
+
+        // seedZones นับจาก registrations → ต้องเกิดก่อนเช็กอินถูกเขียน ไม่งั้น +1 ซ้ำ
+        var order = inOrder(salesRollupService, registrationRepository);
+        order.verify(salesRollupService).ensureRows(List.of(7));
+        order.verify(registrationRepository).markCheckedIn(eq(57), any(LocalDateTime.class));
+        order.verify(salesRollupService).apply(List.of(SalesRollupService.Delta.checkedIn(7)));
     }
 
     @Test
@@ -0,0 +1,57 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.repository.SalesRollupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupReconcilerTest {
+
+    @Mock
+    SalesRollupService rollupService;
+    @Mock
+    SalesRollupRepository rollupRepository;
+    @Mock
+    ZoneInventoryService inventoryService;
+    @Mock
+    SchedulerLeaseService leaseService;
+
+    @Test
+    @DisplayName("reconcile: ไม่ได้ lease → ไม่แตะ rollup เลย")
+    void reconcile_withoutLease_doesNothing() {
+        SalesRollupReconciler reconciler = new SalesRollupReconciler(rollupService, rollupRepository, inventoryService, leaseService, 500, 10, 600);
+        when(leaseService.tryAcquire(eq(SalesRollupReconciler.LEASE_NAME), any(Duration.class))).thenReturn(false);
+
+        reconciler.reconcile();
+
+        verifyNoInteractions(rollupService, rollupRepository, inventoryService);
+    }
+
+    @Test
+    @DisplayName("reconcile: seed โซนที่ขาด แล้วแก้โซนที่ยอดเพี้ยนไม่เกินจำนวนต่อรอบ")
+    void reconcile_seedsThenFixesDriftedZones() {
+        SalesRollupReconciler reconciler = new SalesRollupReconciler(rollupService, rollupRepository, inventoryService, leaseService, 500, 2, 600);
+        when(leaseService.tryAcquire(eq(SalesRollupReconciler.LEASE_NAME), any(Duration.class))).thenReturn(true);
+        when(rollupService.seedMissing(500)).thenReturn(3);
+        when(rollupRepository.findDriftedZoneIds()).thenReturn(List.of(4, 7, 9));
+
+        reconciler.reconcile();
+
+        verify(rollupService).seedMissing(500);
+        verify(inventoryService).deleteOrphans();
+        verify(rollupService).reconcileZone(4);
+        verify(rollupService).reconcileZone(7);
+        verify(rollupService, times(2)).reconcileZone(anyInt());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.dto.SalesRollupCounts;
+import com.example.eventproject.model.SalesRollup;
+import com.example.eventproject.repository.SalesRollupRepository;
+import com.example.eventproject.service.SalesRollupService.Delta;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    @Mock
+    SalesRollupRepository rollupRepository;
+    @Mock
+    SalesTimeseriesService timeseriesService;
+
+    @InjectMocks
+    SalesRollupService service;
+
+    @Test
+    @DisplayName("apply: รวมยอดของโซนเดียวกัน แล้ว UPDATE เรียงตาม zoneId")
+    void apply_mergesAndUpdatesInZoneOrder() {
+        when(rollupRepository.addDeltas(anyInt(), anyLong(), anyLong(), anyLong(), anyLong(), any())).thenReturn(1);
+
+        service.apply(List.of(
+                Delta.paid(9, 1, new BigDecimal("500")),
+                Delta.booked(3, 2),
+                Delta.paid(9, 1, new BigDecimal("500"))));
+
+        InOrder inOrder = inOrder(rollupRepository);
+        inOrder.verify(rollupRepository).addDeltas(3, 0, 2, 0, 0, BigDecimal.ZERO);
+        inOrder.verify(rollupRepository).addDeltas(9, 2, -2, 0, 0, new BigDecimal("1000"));
+        verify(rollupRepository, never()).seedZones(any());
+        verify(timeseriesService).record(Delta.booked(3, 2));
+        verify(timeseriesService).record(new Delta(9, 0, 2, -2, 0, 0, new BigDecimal("1000")));
+    }
+
+    @Test
+    @DisplayName("apply: ยังไม่มีแถว → seed จาก registrations แล้วบวกซ้ำ")
+    void apply_seedsMissingRowThenRetries() {
+        when(rollupRepository.addDeltas(5, 0, 1, 0, 0, BigDecimal.ZERO)).thenReturn(0, 1);
+
+        service.apply(List.of(Delta.booked(5, 1)));
+
+        InOrder inOrder = inOrder(rollupRepository);
+        inOrder.verify(rollupRepository).addDeltas(5, 0, 1, 0, 0, BigDecimal.ZERO);
+        inOrder.verify(rollupRepository).seedZones(List.of(5));
+        inOrder.verify(rollupRepository).addDeltas(5, 0, 1, 0, 0, BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("ensureRows: seed เฉพาะโซนที่ยังไม่มีแถว")
+    void ensureRows_seedsOnlyMissing() {
+        when(rollupRepository.findExistingZoneIds(Set.of(1, 2))).thenReturn(List.of(1));
+
+        service.ensureRows(Set.of(1, 2));
+
+        verify(rollupRepository).seedZones(Set.of(2));
+    }
+
+    @Test
+    @DisplayName("reconcileZone: ยอดไม่ตรง → เขียนทับด้วยยอดจริง / ตรงแล้ว → ไม่แก้")
+    void reconcileZone_overwritesOnlyWhenDrifted() {
+        SalesRollup row = new SalesRollup();
+        row.setZoneId(4);
+        row.setSold(5L);
+        row.setUnpaid(0L);
+        row.setExpired(0L);
+        row.setCheckedIn(0L);
+        row.setRevenue(new BigDecimal("5000.00"));
+        when(rollupRepository.lockByZoneId(4)).thenReturn(Optional.of(row));
+        when(rollupRepository.countByZone(4))
+                .thenReturn(new SalesRollupCounts(4L, 1L, 0L, 2L, new BigDecimal("4000")));
+
+        assertThat(service.reconcileZone(4)).isTrue();
+        assertThat(row.getSold()).isEqualTo(4L);
+        assertThat(row.getUnpaid()).isEqualTo(1L);
+        assertThat(row.getCheckedIn()).isEqualTo(2L);
+        assertThat(row.getRevenue()).isEqualByComparingTo("4000");
+
+        assertThat(service.reconcileZone(4)).isFalse();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.eventproject.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesTimeseriesCompactorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Mock
+    SalesTimeseriesService timeseriesService;
+    @Mock
+    SchedulerLeaseService leaseService;
+
+    private final Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneId.of("UTC"));
+
+    @Test
+    @DisplayName("compact: ไม่ได้ lease → ไม่แตะกราฟเลย")
+    void compact_withoutLease_doesNothing() {
+        SalesTimeseriesCompactor compactor = new SalesTimeseriesCompactor(timeseriesService, leaseService, clock, 48, 90, 10, 600);
+        when(leaseService.tryAcquire(eq(SalesTimeseriesCompactor.LEASE_NAME), any(Duration.class))).thenReturn(false);
+
+        compactor.compact();
+
+        verifyNoInteractions(timeseriesService);
+    }
+
+    @Test
+    @DisplayName("compact: นาที → ชั่วโมงจนหมด แล้วชั่วโมง → วัน ภายในจำนวนต่อรอบ")
+    void compact_walksLevelsWithinBudget() {
+        SalesTimeseriesCompactor compactor = new SalesTimeseriesCompactor(timeseriesService, leaseService, clock, 48, 90, 3, 600);
+        when(leaseService.tryAcquire(eq(SalesTimeseriesCompactor.LEASE_NAME), any(Duration.class))).thenReturn(true);
+        when(timeseriesService.compactOldest(60, 3600, NOW.minusHours(48))).thenReturn(true, true, false);
+        when(timeseriesService.compactOldest(3600, 86400, NOW.minusDays(90))).thenReturn(true);
+
+        compactor.compact();
+
+        verify(timeseriesService).deleteOrphans();
+        verify(timeseriesService, times(3)).compactOldest(60, 3600, NOW.minusHours(48));
+        verify(timeseriesService, times(1)).compactOldest(3600, 86400, NOW.minusDays(90));
+    }
+}
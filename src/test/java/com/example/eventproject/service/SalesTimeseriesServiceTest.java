@@ -0,0 +1,134 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.dto.SalesBucketTotals;
+import com.example.eventproject.dto.SalesTimeseries;
+import com.example.eventproject.model.SalesBucket;
+import com.example.eventproject.repository.SalesTimeseriesRepository;
+import com.example.eventproject.service.SalesRollupService.Delta;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesTimeseriesServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 10, 7, 42);
+
+    @Mock
+    SalesTimeseriesRepository repo;
+
+    private final Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneId.of("UTC"));
+
+    private SalesTimeseriesService service() {
+        return new SalesTimeseriesService(repo, clock);
+    }
+
+    @Test
+    @DisplayName("record: บวกเข้า bucket นาทีปัจจุบัน / hold หมดเวลา → ไม่เขียน")
+    void record_writesCurrentMinuteBucket() {
+        SalesTimeseriesService service = service();
+
+        service.record(Delta.paid(4, 2, new BigDecimal("1000")));
+        service.record(Delta.expired(4, 3));
+
+        verify(repo).addToBucket(4, 60, LocalDateTime.of(2025, 3, 1, 10, 7), 0, 2, 0, new BigDecimal("1000"));
+        verifyNoMoreInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("getSeries: จัดลง step / ช่วงว่างได้ 0 / bucket ชั่วโมงทำให้ resolution หยาบขึ้น")
+    void getSeries_foldsIntoSteps() {
+        LocalDateTime from = LocalDateTime.of(2025, 3, 1, 9, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 3, 1, 9, 15);
+        when(repo.findEventTotals(1, from, to)).thenReturn(List.of(
+                new SalesBucketTotals(3600, from, 10L, 8L, 0L, new BigDecimal("800")),
+                new SalesBucketTotals(60, from.plusMinutes(1), 2L, 1L, 0L, new BigDecimal("100")),
+                new SalesBucketTotals(60, from.plusMinutes(11), 1L, 0L, 1L, BigDecimal.ZERO)));
+
+        SalesTimeseries series = service().getSeries(1, from, to, "5m");
+
+        assertThat(series.stepSeconds()).isEqualTo(300);
+        assertThat(series.resolutionSeconds()).isEqualTo(3600);
+        assertThat(series.points()).extracting(SalesTimeseries.Point::start)
+                .containsExactly(from, from.plusMinutes(5), from.plusMinutes(10));
+        assertThat(series.points()).extracting(SalesTimeseries.Point::created).containsExactly(12L, 0L, 1L);
+        assertThat(series.points().get(0).revenue()).isEqualByComparingTo("900");
+    }
+
+    @Test
+    @DisplayName("getSeries: ไม่ส่งช่วง → 1 ชม.ล่าสุด (ปัดขอบตาม step)")
+    void getSeries_defaultsToLastHour() {
+        SalesTimeseries series = service().getSeries(1, null, null, "1m");
+
+        assertThat(series.points()).hasSize(61);
+        verify(repo).findEventTotals(1, LocalDateTime.of(2025, 3, 1, 9, 7), LocalDateTime.of(2025, 3, 1, 10, 8));
+    }
+
+    @Test
+    @DisplayName("getSeries: step ผิด / from >= to / จุดเกินเพดาน → IllegalArgumentException")
+    void getSeries_rejectsInvalidArguments() {
+        SalesTimeseriesService service = service();
+        LocalDateTime from = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+        assertThatThrownBy(() -> service.getSeries(1, from, from.plusHours(1), "7m"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getSeries(1, from, from.plusHours(1), "10s"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getSeries(1, from, from, "1m"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getSeries(1, from, from.plusDays(2), "1m"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    @DisplayName("compactOldest: รวม bucket นาทีของชั่วโมงที่เก่าที่สุดเป็นชั่วโมงละแถวต่อโซน แล้วลบของเดิม")
+    void compactOldest_rollsMinutesIntoHour() {
+        LocalDateTime cutoff = LocalDateTime.of(2025, 2, 27, 10, 0);
+        LocalDateTime hour = LocalDateTime.of(2025, 2, 27, 8, 0);
+        when(repo.findOldestBucketStart(60, cutoff)).thenReturn(hour.plusMinutes(13));
+        when(repo.findRange(60, hour, hour.plusHours(1))).thenReturn(List.of(
+                bucket(5, 3, 1, "100"), bucket(2, 1, 0, "50"), bucket(5, 2, 2, "200")));
+
+        assertThat(service().compactOldest(60, 3600, cutoff)).isTrue();
+
+        verify(repo).addToBucket(2, 3600, hour, 1, 0, 0, new BigDecimal("50"));
+        verify(repo).addToBucket(5, 3600, hour, 5, 3, 0, new BigDecimal("300"));
+        verify(repo).deleteRange(60, hour, hour.plusHours(1));
+    }
+
+    @Test
+    @DisplayName("compactOldest: ช่วงยังไม่พ้น cutoff ทั้งช่วง → ไม่ทำอะไร")
+    void compactOldest_skipsPartialWindow() {
+        LocalDateTime cutoff = LocalDateTime.of(2025, 2, 27, 10, 30);
+        when(repo.findOldestBucketStart(60, cutoff)).thenReturn(LocalDateTime.of(2025, 2, 27, 10, 5));
+
+        assertThat(service().compactOldest(60, 3600, cutoff)).isFalse();
+
+        verify(repo, never()).addToBucket(anyInt(), anyInt(), any(), anyLong(), anyLong(), anyLong(), any());
+        verify(repo, never()).deleteRange(anyInt(), any(), any());
+    }
+
+    private static SalesBucket bucket(int zoneId, long created, long paid, String revenue) {
+        SalesBucket b = new SalesBucket();
+        b.setZoneId(zoneId);
+        b.setCreated(created);
+        b.setPaid(paid);
+        b.setRevenue(new BigDecimal(revenue));
+        return b;
+    }
+}
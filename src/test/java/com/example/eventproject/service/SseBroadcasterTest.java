@@ -0,0 +1,118 @@
+package com.example.eventproject.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SseBroadcasterTest {
+
+    /** executor ที่เก็บงานไว้ก่อน → test เลือกได้ว่าจะให้ส่งเมื่อไร */
+    static final class ManualExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        boolean full;
+
+        @Override
+        public void execute(Runnable task) {
+            if (full) throw new RejectedExecutionException("full");
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) tasks.poll().run();
+        }
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> frame(String data) {
+        return SseEmitter.event().data(data).build();
+    }
+
+    @Test
+    @DisplayName("publish ไม่ส่งบน thread ผู้เรียก — เข้าคิวงานเดียวต่อผู้ฟังแล้วส่งตามลำดับ")
+    void publish_queuesOneTaskPerSubscriber() {
+        ManualExecutor executor = new ManualExecutor();
+        SseBroadcaster.Topic<Integer> topic = new SseBroadcaster(executor, 16).topic(15_000);
+
+        topic.open(1, 60_000, frame("snapshot"));
+        topic.open(1, 60_000, frame("snapshot"));
+        topic.publish(1, frame("d1"), 0);
+        topic.publish(1, frame("d2"), 0);
+
+        assertThat(executor.tasks).hasSize(2);
+        executor.runAll();
+        assertThat(topic.subscriberCount(1)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("ผู้ฟังที่ frame ค้างเกิน max-pending-frames → ถูกตัดทิ้ง ผู้ฟังอื่นไม่กระทบ")
+    void slowSubscriber_isDropped() {
+        ManualExecutor executor = new ManualExecutor();
+        SseBroadcaster.Topic<Integer> topic = new SseBroadcaster(executor, 3).topic(15_000);
+        topic.open(1, 60_000, frame("snapshot"));
+
+        topic.publish(1, frame("d1"), 0);
+        topic.publish(1, frame("d2"), 0);
+        assertThat(topic.subscriberCount(1)).isEqualTo(1);
+
+        topic.publish(1, frame("d3"), 0);
+        assertThat(topic.subscriberCount(1)).isZero();
+
+        topic.open(2, 60_000, frame("snapshot"));
+        executor.runAll();
+        assertThat(topic.subscriberCount(2)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("pool ส่งเต็ม → ตัดผู้ฟังทิ้งแทนการรอ")
+    void fullPool_dropsSubscriber() {
+        ManualExecutor executor = new ManualExecutor();
+        SseBroadcaster.Topic<Integer> topic = new SseBroadcaster(executor, 16).topic(15_000);
+        executor.full = true;
+
+        topic.open(1, 60_000, frame("snapshot"));
+
+        assertThat(topic.subscriberCount(1)).isZero();
+        assertThat(topic.hasSubscribers(1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("ผู้ฟังคนสุดท้ายปิดสาย → ลบ key ทิ้ง (key จาก client ไม่ค้างใน map)")
+    void lastSubscriberClosing_removesKey() {
+        ManualExecutor executor = new ManualExecutor();
+        SseBroadcaster.Topic<Integer> topic = new SseBroadcaster(executor, 2).topic(15_000);
+        topic.open(1, 60_000, frame("snapshot"));
+        topic.open(1, 60_000, frame("snapshot"));
+        topic.open(2, 60_000, frame("snapshot"));
+        assertThat(topic.size()).isEqualTo(2);
+
+        // key 1: frame ค้างเกิน max → ผู้ฟังทั้งสองถูกตัด
+        topic.publish(1, frame("d1"), 0);
+        topic.publish(1, frame("d2"), 0);
+
+        assertThat(topic.hasSubscribers(1)).isFalse();
+        assertThat(topic.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("heartbeat: เฉพาะ key ที่ไม่มี frame นาน heartbeat-ms")
+    void heartbeat_onlyIdleKeys() {
+        ManualExecutor executor = new ManualExecutor();
+        SseBroadcaster.Topic<Integer> topic = new SseBroadcaster(executor, 16).topic(15_000);
+        topic.open(1, 60_000, frame("snapshot"));
+        topic.open(2, 60_000, frame("snapshot"));
+        executor.runAll();
+
+        topic.publish(1, frame("d1"), 20_000);
+        executor.runAll();
+        topic.heartbeat(30_000);
+
+        assertThat(executor.tasks).hasSize(1); // key 2 เท่านั้น
+    }
+}
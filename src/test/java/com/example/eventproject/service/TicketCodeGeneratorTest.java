@@ -0,0 +1,116 @@
+package com.example.eventproject.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TicketCodeGeneratorTest {
+
+    private static final long T0 = TicketCodeGenerator.EPOCH_MS + 1_000_000L;
+
+    @Test
+    @DisplayName("prefixOf: เอาเฉพาะ A-Z ตัวพิมพ์ใหญ่ ไม่เกิน 5 ตัว / ไม่มีตัวอักษรอังกฤษ → TKT")
+    void prefixOf() {
+        assertThat(TicketCodeGenerator.prefixOf("Rock & Roll 2025")).isEqualTo("ROCKR");
+        assertThat(TicketCodeGenerator.prefixOf("Jazz")).isEqualTo("JAZZ");
+        assertThat(TicketCodeGenerator.prefixOf("คอนเสิร์ต 2025")).isEqualTo("TKT");
+        assertThat(TicketCodeGenerator.prefixOf(null)).isEqualTo("TKT");
+    }
+
+    @Test
+    @DisplayName("next: รูปแบบ PREFIX- + Crockford base32 21 ตัว (id 13 + สุ่ม 8)")
+    void next_format() {
+        TicketCodeGenerator gen = new TicketCodeGenerator(7, () -> T0);
+        assertThat(gen.next("JAZZ")).matches("JAZZ-[0-9A-HJKMNP-TV-Z]{21}");
+    }
+
+    @Test
+    @DisplayName("node-id ซ้ำกัน ms เดียวกัน → ส่วน id เหมือนกันแต่ส่วนสุ่มต่างกัน (เดารหัสข้างเคียงไม่ได้)")
+    void sameNodeSameMillisecond_differsByRandomPart() {
+        TicketCodeGenerator a = new TicketCodeGenerator(4, () -> T0);
+        TicketCodeGenerator b = new TicketCodeGenerator(4, () -> T0);
+        String codeA = a.next("A");
+        String codeB = b.next("A");
+
+        assertThat(codeA.substring(0, 2 + 13)).isEqualTo(codeB.substring(0, 2 + 13));
+        assertThat(codeA).isNotEqualTo(codeB);
+    }
+
+    @Test
+    @DisplayName("ไม่ตั้ง node-id → สุ่ม node id ให้ (start ได้ทุก profile)")
+    void missingNodeId_fallsBackToRandom() {
+        TicketCodeGenerator gen = new TicketCodeGenerator(-1);
+        assertThat(gen.getNodeId()).isBetween(0, TicketCodeGenerator.MAX_NODE);
+        assertThat(gen.next("EV")).startsWith("EV-");
+    }
+
+    @Test
+    @DisplayName("ms เดียวกันเกิน 4096 ใบ → ทดไป ms ถัดไป ไม่ซ้ำและเรียงเพิ่มขึ้น")
+    void sequenceOverflow_carriesIntoNextMillisecond() {
+        TicketCodeGenerator gen = new TicketCodeGenerator(3, () -> T0);
+        long prev = -1;
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            long id = gen.nextId();
+            assertThat(id).isGreaterThan(prev);
+            prev = id;
+            assertThat(codes.add(gen.next("A"))).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("นาฬิกาถอยหลัง → ยังออก id เพิ่มขึ้นต่อจากค่าเดิม")
+    void clockMovesBackwards_staysMonotonic() {
+        AtomicLong now = new AtomicLong(T0);
+        TicketCodeGenerator gen = new TicketCodeGenerator(3, now::get);
+        long first = gen.nextId();
+        now.set(T0 - 5_000);
+        long second = gen.nextId();
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    @DisplayName("node ต่างกัน เวลาเดียวกัน → รหัสไม่ชนกัน")
+    void differentNodes_doNotCollide() {
+        TicketCodeGenerator a = new TicketCodeGenerator(1, () -> T0);
+        TicketCodeGenerator b = new TicketCodeGenerator(2, () -> T0);
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            codes.add(a.next("X"));
+            codes.add(b.next("X"));
+        }
+        assertThat(codes).hasSize(2_000);
+    }
+
+    @Test
+    @DisplayName("หลายเธรดพร้อมกัน → ไม่มีรหัสซ้ำ")
+    void concurrent_unique() throws Exception {
+        TicketCodeGenerator gen = new TicketCodeGenerator(5, System::currentTimeMillis);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 20_000; i++) codes.add(gen.next("CONC"));
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(codes).hasSize(160_000);
+    }
+
+    @Test
+    @DisplayName("node-id เกิน 1023 → IllegalArgumentException")
+    void nodeIdOutOfRange() {
+        assertThatThrownBy(() -> new TicketCodeGenerator(1024, System::currentTimeMillis))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.dto.ZoneAvailabilityDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ZoneAvailabilityCacheTest {
+
+    static final long MAX_STALENESS_MS = 2_000;
+
+    @Mock
+    EventZoneService eventZoneService;
+
+    MutableClock clock;
+    ZoneAvailabilityCache cache;
+
+    static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2025-06-01T10:00:00Z");
+
+        void advanceMillis(long ms) { now = now.plusMillis(ms); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        cache = new ZoneAvailabilityCache(eventZoneService, clock, new SseBroadcaster(Runnable::run, 16),
+                MAX_STALENESS_MS, 60_000, 15_000, 100);
+    }
+
+    private static ZoneAvailabilityDto zone(int id, int capacity, long booked) {
+        return new ZoneAvailabilityDto(id, "Z" + id, capacity, booked, capacity - booked, new BigDecimal("100.00"));
+    }
+
+    @Test
+    @DisplayName("get: โหลดครั้งแรกครั้งเดียว แล้วอ่านจาก memory จนกว่าจะเก่าเกิน max-staleness")
+    void get_loadsOnceWithinStaleness() {
+        when(eventZoneService.getAvailabilityBySession(5)).thenReturn(List.of(zone(1, 10, 2)));
+
+        var first = cache.get(5);
+        clock.advanceMillis(MAX_STALENESS_MS - 1);
+        var second = cache.get(5);
+
+        assertThat(second).isSameAs(first);
+        verify(eventZoneService, times(1)).getAvailabilityBySession(5);
+
+        clock.advanceMillis(1);
+        cache.get(5);
+        verify(eventZoneService, times(2)).getAvailabilityBySession(5);
+    }
+
+    @Test
+    @DisplayName("onInventoryChanged: ปรับ booked/available ของโซนทันที และ ETag เปลี่ยนตาม")
+    void inventoryChange_appliedIncrementally() {
+        when(eventZoneService.getAvailabilityBySession(5)).thenReturn(List.of(zone(1, 10, 2), zone(2, 20, 0)));
+        var before = cache.get(5);
+
+        cache.onInventoryChanged(new ZoneInventoryChangedEvent(Map.of(1, 3)));
+        var afterBook = cache.get(5);
+
+        assertThat(afterBook.zones().get(0).booked()).isEqualTo(5L);
+        assertThat(afterBook.zones().get(0).available()).isEqualTo(5L);
+        assertThat(afterBook.zones().get(1)).isEqualTo(before.zones().get(1));
+        assertThat(afterBook.etag()).isNotEqualTo(before.etag());
+
+        cache.onInventoryChanged(new ZoneInventoryChangedEvent(Map.of(1, -3)));
+        assertThat(cache.get(5).etag()).isEqualTo(before.etag());
+        verify(eventZoneService, times(1)).getAvailabilityBySession(5);
+    }
+
+    @Test
+    @DisplayName("onInventoryChanged: โซนของ session ที่ยังไม่ถูกโหลด → ไม่ทำอะไร")
+    void inventoryChange_unknownZoneIgnored() {
+        cache.onInventoryChanged(new ZoneInventoryChangedEvent(Map.of(99, 1)));
+
+        verifyNoInteractions(eventZoneService);
+    }
+
+    @Test
+    @DisplayName("ETag: เนื้อหาเท่ากัน → ETag เท่ากันแม้โหลดใหม่")
+    void etag_isContentBased() {
+        when(eventZoneService.getAvailabilityBySession(5))
+                .thenReturn(List.of(zone(1, 10, 2)))
+                .thenReturn(List.of(zone(1, 10, 2)))
+                .thenReturn(List.of(zone(1, 10, 3)));
+
+        String first = cache.get(5).etag();
+        clock.advanceMillis(MAX_STALENESS_MS);
+        String same = cache.get(5).etag();
+        clock.advanceMillis(MAX_STALENESS_MS);
+        String changed = cache.get(5).etag();
+
+        assertThat(same).isEqualTo(first);
+        assertThat(changed).isNotEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("changedSince: คืนเฉพาะโซนที่ต่างจากฉบับก่อน")
+    void snapshot_changedSince() {
+        var before = ZoneAvailabilityCache.Snapshot.of(5, List.of(zone(1, 10, 2), zone(2, 20, 0)), 0);
+        var after = before.apply(Map.of(2, 4));
+
+        assertThat(after.changedSince(before)).containsExactly(zone(2, 20, 4));
+        assertThat(after.changedSince(after)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("get: session ที่ไม่มีโซน (id ปลอมจาก client) → ไม่ cache ผลว่าง / subscribe ไม่เปิดสาย")
+    void get_emptySession_notCached() {
+        when(eventZoneService.getAvailabilityBySession(404)).thenReturn(List.of());
+
+        assertThat(cache.get(404).zones()).isEmpty();
+        assertThat(cache.get(404).zones()).isEmpty();
+        assertThatThrownBy(() -> cache.subscribe(404)).isInstanceOf(IllegalArgumentException.class);
+
+        verify(eventZoneService, times(3)).getAvailabilityBySession(404);
+        assertThat(cache.channelCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("pushUpdates: ผู้ฟังออกหมดแล้ว → ลบ channel ของ session")
+    void pushUpdates_dropsChannelWithoutSubscribers() {
+        when(eventZoneService.getAvailabilityBySession(5)).thenReturn(List.of(zone(1, 10, 2)));
+        cache.subscribe(5).complete();
+        clock.advanceMillis(15_000);
+
+        cache.pushUpdates(); // heartbeat ส่งไม่ได้ → ตัดผู้ฟังที่หลุด
+        cache.pushUpdates();
+
+        assertThat(cache.subscriberCount(5)).isZero();
+        assertThat(cache.channelCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("subscribe: ลงทะเบียนผู้ฟัง และ pushUpdates ไม่โหลดซ้ำถ้ายังไม่เก่า")
+    void subscribe_registersEmitter() {
+        when(eventZoneService.getAvailabilityBySession(5)).thenReturn(List.of(zone(1, 10, 2)));
+
+        cache.subscribe(5);
+        cache.onInventoryChanged(new ZoneInventoryChangedEvent(Map.of(1, 1)));
+        cache.pushUpdates();
+
+        assertThat(cache.subscriberCount(5)).isEqualTo(1);
+        verify(eventZoneService, times(1)).getAvailabilityBySession(5);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.model.EventZone;
+import com.example.eventproject.model.Registration;
+import com.example.eventproject.model.ZoneInventory;
+import com.example.eventproject.repository.RegistrationRepository;
+import com.example.eventproject.repository.ZoneInventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ZoneInventoryServiceTest {
+
+    @Mock
+    ZoneInventoryRepository inventoryRepository;
+    @Mock
+    RegistrationRepository registrationRepository;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    ZoneInventoryService service;
+
+    @BeforeEach
+    void setUp() {
+        // hint อายุยาวพอให้ test ไม่ flaky
+        service = new ZoneInventoryService(inventoryRepository, registrationRepository, eventPublisher, 8, 60_000);
+    }
+
+    private EventZone zone(int id, int capacity) {
+        EventZone z = new EventZone();
+        z.setId(id);
+        z.setName("Z" + id);
+        z.setCapacity(capacity);
+        z.setPrice(new BigDecimal("100.00"));
+        return z;
+    }
+
+    private ZoneInventory inventory(int zoneId, int capacity, int held, int sold) {
+        ZoneInventory inv = new ZoneInventory();
+        inv.setZoneId(zoneId);
+        inv.setCapacity(capacity);
+        inv.setHeld(held);
+        inv.setSold(sold);
+        return inv;
+    }
+
+    @Test
+    @DisplayName("reserve: conditional UPDATE สำเร็จ → ไม่ seed และไม่ COUNT registrations")
+    void reserve_success() {
+        when(inventoryRepository.tryReserve(1, 2)).thenReturn(1);
+
+        service.reserve(zone(1, 10), 2);
+
+        verify(inventoryRepository).tryReserve(1, 2);
+        verify(inventoryRepository, never()).insertIfAbsent(anyInt(), anyInt(), anyInt(), anyInt());
+        verifyNoInteractions(registrationRepository);
+    }
+
+    @Test
+    @DisplayName("reserve: ยังไม่มีแถว inventory → seed จากยอดจองจริงแล้วลองใหม่")
+    void reserve_seedsMissingRow() {
+        when(inventoryRepository.tryReserve(2, 1)).thenReturn(0, 1);
+        when(inventoryRepository.existsById(2)).thenReturn(false);
+        when(registrationRepository.countByZone_IdAndPaymentStatus(2, Registration.PayStatus.UNPAID)).thenReturn(3L);
+        when(registrationRepository.countByZone_IdAndPaymentStatus(2, Registration.PayStatus.PAID)).thenReturn(4L);
+
+        service.reserve(zone(2, 10), 1);
+
+        verify(inventoryRepository).insertIfAbsent(2, 10, 3, 4);
+        verify(inventoryRepository, times(2)).tryReserve(2, 1);
+    }
+
+    @Test
+    @DisplayName("reserve: ที่นั่งไม่พอ → IllegalStateException และคำขอถัดไปถูกตัดโดยไม่แตะ DB")
+    void reserve_fullyBooked_usesSoldOutHint() {
+        EventZone z = zone(3, 6);
+        when(inventoryRepository.tryReserve(3, 5)).thenReturn(0);
+        when(inventoryRepository.existsById(3)).thenReturn(true);
+        when(inventoryRepository.findById(3)).thenReturn(Optional.of(inventory(3, 6, 3, 2)));
+
+        assertThatThrownBy(() -> service.reserve(z, 5))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Zone Z3 is fully booked");
+
+        // เหลือ 1 ที่ → ขอ 2 ถูกตัดทันที
+        assertThatThrownBy(() -> service.reserve(z, 2))
+                .isInstanceOf(IllegalStateException.class);
+        verify(inventoryRepository, never()).tryReserve(3, 2);
+
+        // ขอ 1 ยังมีสิทธิ์ → ต้องไปถาม DB
+        when(inventoryRepository.tryReserve(3, 1)).thenReturn(1);
+        service.reserve(z, 1);
+        verify(inventoryRepository).tryReserve(3, 1);
+    }
+
+    @Test
+    @DisplayName("release: คืนที่นั่งแล้วล้าง sold-out hint ของโซนนั้น")
+    void release_clearsHint() {
+        EventZone z = zone(4, 2);
+        when(inventoryRepository.tryReserve(4, 1)).thenReturn(0, 1);
+        when(inventoryRepository.existsById(4)).thenReturn(true);
+        when(inventoryRepository.findById(4)).thenReturn(Optional.of(inventory(4, 2, 2, 0)));
+        when(inventoryRepository.release(4, 1)).thenReturn(1);
+
+        assertThatThrownBy(() -> service.reserve(z, 1)).isInstanceOf(IllegalStateException.class);
+
+        service.release(4, 1);
+        service.reserve(z, 1);
+
+        verify(inventoryRepository, times(2)).tryReserve(4, 1);
+    }
+
+    @Test
+    @DisplayName("commit: ย้าย held → sold ด้วย UPDATE เดียว")
+    void commit_movesHeldToSold() {
+        when(inventoryRepository.commit(5, 3)).thenReturn(1);
+
+        service.commit(zone(5, 10), 3);
+
+        verify(inventoryRepository).commit(5, 3);
+        verify(inventoryRepository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("reserveAll: รวมโซนซ้ำ และ UPDATE เรียงตาม zoneId ไม่ว่าลำดับในตะกร้าจะเป็นอย่างไร")
+    void reserveAll_updatesInZoneIdOrder() {
+        when(inventoryRepository.tryReserve(anyInt(), anyInt())).thenReturn(1);
+
+        service.reserveAll(List.of(
+                new ZoneInventoryService.Reservation(zone(9, 10), 1),
+                new ZoneInventoryService.Reservation(zone(3, 10), 2),
+                new ZoneInventoryService.Reservation(zone(9, 10), 2)));
+
+        var inOrder = inOrder(inventoryRepository);
+        inOrder.verify(inventoryRepository).tryReserve(3, 2);
+        inOrder.verify(inventoryRepository).tryReserve(9, 3);
+        verifyNoMoreInteractions(inventoryRepository);
+    }
+
+    @Test
+    @DisplayName("reserveAll: โซนหลังไม่พอ → IllegalStateException (ให้ transaction rollback ทั้งตะกร้า)")
+    void reserveAll_failsWholeCartWhenOneZoneIsFull() {
+        when(inventoryRepository.tryReserve(1, 1)).thenReturn(1);
+        when(inventoryRepository.tryReserve(2, 5)).thenReturn(0);
+        when(inventoryRepository.existsById(2)).thenReturn(true);
+        when(inventoryRepository.findById(2)).thenReturn(Optional.of(inventory(2, 10, 6, 0)));
+
+        assertThatThrownBy(() -> service.reserveAll(List.of(
+                new ZoneInventoryService.Reservation(zone(2, 10), 5),
+                new ZoneInventoryService.Reservation(zone(1, 10), 1))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Z2");
+
+        verify(inventoryRepository).tryReserve(1, 1);
+    }
+
+    @Test
+    @DisplayName("releaseAll: คืนทุกโซนเรียงตาม zoneId")
+    void releaseAll_releasesEachZone() {
+        when(inventoryRepository.release(anyInt(), anyInt())).thenReturn(1);
+
+        service.releaseAll(Map.of(7, 1, 2, 4));
+
+        var inOrder = inOrder(inventoryRepository);
+        inOrder.verify(inventoryRepository).release(2, 4);
+        inOrder.verify(inventoryRepository).release(7, 1);
+    }
+
+    @Test
+    @DisplayName("reserveEach: order ที่ไม่พอคืนเฉพาะโซนที่ตัดไปของตัวเอง ไม่โยน exception และ order อื่นยังผ่าน")
+    void reserveEach_compensatesOnlyFailedOrder() {
+        when(inventoryRepository.tryReserve(1, 1)).thenReturn(1);
+        when(inventoryRepository.tryReserve(2, 5)).thenReturn(0);
+        when(inventoryRepository.existsById(2)).thenReturn(true);
+        when(inventoryRepository.findById(2)).thenReturn(Optional.of(inventory(2, 10, 7, 0)));
+        when(inventoryRepository.tryReserve(3, 2)).thenReturn(1);
+
+        boolean[] reserved = service.reserveEach(List.of(
+                List.of(new ZoneInventoryService.Reservation(zone(1, 10), 1),
+                        new ZoneInventoryService.Reservation(zone(2, 10), 5)),
+                List.of(new ZoneInventoryService.Reservation(zone(3, 10), 2))));
+
+        assertThat(reserved).containsExactly(false, true);
+        verify(inventoryRepository).release(1, 1);
+        verify(inventoryRepository, never()).release(eq(3), anyInt());
+    }
+
+    @Test
+    @DisplayName("reserveAll / releaseAll: publish ยอดจองที่เปลี่ยนต่อโซน (ให้ cache หน้าเลือกโซนตามทัน)")
+    void publishesInventoryChanges() {
+        when(inventoryRepository.tryReserve(anyInt(), anyInt())).thenReturn(1);
+        when(inventoryRepository.release(1, 2)).thenReturn(1);
+
+        service.reserveAll(List.of(
+                new ZoneInventoryService.Reservation(zone(1, 10), 1),
+                new ZoneInventoryService.Reservation(zone(1, 10), 1),
+                new ZoneInventoryService.Reservation(zone(2, 10), 3)));
+        service.releaseAll(Map.of(1, 2));
+
+        verify(eventPublisher).publishEvent(new ZoneInventoryChangedEvent(Map.of(1, 2, 2, 3)));
+        verify(eventPublisher).publishEvent(new ZoneInventoryChangedEvent(Map.of(1, -2)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.eventproject.service;
+
+import com.example.eventproject.model.EventZone;
+import com.example.eventproject.model.ZoneTemplate;
+import com.example.eventproject.repository.ZoneTemplateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ZoneTemplateRegistryTest {
+
+    @Mock
+    ZoneTemplateRepository templateRepository;
+
+    ZoneTemplateRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ZoneTemplateRegistry(templateRepository,
+                Clock.fixed(Instant.parse("2025-06-01T10:00:00Z"), ZoneOffset.UTC), 300_000);
+    }
+
+    private static ZoneTemplate template(int id, String name) {
+        ZoneTemplate t = new ZoneTemplate();
+        t.setId(id);
+        t.setName(name);
+        return t;
+    }
+
+    private static EventZone zone(String name) {
+        EventZone z = new EventZone();
+        z.setName(name);
+        return z;
+    }
+
+    @Test
+    @DisplayName("templateIdsOf: map ชื่อ → id ไม่ซ้ำ ตามลำดับโซน และโหลด template ครั้งเดียว")
+    void templateIdsOf_usesIndexLoadedOnce() {
+        when(templateRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                template(1, "VIP"), template(2, "GOLD"), template(3, "VIP")));
+
+        List<Integer> first = registry.templateIdsOf(List.of(zone("GOLD"), zone("VIP"), zone("CUSTOM"), zone("GOLD")));
+        List<Integer> second = registry.templateIdsOf(List.of(zone("VIP")));
+
+        assertThat(first).containsExactly(2, 1);   // ชื่อซ้ำ → id น้อยสุด
+        assertThat(second).containsExactly(1);
+        assertThat(registry.countMatching(List.of(zone("VIP"), zone("X"), zone(null)))).isEqualTo(1);
+        verify(templateRepository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    @DisplayName("onTemplatesChanged: สร้าง index ใหม่แล้วสลับทั้งก้อน")
+    void templatesChanged_swapsIndex() {
+        when(templateRepository.findAll(any(Sort.class)))
+                .thenReturn(List.of(template(1, "VIP")))
+                .thenReturn(List.of(template(1, "VIP"), template(4, "SILVER")));
+        assertThat(registry.idOf("SILVER")).isNull();
+
+        registry.onTemplatesChanged(new ZoneTemplatesChangedEvent());
+
+        assertThat(registry.idOf("SILVER")).isEqualTo(4);
+        verify(templateRepository, times(2)).findAll(any(Sort.class));
+    }
+}